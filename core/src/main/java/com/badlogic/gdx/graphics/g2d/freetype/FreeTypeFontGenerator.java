@@ -17,6 +17,9 @@
 package com.badlogic.gdx.graphics.g2d.freetype;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
@@ -46,6 +49,8 @@ import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
 import com.badlogic.gdx.utils.Null;
 
 /** Generates {@link BitmapFont} and {@link BitmapFontData} instances from TrueType, OTF, and other FreeType supported fonts.
@@ -76,11 +81,18 @@ public class FreeTypeFontGenerator implements Disposable {
      * @see #setMaxTextureSize(int) */
     static private int maxTextureSize = 1024;
     
+    /** The default minimum number of characters before generateData renders glyphs on multiple threads. */
+    static public final int PARALLEL_THRESHOLD = 256;
+    
     final Library library;
     final Face face;
     final String name;
+    final FileHandle fontFile;
+    final int faceIndex;
     boolean bitmapped = false;
     private int pixelWidth, pixelHeight;
+    private int workerCount = 1;
+    private int parallelThreshold = PARALLEL_THRESHOLD;
     
     /** {@link #FreeTypeFontGenerator(FileHandle, int)} */
     public FreeTypeFontGenerator (FileHandle fontFile) {
@@ -92,6 +104,8 @@ public class FreeTypeFontGenerator implements Disposable {
      * {@link GdxRuntimeException} if loading did not succeed. */
     public FreeTypeFontGenerator (FileHandle fontFile, int faceIndex) {
         name = fontFile.nameWithoutExtension();
+        this.fontFile = fontFile;
+        this.faceIndex = faceIndex;
         library = FreeType.initFreeType();
         face = library.newFace(fontFile, faceIndex);
         if (checkForBitmapFont()) return;
@@ -374,13 +388,7 @@ public class FreeTypeFontGenerator implements Disposable {
         
         if (incremental) data.glyphs = new Array(charactersLength + 32);
         
-        Stroker stroker = null;
-        if (parameter.borderWidth > 0) {
-            stroker = library.createStroker();
-            stroker.set((int)(parameter.borderWidth * 64f),
-                    parameter.borderStraight ? FreeType.FT_STROKER_LINECAP_BUTT : FreeType.FT_STROKER_LINECAP_ROUND,
-                    parameter.borderStraight ? FreeType.FT_STROKER_LINEJOIN_MITER_FIXED : FreeType.FT_STROKER_LINEJOIN_ROUND, 0);
-        }
+        Stroker stroker = createStroker(parameter);
         
         // Create glyphs largest height first for best packing.
         int[] heights = new int[charactersLength];
@@ -399,31 +407,46 @@ public class FreeTypeFontGenerator implements Disposable {
                 }
             }
         }
-        int heightsCount = heights.length;
-        while (heightsCount > 0) {
-            int best = 0, maxHeight = heights[0];
-            for (int i = 1; i < heightsCount; i++) {
-                int height = heights[i];
-                if (height > maxHeight) {
-                    maxHeight = height;
-                    best = i;
-                }
+        // Sort tallest first, characters of the same height keep their order.
+        long[] keys = new long[charactersLength];
+        for (int i = 0; i < charactersLength; i++)
+            keys[i] = ((long)Integer.MAX_VALUE - heights[i]) << 32 | i;
+        Arrays.sort(keys);
+        char[] sorted = new char[charactersLength];
+        for (int i = 0; i < charactersLength; i++)
+            sorted[i] = characters[(int)keys[i]];
+        characters = sorted;
+        
+        if (!incremental && workerCount > 1 && charactersLength >= parallelThreshold) {
+            // Render on worker threads, then pack in the same order as the serial path.
+            char[] order = new char[charactersLength];
+            int orderCount = 0;
+            boolean[] seen = new boolean[65536];
+            if (data.missingGlyph != null) seen[0] = true;
+            for (char c : characters) {
+                if (seen[c]) continue;
+                seen[c] = true;
+                order[orderCount++] = c;
             }
             
-            char c = characters[best];
-            if (data.getGlyph(c) == null) {
-                Glyph glyph = createGlyph(c, data, parameter, stroker, baseLine, packer);
-                if (glyph != null) {
-                    data.setGlyph(c, glyph);
-                    if (incremental) data.glyphs.add(glyph);
+            Glyph[] glyphs = new Glyph[orderCount];
+            Pixmap[] pixmaps = new Pixmap[orderCount];
+            rasterizeGlyphs(order, orderCount, glyphs, pixmaps, parameter, baseLine);
+            for (int i = 0; i < orderCount; i++) {
+                if (pixmaps[i] == null) continue;
+                packGlyph(glyphs[i], pixmaps[i], data, parameter, packer);
+                data.setGlyph(order[i], glyphs[i]);
+            }
+        } else {
+            for (char c : characters) {
+                if (data.getGlyph(c) == null) {
+                    Glyph glyph = createGlyph(c, data, parameter, stroker, baseLine, packer);
+                    if (glyph != null) {
+                        data.setGlyph(c, glyph);
+                        if (incremental) data.glyphs.add(glyph);
+                    }
                 }
             }
-            
-            heightsCount--;
-            heights[best] = heights[heightsCount];
-            char tmpChar = characters[best];
-            characters[best] = characters[heightsCount];
-            characters[heightsCount] = tmpChar;
         }
         
         if (stroker != null && !incremental) stroker.dispose();
@@ -438,16 +461,45 @@ public class FreeTypeFontGenerator implements Disposable {
         // Generate kerning.
         parameter.kerning &= face.hasKerning();
         if (parameter.kerning) {
-            for (int i = 0; i < charactersLength; i++) {
+            int[] glyphIndices = new int[charactersLength];
+            for (int i = 0; i < charactersLength; i++)
+                glyphIndices[i] = face.getCharIndex(characters[i]);
+            
+            int[] pairs = readKerningPairs();
+            if (pairs != null) {
+                // Only query the pairs listed in the kern table, which are the only pairs FreeType kerns.
+                IntMap<IntArray> charactersByIndex = new IntMap<IntArray>();
+                for (int i = 0; i < charactersLength; i++) {
+                    if (glyphIndices[i] == 0 || data.getGlyph(characters[i]) == null) continue;
+                    IntArray indices = charactersByIndex.get(glyphIndices[i]);
+                    if (indices == null) charactersByIndex.put(glyphIndices[i], indices = new IntArray(1));
+                    indices.add(i);
+                }
+                
+                for (int p = 0; p < pairs.length; p += 2) {
+                    IntArray firsts = charactersByIndex.get(pairs[p]);
+                    if (firsts == null) continue;
+                    IntArray seconds = charactersByIndex.get(pairs[p + 1]);
+                    if (seconds == null) continue;
+                    
+                    int kerning = face.getKerning(pairs[p], pairs[p + 1], 0); // FT_KERNING_DEFAULT (scaled then rounded).
+                    if (kerning == 0) continue;
+                    for (int i = 0; i < firsts.size; i++) {
+                        Glyph first = data.getGlyph(characters[firsts.get(i)]);
+                        for (int ii = 0; ii < seconds.size; ii++)
+                            first.setKerning(characters[seconds.get(ii)], FreeType.toInt(kerning));
+                    }
+                }
+            } else for (int i = 0; i < charactersLength; i++) {
                 char firstChar = characters[i];
                 Glyph first = data.getGlyph(firstChar);
                 if (first == null) continue;
-                int firstIndex = face.getCharIndex(firstChar);
+                int firstIndex = glyphIndices[i];
                 for (int ii = i; ii < charactersLength; ii++) {
                     char secondChar = characters[ii];
                     Glyph second = data.getGlyph(secondChar);
                     if (second == null) continue;
-                    int secondIndex = face.getCharIndex(secondChar);
+                    int secondIndex = glyphIndices[ii];
                     
                     int kerning = face.getKerning(firstIndex, secondIndex, 0); // FT_KERNING_DEFAULT (scaled then rounded).
                     if (kerning != 0) first.setKerning(secondChar, FreeType.toInt(kerning));
@@ -480,7 +532,170 @@ public class FreeTypeFontGenerator implements Disposable {
     /** @return null if glyph was not found. */
     protected @Null Glyph createGlyph (char c, FreeTypeBitmapFontData data, FreeTypeFontParameter parameter, Stroker stroker,
                                        float baseLine, PixmapPacker packer) {
+        Glyph glyph = new Glyph();
+        Pixmap mainPixmap = rasterizeGlyph(c, glyph, parameter, stroker, baseLine);
+        if (mainPixmap == null) return null;
+        packGlyph(glyph, mainPixmap, data, parameter, packer);
+        return glyph;
+    }
+    
+    /** Packs the rendered glyph and disposes the pixmap. */
+    private void packGlyph (Glyph glyph, Pixmap mainPixmap, FreeTypeBitmapFontData data, FreeTypeFontParameter parameter,
+                            PixmapPacker packer) {
+        String pixmapName = Integer.toString(glyph.hashCode());
+        PixmapPacker.PixmapPackerRectangle rect = packer.pack(pixmapName, mainPixmap);
+        glyph.page = packer.getPages().indexOf(packer.getPage(pixmapName), true);
+        glyph.srcX = (int)rect.getX();
+        glyph.srcY = (int)rect.getY();
+        
+        // If a page was added, create a new texture region for the incrementally added glyph.
+        if (parameter.incremental && data.regions != null && data.regions.size <= glyph.page)
+            packer.updateTextureRegions(data.regions, parameter.minFilter, parameter.magFilter, parameter.genMipMaps);
+        
+        mainPixmap.dispose();
+    }
+    
+    /** Reads the glyph index pairs of the horizontal format 0 subtables of the TrueType kern table, which are the subtables
+     * FreeType uses for {@link Face#getKerning(int, int, int)}.
+     * @return left and right glyph indices of each pair, or null if the font has no kern table that can be read. */
+    private @Null int[] readKerningPairs () {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(fontFile.readBytes());
+            int directory = 0;
+            if (buffer.getInt(0) == 0x74746366) { // 'ttcf'
+                if (faceIndex >= buffer.getInt(8)) return null;
+                directory = buffer.getInt(12 + faceIndex * 4);
+            }
+            
+            int kernOffset = -1;
+            int numTables = buffer.getShort(directory + 4) & 0xFFFF;
+            for (int i = 0; i < numTables; i++) {
+                int record = directory + 12 + i * 16;
+                if (buffer.getInt(record) == 0x6B65726E) { // 'kern'
+                    kernOffset = buffer.getInt(record + 8);
+                    break;
+                }
+            }
+            if (kernOffset == -1 || (buffer.getShort(kernOffset) & 0xFFFF) != 0) return null;
+            
+            IntArray pairs = new IntArray();
+            int subtableCount = buffer.getShort(kernOffset + 2) & 0xFFFF;
+            int subtable = kernOffset + 4;
+            for (int i = 0; i < subtableCount; i++) {
+                int length = buffer.getShort(subtable + 2) & 0xFFFF;
+                int coverage = buffer.getShort(subtable + 4) & 0xFFFF;
+                if ((coverage >> 8) == 0) {
+                    // The 16 bit length overflows in fonts with large tables, the pair count is reliable.
+                    int pairCount = buffer.getShort(subtable + 6) & 0xFFFF;
+                    length = Math.max(length, 14 + pairCount * 6);
+                    if ((coverage & ~8) == 0x0001) {
+                        int pair = subtable + 14;
+                        for (int ii = 0; ii < pairCount; ii++, pair += 6)
+                            pairs.add(buffer.getShort(pair) & 0xFFFF, buffer.getShort(pair + 2) & 0xFFFF);
+                    }
+                }
+                subtable += length;
+            }
+            return pairs.toArray();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+    
+    private @Null Stroker createStroker (FreeTypeFontParameter parameter) {
+        if (parameter.borderWidth <= 0) return null;
+        Stroker stroker = library.createStroker();
+        stroker.set((int)(parameter.borderWidth * 64f),
+                parameter.borderStraight ? FreeType.FT_STROKER_LINECAP_BUTT : FreeType.FT_STROKER_LINECAP_ROUND,
+                parameter.borderStraight ? FreeType.FT_STROKER_LINEJOIN_MITER_FIXED : FreeType.FT_STROKER_LINEJOIN_ROUND, 0);
+        return stroker;
+    }
+    
+    /** Renders the characters on {@link #getWorkerCount()} threads. FreeType faces and libraries can't be shared between
+     * threads, so every thread renders with its own generator created by {@link #newWorker()}. Pixmaps of missing glyphs are
+     * left null. */
+    private void rasterizeGlyphs (final char[] characters, final int count, final Glyph[] glyphs, final Pixmap[] pixmaps,
+                                  final FreeTypeFontParameter parameter, final float baseLine) {
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        int threadCount = Math.min(workerCount, count);
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            threads[t] = new Thread(new Runnable() {
+                public void run () {
+                    FreeTypeFontGenerator worker = null;
+                    Stroker stroker = null;
+                    try {
+                        worker = newWorker();
+                        worker.setPixelSizes(0, parameter.size);
+                        stroker = worker.createStroker(parameter);
+                        for (int i = next.getAndIncrement(); i < count && error.get() == null; i = next.getAndIncrement()) {
+                            Glyph glyph = new Glyph();
+                            pixmaps[i] = worker.rasterizeGlyph(characters[i], glyph, parameter, stroker, baseLine);
+                            glyphs[i] = glyph;
+                        }
+                    } catch (Throwable e) {
+                        error.compareAndSet(null, e);
+                    } finally {
+                        if (stroker != null) stroker.dispose();
+                        if (worker != null) worker.dispose();
+                    }
+                }
+            }, "FreeType Worker " + t);
+            threads[t].start();
+        }
+        
+        try {
+            for (Thread thread : threads)
+                thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error.compareAndSet(null, e);
+        }
         
+        if (error.get() != null) {
+            for (Pixmap pixmap : pixmaps)
+                if (pixmap != null) pixmap.dispose();
+            throw new GdxRuntimeException("Error rendering glyphs for font: " + name, error.get());
+        }
+    }
+    
+    /** Creates the generator used by a worker thread in parallel generation. Override to render the same way as this
+     * generator. */
+    protected FreeTypeFontGenerator newWorker () {
+        return new FreeTypeFontGenerator(fontFile, faceIndex);
+    }
+    
+    /** Sets the number of threads used to render glyphs by generateData. Parallel generation is only used for
+     * non-incremental fonts with at least {@link #getParallelThreshold()} characters. Glyphs are still packed on the calling
+     * thread in the same order as serial generation, so the result is identical. Default is 1. */
+    public void setWorkerCount (int workerCount) {
+        this.workerCount = Math.max(1, workerCount);
+    }
+    
+    public int getWorkerCount () {
+        return workerCount;
+    }
+    
+    /** Sets the minimum number of characters before glyphs are rendered on multiple threads. Lower it when rendering each
+     * glyph is expensive. Default is {@link #PARALLEL_THRESHOLD}. */
+    public void setParallelThreshold (int parallelThreshold) {
+        this.parallelThreshold = Math.max(1, parallelThreshold);
+    }
+    
+    public int getParallelThreshold () {
+        return parallelThreshold;
+    }
+    
+    /** Returns the FreeType face, expert usage only. The face must only be used on the thread that uses this generator. */
+    public Face getFace () {
+        return face;
+    }
+    
+    /** Renders the character and sets the id, size, offsets, and advance of the glyph. Override to reuse previously rendered
+     * glyphs. The caller packs and disposes the returned pixmap.
+     * @return null if glyph was not found. */
+    protected @Null Pixmap rasterizeGlyph (char c, Glyph glyph, FreeTypeFontParameter parameter, Stroker stroker, float baseLine) {
         boolean missing = face.getCharIndex(c) == 0 && c != 0;
         if (missing) return null;
         
@@ -572,7 +787,6 @@ public class FreeTypeFontGenerator implements Disposable {
         }
         
         GlyphMetrics metrics = slot.getMetrics();
-        Glyph glyph = new Glyph();
         glyph.id = c;
         glyph.width = mainPixmap.getWidth();
         glyph.height = mainPixmap.getHeight();
@@ -598,20 +812,9 @@ public class FreeTypeFontGenerator implements Disposable {
             }
         }
         
-        String pixmapName = Integer.toString(glyph.hashCode());
-        PixmapPacker.PixmapPackerRectangle rect = packer.pack(pixmapName, mainPixmap);
-        glyph.page = packer.getPages().indexOf(packer.getPage(pixmapName), true);
-        glyph.srcX = (int)rect.getX();
-        glyph.srcY = (int)rect.getY();
-        
-        // If a page was added, create a new texture region for the incrementally added glyph.
-        if (parameter.incremental && data.regions != null && data.regions.size <= glyph.page)
-            packer.updateTextureRegions(data.regions, parameter.minFilter, parameter.magFilter, parameter.genMipMaps);
-        
-        mainPixmap.dispose();
         mainGlyph.dispose();
         
-        return glyph;
+        return mainPixmap;
     }
     
     /** check the font glyph exists for single UTF-32 code point */
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonWriter;
+
+import java.io.StringWriter;
+
+import static com.ray3k.skincomposer.Main.*;
+
+/**
+ * Measures the peak native pixmap memory and the time of unpacking a large atlas when a skin is imported. The previous
+ * implementation, which decoded the page again for every region, copied regions with getPixel, and never disposed
+ * its pixmaps, runs first. Its pixmaps are counted as live until it finishes, which is how long they stayed allocated
+ * when they leaked, and are disposed afterwards. Then {@link com.ray3k.skincomposer.data.AtlasData#readAtlas(FileHandle)}
+ * unpacks the same atlas into a cleared project. Both figures are written to a report next to the atlas.
+ * <p>
+ * The benchmark clears the current project, so it should only be run from the command line.
+ */
+public class AtlasUnpackBenchmark {
+    public static final String REPORT_SUFFIX = "-unpack-report.json";
+    
+    private long previousNanos;
+    private long previousPeakBytes;
+    private long pooledNanos;
+    private long pooledPeakBytes;
+    private int regionCount;
+    private String error;
+    
+    /**
+     * Unpacks the atlas both ways and writes the report next to it. Must be called on the render thread.
+     * @param atlasFile The atlas of a skin.
+     * @return The report file.
+     */
+    public FileHandle benchmark(FileHandle atlasFile) {
+        var outputFolder = atlasFile.sibling(atlasFile.nameWithoutExtension() + "-unpack-benchmark");
+        try {
+            outputFolder.mkdirs();
+            long time = System.nanoTime();
+            unpackPerRegion(atlasFile, outputFolder);
+            previousNanos = System.nanoTime() - time;
+            
+            atlasData.clear();
+            time = System.nanoTime();
+            atlasData.readAtlas(atlasFile);
+            pooledNanos = System.nanoTime() - time;
+            pooledPeakBytes = atlasData.getLastReadPeakBytes();
+        } catch (Exception e) {
+            Gdx.app.error(getClass().getName(), "Error while unpacking the atlas", e);
+            error = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+        } finally {
+            atlasData.clear();
+            outputFolder.deleteDirectory();
+        }
+        
+        var reportFile = atlasFile.sibling(atlasFile.nameWithoutExtension() + REPORT_SUFFIX);
+        reportFile.writeString(writeReport(atlasFile), false, "UTF-8");
+        return reportFile;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    /**
+     * The previous implementation of readAtlas, without adding the drawables to the project.
+     */
+    private void unpackPerRegion(FileHandle atlasFile, FileHandle outputFolder) {
+        var pixmaps = new Array<Pixmap>();
+        TextureAtlas atlas = new TextureAtlas(atlasFile);
+        try {
+            Array<AtlasRegion> regions = atlas.getRegions();
+            regionCount = regions.size;
+            
+            for (AtlasRegion region : regions) {
+                var textureData = region.getTexture().getTextureData();
+                if (!textureData.isPrepared()) {
+                    textureData.prepare();
+                }
+                
+                Pixmap pixmap = textureData.consumePixmap();
+                pixmaps.add(pixmap);
+                pixmap.setBlending(Pixmap.Blending.None);
+                Pixmap savePixmap;
+                String name;
+                
+                if (region.findValue("split") == null && region.findValue("pad") == null) {
+                    name = region.name + ".png";
+                    savePixmap = new Pixmap(region.getRegionWidth(), region.getRegionHeight(), Pixmap.Format.RGBA8888);
+                    pixmaps.add(savePixmap);
+                    savePixmap.setBlending(Pixmap.Blending.None);
+                    for (int x = 0; x < region.getRegionWidth(); x++) {
+                        for (int y = 0; y < region.getRegionHeight(); y++) {
+                            int colorInt = pixmap.getPixel(region.getRegionX() + x, region.getRegionY() + y);
+                            savePixmap.drawPixel(x, y, colorInt);
+                        }
+                    }
+                } else {
+                    name = region.name + ".9.png";
+                    savePixmap = new Pixmap(region.getRegionWidth() + 2, region.getRegionHeight() + 2, pixmap.getFormat());
+                    pixmaps.add(savePixmap);
+                    savePixmap.setBlending(Pixmap.Blending.None);
+                    int x;
+                    int y;
+                    
+                    //draw 9 patch lines
+                    savePixmap.setColor(Color.BLACK);
+                    
+                    if (region.findValue("split") != null) {
+                        int[] splits = region.findValue("split");
+                        
+                        x = 0;
+                        for (y = splits[2] + 1; y < savePixmap.getHeight() - splits[3] - 1; y++) {
+                            savePixmap.drawPixel(x, y);
+                        }
+                        
+                        y = 0;
+                        for (x = splits[0] + 1; x < savePixmap.getWidth() - splits[1] - 1; x++) {
+                            savePixmap.drawPixel(x, y);
+                        }
+                    }
+                    
+                    if (region.findValue("pad") != null) {
+                        int[] pads = region.findValue("pad");
+                        
+                        x = savePixmap.getWidth() - 1;
+                        for (y = pads[2] + 1; y < savePixmap.getHeight() - pads[3] - 1; y++) {
+                            savePixmap.drawPixel(x, y);
+                        }
+                        
+                        y = savePixmap.getHeight() - 1;
+                        for (x = pads[0] + 1; x < savePixmap.getWidth() - pads[1] - 1; x++) {
+                            savePixmap.drawPixel(x, y);
+                        }
+                    }
+                    
+                    for (x = 0; x < region.getRegionWidth(); x++) {
+                        for (y = 0; y < region.getRegionHeight(); y++) {
+                            int colorInt = pixmap.getPixel(region.getRegionX() + x, region.getRegionY() + y);
+                            savePixmap.drawPixel(x + 1, y + 1, colorInt);
+                        }
+                    }
+                }
+                PixmapIO.writePNG(outputFolder.child(name), savePixmap);
+            }
+            
+            for (var pixmap : pixmaps) {
+                previousPeakBytes += pixmap.getPixels().capacity();
+            }
+        } finally {
+            for (var pixmap : pixmaps) {
+                if (!pixmap.isDisposed()) pixmap.dispose();
+            }
+            atlas.dispose();
+        }
+    }
+    
+    private String writeReport(FileHandle atlasFile) {
+        var stringWriter = new StringWriter();
+        var json = new Json(JsonWriter.OutputType.json);
+        json.setWriter(stringWriter);
+        json.writeObjectStart();
+        json.writeValue("atlas", atlasFile.name());
+        json.writeValue("timestamp", System.currentTimeMillis());
+        json.writeValue("regions", regionCount);
+        if (error != null) json.writeValue("error", error);
+        
+        json.writeObjectStart("perRegion");
+        json.writeValue("millis", previousNanos / 1000000f);
+        json.writeValue("peakKilobytes", previousPeakBytes / 1024);
+        json.writeObjectEnd();
+        
+        json.writeObjectStart("pooled");
+        json.writeValue("millis", pooledNanos / 1000000f);
+        json.writeValue("peakKilobytes", pooledPeakBytes / 1024);
+        json.writeObjectEnd();
+        
+        json.writeObjectEnd();
+        return json.prettyPrint(stringWriter.toString());
+    }
+}
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.badlogic.gdx.utils.LongArray;
+import com.ray3k.skincomposer.runtime.BinarySkinLoader;
+
+import java.io.StringWriter;
+
+/**
+ * Compares the load time of an exported JSON skin with the binary skin exported next to it. Each format is loaded
+ * {@link #ITERATIONS} times after {@link #WARM_UP} untimed loads. The atlas is loaded once and its regions are added to
+ * every Skin before timing, so only the parsing and the creation of the resources and styles is measured. The fastest
+ * and average times of both formats are written to a report next to the skin.
+ * <p>
+ * FreeType fonts are not stored in the binary skin, so the fonts of a reference JSON load are added to the Skin before
+ * each binary load, the same way a game would add them. Skins with FreeType fonts favor the binary format because
+ * those fonts are not generated again.
+ */
+public class BinarySkinBenchmark {
+    public static final String REPORT_SUFFIX = "-binary-report.json";
+    public static final int WARM_UP = 3;
+    public static final int ITERATIONS = 20;
+    
+    private final LongArray jsonNanos = new LongArray();
+    private final LongArray binaryNanos = new LongArray();
+    private String error;
+    
+    /**
+     * Loads both formats and writes the report next to the skin. Must be called on the render thread.
+     * @param skinFile The exported skin JSON file. The binary skin must have been exported with it.
+     * @return The report file.
+     */
+    public FileHandle benchmark(FileHandle skinFile) {
+        var binaryFile = skinFile.sibling(skinFile.nameWithoutExtension() + "." + BinarySkinLoader.EXTENSION);
+        var atlasFile = skinFile.sibling(skinFile.nameWithoutExtension() + ".atlas");
+        TextureAtlas atlas = null;
+        Skin reference = null;
+        try {
+            if (!binaryFile.exists()) {
+                throw new GdxRuntimeException("No binary skin next to " + skinFile.name() + ". Export the skin with binary skins enabled.");
+            }
+            if (atlasFile.exists()) atlas = new TextureAtlas(atlasFile);
+            
+            reference = SkinLoadBenchmark.createSkin();
+            if (atlas != null) reference.addRegions(atlas);
+            reference.load(skinFile);
+            
+            //the formats alternate so both see the same state of the JIT and the heap
+            for (int i = 0; i < WARM_UP + ITERATIONS; i++) {
+                var nanos = loadJson(skinFile, atlas);
+                if (i >= WARM_UP) jsonNanos.add(nanos);
+                
+                nanos = loadBinary(binaryFile, atlas, reference);
+                if (i >= WARM_UP) binaryNanos.add(nanos);
+            }
+        } catch (Exception e) {
+            Gdx.app.error(getClass().getName(), "Error while comparing the skin formats", e);
+            error = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+        } finally {
+            if (reference != null) reference.dispose();
+            if (atlas != null) atlas.dispose();
+        }
+        
+        var reportFile = skinFile.sibling(skinFile.nameWithoutExtension() + REPORT_SUFFIX);
+        reportFile.writeString(writeReport(skinFile), false, "UTF-8");
+        return reportFile;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public long getAverageJsonNanos() {
+        return average(jsonNanos);
+    }
+    
+    public long getAverageBinaryNanos() {
+        return average(binaryNanos);
+    }
+    
+    private static long loadJson(FileHandle skinFile, TextureAtlas atlas) {
+        var skin = SkinLoadBenchmark.createSkin();
+        try {
+            if (atlas != null) skin.addRegions(atlas);
+            long time = System.nanoTime();
+            skin.load(skinFile);
+            return System.nanoTime() - time;
+        } finally {
+            skin.dispose();
+        }
+    }
+    
+    private static long loadBinary(FileHandle binaryFile, TextureAtlas atlas, Skin reference) {
+        var skin = new Skin();
+        try {
+            if (atlas != null) skin.addRegions(atlas);
+            var fonts = reference.getAll(BitmapFont.class);
+            if (fonts != null) {
+                for (var font : fonts) {
+                    skin.add(font.key, font.value);
+                }
+            }
+            
+            long time = System.nanoTime();
+            BinarySkinLoader.load(skin, binaryFile);
+            return System.nanoTime() - time;
+        } finally {
+            //the reference fonts are disposed with the reference skin
+            var fonts = skin.getAll(BitmapFont.class);
+            if (fonts != null) {
+                for (var font : fonts) {
+                    if (reference.optional(font.key, BitmapFont.class) != font.value) font.value.dispose();
+                }
+            }
+        }
+    }
+    
+    private static long fastest(LongArray nanos) {
+        if (nanos.size == 0) return 0;
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < nanos.size; i++) {
+            fastest = Math.min(fastest, nanos.get(i));
+        }
+        return fastest;
+    }
+    
+    private static long average(LongArray nanos) {
+        if (nanos.size == 0) return 0;
+        long total = 0;
+        for (int i = 0; i < nanos.size; i++) {
+            total += nanos.get(i);
+        }
+        return total / nanos.size;
+    }
+    
+    private String writeReport(FileHandle skinFile) {
+        var stringWriter = new StringWriter();
+        var json = new Json(JsonWriter.OutputType.json);
+        json.setWriter(stringWriter);
+        json.writeObjectStart();
+        json.writeValue("skin", skinFile.name());
+        json.writeValue("timestamp", System.currentTimeMillis());
+        json.writeValue("iterations", ITERATIONS);
+        if (error != null) json.writeValue("error", error);
+        
+        json.writeObjectStart("jsonMillis");
+        json.writeValue("fastest", fastest(jsonNanos) / 1000000f);
+        json.writeValue("average", average(jsonNanos) / 1000000f);
+        json.writeObjectEnd();
+        
+        json.writeObjectStart("binaryMillis");
+        json.writeValue("fastest", fastest(binaryNanos) / 1000000f);
+        json.writeValue("average", average(binaryNanos) / 1000000f);
+        json.writeObjectEnd();
+        
+        if (average(binaryNanos) > 0) json.writeValue("speedup", (float) average(jsonNanos) / average(binaryNanos));
+        json.writeObjectEnd();
+        return json.prettyPrint(stringWriter.toString());
+    }
+}
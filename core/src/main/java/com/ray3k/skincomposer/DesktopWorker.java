@@ -34,7 +34,6 @@ import java.util.List;
 
 public interface DesktopWorker {
     void texturePack(Array<FileHandle> handles, FileHandle localFile, FileHandle targetFile, FileHandle settingsFile);
-    void packFontImages(Array<FileHandle> files, FileHandle saveFile);
     void sizeWindowToFit(int maxWidth, int maxHeight, int displayBorder, Graphics graphics);
     void centerWindow(Graphics graphics);
     void addFilesDroppedListener(FilesDroppedListener filesDroppedListener);
@@ -46,4 +45,5 @@ public interface DesktopWorker {
     File saveDialog(String title, String defaultPath, String filterPatterns, String filterDescription);
     char getKeyName(int keyCode);
     void writeFont(FreeTypeBitmapFontData data, Array<PixmapPacker.Page> pages, FileHandle target);
+    void writeFont(FreeTypeBitmapFontData data, String[] pageNames, FileHandle target, int scaleW, int scaleH);
 }
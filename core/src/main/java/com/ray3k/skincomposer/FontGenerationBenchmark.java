@@ -0,0 +1,271 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Face;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Library;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.badlogic.gdx.utils.LongArray;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+
+/**
+ * Measures the glyph ordering and kerning of {@link FreeTypeFontGenerator} on a font with a large character set,
+ * such as a CJK font. The characters are the default characters followed by up to {@link #MAX_CHARACTERS} CJK
+ * ideographs the font has glyphs for.
+ * <p>
+ * The previous selection loop that ordered the glyphs tallest first and the previous kerning loop that queried every
+ * pair of characters are run next to their replacements on the same glyph heights and characters. The kerning time of
+ * the generator is the difference between generating the font with and without kerning. The fastest and average times
+ * are written to a report next to the font.
+ */
+public class FontGenerationBenchmark {
+    public static final String REPORT_SUFFIX = "-generation-report.json";
+    public static final int MAX_CHARACTERS = 8000;
+    public static final int SIZE = 32;
+    public static final int WARM_UP = 1;
+    public static final int ITERATIONS = 3;
+    
+    private final LongArray selectionSortNanos = new LongArray();
+    private final LongArray sortNanos = new LongArray();
+    private final LongArray generateNanos = new LongArray();
+    private final LongArray generateWithoutKerningNanos = new LongArray();
+    private long allPairsKerningNanos;
+    private long allPairsKerningQueries;
+    private int characterCount;
+    private boolean hasKerning;
+    private String error;
+    
+    /**
+     * Runs the benchmark and writes the report next to the font. Must be called on the render thread.
+     * @param fontFile A TrueType or OpenType font with a large character set.
+     * @return The report file.
+     */
+    public FileHandle benchmark(FileHandle fontFile) {
+        Library library = null;
+        Face face = null;
+        FreeTypeFontGenerator generator = null;
+        try {
+            library = FreeType.initFreeType();
+            face = library.newFace(fontFile, 0);
+            face.setPixelSizes(0, SIZE);
+            hasKerning = face.hasKerning();
+            
+            var characters = collectCharacters(face);
+            characterCount = characters.length();
+            var heights = new int[characterCount];
+            for (int i = 0; i < characterCount; i++) {
+                heights[i] = face.loadChar(characters.charAt(i), FreeType.FT_LOAD_DEFAULT) ? FreeType.toInt(face.getGlyph().getMetrics().getHeight()) : 0;
+            }
+            
+            for (int i = 0; i < WARM_UP + ITERATIONS; i++) {
+                var nanos = selectionSort(characters.toCharArray(), heights.clone());
+                if (i >= WARM_UP) selectionSortNanos.add(nanos);
+                
+                nanos = sort(characters.toCharArray(), heights);
+                if (i >= WARM_UP) sortNanos.add(nanos);
+            }
+            
+            //the all pairs loop makes tens of millions of FreeType calls on large fonts, so it only runs once
+            if (hasKerning) allPairsKerningNanos = allPairsKerning(face, characters.toCharArray());
+            
+            generator = new FreeTypeFontGenerator(fontFile);
+            for (int i = 0; i < WARM_UP + ITERATIONS; i++) {
+                var nanos = generate(generator, characters, true);
+                if (i >= WARM_UP) generateNanos.add(nanos);
+                
+                nanos = generate(generator, characters, false);
+                if (i >= WARM_UP) generateWithoutKerningNanos.add(nanos);
+            }
+        } catch (Exception e) {
+            Gdx.app.error(getClass().getName(), "Error while benchmarking the font", e);
+            error = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+        } finally {
+            if (generator != null) generator.dispose();
+            if (face != null) face.dispose();
+            if (library != null) library.dispose();
+        }
+        
+        var reportFile = fontFile.sibling(fontFile.nameWithoutExtension() + REPORT_SUFFIX);
+        reportFile.writeString(writeReport(fontFile), false, "UTF-8");
+        return reportFile;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    private static String collectCharacters(Face face) {
+        var builder = new StringBuilder(FreeTypeFontGenerator.DEFAULT_CHARS);
+        int count = 0;
+        for (int c = 0x4E00; c <= 0x9FFF && count < MAX_CHARACTERS; c++) {
+            if (face.getCharIndex(c) != 0) {
+                builder.append((char) c);
+                count++;
+            }
+        }
+        return builder.toString();
+    }
+    
+    /**
+     * The previous ordering, which repeatedly selected the tallest remaining glyph.
+     */
+    private static long selectionSort(char[] characters, int[] heights) {
+        long time = System.nanoTime();
+        int heightsCount = heights.length;
+        while (heightsCount > 0) {
+            int best = 0, maxHeight = heights[0];
+            for (int i = 1; i < heightsCount; i++) {
+                int height = heights[i];
+                if (height > maxHeight) {
+                    maxHeight = height;
+                    best = i;
+                }
+            }
+            
+            heightsCount--;
+            heights[best] = heights[heightsCount];
+            char tmpChar = characters[best];
+            characters[best] = characters[heightsCount];
+            characters[heightsCount] = tmpChar;
+        }
+        return System.nanoTime() - time;
+    }
+    
+    /**
+     * The ordering used by {@link FreeTypeFontGenerator#generateData(FreeTypeFontParameter)}.
+     */
+    private static long sort(char[] characters, int[] heights) {
+        long time = System.nanoTime();
+        int length = characters.length;
+        long[] keys = new long[length];
+        for (int i = 0; i < length; i++) {
+            keys[i] = ((long) Integer.MAX_VALUE - heights[i]) << 32 | i;
+        }
+        Arrays.sort(keys);
+        char[] sorted = new char[length];
+        for (int i = 0; i < length; i++) {
+            sorted[i] = characters[(int) keys[i]];
+        }
+        System.arraycopy(sorted, 0, characters, 0, length);
+        return System.nanoTime() - time;
+    }
+    
+    /**
+     * The previous kerning loop, which queried FreeType for every pair of characters in both directions.
+     */
+    private long allPairsKerning(Face face, char[] characters) {
+        long time = System.nanoTime();
+        long queries = 0;
+        int nonZero = 0;
+        for (int i = 0; i < characters.length; i++) {
+            int firstIndex = face.getCharIndex(characters[i]);
+            for (int ii = i; ii < characters.length; ii++) {
+                int secondIndex = face.getCharIndex(characters[ii]);
+                if (face.getKerning(firstIndex, secondIndex, 0) != 0) nonZero++;
+                if (face.getKerning(secondIndex, firstIndex, 0) != 0) nonZero++;
+                queries += 2;
+            }
+        }
+        allPairsKerningQueries = queries;
+        //keeps the loop from being optimized away
+        if (nonZero < 0) Gdx.app.log(getClass().getName(), "Kerned pairs: " + nonZero);
+        return System.nanoTime() - time;
+    }
+    
+    private static long generate(FreeTypeFontGenerator generator, String characters, boolean kerning) {
+        var parameter = new FreeTypeFontParameter();
+        parameter.size = SIZE;
+        parameter.characters = characters;
+        parameter.kerning = kerning;
+        long time = System.nanoTime();
+        var font = generator.generateFont(parameter);
+        time = System.nanoTime() - time;
+        font.dispose();
+        return time;
+    }
+    
+    private static long fastest(LongArray nanos) {
+        if (nanos.size == 0) return 0;
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < nanos.size; i++) {
+            fastest = Math.min(fastest, nanos.get(i));
+        }
+        return fastest;
+    }
+    
+    private static long average(LongArray nanos) {
+        if (nanos.size == 0) return 0;
+        long total = 0;
+        for (int i = 0; i < nanos.size; i++) {
+            total += nanos.get(i);
+        }
+        return total / nanos.size;
+    }
+    
+    private static void writeMillis(Json json, String name, LongArray nanos) {
+        json.writeObjectStart(name);
+        json.writeValue("fastest", fastest(nanos) / 1000000f);
+        json.writeValue("average", average(nanos) / 1000000f);
+        json.writeObjectEnd();
+    }
+    
+    private String writeReport(FileHandle fontFile) {
+        var stringWriter = new StringWriter();
+        var json = new Json(JsonWriter.OutputType.json);
+        json.setWriter(stringWriter);
+        json.writeObjectStart();
+        json.writeValue("font", fontFile.name());
+        json.writeValue("timestamp", System.currentTimeMillis());
+        json.writeValue("iterations", ITERATIONS);
+        json.writeValue("size", SIZE);
+        json.writeValue("characters", characterCount);
+        json.writeValue("hasKerning", hasKerning);
+        if (error != null) json.writeValue("error", error);
+        
+        json.writeObjectStart("orderingMillis");
+        writeMillis(json, "selectionSort", selectionSortNanos);
+        writeMillis(json, "sort", sortNanos);
+        json.writeObjectEnd();
+        
+        json.writeObjectStart("kerningMillis");
+        json.writeValue("allPairs", allPairsKerningNanos / 1000000f);
+        json.writeValue("allPairsQueries", allPairsKerningQueries);
+        json.writeValue("generator", Math.max(0, average(generateNanos) - average(generateWithoutKerningNanos)) / 1000000f);
+        json.writeObjectEnd();
+        
+        writeMillis(json, "generateMillis", generateNanos);
+        writeMillis(json, "generateWithoutKerningMillis", generateWithoutKerningNanos);
+        
+        json.writeObjectEnd();
+        return json.prettyPrint(stringWriter.toString());
+    }
+}
@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeBitmapFontData;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
+import com.badlogic.gdx.tools.bmfont.BitmapFontWriter;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.badlogic.gdx.utils.LongArray;
+
+import java.io.StringWriter;
+
+import static com.ray3k.skincomposer.Main.*;
+
+/**
+ * Measures how long {@link DesktopWorker#writeFont(FreeTypeBitmapFontData, Array, FileHandle)}
+ * takes to write a large FreeType font. The font is generated once at {@link #SIZE} pixels into a single
+ * {@link #PAGE_SIZE} page, which is the case where the page is trimmed. The previous approach, which wrote the page,
+ * read it back, scanned it with getPixel, and wrote it again, runs next to the current one. The fastest and average
+ * times are written to a report next to the font.
+ */
+public class FontWriteBenchmark {
+    public static final String REPORT_SUFFIX = "-write-report.json";
+    public static final int SIZE = 96;
+    public static final int PAGE_SIZE = 4096;
+    public static final int WARM_UP = 2;
+    public static final int ITERATIONS = 10;
+    
+    private final LongArray readBackNanos = new LongArray();
+    private final LongArray inMemoryNanos = new LongArray();
+    private int pageWidth;
+    private int pageHeight;
+    private String error;
+    
+    /**
+     * Writes the font both ways and writes the report next to the font. Must be called on the render thread.
+     * @param fontFile A TrueType or OpenType font.
+     * @return The report file.
+     */
+    public FileHandle benchmark(FileHandle fontFile) {
+        var outputFolder = fontFile.sibling(fontFile.nameWithoutExtension() + "-write-benchmark");
+        FreeTypeFontGenerator generator = null;
+        PixmapPacker packer = null;
+        try {
+            generator = new FreeTypeFontGenerator(fontFile);
+            var parameter = new FreeTypeFontParameter();
+            parameter.size = SIZE;
+            parameter.packer = packer = new PixmapPacker(PAGE_SIZE, PAGE_SIZE, Pixmap.Format.RGBA8888, 2, false, new PixmapPacker.SkylineStrategy());
+            var data = generator.generateData(parameter);
+            var pages = packer.getPages();
+            pageWidth = pages.first().getPixmap().getWidth();
+            pageHeight = pages.first().getPixmap().getHeight();
+            
+            var readBackTarget = outputFolder.child("read-back.fnt");
+            var inMemoryTarget = outputFolder.child("in-memory.fnt");
+            for (int i = 0; i < WARM_UP + ITERATIONS; i++) {
+                long time = System.nanoTime();
+                writeFontReadBack(data, pages, readBackTarget);
+                if (i >= WARM_UP) readBackNanos.add(System.nanoTime() - time);
+                
+                time = System.nanoTime();
+                desktopWorker.writeFont(data, pages, inMemoryTarget);
+                if (i >= WARM_UP) inMemoryNanos.add(System.nanoTime() - time);
+            }
+        } catch (Exception e) {
+            Gdx.app.error(getClass().getName(), "Error while writing the font", e);
+            error = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+        } finally {
+            if (packer != null) packer.dispose();
+            if (generator != null) generator.dispose();
+            outputFolder.deleteDirectory();
+        }
+        
+        var reportFile = fontFile.sibling(fontFile.nameWithoutExtension() + REPORT_SUFFIX);
+        reportFile.writeString(writeReport(fontFile), false, "UTF-8");
+        return reportFile;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    /**
+     * The previous implementation of writeFont, which trimmed a single page after it was written.
+     */
+    private static void writeFontReadBack(FreeTypeBitmapFontData data, Array<PixmapPacker.Page> pages, FileHandle target) {
+        var pixmapNames = BitmapFontWriter.writePixmaps(pages, target.parent(), target.nameWithoutExtension());
+        int scaleW;
+        int scaleH;
+        
+        var pngTarget = target.sibling(pixmapNames[0]);
+        var pixmap = new Pixmap(pngTarget);
+        if (pixmapNames.length > 1) {
+            scaleW = pixmap.getWidth();
+            scaleH = pixmap.getHeight();
+        } else {
+            var color = new Color();
+            scaleH = pixmap.getHeight();
+            boolean foundOpaquePixel = false;
+            for (int y = pixmap.getHeight() - 1; y >= 0 && !foundOpaquePixel; y--) {
+                for (int x = 0; x < pixmap.getWidth(); x++) {
+                    color.set(pixmap.getPixel(x, y));
+                    if (color.a > 0) {
+                        scaleH = y + 2;
+                        foundOpaquePixel = true;
+                        break;
+                    }
+                }
+            }
+            
+            foundOpaquePixel = false;
+            scaleW = pixmap.getWidth();
+            for (int x = pixmap.getWidth() - 1; x >= 0 && !foundOpaquePixel; x--) {
+                for (int y = 0; y < pixmap.getHeight(); y++) {
+                    color.set(pixmap.getPixel(x, y));
+                    if (color.a > 0) {
+                        scaleW = x + 2;
+                        foundOpaquePixel = true;
+                        break;
+                    }
+                }
+            }
+            
+            var fixedPixmap = new Pixmap(scaleW, scaleH, Pixmap.Format.RGBA8888);
+            fixedPixmap.setBlending(Pixmap.Blending.None);
+            fixedPixmap.drawPixmap(pixmap, 0, 0);
+            PixmapIO.writePNG(pngTarget, fixedPixmap);
+            fixedPixmap.dispose();
+        }
+        pixmap.dispose();
+        
+        desktopWorker.writeFont(data, pixmapNames, target, scaleW, scaleH);
+    }
+    
+    private static long fastest(LongArray nanos) {
+        if (nanos.size == 0) return 0;
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < nanos.size; i++) {
+            fastest = Math.min(fastest, nanos.get(i));
+        }
+        return fastest;
+    }
+    
+    private static long average(LongArray nanos) {
+        if (nanos.size == 0) return 0;
+        long total = 0;
+        for (int i = 0; i < nanos.size; i++) {
+            total += nanos.get(i);
+        }
+        return total / nanos.size;
+    }
+    
+    private String writeReport(FileHandle fontFile) {
+        var stringWriter = new StringWriter();
+        var json = new Json(JsonWriter.OutputType.json);
+        json.setWriter(stringWriter);
+        json.writeObjectStart();
+        json.writeValue("font", fontFile.name());
+        json.writeValue("timestamp", System.currentTimeMillis());
+        json.writeValue("iterations", ITERATIONS);
+        json.writeValue("size", SIZE);
+        json.writeValue("pageWidth", pageWidth);
+        json.writeValue("pageHeight", pageHeight);
+        if (error != null) json.writeValue("error", error);
+        
+        json.writeObjectStart("readBackMillis");
+        json.writeValue("fastest", fastest(readBackNanos) / 1000000f);
+        json.writeValue("average", average(readBackNanos) / 1000000f);
+        json.writeObjectEnd();
+        
+        json.writeObjectStart("inMemoryMillis");
+        json.writeValue("fastest", fastest(inMemoryNanos) / 1000000f);
+        json.writeValue("average", average(inMemoryNanos) / 1000000f);
+        json.writeObjectEnd();
+        
+        if (average(inMemoryNanos) > 0) json.writeValue("speedup", (float) average(readBackNanos) / average(inMemoryNanos));
+        json.writeObjectEnd();
+        return json.prettyPrint(stringWriter.toString());
+    }
+}
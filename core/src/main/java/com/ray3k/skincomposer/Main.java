@@ -61,6 +61,8 @@ import com.ray3k.skincomposer.data.JsonData;
 import com.ray3k.skincomposer.data.ProjectData;
 import com.ray3k.skincomposer.dialog.DialogFactory;
 import com.ray3k.skincomposer.dialog.DialogListener;
+import com.ray3k.skincomposer.utils.PixmapPool;
+import com.ray3k.skincomposer.utils.ResourceTracker;
 import com.ray3k.skincomposer.utils.Utils;
 import com.ray3k.stripe.PopColorPicker.PopColorPickerStyle;
 import com.ray3k.stripe.ScrollFocusListener;
@@ -95,6 +97,8 @@ public class Main extends ApplicationAdapter {
     public static TenPatchDrawable loadingAnimation;
     public static TenPatchDrawable loadingAnimation2;
     public static UndoableManager undoableManager;
+    public static WatchExporter watchExporter;
+    public static SkinPushServer skinPushServer;
     public static ProjectData projectData;
     public static JsonData jsonData;
     public static AtlasData atlasData;
@@ -230,6 +234,11 @@ public class Main extends ApplicationAdapter {
         }
         
         undoableManager = new UndoableManager(this);
+        watchExporter = new WatchExporter();
+        skinPushServer = new SkinPushServer();
+        if (projectData.isPushingExports()) {
+            skinPushServer.start(projectData.getPushPort());
+        }
         
         desktopWorker.attachLogListener();
         desktopWorker.setCloseListener(() -> {
@@ -278,6 +287,7 @@ public class Main extends ApplicationAdapter {
         rootTable.populate();
         stage.addActor(rootTable);
         rootTable.updateRecentFiles();
+        if (ResourceTracker.isEnabled()) stage.addActor(new MemoryOverlay(skin));
         
         //pass arguments
         if (!mainListener.argumentsPassed(args)) {
@@ -292,6 +302,7 @@ public class Main extends ApplicationAdapter {
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
         
         stage.act(Gdx.graphics.getDeltaTime());
+        ResourceTracker.update(Gdx.graphics.getDeltaTime());
         
         for (var tenPatch : skin.getAll(TenPatchDrawable.class)) {
             tenPatch.value.update(Gdx.graphics.getDeltaTime());
@@ -310,8 +321,12 @@ public class Main extends ApplicationAdapter {
 
     @Override
     public void dispose() {
+        skinPushServer.stop();
         stage.dispose();
         skin.dispose();
+        if (PixmapPool.isLeakDetection()) PixmapPool.reportLeaks();
+        PixmapPool.clear();
+        ResourceTracker.reportLeaks();
     }
     
     public void resizeUiScale(float scale) {
@@ -680,17 +680,68 @@ public class MainListener extends RootTableListener {
 
     public boolean argumentsPassed(String[] args) {
         var validArgument = false;
+        
+        //--benchmark name path/to/input runs a benchmark, writes its report next to the input, and closes the app
+        if (args != null && args.length >= 3 && args[0].equals("--benchmark")) {
+            var input = Gdx.files.absolute(args[2]);
+            Gdx.app.postRunnable(() -> {
+                runBenchmark(args[1], input);
+                Gdx.app.exit();
+            });
+            return true;
+        }
+        
         if (args != null && args.length > 0) {
             var fileHandle = Gdx.files.absolute(args[0]);
             if (fileHandle.exists() && fileHandle.extension().toLowerCase(Locale.ROOT).equals("scmp")) {
                 validArgument = true;
                 openFile(fileHandle);
+                
+                //--watch path/to/skin.json exports the project automatically whenever it changes
+                for (int i = 1; i < args.length - 1; i++) {
+                    if (args[i].equals("--watch")) {
+                        var targetFile = Gdx.files.absolute(args[i + 1]);
+                        Gdx.app.postRunnable(() -> {
+                            watchExporter.start(targetFile);
+                            watchExporter.changed();
+                        });
+                        break;
+                    }
+                }
             }
         }
         
         return validArgument;
     }
     
+    private void runBenchmark(String name, FileHandle input) {
+        FileHandle reportFile;
+        switch (name) {
+            case "binary":
+                reportFile = new BinarySkinBenchmark().benchmark(input);
+                break;
+            case "import":
+                reportFile = new SkinImportBenchmark().benchmark(input);
+                break;
+            case "font":
+                reportFile = new FontGenerationBenchmark().benchmark(input);
+                break;
+            case "write":
+                reportFile = new FontWriteBenchmark().benchmark(input);
+                break;
+            case "pixels":
+                reportFile = new PixelOpsBenchmark().benchmark(input);
+                break;
+            case "unpack":
+                reportFile = new AtlasUnpackBenchmark().benchmark(input);
+                break;
+            default:
+                Gdx.app.error(getClass().getName(), "Unknown benchmark: " + name);
+                return;
+        }
+        Gdx.app.log(getClass().getName(), "Benchmark report written to " + reportFile.path());
+    }
+    
     private class WelcomeDialogListener extends WelcomeListener {
         @Override
         public void videoClicked() {
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer;
+
+import com.badlogic.gdx.scenes.scene2d.Touchable;
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.ray3k.skincomposer.utils.ResourceTracker;
+
+/**
+ * Shows the live native resources counted by {@link ResourceTracker} in the bottom left corner, above every dialog.
+ * Added to the stage when Skin Composer is launched with -debugmemory.
+ */
+public class MemoryOverlay extends Label {
+    private float time = ResourceTracker.POLL_INTERVAL;
+    
+    public MemoryOverlay(Skin skin) {
+        super("", skin, "filter");
+        setTouchable(Touchable.disabled);
+    }
+    
+    @Override
+    public void act(float delta) {
+        super.act(delta);
+        time += delta;
+        if (time >= ResourceTracker.POLL_INTERVAL) {
+            time = 0;
+            setText(ResourceTracker.getSummary("\n"));
+            pack();
+            setPosition(5, 5);
+        }
+        toFront();
+    }
+}
@@ -0,0 +1,312 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.ray3k.skincomposer.data.AtlasData;
+import com.ray3k.skincomposer.data.DrawableData;
+import com.ray3k.skincomposer.data.DrawableData.DrawableType;
+import com.ray3k.skincomposer.utils.PatchDetector;
+import com.ray3k.skincomposer.utils.PixmapPool;
+import com.ray3k.skincomposer.utils.ResourceTracker;
+import com.ray3k.skincomposer.utils.Utils;
+import com.ray3k.skincomposer.utils.Utils.PatchDefinition;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds the texture drawables of a project that would be smaller as 9patches. Every image is decoded and measured by
+ * {@link PatchDetector} on a pool of background threads, keeping only the splits so thousands of drawables can be
+ * analyzed without holding their pixels. Converting a candidate collapses its stretch area to a single column and row
+ * and writes the result as a .9.png next to the original. Results are reported to the listener on the render thread.
+ */
+public class NinePatchAnalysis {
+    private final int tolerance;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    
+    /**
+     * A texture file and the drawables that use it.
+     */
+    public static class Candidate {
+        public final FileHandle file;
+        public final Array<DrawableData> drawables = new Array<>();
+        public int width;
+        public int height;
+        public PatchDefinition patches;
+        
+        public Candidate(FileHandle file) {
+            this.file = file;
+        }
+        
+        public int getPatchedWidth() {
+            return Math.min(width, patches.left + 1 + patches.right);
+        }
+        
+        public int getPatchedHeight() {
+            return Math.min(height, patches.top + 1 + patches.bottom);
+        }
+        
+        /**
+         * @return The number of pixels removed from the atlas by converting the file.
+         */
+        public int getSavedArea() {
+            return width * height - getPatchedWidth() * getPatchedHeight();
+        }
+        
+        @Override
+        public String toString() {
+            return DrawableData.proper(file.name()) + "  " + width + "x" + height + " to " + getPatchedWidth() + "x"
+                    + getPatchedHeight() + " (" + getSavedArea() + " pixels)";
+        }
+    }
+    
+    public interface NinePatchAnalysisListener {
+        void progress(int completed, int total);
+    
+        /**
+         * @param candidates The candidates that were processed successfully.
+         * @param failedCandidates The candidates that could not be processed. The errors are written to the log.
+         * @param cancelled
+         */
+        void finished(Array<Candidate> candidates, Array<Candidate> failedCandidates, boolean cancelled);
+    }
+    
+    private interface CandidateTask {
+        /**
+         * @return true if the candidate should be kept.
+         */
+        boolean process(Candidate candidate) throws Exception;
+    }
+    
+    /**
+     * @param tolerance The tolerance passed to {@link PatchDetector}.
+     */
+    public NinePatchAnalysis(int tolerance) {
+        this.tolerance = tolerance;
+    }
+    
+    /**
+     * Groups the texture drawables of the project by file. Files that are already 9patches or that are shared with
+     * drawables that depend on the image size, such as tiled drawables, ten patches and fonts, are skipped.
+     * @param atlasData
+     * @return
+     */
+    public static Array<Candidate> collectCandidates(AtlasData atlasData) {
+        var excludedFiles = new ObjectSet<FileHandle>();
+        for (var drawable : atlasData.getFontDrawables()) {
+            if (drawable.file != null) excludedFiles.add(drawable.file);
+        }
+        for (var drawable : atlasData.getDrawables()) {
+            if (drawable.file != null && !isConvertible(drawable)) excludedFiles.add(drawable.file);
+        }
+        
+        var candidates = new Array<Candidate>();
+        var candidateMap = new ObjectMap<FileHandle, Candidate>();
+        for (var drawable : atlasData.getDrawables()) {
+            if (drawable.file == null || !isConvertible(drawable) || excludedFiles.contains(drawable.file)) continue;
+            if (!Utils.isBitmap(drawable.file.name()) || Utils.isNinePatch(drawable.file.name())) continue;
+            
+            var candidate = candidateMap.get(drawable.file);
+            if (candidate == null) {
+                candidate = new Candidate(drawable.file);
+                candidateMap.put(drawable.file, candidate);
+                candidates.add(candidate);
+            }
+            candidate.drawables.add(drawable);
+        }
+        
+        //only files with a plain texture drawable are worth converting
+        for (int i = candidates.size - 1; i >= 0; i--) {
+            var hasTexture = false;
+            for (var drawable : candidates.get(i).drawables) {
+                if (drawable.type == DrawableType.TEXTURE) {
+                    hasTexture = true;
+                    break;
+                }
+            }
+            if (!hasTexture) candidates.removeIndex(i);
+        }
+        return candidates;
+    }
+    
+    private static boolean isConvertible(DrawableData drawable) {
+        return drawable.type == DrawableType.TEXTURE || drawable.type == DrawableType.TINTED
+                || drawable.type == DrawableType.TINTED_FROM_COLOR_DATA;
+    }
+    
+    /**
+     * Measures the splits of every candidate. The listener receives the candidates that save any area, sorted by the
+     * area saved with the largest first. Candidates whose .9.png already exists are dropped so no file is overwritten.
+     * @param candidates
+     * @param listener
+     */
+    public void analyze(Array<Candidate> candidates, NinePatchAnalysisListener listener) {
+        run(candidates, candidate -> {
+            if (NinePatchBatch.getTargetFile(candidate.file).exists()) return false;
+            measure(candidate);
+            return candidate.getSavedArea() > 0;
+        }, new NinePatchAnalysisListener() {
+            @Override
+            public void progress(int completed, int total) {
+                listener.progress(completed, total);
+            }
+    
+            @Override
+            public void finished(Array<Candidate> candidates, Array<Candidate> failedCandidates, boolean cancelled) {
+                candidates.sort((o1, o2) -> Integer.compare(o2.getSavedArea(), o1.getSavedArea()));
+                listener.finished(candidates, failedCandidates, cancelled);
+            }
+        });
+    }
+    
+    /**
+     * Writes the .9.png of every candidate. The splits are measured again in case the file changed since it was
+     * analyzed. The drawables are not modified.
+     * @param candidates
+     * @param listener
+     */
+    public void convert(Array<Candidate> candidates, NinePatchAnalysisListener listener) {
+        run(candidates, candidate -> {
+            var image = ResourceTracker.track(new Pixmap(candidate.file));
+            try {
+                candidate.width = image.getWidth();
+                candidate.height = image.getHeight();
+                candidate.patches = new PatchDetector(image, tolerance).getPatches();
+                var patched = collapse(image, candidate.patches);
+                try {
+                    NinePatchBatch.writeNinePatch(patched, NinePatchBatch.getTargetFile(candidate.file), candidate.patches, candidate.patches);
+                } finally {
+                    PixmapPool.free(patched);
+                }
+            } finally {
+                PixmapPool.free(image);
+            }
+            return true;
+        }, listener);
+    }
+    
+    /**
+     * Skips every candidate that has not been started yet.
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+    
+    private void measure(Candidate candidate) {
+        var image = ResourceTracker.track(new Pixmap(candidate.file));
+        try {
+            candidate.width = image.getWidth();
+            candidate.height = image.getHeight();
+            candidate.patches = new PatchDetector(image, tolerance).getPatches();
+        } finally {
+            PixmapPool.free(image);
+        }
+    }
+    
+    /**
+     * Creates a copy of the image keeping a single column and row of the stretch area. The splits of the result are
+     * the same as the given splits. The caller must return the result with {@link PixmapPool#free(Pixmap)}.
+     * @param image
+     * @param patches
+     * @return
+     */
+    public static Pixmap collapse(Pixmap image, PatchDefinition patches) {
+        var width = image.getWidth();
+        var height = image.getHeight();
+        var left = Math.min(width, patches.left + 1);
+        var right = Math.min(width - left, patches.right);
+        var top = Math.min(height, patches.top + 1);
+        var bottom = Math.min(height - top, patches.bottom);
+        
+        var result = PixmapPool.obtain(left + right, top + bottom);
+        result.setBlending(Pixmap.Blending.None);
+        result.drawPixmap(image, 0, 0, 0, 0, left, top);
+        if (right > 0) result.drawPixmap(image, left, 0, width - right, 0, right, top);
+        if (bottom > 0) result.drawPixmap(image, 0, top, 0, height - bottom, left, bottom);
+        if (right > 0 && bottom > 0) result.drawPixmap(image, left, top, width - right, height - bottom, right, bottom);
+        return result;
+    }
+    
+    private void run(Array<Candidate> candidates, CandidateTask task, NinePatchAnalysisListener listener) {
+        var total = candidates.size;
+        var completed = new AtomicInteger();
+        var keptCandidates = new Array<Candidate>();
+        var failedCandidates = new Array<Candidate>();
+        var finished = new boolean[1];
+        
+        var threads = Math.max(1, Math.min(total, Runtime.getRuntime().availableProcessors()));
+        var executor = Executors.newFixedThreadPool(threads, runnable -> {
+            var thread = new Thread(runnable, "Nine Patch Analysis");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        if (total == 0) {
+            executor.shutdown();
+            listener.finished(keptCandidates, failedCandidates, false);
+            return;
+        }
+        
+        //the images are returned to the pool until the last candidate is processed
+        PixmapPool.beginBatch();
+        for (var candidate : candidates) {
+            executor.execute(() -> {
+                if (!cancelled.get()) {
+                    try {
+                        if (task.process(candidate)) {
+                            synchronized (keptCandidates) {
+                                keptCandidates.add(candidate);
+                            }
+                        }
+                    } catch (Exception e) {
+                        Gdx.app.error(NinePatchAnalysis.class.getName(), "Error processing " + candidate.file.path(), e);
+                        synchronized (failedCandidates) {
+                            failedCandidates.add(candidate);
+                        }
+                    }
+                }
+                
+                var count = completed.incrementAndGet();
+                if (count == total) PixmapPool.endBatch();
+                Gdx.app.postRunnable(() -> {
+                    if (finished[0]) return;
+                    if (count == total) {
+                        finished[0] = true;
+                        listener.finished(keptCandidates, failedCandidates, cancelled.get());
+                    } else if (!cancelled.get()) {
+                        listener.progress(completed.get(), total);
+                    }
+                });
+            });
+        }
+        executor.shutdown();
+    }
+}
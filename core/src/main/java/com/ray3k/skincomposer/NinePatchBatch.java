@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.utils.Array;
+import com.ray3k.skincomposer.utils.PatchDetector;
+import com.ray3k.skincomposer.utils.PixmapPool;
+import com.ray3k.skincomposer.utils.ResourceTracker;
+import com.ray3k.skincomposer.utils.Utils.PatchDefinition;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Converts images to 9patches on a pool of background threads. Each file is decoded, given guide pixels, and encoded
+ * as PNG independently, so files are processed in parallel. Progress and the result are reported to the listener on
+ * the render thread. The batch can be cancelled, in which case files that have not been started are skipped.
+ */
+public class NinePatchBatch {
+    private final Array<FileHandle> files;
+    private final PatchDefinition patches;
+    private final PatchDefinition content;
+    private final boolean detectingPatches;
+    private final int tolerance;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final Array<FileHandle> failedFiles = new Array<>();
+    private ExecutorService executor;
+    private boolean finished;
+    
+    public interface NinePatchBatchListener {
+        void progress(int completed, int total);
+        
+        /**
+         * @param failedFiles The files that could not be converted. The errors are written to the log.
+         * @param cancelled
+         */
+        void finished(Array<FileHandle> failedFiles, boolean cancelled);
+    }
+    
+    /**
+     * @param files
+     * @param patches The splits to apply to every file. Ignored when detecting patches.
+     * @param content The content padding to apply to every file. Ignored when detecting patches.
+     * @param detectingPatches If true, every file gets its own splits from {@link PatchDetector}.
+     * @param tolerance The tolerance used when detecting patches.
+     */
+    public NinePatchBatch(Array<FileHandle> files, PatchDefinition patches, PatchDefinition content, boolean detectingPatches, int tolerance) {
+        this.files = new Array<>(files);
+        this.patches = patches;
+        this.content = content;
+        this.detectingPatches = detectingPatches;
+        this.tolerance = tolerance;
+    }
+    
+    public void start(NinePatchBatchListener listener) {
+        var threads = Math.max(1, Math.min(files.size, Runtime.getRuntime().availableProcessors()));
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            var thread = new Thread(runnable, "Nine Patch Batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        var total = files.size;
+        if (total == 0) {
+            executor.shutdown();
+            listener.finished(failedFiles, false);
+            return;
+        }
+        
+        //the images are returned to the pool until the last file is written
+        PixmapPool.beginBatch();
+        for (var file : files) {
+            executor.execute(() -> {
+                if (!cancelled.get()) {
+                    try {
+                        convert(file);
+                    } catch (Exception e) {
+                        Gdx.app.error(NinePatchBatch.class.getName(), "Error applying 9patch to " + file.path(), e);
+                        synchronized (failedFiles) {
+                            failedFiles.add(file);
+                        }
+                    }
+                }
+                
+                var count = completed.incrementAndGet();
+                if (count == total) PixmapPool.endBatch();
+                Gdx.app.postRunnable(() -> {
+                    if (finished) return;
+                    if (count == total) {
+                        finished = true;
+                        listener.finished(failedFiles, cancelled.get());
+                    } else if (!cancelled.get()) {
+                        listener.progress(completed.get(), total);
+                    }
+                });
+            });
+        }
+        executor.shutdown();
+    }
+    
+    /**
+     * Skips every file that has not been started yet. Files that are being written are finished first.
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+    
+    private void convert(FileHandle file) {
+        var image = loadImage(file);
+        try {
+            var patches = this.patches;
+            var content = this.content;
+            if (detectingPatches) {
+                patches = new PatchDetector(image, tolerance).getPatches();
+                content = patches;
+            }
+            writeNinePatch(image, getTargetFile(file), patches, content);
+        } finally {
+            PixmapPool.free(image);
+        }
+    }
+    
+    /**
+     * @param file
+     * @return The file itself if it is already a 9patch, otherwise a .9.png next to it.
+     */
+    public static FileHandle getTargetFile(FileHandle file) {
+        if (file.name().toLowerCase(Locale.ROOT).endsWith(".9.png")) return file;
+        return file.sibling(file.nameWithoutExtension() + ".9.png");
+    }
+    
+    /**
+     * Decodes an image, removing the guide pixels if it is already a 9patch. The caller must return the result with
+     * {@link PixmapPool#free(Pixmap)}.
+     * @param file
+     * @return
+     */
+    public static Pixmap loadImage(FileHandle file) {
+        var image = ResourceTracker.track(new Pixmap(file));
+        
+        if (file.path().toLowerCase(Locale.ROOT).endsWith(".9.png")) {
+            var cropped = PixmapPool.obtain(image.getWidth() - 2, image.getHeight() - 2);
+            cropped.setBlending(Pixmap.Blending.None);
+            
+            cropped.drawPixmap(image, 0, 0, 1, 1, image.getWidth() - 2, image.getHeight() - 2);
+            PixmapPool.free(image);
+            image = cropped;
+        }
+        return image;
+    }
+    
+    /**
+     * Adds the guide pixels for the splits and content padding to the image and writes it as PNG. Does not dispose
+     * image.
+     * @param image
+     * @param targetFile
+     * @param patches
+     * @param content
+     */
+    public static void writeNinePatch(Pixmap image, FileHandle targetFile, PatchDefinition patches, PatchDefinition content) {
+        var savePixmap = PixmapPool.obtain(image.getWidth() + 2, image.getHeight() + 2);
+        savePixmap.setBlending(Pixmap.Blending.None);
+        savePixmap.drawPixmap(image, 1, 1);
+        
+        savePixmap.setColor(Color.BLACK);
+        savePixmap.drawRectangle(patches.left + 1, 0, savePixmap.getWidth() - patches.left - patches.right - 2, 1);
+        savePixmap.drawRectangle(0, patches.top + 1, 1, savePixmap.getHeight() - patches.bottom - patches.top - 2);
+        savePixmap.drawRectangle(content.left + 1, savePixmap.getHeight() - 1, savePixmap.getWidth() - content.left - content.right - 2, 1);
+        savePixmap.drawRectangle(savePixmap.getWidth() - 1, content.top + 1, 1, savePixmap.getHeight() - content.bottom - content.top - 2);
+        
+        try {
+            PixmapIO.writePNG(targetFile, savePixmap);
+        } finally {
+            PixmapPool.free(savePixmap);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.OrderedMap;
+import com.ray3k.skincomposer.utils.PixelOps;
+
+import java.io.StringWriter;
+
+/**
+ * Compares the {@link PixelOps} operations with the per-pixel Color implementations they replaced in Utils. Each
+ * operation runs {@link #ITERATIONS} times on the image after {@link #WARM_UP} untimed runs, alternating the previous
+ * and the current implementation. The fastest and average times of both are written to a report next to the image.
+ */
+public class PixelOpsBenchmark {
+    public static final String REPORT_SUFFIX = "-pixels-report.json";
+    public static final int WARM_UP = 3;
+    public static final int ITERATIONS = 20;
+    
+    private final OrderedMap<String, LongArray[]> nanos = new OrderedMap<>();
+    private int width;
+    private int height;
+    private String error;
+    
+    /**
+     * Runs every operation on the image and writes the report next to it. Must be called on the render thread.
+     * @param imageFile A PNG or JPG image. Large images use the parallel paths of PixelOps.
+     * @return The report file.
+     */
+    public FileHandle benchmark(FileHandle imageFile) {
+        Pixmap image = null;
+        try {
+            image = new Pixmap(imageFile);
+            width = image.getWidth();
+            height = image.getHeight();
+            var tint = new Color(0.8f, 0.5f, 0.3f, 1f);
+            
+            for (int i = 0; i < WARM_UP + ITERATIONS; i++) {
+                var record = i >= WARM_UP;
+                
+                long time = System.nanoTime();
+                averageColorPerPixel(image);
+                add("averageColor", 0, System.nanoTime() - time, record);
+                time = System.nanoTime();
+                PixelOps.averageColor(image);
+                add("averageColor", 1, System.nanoTime() - time, record);
+                
+                time = System.nanoTime();
+                averageEdgeColorPerPixel(image);
+                add("averageEdgeColor", 0, System.nanoTime() - time, record);
+                time = System.nanoTime();
+                PixelOps.averageEdgeColor(image, 0);
+                add("averageEdgeColor", 1, System.nanoTime() - time, record);
+                
+                var copy = copyOf(image);
+                time = System.nanoTime();
+                tintPerPixel(copy, tint);
+                add("tint", 0, System.nanoTime() - time, record);
+                copy.dispose();
+                copy = copyOf(image);
+                time = System.nanoTime();
+                PixelOps.tint(copy, tint);
+                add("tint", 1, System.nanoTime() - time, record);
+                copy.dispose();
+                
+                time = System.nanoTime();
+                copy = copyPerPixel(image);
+                add("copy", 0, System.nanoTime() - time, record);
+                copy.dispose();
+                time = System.nanoTime();
+                copy = PixelOps.copy(image, 0, 0, width, height);
+                add("copy", 1, System.nanoTime() - time, record);
+                copy.dispose();
+            }
+        } catch (Exception e) {
+            Gdx.app.error(getClass().getName(), "Error while benchmarking the pixel operations", e);
+            error = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+        } finally {
+            if (image != null) image.dispose();
+        }
+        
+        var reportFile = imageFile.sibling(imageFile.nameWithoutExtension() + REPORT_SUFFIX);
+        reportFile.writeString(writeReport(imageFile), false, "UTF-8");
+        return reportFile;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    private void add(String operation, int index, long value, boolean record) {
+        if (!record) return;
+        var values = nanos.get(operation);
+        if (values == null) {
+            values = new LongArray[] {new LongArray(), new LongArray()};
+            nanos.put(operation, values);
+        }
+        values[index].add(value);
+    }
+    
+    private static Pixmap copyOf(Pixmap pixmap) {
+        var copy = new Pixmap(pixmap.getWidth(), pixmap.getHeight(), Pixmap.Format.RGBA8888);
+        copy.setBlending(Pixmap.Blending.None);
+        copy.drawPixmap(pixmap, 0, 0);
+        return copy;
+    }
+    
+    //the previous implementations from Utils
+    
+    private static Color averageColorPerPixel(Pixmap pixmap) {
+        Color temp = new Color();
+        float sumR = 0.0f;
+        float sumG = 0.0f;
+        float sumB = 0.0f;
+        int count = 0;
+        for (int y = 0; y < pixmap.getHeight(); y++) {
+            for (int x = 0; x < pixmap.getWidth(); x++) {
+                temp.set(pixmap.getPixel(x, y));
+                if (temp.a > 0) {
+                    sumR += temp.r;
+                    sumG += temp.g;
+                    sumB += temp.b;
+                    count++;
+                }
+            }
+        }
+        
+        if (count == 0) {
+            return new Color(Color.BLACK);
+        } else {
+            return new Color(sumR / count, sumG / count, sumB / count, 1.0f);
+        }
+    }
+    
+    private static Color averageEdgeColorPerPixel(Pixmap pixmap) {
+        Color temp = new Color();
+        float sumR = 0.0f;
+        float sumG = 0.0f;
+        float sumB = 0.0f;
+        int count = 0;
+        
+        //left edge
+        for (int y = 0; y < pixmap.getHeight(); y++) {
+            for (int x = 0; x < pixmap.getWidth(); x++) {
+                temp.set(pixmap.getPixel(x, y));
+                if (temp.a > 0) {
+                    sumR += temp.r;
+                    sumG += temp.g;
+                    sumB += temp.b;
+                    count++;
+                    break;
+                }
+            }
+        }
+        
+        //right edge
+        for (int y = 0; y < pixmap.getHeight(); y++) {
+            for (int x = pixmap.getWidth() - 1; x > 0; x--) {
+                temp.set(pixmap.getPixel(x, y));
+                if (temp.a > 0) {
+                    sumR += temp.r;
+                    sumG += temp.g;
+                    sumB += temp.b;
+                    count++;
+                    break;
+                }
+            }
+        }
+        
+        //top edge
+        for (int x = 0; x < pixmap.getWidth(); x++) {
+            for (int y = 0; y < pixmap.getHeight(); y++) {
+                temp.set(pixmap.getPixel(x, y));
+                if (temp.a > 0) {
+                    sumR += temp.r;
+                    sumG += temp.g;
+                    sumB += temp.b;
+                    count++;
+                    break;
+                }
+            }
+        }
+        
+        //bottom edge
+        for (int x = 0; x < pixmap.getWidth(); x++) {
+            for (int y = pixmap.getHeight() - 1; y > 0; y--) {
+                temp.set(pixmap.getPixel(x, y));
+                if (temp.a > 0) {
+                    sumR += temp.r;
+                    sumG += temp.g;
+                    sumB += temp.b;
+                    count++;
+                    break;
+                }
+            }
+        }
+        
+        if (count == 0) {
+            return new Color(Color.BLACK);
+        } else {
+            return new Color(sumR / count, sumG / count, sumB / count, 1.0f);
+        }
+    }
+    
+    private static Pixmap tintPerPixel(Pixmap pixmap, Color color) {
+        Color tempColor = new Color();
+        for (int y = 0; y < pixmap.getHeight(); y++) {
+            for (int x = 0; x < pixmap.getWidth(); x++) {
+                tempColor.set(pixmap.getPixel(x, y));
+                float a = tempColor.a;
+                tempColor.mul(color);
+                tempColor.a = a;
+                pixmap.setColor(tempColor);
+                pixmap.drawPixel(x, y);
+                tempColor.set(pixmap.getPixel(x, y));
+            }
+        }
+        return pixmap;
+    }
+    
+    private static Pixmap copyPerPixel(Pixmap pixmap) {
+        var returnValue = new Pixmap(pixmap.getWidth(), pixmap.getHeight(), Pixmap.Format.RGBA8888);
+        returnValue.setBlending(Pixmap.Blending.None);
+        
+        for (int x = 0; x < pixmap.getWidth(); x++) {
+            for (int y = 0; y < pixmap.getHeight(); y++) {
+                int colorInt = pixmap.getPixel(x, y);
+                returnValue.drawPixel(x, y, colorInt);
+            }
+        }
+        return returnValue;
+    }
+    
+    private static long fastest(LongArray nanos) {
+        if (nanos.size == 0) return 0;
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < nanos.size; i++) {
+            fastest = Math.min(fastest, nanos.get(i));
+        }
+        return fastest;
+    }
+    
+    private static long average(LongArray nanos) {
+        if (nanos.size == 0) return 0;
+        long total = 0;
+        for (int i = 0; i < nanos.size; i++) {
+            total += nanos.get(i);
+        }
+        return total / nanos.size;
+    }
+    
+    private String writeReport(FileHandle imageFile) {
+        var stringWriter = new StringWriter();
+        var json = new Json(JsonWriter.OutputType.json);
+        json.setWriter(stringWriter);
+        json.writeObjectStart();
+        json.writeValue("image", imageFile.name());
+        json.writeValue("timestamp", System.currentTimeMillis());
+        json.writeValue("iterations", ITERATIONS);
+        json.writeValue("width", width);
+        json.writeValue("height", height);
+        if (error != null) json.writeValue("error", error);
+        
+        for (var entry : nanos) {
+            var perPixel = entry.value[0];
+            var pixelOps = entry.value[1];
+            json.writeObjectStart(entry.key);
+            json.writeObjectStart("perPixelMillis");
+            json.writeValue("fastest", fastest(perPixel) / 1000000f);
+            json.writeValue("average", average(perPixel) / 1000000f);
+            json.writeObjectEnd();
+            json.writeObjectStart("pixelOpsMillis");
+            json.writeValue("fastest", fastest(pixelOps) / 1000000f);
+            json.writeValue("average", average(pixelOps) / 1000000f);
+            json.writeObjectEnd();
+            if (average(pixelOps) > 0) json.writeValue("speedup", (float) average(perPixel) / average(pixelOps));
+            json.writeObjectEnd();
+        }
+        
+        json.writeObjectEnd();
+        return json.prettyPrint(stringWriter.toString());
+    }
+}
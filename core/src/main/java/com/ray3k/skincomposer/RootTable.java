@@ -60,6 +60,8 @@ import com.badlogic.gdx.utils.reflect.Field;
 import com.ray3k.skincomposer.data.*;
 import com.ray3k.skincomposer.data.CustomProperty.PropertyType;
 import com.ray3k.skincomposer.data.ProjectData.RecentFile;
+import com.ray3k.skincomposer.utils.FontCache;
+import com.ray3k.skincomposer.utils.ResourceTracker;
 import com.ray3k.skincomposer.utils.Utils;
 import com.ray3k.stripe.DraggableList.DraggableListListener;
 import com.ray3k.stripe.*;
@@ -112,6 +114,7 @@ public class RootTable extends Table {
     private Button styleRenameButton;
     private FilesDroppedListener filesDroppedListener;
     private ResizeWidget previewResizeWidget;
+    private Label watchLabel;
 
     public RootTable() {
         super(skin);
@@ -259,6 +262,10 @@ public class RootTable extends Table {
         redoButton.setText(text);
     }
     
+    public void setWatchStatus(String text) {
+        if (watchLabel != null) watchLabel.setText(text);
+    }
+    
     private void addClassBar() {
         Table table = new Table();
         table.setBackground(getSkin().getDrawable("class-bar"));
@@ -2077,9 +2084,9 @@ public class RootTable extends Table {
             previewTable.setBackground("white");
             previewTable.setColor((Color) previewProperties.get("bgcolor"));
 
-            for (BitmapFont font : previewFonts) {
-                font.dispose();
-            }
+            //fonts are released after the new preview acquired its fonts, so unchanged fonts are reused
+            var releasedFonts = new Array<>(previewFonts);
+            previewFonts.clear();
 
             if (classSelectBox.getSelectedIndex() >= 0 && classSelectBox.getSelectedIndex() < Main.BASIC_CLASSES.length) {
                 StyleData styleData = getSelectedStyle();
@@ -2104,6 +2111,7 @@ public class RootTable extends Table {
                 } else {
                     Actor widget = null;
                     
+                    var styleFonts = previewFonts.size;
                     var style = createPreviewStyle(Main.basicToStyleClass(clazz), styleData);
                     
                     if (style != null) {
@@ -2271,6 +2279,11 @@ public class RootTable extends Table {
                     }
 
                     if (widget != null) {
+                        //in -debugmemory mode a font is reported if it outlives the widget using its style
+                        for (int i = styleFonts; i < previewFonts.size; i++) {
+                            ResourceTracker.track(previewFonts.get(i), widget);
+                        }
+                        
                         switch ((int) previewProperties.get("size")) {
                             case (0):
                                 previewTable.add(widget).size(10.0f);
@@ -2473,10 +2486,7 @@ public class RootTable extends Table {
                                     for (FontData fd : jsonData.getFonts()) {
                                         if (fd.getName().equals(fontName)) {
                                             fontData = fd;
-                                            font = new BitmapFont(fd.file, fd.isFlip());
-                                            if (fd.getScaling() != -1) font.getData().setScale(fd.getScaling() / font.getCapHeight());
-                                            font.getData().markupEnabled = fd.isMarkupEnabled();
-                                            font.getData().flipped = fd.isFlip();
+                                            font = FontCache.acquire(fd.file, fd.isFlip(), fd.getScaling(), fd.isMarkupEnabled());
                                             previewFonts.add(font);
                                             break;
                                         }
@@ -2484,6 +2494,7 @@ public class RootTable extends Table {
 
                                     if (font != null) {
                                         Label labelFont = new Label(fontData.getName(), new LabelStyle(font, Color.WHITE));
+                                        ResourceTracker.track(font, labelFont);
                                         container.setActor(labelFont);
     
                                         container.addListener((Main.makeTooltip(fontData.getName(), tooltipManager, getSkin())));
@@ -2532,6 +2543,10 @@ public class RootTable extends Table {
                     }
                 }
             }
+            
+            for (BitmapFont font : releasedFonts) {
+                FontCache.release(font);
+            }
         }
     }
     
@@ -2555,10 +2570,7 @@ public class RootTable extends Table {
                     } else if (field.getType().equals(BitmapFont.class)) {
                         for (FontData data : projectData.getJsonData().getFonts()) {
                             if (value.equals(data.getName())) {
-                                BitmapFont font = new BitmapFont(data.file, data.isFlip());
-                                if (data.getScaling() != -1) font.getData().setScale(data.getScaling() / font.getCapHeight());
-                                font.getData().markupEnabled = data.isMarkupEnabled();
-                                font.getData().flipped = data.isFlip();
+                                BitmapFont font = FontCache.acquire(data.file, data.isFlip(), data.getScaling(), data.isMarkupEnabled());
                                 previewFonts.add(font);
                                 field.set(instance, font);
                             }
@@ -2617,6 +2629,9 @@ public class RootTable extends Table {
         table.setBackground(getSkin().getDrawable("status-bar"));
         add(table).growX();
         
+        watchLabel = new Label(watchExporter != null && watchExporter.isWatching() ? "Watching " + watchExporter.getTargetFile().name() : "", getSkin());
+        table.add(watchLabel).left().padLeft(25.0f);
+        
         Label label = new Label("ver. " + Main.VERSION + "    RAY3K.WORDPRESS.COM    © 2024 Raymond \"Raeleus\" Buckley", getSkin());
         table.add(label).expandX().right().padRight(25.0f);
     }
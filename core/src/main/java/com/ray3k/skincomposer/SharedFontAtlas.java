@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker.PixmapPackerRectangle;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeBitmapFontData;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
+import com.badlogic.gdx.utils.Array;
+import com.ray3k.skincomposer.data.FreeTypeFontData;
+import com.ray3k.skincomposer.utils.GlyphRasterCache;
+import com.ray3k.skincomposer.utils.ResourceTracker;
+
+import java.util.Arrays;
+
+import static com.ray3k.skincomposer.Main.*;
+
+/**
+ * Bakes the FreeType fonts of the project into one set of glyph pages during export. Every font is packed with the
+ * same {@link PixmapPacker} and gets a .fnt file that references the shared pages, so text in different fonts can be
+ * drawn without switching textures. The baked fonts are exported as BitmapFonts instead of FreeType fonts.
+ * <p>
+ * When the texture atlas is exported too, {@link #collectAtlasFiles()} lists a copy of each page for every font, named
+ * like the regions the Skin BitmapFont serializer looks for. The TexturePacker aliases identical images, so each page
+ * is only stored once in the atlas and the fonts share the atlas texture with the drawables.
+ */
+public class SharedFontAtlas {
+    public static final int PAGE_SIZE = 1024;
+    public static final int PADDING = 2;
+    public static final String PAGE_SUFFIX = "-fonts";
+    private final Array<FreeTypeFontData> fonts = new Array<>();
+    private final Array<FileHandle> fontFiles = new Array<>();
+    private final Array<FileHandle> pageFiles = new Array<>();
+    
+    /**
+     * @param font
+     * @return true if the font is exported as a BitmapFont on the shared pages.
+     */
+    public static boolean isShared(FreeTypeFontData font) {
+        return font.useCustomSerializer && projectData.isExportingSharedFontAtlas();
+    }
+    
+    /**
+     * @param font
+     * @return The name of the .fnt file written for the font.
+     */
+    public static String getFontFileName(FreeTypeFontData font) {
+        return font.name + ".fnt";
+    }
+    
+    /**
+     * Generates every shared FreeType font and writes the pages and .fnt files next to the skin file. Must be called on
+     * the render thread because the font colors are looked up in the project.
+     * @param skinFile The exported skin JSON file.
+     * @return Warnings for fonts that could not be baked.
+     */
+    public Array<String> bake(FileHandle skinFile) {
+        var warnings = new Array<String>();
+        var folder = skinFile.parent();
+        folder.mkdirs();
+        
+        var packer = new PixmapPacker(PAGE_SIZE, PAGE_SIZE, Pixmap.Format.RGBA8888, PADDING, false, new PixmapPacker.SkylineStrategy());
+        var datas = new Array<FreeTypeBitmapFontData>();
+        try {
+            for (FreeTypeFontData font : jsonData.getFreeTypeFonts()) {
+                if (!isShared(font)) continue;
+                
+                var sourceFile = font.getSourceFile();
+                if (sourceFile == null) {
+                    warnings.add("[RED]ERROR:[] FreeType font file [BLACK]" + font.file + "[] does not exist.");
+                    continue;
+                }
+                
+                FreeTypeFontGenerator generator = GlyphRasterCache.newGenerator(sourceFile);
+                try {
+                    generator.setWorkerCount(Runtime.getRuntime().availableProcessors());
+                    FreeTypeFontParameter parameter = font.createParameter();
+                    parameter.packer = packer;
+                    datas.add(generator.generateData(parameter));
+                    fonts.add(font);
+                } finally {
+                    generator.dispose();
+                }
+            }
+            
+            if (fonts.size == 0) return warnings;
+            
+            //pages are trimmed to the packed glyphs, which doesn't move any glyph
+            var pages = packer.getPages();
+            var pageNames = new String[pages.size];
+            int scaleW = 0;
+            int scaleH = 0;
+            for (int i = 0; i < pages.size; i++) {
+                var page = pages.get(i);
+                int width = 1;
+                int height = 1;
+                for (PixmapPackerRectangle rect : page.getRects().values()) {
+                    width = Math.max(width, rect.getX() + rect.getWidth() + PADDING);
+                    height = Math.max(height, rect.getY() + rect.getHeight() + PADDING);
+                }
+                width = Math.min(width, PAGE_SIZE);
+                height = Math.min(height, PAGE_SIZE);
+                scaleW = Math.max(scaleW, width);
+                scaleH = Math.max(scaleH, height);
+                
+                pageNames[i] = skinFile.nameWithoutExtension() + PAGE_SUFFIX + (i == 0 ? "" : Integer.toString(i + 1)) + ".png";
+                var pixmap = ResourceTracker.track(new Pixmap(width, height, Pixmap.Format.RGBA8888));
+                pixmap.setBlending(Pixmap.Blending.None);
+                pixmap.drawPixmap(page.getPixmap(), 0, 0);
+                var pageFile = folder.child(pageNames[i]);
+                PixmapIO.writePNG(pageFile, pixmap);
+                pixmap.dispose();
+                pageFiles.add(pageFile);
+            }
+            
+            for (int i = 0; i < fonts.size; i++) {
+                var fontFile = folder.child(getFontFileName(fonts.get(i)));
+                desktopWorker.writeFont(datas.get(i), pageNames, fontFile, scaleW, scaleH);
+                fontFiles.add(fontFile);
+            }
+            
+            Gdx.app.log(getClass().getName(), "Baked " + fonts.size + " FreeType fonts into " + pages.size + " shared pages.");
+        } catch (Exception e) {
+            Gdx.app.error(getClass().getName(), "Error while baking shared font pages", e);
+            warnings.add("[RED]ERROR:[] Unable to bake FreeType fonts into shared pages: [BLACK]" + e.getMessage() + "[]");
+        } finally {
+            packer.dispose();
+        }
+        
+        return warnings;
+    }
+    
+    /**
+     * Copies each shared page once for every baked font, named after the font and the page index. Adding these files
+     * to the texture atlas lets the Skin load the fonts from the atlas regions instead of the page files. Copies that
+     * haven't changed since the last export are kept so the atlas isn't repacked needlessly in watch mode.
+     * @return The files to pack into the texture atlas.
+     */
+    public Array<FileHandle> collectAtlasFiles() {
+        var files = new Array<FileHandle>();
+        var folder = appFolder.child("temp/shared fonts/");
+        folder.mkdirs();
+        
+        var pages = new Array<byte[]>();
+        for (FileHandle pageFile : pageFiles) {
+            pages.add(pageFile.readBytes());
+        }
+        
+        for (FreeTypeFontData font : fonts) {
+            for (int i = 0; i < pages.size; i++) {
+                var copy = folder.child(font.name + "_" + i + ".png");
+                var bytes = pages.get(i);
+                if (!copy.exists() || copy.length() != bytes.length || !Arrays.equals(copy.readBytes(), bytes)) {
+                    copy.writeBytes(bytes, false);
+                }
+                files.add(copy);
+            }
+        }
+        
+        for (FileHandle file : folder.list()) {
+            if (!files.contains(file, false)) file.delete();
+        }
+        return files;
+    }
+    
+    public Array<FileHandle> getFontFiles() {
+        return fontFiles;
+    }
+    
+    public Array<FileHandle> getPageFiles() {
+        return pageFiles;
+    }
+}
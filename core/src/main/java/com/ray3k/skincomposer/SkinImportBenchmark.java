@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.scenes.scene2d.ui.Label.LabelStyle;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.badlogic.gdx.utils.LongArray;
+
+import java.io.StringWriter;
+
+import static com.ray3k.skincomposer.Main.*;
+
+/**
+ * Measures how long {@link com.ray3k.skincomposer.data.JsonData#readFile(FileHandle)} takes to import a large skin.
+ * If the input file does not exist, a skin with {@link #ENTRY_COUNT} entries is generated there: half colors and half
+ * Label styles that use them. Each iteration imports the skin into a cleared project and then imports it again, so
+ * every entry of the second import replaces an existing one. The fastest and average times of both imports are
+ * written to a report next to the skin.
+ * <p>
+ * The benchmark clears the current project, so it should only be run from the command line.
+ */
+public class SkinImportBenchmark {
+    public static final String REPORT_SUFFIX = "-import-report.json";
+    public static final int ENTRY_COUNT = 10000;
+    public static final int WARM_UP = 2;
+    public static final int ITERATIONS = 10;
+    
+    private final LongArray freshNanos = new LongArray();
+    private final LongArray replaceNanos = new LongArray();
+    private int warningCount;
+    private String error;
+    
+    /**
+     * Imports the skin and writes the report next to it. Must be called on the render thread.
+     * @param skinFile The skin JSON file to import. It is generated if it does not exist.
+     * @return The report file.
+     */
+    public FileHandle benchmark(FileHandle skinFile) {
+        try {
+            if (!skinFile.exists()) skinFile.writeString(generateSkin(ENTRY_COUNT), false, "UTF-8");
+            
+            for (int i = 0; i < WARM_UP + ITERATIONS; i++) {
+                jsonData.clear();
+                long time = System.nanoTime();
+                var warnings = jsonData.readFile(skinFile);
+                if (i >= WARM_UP) freshNanos.add(System.nanoTime() - time);
+                
+                time = System.nanoTime();
+                jsonData.readFile(skinFile);
+                if (i >= WARM_UP) replaceNanos.add(System.nanoTime() - time);
+                warningCount = warnings.size;
+            }
+        } catch (Exception e) {
+            Gdx.app.error(getClass().getName(), "Error while importing the skin", e);
+            error = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+        } finally {
+            jsonData.clear();
+        }
+        
+        var reportFile = skinFile.sibling(skinFile.nameWithoutExtension() + REPORT_SUFFIX);
+        reportFile.writeString(writeReport(skinFile), false, "UTF-8");
+        return reportFile;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public long getAverageReplaceNanos() {
+        return average(replaceNanos);
+    }
+    
+    /**
+     * Creates the JSON of a skin with the given number of entries.
+     * @param entryCount
+     * @return
+     */
+    public static String generateSkin(int entryCount) {
+        var stringWriter = new StringWriter();
+        var json = new Json(JsonWriter.OutputType.json);
+        json.setWriter(stringWriter);
+        json.writeObjectStart();
+        
+        int colorCount = entryCount / 2;
+        json.writeObjectStart(Color.class.getName());
+        for (int i = 0; i < colorCount; i++) {
+            json.writeObjectStart("color" + i);
+            json.writeValue("r", (i % 256) / 255f);
+            json.writeValue("g", (i / 256 % 256) / 255f);
+            json.writeValue("b", 0.5f);
+            json.writeValue("a", 1f);
+            json.writeObjectEnd();
+        }
+        json.writeObjectEnd();
+        
+        json.writeObjectStart(LabelStyle.class.getName());
+        for (int i = 0; i < entryCount - colorCount; i++) {
+            json.writeObjectStart(i == 0 ? "default" : "label" + i);
+            json.writeValue("fontColor", "color" + (i % Math.max(colorCount, 1)));
+            json.writeObjectEnd();
+        }
+        json.writeObjectEnd();
+        
+        json.writeObjectEnd();
+        return stringWriter.toString();
+    }
+    
+    private static long fastest(LongArray nanos) {
+        if (nanos.size == 0) return 0;
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < nanos.size; i++) {
+            fastest = Math.min(fastest, nanos.get(i));
+        }
+        return fastest;
+    }
+    
+    private static long average(LongArray nanos) {
+        if (nanos.size == 0) return 0;
+        long total = 0;
+        for (int i = 0; i < nanos.size; i++) {
+            total += nanos.get(i);
+        }
+        return total / nanos.size;
+    }
+    
+    private String writeReport(FileHandle skinFile) {
+        var stringWriter = new StringWriter();
+        var json = new Json(JsonWriter.OutputType.json);
+        json.setWriter(stringWriter);
+        json.writeObjectStart();
+        json.writeValue("skin", skinFile.name());
+        json.writeValue("timestamp", System.currentTimeMillis());
+        json.writeValue("iterations", ITERATIONS);
+        json.writeValue("warnings", warningCount);
+        if (error != null) json.writeValue("error", error);
+        
+        json.writeObjectStart("freshMillis");
+        json.writeValue("fastest", fastest(freshNanos) / 1000000f);
+        json.writeValue("average", average(freshNanos) / 1000000f);
+        json.writeObjectEnd();
+        
+        json.writeObjectStart("replaceMillis");
+        json.writeValue("fastest", fastest(replaceNanos) / 1000000f);
+        json.writeValue("average", average(replaceNanos) / 1000000f);
+        json.writeObjectEnd();
+        
+        json.writeObjectEnd();
+        return json.prettyPrint(stringWriter.toString());
+    }
+}
@@ -0,0 +1,313 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.Hinting;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.badlogic.gdx.utils.ObjectSet;
+
+import java.io.StringWriter;
+
+/**
+ * Loads an exported skin into a real libGDX Skin the same way a game would and writes a report of the load time and
+ * the resources it costs next to the export. The report lists the time spent in each load phase, the number of
+ * textures, atlas pages, and glyph pages, the estimated GPU memory, and the heaviest drawables and fonts. The values
+ * are written as plain JSON so build scripts can fail when a skin regresses.
+ */
+public class SkinLoadBenchmark {
+    public static final String REPORT_SUFFIX = "-load-report.json";
+    public static final int HEAVIEST_COUNT = 10;
+    
+    private long atlasParseNanos;
+    private long textureUploadNanos;
+    private long regionsNanos;
+    private long jsonNanos;
+    private int textureCount;
+    private int atlasPageCount;
+    private int glyphPageCount;
+    private long gpuBytes;
+    private final Array<Entry> drawables = new Array<>();
+    private final Array<Entry> fonts = new Array<>();
+    private String error;
+    
+    private static class Entry {
+        String name;
+        int width;
+        int height;
+        int glyphs;
+        int pages;
+        long bytes;
+    }
+    
+    /**
+     * Loads the skin and writes the report next to it. Must be called on the render thread after every exported file
+     * has been written.
+     * @param skinFile The exported skin JSON file.
+     * @return The report file.
+     */
+    public FileHandle benchmark(FileHandle skinFile) {
+        Skin skin = null;
+        TextureAtlas atlas = null;
+        try {
+            var atlasFile = skinFile.sibling(skinFile.nameWithoutExtension() + ".atlas");
+            long time = System.nanoTime();
+            if (atlasFile.exists()) {
+                var atlasData = new TextureAtlasData(atlasFile, atlasFile.parent(), false);
+                atlasParseNanos = System.nanoTime() - time;
+                
+                time = System.nanoTime();
+                atlas = new TextureAtlas(atlasData);
+                textureUploadNanos = System.nanoTime() - time;
+            }
+            
+            time = System.nanoTime();
+            skin = createSkin();
+            if (atlas != null) skin.addRegions(atlas);
+            regionsNanos = System.nanoTime() - time;
+            
+            time = System.nanoTime();
+            skin.load(skinFile);
+            jsonNanos = System.nanoTime() - time;
+            
+            measure(skin, atlas);
+        } catch (Exception e) {
+            Gdx.app.error(getClass().getName(), "Error while loading the exported skin", e);
+            error = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+        } finally {
+            if (skin != null) skin.dispose();
+            if (atlas != null) atlas.dispose();
+        }
+        
+        var reportFile = skinFile.sibling(skinFile.nameWithoutExtension() + REPORT_SUFFIX);
+        reportFile.writeString(writeReport(skinFile), false, "UTF-8");
+        return reportFile;
+    }
+    
+    public long getTotalNanos() {
+        return atlasParseNanos + textureUploadNanos + regionsNanos + jsonNanos;
+    }
+    
+    public long getGpuBytes() {
+        return gpuBytes;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    private void measure(Skin skin, TextureAtlas atlas) {
+        var textures = new ObjectSet<Texture>();
+        if (atlas != null) {
+            textures.addAll(atlas.getTextures());
+            atlasPageCount = atlas.getTextures().size;
+        }
+        
+        var regions = skin.getAll(TextureRegion.class);
+        if (regions != null) {
+            for (var region : regions) {
+                var entry = new Entry();
+                entry.name = region.key;
+                entry.width = region.value.getRegionWidth();
+                entry.height = region.value.getRegionHeight();
+                entry.bytes = (long) entry.width * entry.height * bytesPerPixel(region.value.getTexture());
+                drawables.add(entry);
+            }
+        }
+        
+        //glyph pages are the font textures that aren't packed into the atlas
+        var fontMap = skin.getAll(BitmapFont.class);
+        if (fontMap != null) {
+            for (var font : fontMap) {
+                var entry = new Entry();
+                entry.name = font.key;
+                for (var glyphs : font.value.getData().glyphs) {
+                    if (glyphs == null) continue;
+                    for (var glyph : glyphs) {
+                        if (glyph != null) entry.glyphs++;
+                    }
+                }
+                
+                for (var region : font.value.getRegions()) {
+                    var texture = region.getTexture();
+                    if (textures.add(texture)) {
+                        glyphPageCount++;
+                        entry.pages++;
+                        entry.bytes += textureBytes(texture);
+                    } else if (atlas != null && atlas.getTextures().contains(texture)) {
+                        entry.bytes += (long) region.getRegionWidth() * region.getRegionHeight() * bytesPerPixel(texture);
+                    } else {
+                        entry.pages++;
+                        entry.bytes += textureBytes(texture);
+                    }
+                }
+                fonts.add(entry);
+            }
+        }
+        
+        textureCount = textures.size;
+        for (var texture : textures) {
+            gpuBytes += textureBytes(texture);
+        }
+        
+        drawables.sort((o1, o2) -> Long.compare(o2.bytes, o1.bytes));
+        fonts.sort((o1, o2) -> Long.compare(o2.bytes, o1.bytes));
+        if (drawables.size > HEAVIEST_COUNT) drawables.truncate(HEAVIEST_COUNT);
+        if (fonts.size > HEAVIEST_COUNT) fonts.truncate(HEAVIEST_COUNT);
+    }
+    
+    private static long textureBytes(Texture texture) {
+        long bytes = (long) texture.getWidth() * texture.getHeight() * bytesPerPixel(texture);
+        //a full mipmap chain adds a third
+        if (texture.getMinFilter().isMipMap()) bytes = bytes * 4 / 3;
+        return bytes;
+    }
+    
+    private static int bytesPerPixel(Texture texture) {
+        var textureData = texture.getTextureData();
+        var format = textureData == null ? null : textureData.getFormat();
+        if (format == null) return 4;
+        switch (format) {
+            case Alpha:
+            case Intensity:
+                return 1;
+            case LuminanceAlpha:
+            case RGB565:
+            case RGBA4444:
+                return 2;
+            case RGB888:
+                return 3;
+            default:
+                return 4;
+        }
+    }
+    
+    private String writeReport(FileHandle skinFile) {
+        var stringWriter = new StringWriter();
+        var json = new Json(JsonWriter.OutputType.json);
+        json.setWriter(stringWriter);
+        json.writeObjectStart();
+        json.writeValue("skin", skinFile.name());
+        json.writeValue("timestamp", System.currentTimeMillis());
+        if (error != null) json.writeValue("error", error);
+        
+        json.writeObjectStart("loadMillis");
+        json.writeValue("atlasParse", atlasParseNanos / 1000000f);
+        json.writeValue("textureUpload", textureUploadNanos / 1000000f);
+        json.writeValue("regions", regionsNanos / 1000000f);
+        json.writeValue("json", jsonNanos / 1000000f);
+        json.writeValue("total", getTotalNanos() / 1000000f);
+        json.writeObjectEnd();
+        
+        json.writeValue("textures", textureCount);
+        json.writeValue("atlasPages", atlasPageCount);
+        json.writeValue("glyphPages", glyphPageCount);
+        json.writeValue("gpuBytes", gpuBytes);
+        
+        json.writeArrayStart("heaviestDrawables");
+        for (var entry : drawables) {
+            json.writeObjectStart();
+            json.writeValue("name", entry.name);
+            json.writeValue("width", entry.width);
+            json.writeValue("height", entry.height);
+            json.writeValue("bytes", entry.bytes);
+            json.writeObjectEnd();
+        }
+        json.writeArrayEnd();
+        
+        json.writeArrayStart("heaviestFonts");
+        for (var entry : fonts) {
+            json.writeObjectStart();
+            json.writeValue("name", entry.name);
+            json.writeValue("glyphs", entry.glyphs);
+            json.writeValue("pages", entry.pages);
+            json.writeValue("bytes", entry.bytes);
+            json.writeObjectEnd();
+        }
+        json.writeArrayEnd();
+        
+        json.writeObjectEnd();
+        return json.prettyPrint(stringWriter.toString());
+    }
+    
+    /**
+     * Creates a Skin that reads FreeType fonts with the same serializer that Skin Composer recommends to users.
+     * @return
+     */
+    static Skin createSkin() {
+        return new Skin() {
+            @Override
+            protected Json getJsonLoader(FileHandle skinFile) {
+                Json json = super.getJsonLoader(skinFile);
+                final Skin skin = this;
+                
+                json.setSerializer(FreeTypeFontGenerator.class, new Json.ReadOnlySerializer<FreeTypeFontGenerator>() {
+                    @Override
+                    public FreeTypeFontGenerator read(Json json, JsonValue jsonData, Class type) {
+                        String path = json.readValue("font", String.class, jsonData);
+                        jsonData.remove("font");
+                        
+                        Hinting hinting = Hinting.valueOf(json.readValue("hinting", String.class, "AutoMedium", jsonData));
+                        jsonData.remove("hinting");
+                        
+                        TextureFilter minFilter = TextureFilter.valueOf(json.readValue("minFilter", String.class, "Nearest", jsonData));
+                        jsonData.remove("minFilter");
+                        
+                        TextureFilter magFilter = TextureFilter.valueOf(json.readValue("magFilter", String.class, "Nearest", jsonData));
+                        jsonData.remove("magFilter");
+                        
+                        FreeTypeFontParameter parameter = json.readValue(FreeTypeFontParameter.class, jsonData);
+                        parameter.hinting = hinting;
+                        parameter.minFilter = minFilter;
+                        parameter.magFilter = magFilter;
+                        FreeTypeFontGenerator generator = new FreeTypeFontGenerator(skinFile.parent().child(path));
+                        BitmapFont font = generator.generateFont(parameter);
+                        skin.add(jsonData.name, font);
+                        if (parameter.incremental) {
+                            generator.dispose();
+                            return null;
+                        } else {
+                            return generator;
+                        }
+                    }
+                });
+                
+                return json;
+            }
+        };
+    }
+}
@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.ray3k.skincomposer.runtime.SkinPushClient;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Pushes exported skins to running games over a local socket. The server only listens on the loopback address and is
+ * disabled unless enabled in the settings. See {@link SkinPushClient} for the frame format and the game side. Games
+ * acknowledge every export they receive, and the latency from the edit to the receipt is logged.
+ */
+public class SkinPushServer {
+    private final CopyOnWriteArrayList<Client> clients = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender;
+    private volatile ServerSocket serverSocket;
+    private Thread acceptThread;
+    private volatile long lastLatencyMillis = -1;
+    
+    private static class Client {
+        Socket socket;
+        DataOutputStream output;
+    }
+    
+    public SkinPushServer() {
+        sender = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "Skin Push Sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Starts listening on the loopback address. Restarts the server if it is already running on a different port.
+     * @param port
+     */
+    public void start(int port) {
+        if (serverSocket != null) {
+            if (serverSocket.getLocalPort() == port) return;
+            stop();
+        }
+        
+        try {
+            var serverSocket = new ServerSocket(port, 4, InetAddress.getLoopbackAddress());
+            this.serverSocket = serverSocket;
+            acceptThread = new Thread(() -> accept(serverSocket), "Skin Push Server");
+            acceptThread.setDaemon(true);
+            acceptThread.start();
+        } catch (IOException e) {
+            Gdx.app.error(getClass().getName(), "Error starting the skin push server on port " + port, e);
+            serverSocket = null;
+        }
+    }
+    
+    public void stop() {
+        StreamUtils.closeQuietly(serverSocket);
+        serverSocket = null;
+        for (var client : clients) {
+            StreamUtils.closeQuietly(client.socket);
+        }
+        clients.clear();
+    }
+    
+    public boolean isRunning() {
+        return serverSocket != null;
+    }
+    
+    /**
+     * @return The port the server listens on, which is useful when it was started on port 0, or -1 if it isn't running.
+     */
+    public int getPort() {
+        var serverSocket = this.serverSocket;
+        return serverSocket == null ? -1 : serverSocket.getLocalPort();
+    }
+    
+    /**
+     * @return The time between the edit and the receipt of the last export acknowledged by a game in milliseconds, or
+     * -1 if no export has been acknowledged yet.
+     */
+    public long getLastLatencyMillis() {
+        return lastLatencyMillis;
+    }
+    
+    public int getClientCount() {
+        return clients.size();
+    }
+    
+    private void accept(ServerSocket serverSocket) {
+        while (!serverSocket.isClosed()) {
+            try {
+                var socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                var client = new Client();
+                client.socket = socket;
+                client.output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                clients.add(client);
+                
+                var receiptThread = new Thread(() -> readReceipts(client), "Skin Push Receipts");
+                receiptThread.setDaemon(true);
+                receiptThread.start();
+            } catch (IOException e) {
+                //the server socket was closed
+            }
+        }
+    }
+    
+    private void readReceipts(Client client) {
+        var crc = new CRC32();
+        try {
+            var input = new DataInputStream(new BufferedInputStream(client.socket.getInputStream()));
+            byte[] payload;
+            while ((payload = SkinPushClient.readFrame(input, crc)) != null) {
+                if (payload.length == 0) continue;
+                var frame = new DataInputStream(new ByteArrayInputStream(payload));
+                if (frame.readByte() != SkinPushClient.FRAME_RECEIVED) continue;
+                var latency = System.currentTimeMillis() - frame.readLong();
+                lastLatencyMillis = latency;
+                Gdx.app.log(getClass().getName(), "Export received by a game " + latency + " ms after the edit");
+            }
+        } catch (IOException e) {
+            //the game disconnected
+        }
+        StreamUtils.closeQuietly(client.socket);
+        clients.remove(client);
+    }
+    
+    /**
+     * Sends the exported skin, its atlas and atlas pages, and the given additional files to every connected game.
+     * Files that don't exist are skipped. Must be called after every file has been written.
+     * @param skinFile The exported skin JSON file.
+     * @param otherFiles The binary skin, fonts, and other files written with the export.
+     * @param editTimeMillis The time of the edit that caused the export in milliseconds since the epoch.
+     */
+    public void pushExport(FileHandle skinFile, Array<FileHandle> otherFiles, long editTimeMillis) {
+        if (serverSocket == null || clients.isEmpty()) return;
+        
+        var files = new Array<FileHandle>();
+        var name = skinFile.nameWithoutExtension();
+        var pagePattern = Pattern.compile(Pattern.quote(name) + "\\d*\\.(?i)png");
+        files.addAll(skinFile.parent().list((File dir, String fileName) -> pagePattern.matcher(fileName).matches()));
+        files.add(skinFile.sibling(name + ".atlas"));
+        files.addAll(otherFiles);
+        files.add(skinFile);
+        push(files, editTimeMillis);
+    }
+    
+    /**
+     * Sends the files as one export to every connected game. The files are read and sent on a background thread.
+     * @param files
+     * @param editTimeMillis
+     */
+    public void push(Array<FileHandle> files, long editTimeMillis) {
+        if (serverSocket == null || clients.isEmpty()) return;
+        
+        var pushFiles = new Array<>(files);
+        sender.execute(() -> {
+            var frames = new Array<byte[]>();
+            try {
+                for (var file : pushFiles) {
+                    if (!file.exists() || file.isDirectory()) continue;
+                    var bytes = new ByteArrayOutputStream((int) file.length() + 64);
+                    var frame = new DataOutputStream(bytes);
+                    frame.writeByte(SkinPushClient.FRAME_FILE);
+                    frame.writeLong(editTimeMillis);
+                    frame.writeUTF(file.name());
+                    frame.write(file.readBytes());
+                    frames.add(bytes.toByteArray());
+                }
+                
+                var bytes = new ByteArrayOutputStream(9);
+                var frame = new DataOutputStream(bytes);
+                frame.writeByte(SkinPushClient.FRAME_END);
+                frame.writeLong(editTimeMillis);
+                frames.add(bytes.toByteArray());
+            } catch (Exception e) {
+                Gdx.app.error(getClass().getName(), "Error reading files to push", e);
+                return;
+            }
+            
+            var crc = new CRC32();
+            for (var client : clients) {
+                try {
+                    for (var payload : frames) {
+                        SkinPushClient.writeFrame(client.output, payload, crc);
+                    }
+                    client.output.flush();
+                } catch (IOException e) {
+                    //the game disconnected
+                    StreamUtils.closeQuietly(client.socket);
+                    clients.remove(client);
+                }
+            }
+        });
+    }
+}
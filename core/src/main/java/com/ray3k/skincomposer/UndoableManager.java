@@ -23,11 +23,14 @@
  ******************************************************************************/
 package com.ray3k.skincomposer;
 
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.scenes.scene2d.ui.SelectBox;
 import com.badlogic.gdx.utils.Array;
 import com.ray3k.skincomposer.data.*;
 import com.ray3k.skincomposer.data.CustomProperty.PropertyType;
+import com.ray3k.skincomposer.data.DrawableData.DrawableType;
 
 import java.util.Iterator;
 
@@ -1420,4 +1423,62 @@ public class UndoableManager {
             return "Duplicate style " + style.getName();
         }
     }
-}
\ No newline at end of file
+
+    public static class NinePatchConversionUndoable implements Undoable {
+        private final Array<DrawableData> drawables = new Array<>();
+        private final Array<FileHandle> oldFiles = new Array<>();
+        private final Array<FileHandle> newFiles = new Array<>();
+        private final Array<DrawableType> oldTypes = new Array<>();
+        
+        /**
+         * Points the drawables of the converted candidates to their .9.png files on redo. Texture drawables become
+         * 9patches and tinted drawables keep their type.
+         * @param candidates
+         */
+        public NinePatchConversionUndoable(Array<NinePatchAnalysis.Candidate> candidates) {
+            for (var candidate : candidates) {
+                var targetFile = NinePatchBatch.getTargetFile(candidate.file);
+                for (var drawable : candidate.drawables) {
+                    drawables.add(drawable);
+                    oldFiles.add(drawable.file);
+                    newFiles.add(targetFile);
+                    oldTypes.add(drawable.type);
+                }
+            }
+        }
+        
+        @Override
+        public void undo() {
+            for (int i = 0; i < drawables.size; i++) {
+                var drawable = drawables.get(i);
+                drawable.file = oldFiles.get(i);
+                drawable.type = oldTypes.get(i);
+            }
+            refresh();
+        }
+        
+        @Override
+        public void redo() {
+            for (int i = 0; i < drawables.size; i++) {
+                var drawable = drawables.get(i);
+                drawable.file = newFiles.get(i);
+                if (oldTypes.get(i) == DrawableType.TEXTURE) drawable.type = DrawableType.NINE_PATCH;
+            }
+            refresh();
+        }
+        
+        private void refresh() {
+            atlasData.atlasCurrent = false;
+            if (!atlasData.produceAtlas()) {
+                Gdx.app.error(getClass().getName(), "Unable to produce texture atlas after converting drawables to 9patches");
+            }
+            rootTable.refreshStyleProperties(true);
+            rootTable.refreshPreview();
+        }
+        
+        @Override
+        public String getUndoText() {
+            return "Auto Patch Drawables";
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Timer;
+import com.ray3k.skincomposer.data.DrawableData;
+import com.ray3k.skincomposer.data.DrawableData.DrawableType;
+import com.ray3k.skincomposer.data.FontData;
+import com.ray3k.skincomposer.data.FreeTypeFontData;
+import com.ray3k.skincomposer.runtime.BinarySkinLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+import static com.ray3k.skincomposer.Main.*;
+
+/**
+ * Exports the project automatically after every change while watch mode is enabled. Changes are reported through
+ * {@link com.ray3k.skincomposer.data.ProjectData#setChangesSaved(boolean)}, which is also called by every undo, redo,
+ * and new undoable. Changes are debounced, the skin JSON is written on the render thread, and the texture atlas is
+ * packed on a background thread only when the packed images have changed. Every file is written to a staging folder
+ * first and then moved into the export folder so a game polling the folder never reads a partially written file.
+ */
+public class WatchExporter {
+    public static final float DEBOUNCE_SECONDS = .5f;
+    private final ExecutorService executor;
+    private final Timer.Task exportTask;
+    private FileHandle targetFile;
+    //only read and written on the render thread, the export thread reports back through postRunnable
+    private long firstChangeTime = -1;
+    private long firstChangeMillis;
+    private boolean exporting;
+    private boolean pending;
+    private String atlasSignature;
+    private int atlasPageCount;
+    
+    public WatchExporter() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "Watch Exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        exportTask = new Timer.Task() {
+            @Override
+            public void run() {
+                export();
+            }
+        };
+    }
+    
+    /**
+     * Begins watching the project. The next change triggers an export.
+     * @param targetFile The skin JSON file to export to. Other files are written next to it.
+     */
+    public void start(FileHandle targetFile) {
+        this.targetFile = targetFile;
+        atlasSignature = null;
+        atlasPageCount = 0;
+        rootTable.setWatchStatus("Watching " + targetFile.name());
+    }
+    
+    public void stop() {
+        if (targetFile == null) return;
+        targetFile = null;
+        exportTask.cancel();
+        firstChangeTime = -1;
+        pending = false;
+        rootTable.setWatchStatus("");
+    }
+    
+    public boolean isWatching() {
+        return targetFile != null;
+    }
+    
+    public FileHandle getTargetFile() {
+        return targetFile;
+    }
+    
+    /**
+     * Schedules an export. Repeated calls within {@link #DEBOUNCE_SECONDS} are combined into a single export.
+     */
+    public void changed() {
+        if (targetFile == null) return;
+        if (firstChangeTime == -1) {
+            firstChangeTime = System.nanoTime();
+            firstChangeMillis = System.currentTimeMillis();
+        }
+        exportTask.cancel();
+        Timer.schedule(exportTask, DEBOUNCE_SECONDS);
+    }
+    
+    private void export() {
+        if (targetFile == null) return;
+        if (exporting) {
+            pending = true;
+            return;
+        }
+        
+        exporting = true;
+        var target = targetFile;
+        var changeTime = firstChangeTime;
+        var changeMillis = firstChangeMillis;
+        firstChangeTime = -1;
+        
+        var stagingFolder = Main.appFolder.child("temp/watch/");
+        stagingFolder.deleteDirectory();
+        stagingFolder.mkdirs();
+        
+        //the model is only read on the render thread
+        var warnings = new Array<String>();
+        var stagedFiles = new Array<FileHandle>();
+        
+        var jsonFile = stagingFolder.child(target.name());
+        warnings.addAll(projectData.getJsonData().writeFile(jsonFile));
+        
+        if (projectData.isExportingBinary()) {
+            var binaryFile = stagingFolder.child(target.nameWithoutExtension() + "." + BinarySkinLoader.EXTENSION);
+            warnings.addAll(projectData.getJsonData().writeBinaryFile(binaryFile));
+            stagedFiles.add(binaryFile);
+        }
+        
+        var sharedFontAtlas = new SharedFontAtlas();
+        if (projectData.isExportingSharedFontAtlas()) {
+            warnings.addAll(sharedFontAtlas.bake(jsonFile));
+            stagedFiles.addAll(sharedFontAtlas.getPageFiles());
+            stagedFiles.addAll(sharedFontAtlas.getFontFiles());
+        }
+        
+        var copiedFiles = new Array<FileHandle>();
+        if (projectData.isExportingFonts()) {
+            for (FontData font : projectData.getJsonData().getFonts()) {
+                copiedFiles.add(font.file);
+            }
+            
+            for (FreeTypeFontData font : projectData.getJsonData().getFreeTypeFonts()) {
+                if (font.useCustomSerializer && !SharedFontAtlas.isShared(font)) copiedFiles.add(font.file);
+            }
+        }
+        
+        if (projectData.isExportingTVG()) {
+            for (DrawableData drawableData : projectData.getAtlasData().getDrawables()) {
+                if (drawableData.type == DrawableType.TVG) copiedFiles.add(drawableData.file);
+            }
+        }
+        
+        Array<FileHandle> atlasFiles = null;
+        if (projectData.isExportingAtlas()) {
+            atlasFiles = projectData.getAtlasData().collectAtlasFiles(warnings);
+            atlasFiles.addAll(sharedFontAtlas.collectAtlasFiles());
+            var signature = atlasSignature(atlasFiles);
+            if (signature.equals(atlasSignature) && target.sibling(target.nameWithoutExtension() + ".atlas").exists()) {
+                atlasFiles = null;
+            } else {
+                atlasSignature = signature;
+            }
+        }
+        
+        for (String warning : warnings) {
+            Gdx.app.log(getClass().getName(), warning);
+        }
+        
+        var packFiles = atlasFiles;
+        var saveFile = projectData.getSaveFile();
+        var previousPageCount = atlasPageCount;
+        executor.execute(() -> {
+            String status;
+            var failed = false;
+            int pageCount = previousPageCount;
+            try {
+                if (packFiles != null) {
+                    var settingsFile = Main.appFolder.child("texturepacker/atlas-export-settings.json");
+                    desktopWorker.texturePack(packFiles, saveFile, stagingFolder.child(target.nameWithoutExtension() + ".atlas"), settingsFile);
+                }
+                
+                var exportFolder = target.parent();
+                exportFolder.mkdirs();
+                
+                for (var file : copiedFiles) {
+                    var destination = exportFolder.child(file.name());
+                    if (file.exists() && !file.parent().equals(exportFolder) && (!destination.exists() || destination.lastModified() < file.lastModified() || destination.length() != file.length())) {
+                        var staged = stagingFolder.child(file.name());
+                        file.copyTo(staged);
+                        stagedFiles.add(staged);
+                    }
+                }
+                
+                //atlas pages before the atlas and the atlas before the skin so every reference is valid when read
+                if (packFiles != null) {
+                    var pagePattern = Pattern.compile(Pattern.quote(target.nameWithoutExtension()) + "\\d*\\.(?i)png");
+                    var pages = stagingFolder.list((File dir, String name) -> pagePattern.matcher(name).matches());
+                    for (var page : pages) {
+                        moveAtomically(page, exportFolder.child(page.name()));
+                    }
+                    moveAtomically(stagingFolder.child(target.nameWithoutExtension() + ".atlas"), exportFolder.child(target.nameWithoutExtension() + ".atlas"));
+                    pageCount = pages.length;
+                }
+                
+                for (var file : stagedFiles) {
+                    moveAtomically(file, exportFolder.child(file.name()));
+                }
+                moveAtomically(jsonFile, target);
+                
+                //remove pages left over from a previous export with more pages
+                for (int i = pageCount + 1; i <= previousPageCount; i++) {
+                    exportFolder.child(target.nameWithoutExtension() + i + ".png").delete();
+                }
+                
+                var pushFiles = new Array<FileHandle>();
+                for (var file : stagedFiles) {
+                    pushFiles.add(exportFolder.child(file.name()));
+                }
+                for (var file : copiedFiles) {
+                    pushFiles.add(exportFolder.child(file.name()));
+                }
+                skinPushServer.pushExport(target, pushFiles, changeMillis);
+                
+                status = "Exported " + target.name() + " in " + (System.nanoTime() - changeTime) / 1000000 + " ms";
+            } catch (Exception e) {
+                Gdx.app.error(getClass().getName(), "Error while exporting in watch mode", e);
+                failed = true;
+                status = "Watch export failed, see log";
+            }
+            
+            var finalStatus = status;
+            var finalFailed = failed;
+            var finalPageCount = pageCount;
+            Gdx.app.postRunnable(() -> {
+                exporting = false;
+                if (finalFailed) {
+                    atlasSignature = null;
+                } else {
+                    atlasPageCount = finalPageCount;
+                }
+                if (targetFile == null) return;
+                rootTable.setWatchStatus(finalStatus);
+                if (pending) {
+                    pending = false;
+                    export();
+                }
+            });
+        });
+    }
+    
+    private static String atlasSignature(Array<FileHandle> files) {
+        var builder = new StringBuilder();
+        for (var file : files) {
+            builder.append(file.path()).append(':').append(file.lastModified()).append(':').append(file.length()).append('\n');
+        }
+        return builder.toString();
+    }
+    
+    private static void moveAtomically(FileHandle source, FileHandle destination) throws IOException {
+        try {
+            Files.move(source.file().toPath(), destination.file().toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            //staging and export folders are on different file systems, fall back to a copy next to the destination
+            var temp = destination.sibling(destination.name() + ".tmp");
+            Files.copy(source.file().toPath(), temp.file().toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp.file().toPath(), destination.file().toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            source.delete();
+        }
+    }
+}
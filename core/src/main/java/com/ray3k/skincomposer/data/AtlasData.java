@@ -28,9 +28,8 @@ import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.PixmapIO;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
-import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.scenes.scene2d.utils.*;
 import com.badlogic.gdx.utils.Array;
@@ -39,6 +38,8 @@ import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.ObjectMap;
 import com.ray3k.skincomposer.Main;
 import com.ray3k.skincomposer.data.DrawableData.DrawableType;
+import com.ray3k.skincomposer.utils.PixmapPool;
+import com.ray3k.skincomposer.utils.ResourceTracker;
 import com.ray3k.skincomposer.utils.Utils;
 import com.ray3k.tenpatch.TenPatchDrawable;
 import dev.lyze.gdxtinyvg.scene2d.TinyVGDrawable;
@@ -55,6 +56,7 @@ public class AtlasData implements Json.Serializable {
     private Array<DrawableData> drawables;
     private Array<DrawableData> fontDrawables;
     private TextureAtlas atlas;
+    private long lastReadPeakBytes;
     public ObjectMap<DrawableData, Drawable> drawablePairs;
     
     public AtlasData() {
@@ -113,105 +115,134 @@ public class AtlasData implements Json.Serializable {
             
             targetDirectory.mkdirs();
             
-            TextureAtlas atlas = new TextureAtlas(fileHandle);
-            Array<AtlasRegion> regions = atlas.getRegions();
-            
-            for (AtlasRegion region : regions) {
-                Texture texture = region.getTexture();
-                if (!texture.getTextureData().isPrepared()) {
-                    texture.getTextureData().prepare();
-                }
-                
-                Pixmap pixmap = texture.getTextureData().consumePixmap();
-                pixmap.setBlending(Pixmap.Blending.None);
-                Pixmap savePixmap;
-                String name;
-                
-                if (region.findValue("split") == null && region.findValue("pad") == null) {
-                    name = region.name + ".png";
-                    savePixmap = new Pixmap(region.getRegionWidth(), region.getRegionHeight(), Pixmap.Format.RGBA8888);
-                    savePixmap.setBlending(Pixmap.Blending.None);
-                    for (int x = 0; x < region.getRegionWidth(); x++) {
-                        for (int y = 0; y < region.getRegionHeight(); y++) {
-                            int colorInt = pixmap.getPixel(region.getRegionX() + x, region.getRegionY() + y);
-                            savePixmap.drawPixel(x, y, colorInt);
-                        }
+            //read the atlas without creating textures and decode every page only once
+            var textureAtlasData = new TextureAtlasData(fileHandle, fileHandle.parent(), false);
+            var pagePixmaps = new ObjectMap<TextureAtlasData.Page, Pixmap>();
+            long pageBytes = 0;
+            PixmapPool.beginBatch();
+            PixmapPool.resetPeakBytes();
+            try {
+                for (var region : textureAtlasData.getRegions()) {
+                    var pixmap = pagePixmaps.get(region.page);
+                    if (pixmap == null) {
+                        pixmap = ResourceTracker.track(new Pixmap(region.page.textureFile));
+                        pixmap.setBlending(Pixmap.Blending.None);
+                        pagePixmaps.put(region.page, pixmap);
+                        pageBytes += (long) pixmap.getWidth() * pixmap.getHeight() * 4;
                     }
-                } else {
-                    name = region.name + ".9.png";
-                    savePixmap = new Pixmap(region.getRegionWidth() + 2, region.getRegionHeight() + 2, pixmap.getFormat());
-                    savePixmap.setBlending(Pixmap.Blending.None);
-                    int x;
-                    int y;
                     
-                    //draw 9 patch lines
-                    savePixmap.setColor(Color.BLACK);
-
-                    if (region.findValue("split") != null) {
-                        int[] splits = region.findValue("split");
+                    var regionWidth = region.rotate ? region.height : region.width;
+                    var regionHeight = region.rotate ? region.width : region.height;
+                    Pixmap savePixmap;
+                    String name;
+                    
+                    if (region.findValue("split") == null && region.findValue("pad") == null) {
+                        name = region.name + ".png";
+                        savePixmap = PixmapPool.obtain(regionWidth, regionHeight);
+                        savePixmap.setBlending(Pixmap.Blending.None);
+                        savePixmap.drawPixmap(pixmap, 0, 0, region.left, region.top, regionWidth, regionHeight);
+                    } else {
+                        name = region.name + ".9.png";
+                        savePixmap = PixmapPool.obtain(regionWidth + 2, regionHeight + 2);
+                        savePixmap.setBlending(Pixmap.Blending.None);
+                        int x;
+                        int y;
                         
-                        x = 0;
-                        for (y = splits[2] + 1; y < savePixmap.getHeight() - splits[3] - 1; y++) {
-                            savePixmap.drawPixel(x, y);
-                        }
+                        //draw 9 patch lines
+                        savePixmap.setColor(Color.BLACK);
                         
-                        y = 0;
-                        for (x = splits[0] + 1; x < savePixmap.getWidth() - splits[1] - 1; x++) {
-                            savePixmap.drawPixel(x, y);
+                        if (region.findValue("split") != null) {
+                            int[] splits = region.findValue("split");
+                            
+                            x = 0;
+                            for (y = splits[2] + 1; y < savePixmap.getHeight() - splits[3] - 1; y++) {
+                                savePixmap.drawPixel(x, y);
+                            }
+                            
+                            y = 0;
+                            for (x = splits[0] + 1; x < savePixmap.getWidth() - splits[1] - 1; x++) {
+                                savePixmap.drawPixel(x, y);
+                            }
                         }
-                    }
-                    
-                    if (region.findValue("pad") != null) {
-                        int[] pads = region.findValue("pad");
                         
-                        x = savePixmap.getWidth() - 1;
-                        for (y = pads[2] + 1; y < savePixmap.getHeight() - pads[3] - 1; y++) {
-                            savePixmap.drawPixel(x, y);
+                        if (region.findValue("pad") != null) {
+                            int[] pads = region.findValue("pad");
+                            
+                            x = savePixmap.getWidth() - 1;
+                            for (y = pads[2] + 1; y < savePixmap.getHeight() - pads[3] - 1; y++) {
+                                savePixmap.drawPixel(x, y);
+                            }
+                            
+                            y = savePixmap.getHeight() - 1;
+                            for (x = pads[0] + 1; x < savePixmap.getWidth() - pads[1] - 1; x++) {
+                                savePixmap.drawPixel(x, y);
+                            }
                         }
                         
-                        y = savePixmap.getHeight() - 1;
-                        for (x = pads[0] + 1; x < savePixmap.getWidth() - pads[1] - 1; x++) {
-                            savePixmap.drawPixel(x, y);
-                        }
+                        savePixmap.drawPixmap(pixmap, 1, 1, region.left, region.top, regionWidth, regionHeight);
                     }
-
-                    for (x = 0; x < region.getRegionWidth(); x++) {
-                        for (y = 0; y < region.getRegionHeight(); y++) {
-                            int colorInt = pixmap.getPixel(region.getRegionX() + x, region.getRegionY() + y);
-                            savePixmap.drawPixel(x + 1, y + 1, colorInt);
+                    FileHandle outputFile = targetDirectory.child(name);
+                    try {
+                        PixmapIO.writePNG(outputFile, savePixmap);
+                    } finally {
+                        PixmapPool.free(savePixmap);
+                    }
+                    DrawableData drawable = new DrawableData(outputFile);
+                    if (Utils.isNinePatch(outputFile.name())) {
+                        drawable.type = DrawableType.NINE_PATCH;
+                    } else {
+                        drawable.type = DrawableType.TEXTURE;
+                    }
+                    
+                    //delete drawables with the same name
+                    for (DrawableData originalData : new Array<>(projectData.getAtlasData().getDrawables())) {
+                        if (originalData.name.equals(drawable.name)) {
+                            projectData.getAtlasData().getDrawables().removeValue(originalData, true);
                         }
                     }
+                    
+                    drawables.add(drawable);
                 }
-                FileHandle outputFile = targetDirectory.child(name);
-                PixmapIO.writePNG(outputFile, savePixmap);
-                DrawableData drawable = new DrawableData(outputFile);
-                if (Utils.isNinePatch(outputFile.name())) {
-                    drawable.type = DrawableType.NINE_PATCH;
-                } else {
-                    drawable.type = DrawableType.TEXTURE;
-                }
-                
-                //delete drawables with the same name
-                for (DrawableData originalData : new Array<>(projectData.getAtlasData().getDrawables())) {
-                    if (originalData.name.equals(drawable.name)) {
-                        projectData.getAtlasData().getDrawables().removeValue(originalData, true);
-                    }
+            } finally {
+                for (var pixmap : pagePixmaps.values()) {
+                    pixmap.dispose();
                 }
-                    
-                drawables.add(drawable);
+                PixmapPool.endBatch();
             }
             
-            
+            lastReadPeakBytes = pageBytes + PixmapPool.getPeakBytes();
+            Gdx.app.log(getClass().getName(), "Unpacked " + textureAtlasData.getRegions().size + " regions from "
+                    + pagePixmaps.size + " pages. Peak pixmap memory: " + lastReadPeakBytes / 1024 + " KB");
         } else {
             throw new FileNotFoundException();
         }
     }
     
+    /**
+     * @return The most pixmap memory used at once by the last call to {@link #readAtlas(FileHandle)}, counting the
+     * decoded pages and the pooled pixmaps.
+     */
+    public long getLastReadPeakBytes() {
+        return lastReadPeakBytes;
+    }
+    
     public Array<String> writeAtlas(FileHandle settingsFile) throws Exception {
         return writeAtlas(Main.appFolder.child("temp/" + projectData.getId() + ".atlas"), settingsFile);
     }
     
     public Array<String> writeAtlas(FileHandle targetFile, FileHandle settingsFile) throws Exception {
+        return writeAtlas(targetFile, settingsFile, new Array<>());
+    }
+    
+    /**
+     * Packs the project images and the additional files into the texture atlas.
+     * @param targetFile
+     * @param settingsFile
+     * @param extraFiles Files packed along with the project images, such as the shared font pages.
+     * @return
+     * @throws Exception 
+     */
+    public Array<String> writeAtlas(FileHandle targetFile, FileHandle settingsFile, Array<FileHandle> extraFiles) throws Exception {
         Array<String> warnings = new Array<>();
         targetFile.parent().mkdirs();
         FileHandle[] oldFiles = targetFile.parent().list(new FilenameFilter() {
@@ -225,9 +256,20 @@ public class AtlasData implements Json.Serializable {
         }
         targetFile.sibling(targetFile.nameWithoutExtension() + ".atlas").delete();
         
+        Array<FileHandle> files = collectAtlasFiles(warnings);
+        files.addAll(extraFiles);
+        desktopWorker.texturePack(files, projectData.getSaveFile(), targetFile, settingsFile);
+        return warnings;
+    }
+    
+    /**
+     * Lists the image files that are packed into the texture atlas. Missing files are reported in warnings.
+     * @param warnings
+     * @return
+     */
+    public Array<FileHandle> collectAtlasFiles(Array<String> warnings) {
         Array<FileHandle> files = new Array<>();
         
-        
         for (DrawableData drawable : fontDrawables) {
             if (!files.contains(drawable.file, false)) {
                 files.add(drawable.file);
@@ -257,15 +299,14 @@ public class AtlasData implements Json.Serializable {
             files.add(fileHandle);
         }
         
-        desktopWorker.texturePack(files, projectData.getSaveFile(), targetFile, settingsFile);
-        return warnings;
+        return files;
     }
     
     public TextureAtlas getAtlas() {
         TextureAtlas atlas = null;
         FileHandle atlasFile = Main.appFolder.child("temp/" + projectData.getId() + ".atlas");
         if (atlasFile.exists()) {
-            atlas = new TextureAtlas(atlasFile);
+            atlas = ResourceTracker.track(new TextureAtlas(atlasFile));
         }
         return atlas;
     }
@@ -38,6 +38,9 @@ import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
 import com.ray3k.skincomposer.Main;
+import com.ray3k.skincomposer.utils.DistanceFieldFontGenerator;
+import com.ray3k.skincomposer.utils.GlyphRasterCache;
+import com.ray3k.skincomposer.utils.ResourceTracker;
 
 import static com.ray3k.skincomposer.Main.*;
 
@@ -68,6 +71,8 @@ public class FreeTypeFontData implements Json.Serializable {
     public String minFilter = "Nearest";
     public String magFilter = "Nearest";
     public boolean incremental;
+    public String distanceField = "STANDARD";
+    public int distanceFieldSpread = 4;
     public BitmapFont bitmapFont;
     
     public FreeTypeFontData() {
@@ -101,6 +106,75 @@ public class FreeTypeFontData implements Json.Serializable {
         minFilter = original.minFilter;
         magFilter = original.magFilter;
         incremental = original.incremental;
+        distanceField = original.distanceField;
+        distanceFieldSpread = original.distanceFieldSpread;
+    }
+    
+    /**
+     * Returns the font file used to generate the font. This is the selected preview font if the custom serializer is
+     * not used.
+     * @return null if the file doesn't exist.
+     */
+    public FileHandle getSourceFile() {
+        if (!useCustomSerializer) {
+            if (previewTTF == null) return null;
+            FileHandle previewFontPath = appFolder.child("preview fonts/" + previewTTF + ".ttf");
+            return previewFontPath.exists() ? previewFontPath : null;
+        } else {
+            return file != null && file.exists() ? file : null;
+        }
+    }
+    
+    /**
+     * Creates the parameter used to generate the font. Colors are looked up in the project, so this must be called on
+     * the render thread.
+     * @return
+     */
+    public FreeTypeFontParameter createParameter() {
+        FreeTypeFontParameter parameter = new FreeTypeFontParameter();
+        if (!useCustomSerializer) {
+            parameter.color = Color.BLACK;
+            return parameter;
+        }
+        
+        if (borderColor != null) for (ColorData colorData : jsonData.getColors()) {
+            if (colorData.getName().equals(borderColor)) {
+                parameter.borderColor = colorData.color;
+                break;
+            }
+        }
+        parameter.borderGamma = borderGamma;
+        parameter.borderStraight = borderStraight;
+        parameter.borderWidth = borderWidth;
+        parameter.characters = characters.equals("") ? DEFAULT_CHARS : characters;
+        if (color != null) for (ColorData colorData : jsonData.getColors()) {
+            if (colorData.getName().equals(color)) {
+                parameter.color = colorData.color;
+                break;
+            }
+        }
+        parameter.flip = flip;
+        parameter.gamma = gamma;
+        parameter.genMipMaps = genMipMaps;
+        parameter.hinting = hinting == null ? Hinting.AutoMedium : Hinting.valueOf(hinting);
+        parameter.incremental = false;
+        parameter.kerning = kerning;
+        parameter.magFilter = magFilter == null ? TextureFilter.Nearest : TextureFilter.valueOf(magFilter);
+        parameter.minFilter = minFilter == null ? TextureFilter.Nearest : TextureFilter.valueOf(minFilter);
+        parameter.mono = mono;
+        parameter.renderCount = renderCount;
+        if (shadowColor != null) for (ColorData colorData : jsonData.getColors()) {
+            if (colorData.getName().equals(shadowColor)) {
+                parameter.shadowColor = colorData.color;
+                break;
+            }
+        }
+        parameter.shadowOffsetX = shadowOffsetX;
+        parameter.shadowOffsetY = shadowOffsetY;
+        parameter.size = size;
+        parameter.spaceX = spaceX;
+        parameter.spaceY = spaceY;
+        return parameter;
     }
     
     public void createBitmapFont() {
@@ -109,69 +183,23 @@ public class FreeTypeFontData implements Json.Serializable {
             bitmapFont = null;
         }
         
+        FileHandle sourceFile = getSourceFile();
+        if (sourceFile == null) return;
+        
+        FreeTypeFontGenerator generator = GlyphRasterCache.newGenerator(sourceFile);
+        generator.setMaxTextureSize(FreeTypeFontGenerator.NO_MAXIMUM);
+        FreeTypeFontParameter parameter = createParameter();
         if (!useCustomSerializer) {
-            if (previewTTF == null) return;
-            FreeTypeFontParameter parameter = new FreeTypeFontParameter();
-            parameter.color = Color.BLACK;
-            
-            FileHandle previewFontPath = appFolder.child("preview fonts/" + previewTTF + ".ttf");
-            if (previewFontPath.exists()) {
-                FreeTypeFontGenerator generator = new FreeTypeFontGenerator(previewFontPath);
-                generator.setMaxTextureSize(FreeTypeFontGenerator.NO_MAXIMUM);
-                bitmapFont = generator.generateFont(parameter);
-                generator.dispose();
-            }
+            bitmapFont = ResourceTracker.track(generator.generateFont(parameter));
         } else {
-            if (file == null || !file.exists()) return;
-            FreeTypeFontGenerator generator = new FreeTypeFontGenerator(file);
-            generator.setMaxTextureSize(FreeTypeFontGenerator.NO_MAXIMUM);
-            FreeTypeFontParameter parameter = new FreeTypeFontParameter();
-
-            if (borderColor != null) for (ColorData colorData : jsonData.getColors()) {
-                if (colorData.getName().equals(borderColor)) {
-                    parameter.borderColor = colorData.color;
-                    break;
-                }
-            }
-            parameter.borderGamma = borderGamma;
-            parameter.borderStraight = borderStraight;
-            parameter.borderWidth = borderWidth;
-            parameter.characters = characters.equals("") ? DEFAULT_CHARS : characters;
-            if (color != null) for (ColorData colorData : jsonData.getColors()) {
-                if (colorData.getName().equals(color)) {
-                    parameter.color = colorData.color;
-                    break;
-                }
-            }
-            parameter.flip = flip;
-            parameter.gamma = gamma;
-            parameter.genMipMaps = genMipMaps;
-            parameter.hinting = hinting == null ? Hinting.AutoMedium : Hinting.valueOf(hinting);
-            parameter.incremental = false;
-            parameter.kerning = kerning;
-            parameter.magFilter = magFilter == null ? TextureFilter.Nearest : TextureFilter.valueOf(magFilter);
-            parameter.minFilter = minFilter == null ? TextureFilter.Nearest : TextureFilter.valueOf(minFilter);
-            parameter.mono = mono;
-            parameter.renderCount = renderCount;
-            if (shadowColor != null) for (ColorData colorData : jsonData.getColors()) {
-                if (colorData.getName().equals(shadowColor)) {
-                    parameter.shadowColor = colorData.color;
-                    break;
-                }
-            }
-            parameter.shadowOffsetX = shadowOffsetX;
-            parameter.shadowOffsetY = shadowOffsetY;
-            parameter.size = size;
-            parameter.spaceX = spaceX;
-            parameter.spaceY = spaceY;
-            
+            generator.setWorkerCount(Runtime.getRuntime().availableProcessors());
             try {
-                bitmapFont = generator.generateFont(parameter);
+                bitmapFont = ResourceTracker.track(generator.generateFont(parameter));
             } catch (GdxRuntimeException e) {
                 bitmapFont = null;
             }
-            generator.dispose();
         }
+        generator.dispose();
     }
     
     public void writeFontToFile(Main main, FileHandle target) {
@@ -181,68 +209,40 @@ public class FreeTypeFontData implements Json.Serializable {
         }
         
         if (!useCustomSerializer) {
-            if (previewTTF == null) return;
-            FreeTypeFontParameter parameter = new FreeTypeFontParameter();
-            parameter.color = Color.BLACK;
-            
-            FileHandle previewFontPath = appFolder.child("preview fonts/" + previewTTF + ".ttf");
-            if (previewFontPath.exists()) {
-                FreeTypeFontGenerator generator = new FreeTypeFontGenerator(previewFontPath);
-                generator.setMaxTextureSize(FreeTypeFontGenerator.NO_MAXIMUM);
-                bitmapFont = generator.generateFont(parameter);
-                generator.dispose();
-            }
+            createBitmapFont();
         } else {
             if (file == null) return;
-            FreeTypeFontGenerator generator = new FreeTypeFontGenerator(file);
-            FreeTypeFontParameter parameter = new FreeTypeFontParameter();
-
-            if (borderColor != null) for (ColorData colorData : jsonData.getColors()) {
-                if (colorData.getName().equals(borderColor)) {
-                    parameter.borderColor = colorData.color;
-                    break;
-                }
-            }
-            parameter.borderGamma = borderGamma;
-            parameter.borderStraight = borderStraight;
-            parameter.borderWidth = borderWidth;
-            parameter.characters = characters.equals("") ? DEFAULT_CHARS : characters;
-            if (color != null) for (ColorData colorData : jsonData.getColors()) {
-                if (colorData.getName().equals(color)) {
-                    parameter.color = colorData.color;
-                    break;
-                }
+            FreeTypeFontGenerator generator;
+            FreeTypeFontParameter parameter = createParameter();
+            if (isDistanceField()) {
+                //distance fields are computed per glyph, so even small character sets are rendered in parallel
+                generator = new DistanceFieldFontGenerator(file, distanceField.equals("MSDF"), distanceFieldSpread);
+                generator.setParallelThreshold(1);
+                DistanceFieldFontGenerator.prepareParameter(parameter);
+            } else {
+                generator = GlyphRasterCache.newGenerator(file);
             }
-            parameter.flip = flip;
-            parameter.gamma = gamma;
-            parameter.genMipMaps = genMipMaps;
-            parameter.hinting = hinting == null ? Hinting.AutoMedium : Hinting.valueOf(hinting);
-            parameter.incremental = false;
-            parameter.kerning = kerning;
-            parameter.magFilter = magFilter == null ? TextureFilter.Nearest : TextureFilter.valueOf(magFilter);
-            parameter.minFilter = minFilter == null ? TextureFilter.Nearest : TextureFilter.valueOf(minFilter);
-            parameter.mono = mono;
-            parameter.renderCount = renderCount;
-            if (shadowColor != null) for (ColorData colorData : jsonData.getColors()) {
-                if (colorData.getName().equals(shadowColor)) {
-                    parameter.shadowColor = colorData.color;
-                    break;
-                }
-            }
-            parameter.shadowOffsetX = shadowOffsetX;
-            parameter.shadowOffsetY = shadowOffsetY;
-            parameter.size = size;
-            parameter.spaceX = spaceX;
-            parameter.spaceY = spaceY;
+            generator.setWorkerCount(Runtime.getRuntime().availableProcessors());
             parameter.packer = new PixmapPacker(512, 512, Pixmap.Format.RGBA8888, 2, false, new PixmapPacker.SkylineStrategy());
 
-            var data = generator.generateData(parameter);
-            
-            desktopWorker.writeFont(data, parameter.packer.getPages(), target);
-            generator.dispose();
+            try {
+                var data = generator.generateData(parameter);
+                desktopWorker.writeFont(data, parameter.packer.getPages(), target);
+            } finally {
+                //the packer belongs to the caller, so its pages are not disposed with the generator
+                parameter.packer.dispose();
+                generator.dispose();
+            }
         }
     }
 
+    /**
+     * @return true if the glyph pages are written as SDF or MSDF distance fields for TextraTypist.
+     */
+    public boolean isDistanceField() {
+        return distanceField != null && !distanceField.equals("STANDARD");
+    }
+
     @Override
     public void write(Json json) {
         json.writeValue("name", name);
@@ -271,6 +271,8 @@ public class FreeTypeFontData implements Json.Serializable {
         json.writeValue("minFilter", minFilter);
         json.writeValue("magFilter", magFilter);
         json.writeValue("incremental", incremental);
+        json.writeValue("distanceField", distanceField);
+        json.writeValue("distanceFieldSpread", distanceFieldSpread);
     }
 
     @Override
@@ -301,5 +303,7 @@ public class FreeTypeFontData implements Json.Serializable {
         minFilter = jsonData.getString("minFilter", "Nearest");
         magFilter = jsonData.getString("magFilter", "Nearest");
         incremental = jsonData.getBoolean("incremental");
+        distanceField = jsonData.getString("distanceField", "STANDARD");
+        distanceFieldSpread = jsonData.getInt("distanceFieldSpread", 4);
     }
 }
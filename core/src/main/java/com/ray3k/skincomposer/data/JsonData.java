@@ -41,11 +41,13 @@ import com.badlogic.gdx.utils.JsonWriter.OutputType;
 import com.badlogic.gdx.utils.reflect.ClassReflection;
 import com.badlogic.gdx.utils.reflect.ReflectionException;
 import com.ray3k.skincomposer.Main;
+import com.ray3k.skincomposer.SharedFontAtlas;
 import com.ray3k.skincomposer.data.CustomProperty.PropertyType;
 import com.ray3k.skincomposer.data.DrawableData.DrawableType;
 import com.ray3k.skincomposer.dialog.DialogFactory;
 import com.ray3k.skincomposer.dialog.DialogTVG.TvgData;
 import com.ray3k.skincomposer.dialog.tenpatch.DialogTenPatch;
+import com.ray3k.skincomposer.runtime.BinarySkinLoader;
 import com.ray3k.skincomposer.utils.Utils;
 import com.ray3k.tenpatch.TenPatchDrawable;
 import com.ray3k.tenpatch.TenPatchDrawable.CrushMode;
@@ -54,7 +56,10 @@ import dev.lyze.gdxtinyvg.scene2d.TinyVGDrawable;
 import static com.ray3k.skincomposer.Main.*;
 import static com.ray3k.skincomposer.data.DrawableData.DrawableType.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.StringWriter;
+import java.util.function.Function;
 
 public class JsonData implements Json.Serializable {
     private Array<ColorData> colors;
@@ -135,7 +140,46 @@ public class JsonData implements Json.Serializable {
         //read json file and create styles
         JsonReader reader = new JsonReader();
         JsonValue val = reader.parse(fileHandle.reader("UTF-8"));
-
+        
+        //imported entries replace existing entries with the same name when they are merged after reading
+        var importedFonts = new ImportedEntries<FontData>();
+        var importedFreeTypeFonts = new ImportedEntries<FreeTypeFontData>();
+        var importedColors = new ImportedEntries<ColorData>();
+        var importedDrawables = new ImportedEntries<DrawableData>();
+        var drawablesByName = new ObjectMap<String, DrawableData>();
+        for (DrawableData drawable : projectData.getAtlasData().getDrawables()) {
+            if (!drawablesByName.containsKey(drawable.name)) drawablesByName.put(drawable.name, drawable);
+        }
+        var stylesByClass = new ObjectMap<Class, ObjectMap<String, StyleData>>();
+        
+        //FreeType fonts are generated after the colors are merged so they can use colors defined in the same skin
+        var readFreeTypeFonts = new Array<FreeTypeFontData>();
+        
+        try {
+            readValues(val, fileHandle, targetDirectory, warnings, importedFonts, readFreeTypeFonts, importedColors, importedDrawables, drawablesByName, stylesByClass);
+        } finally {
+            importedColors.merge(colors, ColorData::getName);
+            for (var data : readFreeTypeFonts) {
+                data.createBitmapFont();
+                
+                if (data.bitmapFont != null) {
+                    //delete fonts with the same name
+                    importedFonts.remove(data.name);
+                    importedFreeTypeFonts.put(data.name, data);
+                }
+            }
+            importedFonts.merge(fonts, FontData::getName);
+            importedFreeTypeFonts.merge(freeTypeFonts, font -> font.name);
+            importedDrawables.merge(projectData.getAtlasData().getDrawables(), drawable -> drawable.name);
+        }
+        
+        return warnings;
+    }
+    
+    private void readValues(JsonValue val, FileHandle fileHandle, FileHandle targetDirectory, Array<String> warnings,
+                            ImportedEntries<FontData> importedFonts, Array<FreeTypeFontData> readFreeTypeFonts,
+                            ImportedEntries<ColorData> importedColors, ImportedEntries<DrawableData> importedDrawables,
+                            ObjectMap<String, DrawableData> drawablesByName, ObjectMap<Class, ObjectMap<String, StyleData>> stylesByClass) {
         for (JsonValue child : val.iterator()) {
             //fonts
             if (child.name().equals(BitmapFont.class.getName()) || child.name().equals(BitmapFont.class.getSimpleName())) {
@@ -144,7 +188,7 @@ public class JsonData implements Json.Serializable {
                         FileHandle fontFile = fileHandle.sibling(font.getString("file"));
                         if (!fontFile.exists()) {
                             warnings.add("[RED]ERROR:[] Font file [BLACK]" + fontFile.name() + "[] does not exist.");
-                            return warnings;
+                            return;
                         }
                         FileHandle fontCopy = targetDirectory.child(font.getString("file"));
                         if (!fontCopy.parent().equals(fontFile.parent())) {
@@ -152,20 +196,13 @@ public class JsonData implements Json.Serializable {
                         }
                         FontData fontData = new FontData(font.name(), font.getInt("scaledSize", -1), font.getBoolean("markupEnabled", false), font.getBoolean("flip", false), fontCopy);
 
-                        //delete fonts with the same name
-                        for (FontData originalData : new Array<>(fonts)) {
-                            if (originalData.getName().equals(fontData.getName())) {
-                                fonts.removeValue(originalData, true);
-                            }
-                        }
-
-                        fonts.add(fontData);
+                        importedFonts.put(fontData.getName(), fontData);
 
                         BitmapFont.BitmapFontData bitmapFontData = new BitmapFont.BitmapFontData(fontCopy, false);
                         for (String path : bitmapFontData.imagePaths) {
                             FileHandle file = new FileHandle(path);
                             
-                            var drawable = projectData.getAtlasData().getDrawable(file.nameWithoutExtension());
+                            var drawable = drawablesByName.get(file.nameWithoutExtension());
                             if(drawable == null) {
                                 drawable = projectData.getAtlasData().getFontDrawable(file.nameWithoutExtension());
                                 if (drawable == null) {
@@ -176,6 +213,7 @@ public class JsonData implements Json.Serializable {
                             }
                             drawable.type = DrawableType.FONT;
                             
+                            if (drawablesByName.get(drawable.name) == drawable) drawablesByName.remove(drawable.name);
                             projectData.getAtlasData().getDrawables().removeValue(drawable, false);
                             projectData.getAtlasData().getFontDrawables().add(drawable);
                         }
@@ -215,31 +253,14 @@ public class JsonData implements Json.Serializable {
                         FileHandle fontFile = fileHandle.sibling(font.getString("font"));
                         if (!fontFile.exists()) {
                             warnings.add("[RED]ERROR:[] Font file [BLACK]" + fontFile.name() + "[] does not exist.");
-                            return warnings;
+                            return;
                         }
                         FileHandle fontCopy = targetDirectory.child(font.getString("font"));
                         if (!fontCopy.parent().equals(fontFile.parent()) && !fontCopy.exists()) {
                             fontFile.copyTo(fontCopy);
                         }
                         data.file = fontCopy;
-                        data.createBitmapFont();
-
-                        if (data.bitmapFont != null) {
-                            //delete fonts with the same name
-                            for (FontData duplicate : new Array<>(fonts)) {
-                                if (duplicate.getName().equals(data.name)) {
-                                    fonts.removeValue(duplicate, false);
-                                }
-                            }
-
-                            for (FreeTypeFontData duplicate : new Array<>(freeTypeFonts)) {
-                                if (duplicate.name.equals(data.name)) {
-                                    freeTypeFonts.removeValue(duplicate, false);
-                                }
-                            }
-
-                            freeTypeFonts.add(data);
-                        }
+                        readFreeTypeFonts.add(data);
                     }
                 }
             } //colors
@@ -253,27 +274,20 @@ public class JsonData implements Json.Serializable {
                     }
                     ColorData colorData = new ColorData(color.name, colorValue);
                     
-                    //delete colors with the same name
-                    for (ColorData originalData : new Array<>(colors)) {
-                        if (originalData.getName().equals(colorData.getName())) {
-                            colors.removeValue(originalData, true);
-                        }
-                    }
-                    
-                    colors.add(colorData);
+                    importedColors.put(colorData.getName(), colorData);
                 }
             }
             //drawables
             else if (child.name().equals(TextureRegionDrawable.class.getName()) || child.name().equals(TextureRegionDrawable.class.getSimpleName()) || child.name().equals(NinePatchDrawable.class.getName()) || child.name().equals(NinePatchDrawable.class.getSimpleName())) {
                 for (JsonValue jsonValue : child.iterator()) {
-                    DrawableData drawableData = projectData.getAtlasData().getDrawable(jsonValue.name);
+                    DrawableData drawableData = drawablesByName.get(jsonValue.name);
                     if (jsonValue.has("minWidth")) drawableData.minWidth = jsonValue.getFloat("minWidth");
                     if (jsonValue.has("minHeight")) drawableData.minHeight = jsonValue.getFloat("minHeight");
                 }
             } //tiled drawables
             else if (child.name().equals(TiledDrawable.class.getName()) || child.name().equals(TiledDrawable.class.getSimpleName())) {
                 for (JsonValue tiledDrawable : child.iterator()) {
-                    DrawableData drawableData = new DrawableData(projectData.getAtlasData().getDrawable(tiledDrawable.getString("region")).file);
+                    DrawableData drawableData = new DrawableData(drawablesByName.get(tiledDrawable.getString("region")).file);
                     drawableData.type = DrawableType.TILED;
                     drawableData.name = tiledDrawable.name;
                     
@@ -282,19 +296,13 @@ public class JsonData implements Json.Serializable {
                     drawableData.minWidth = tiledDrawable.getFloat("minWidth", 0.0f);
                     drawableData.minHeight = tiledDrawable.getFloat("minHeight", 0.0f);
    
-                    //delete drawables with the same name
-                    for (DrawableData originalData : new Array<>(projectData.getAtlasData().getDrawables())) {
-                        if (originalData.name.equals(drawableData.name)) {
-                            projectData.getAtlasData().getDrawables().removeValue(originalData, true);
-                        }
-                    }
-                    
-                    projectData.getAtlasData().getDrawables().add(drawableData);
+                    importedDrawables.put(drawableData.name, drawableData);
+                    drawablesByName.put(drawableData.name, drawableData);
                 }
             } //tinted drawables
             else if (child.name().equals(TintedDrawable.class.getName()) || child.name().equals(TintedDrawable.class.getSimpleName())) {
                 for (JsonValue tintedDrawable : child.iterator()) {
-                    DrawableData drawableData = new DrawableData(projectData.getAtlasData().getDrawable(tintedDrawable.getString("name")).file);
+                    DrawableData drawableData = new DrawableData(drawablesByName.get(tintedDrawable.getString("name")).file);
                     drawableData.name = tintedDrawable.name;
                     
                     if (!tintedDrawable.get("color").isString()) {
@@ -313,19 +321,13 @@ public class JsonData implements Json.Serializable {
                     if (tintedDrawable.has("minWidth")) drawableData.minWidth = tintedDrawable.getFloat("minWidth");
                     if (tintedDrawable.has("minHeight")) drawableData.minHeight = tintedDrawable.getFloat("minHeight");
                     
-                    //delete drawables with the same name
-                    for (DrawableData originalData : new Array<>(projectData.getAtlasData().getDrawables())) {
-                        if (originalData.name.equals(drawableData.name)) {
-                            projectData.getAtlasData().getDrawables().removeValue(originalData, true);
-                        }
-                    }
-                    
-                    projectData.getAtlasData().getDrawables().add(drawableData);
+                    importedDrawables.put(drawableData.name, drawableData);
+                    drawablesByName.put(drawableData.name, drawableData);
                 }
             } //ten patch drawables
             else if (child.name().equals(TenPatchDrawable.class.getName()) || child.name().equals(TenPatchDrawable.class.getSimpleName())) {
                 for (JsonValue value : child.iterator()) {
-                    DrawableData drawableData = new DrawableData(projectData.getAtlasData().getDrawable(value.getString("region")).file);
+                    DrawableData drawableData = new DrawableData(drawablesByName.get(value.getString("region")).file);
                     drawableData.type = DrawableType.TENPATCH;
                     drawableData.name = value.name();
                     drawableData.tenPatchData = new DialogTenPatch.TenPatchData();
@@ -352,14 +354,8 @@ public class JsonData implements Json.Serializable {
                     drawableData.tenPatchData.playMode = value.getInt("playMode", TenPatchDrawable.PlayMode.LOOP);
                     drawableData.tenPatchData.crushMode = value.getInt("crushMode", CrushMode.SHRINK);
     
-                    //delete drawables with the same name
-                    for (DrawableData originalData : new Array<>(projectData.getAtlasData().getDrawables())) {
-                        if (originalData.name.equals(drawableData.name)) {
-                            projectData.getAtlasData().getDrawables().removeValue(originalData, true);
-                        }
-                    }
-    
-                    projectData.getAtlasData().getDrawables().add(drawableData);
+                    importedDrawables.put(drawableData.name, drawableData);
+                    drawablesByName.put(drawableData.name, drawableData);
                 }
             } //TVG drawables
             else if (child.name().equals(TinyVGDrawable.class.getName()) || child.name().equals(TinyVGDrawable.class.getSimpleName())) {
@@ -370,7 +366,7 @@ public class JsonData implements Json.Serializable {
                     System.out.println("tvgFile.path() = " + tvgFile.path());
                     if (!tvgFile.exists()) {
                         warnings.add("[RED]ERROR:[] TVG file [BLACK]" + tvgFile.name() + "[] does not exist.");
-                        return warnings;
+                        return;
                     }
                     FileHandle tvgCopy = targetDirectory.child(value.getString("file"));
                     if (!tvgCopy.parent().equals(tvgFile.parent()) && !tvgCopy.exists()) {
@@ -383,14 +379,8 @@ public class JsonData implements Json.Serializable {
                     drawableData.tvgData = new TvgData();
                     drawableData.tvgData.clipBasedOnTVGsize = value.getBoolean("clipBasedOnTVGsize");
         
-                    //delete drawables with the same name
-                    for (DrawableData originalData : new Array<>(projectData.getAtlasData().getDrawables())) {
-                        if (originalData.name.equals(drawableData.name)) {
-                            projectData.getAtlasData().getDrawables().removeValue(originalData, true);
-                        }
-                    }
-        
-                    projectData.getAtlasData().getDrawables().add(drawableData);
+                    importedDrawables.put(drawableData.name, drawableData);
+                    drawablesByName.put(drawableData.name, drawableData);
                 }
             } //styles
             else {
@@ -408,8 +398,23 @@ public class JsonData implements Json.Serializable {
                     }
 
                     Class clazz = Main.BASIC_CLASSES[classIndex];
+                    var styles = stylesByClass.get(clazz);
+                    if (styles == null) {
+                        styles = new ObjectMap<>();
+                        for (StyleData style : getClassStyleMap().get(clazz)) {
+                            styles.put(style.name, style);
+                        }
+                        stylesByClass.put(clazz, styles);
+                    }
+                    
                     for (JsonValue style : child.iterator()) {
-                        StyleData data = newStyle(clazz, style.name);
+                        StyleData data = styles.get(style.name);
+                        if (data == null) {
+                            data = newStyle(clazz, style.name);
+                            styles.put(style.name, data);
+                        } else {
+                            data.resetProperties();
+                        }
                         for (JsonValue property : style.iterator()) {
                             if (property.name.equals("parent")) {
                                 data.parent = property.asString();
@@ -525,46 +530,41 @@ public class JsonData implements Json.Serializable {
                 }
             }
         }
-        
-        return warnings;
     }
     
     public void checkForPropertyConsistency() {
+        var colorNames = new ObjectSet<String>();
+        for (ColorData color : colors) {
+            colorNames.add(color.getName());
+        }
+        
+        var fontNames = new ObjectSet<String>();
+        for (FontData font : fonts) {
+            fontNames.add(font.getName());
+        }
+        
+        var freeTypeFontNames = new ObjectSet<String>();
+        for (FreeTypeFontData font : freeTypeFonts) {
+            freeTypeFontNames.add(font.name);
+        }
+        
+        var drawableNames = new ObjectSet<String>();
+        for (DrawableData drawable : atlasData.getDrawables()) {
+            drawableNames.add(drawable.name);
+        }
+        
         for (Class clazz : classStyleMap.keys()) {
             for (StyleData styleData : classStyleMap.get(clazz)) {
                 for (StyleProperty property : styleData.properties.values()) {
                     if (property.value != null) {
                         boolean keep = false;
                         if (property.type == Color.class) {
-                            for (ColorData color : colors) {
-                                if (property.value.equals(color.getName())) {
-                                    keep = true;
-                                    break;
-                                }
-                            }
+                            keep = colorNames.contains((String) property.value);
                         } else if (property.type == BitmapFont.class) {
-                            for (FontData font : fonts) {
-                                if (property.value.equals(font.getName())) {
-                                    keep = true;
-                                    break;
-                                }
-                            }
-                            for (FreeTypeFontData font : freeTypeFonts) {
-                                if (property.value.equals(font.name)) {
-                                    keep = true;
-                                    break;
-                                }
-                            }
+                            keep = fontNames.contains((String) property.value) || freeTypeFontNames.contains((String) property.value);
                         } else if (property.type == Drawable.class) {
-                            for (DrawableData drawable : atlasData.getDrawables()) {
-                                if (property.value.equals(drawable.name)) {
-                                    keep = true;
-                                    break;
-                                }
-                            }
-                            
-                            if (!keep) {
-                                keep = true;
+                            keep = true;
+                            if (drawableNames.add((String) property.value)) {
                                 DrawableData customDrawable = new DrawableData((String) property.value);
                                 customDrawable.type = DrawableType.CUSTOM;
                                 atlasData.getDrawables().add(customDrawable);
@@ -590,26 +590,14 @@ public class JsonData implements Json.Serializable {
                             keep = true;
                         } else switch (customProperty.getType()) {
                             case COLOR:
-                                for (ColorData color : colors) {
-                                    if (customProperty.getValue().equals(color.getName())) {
-                                        keep = true;
-                                        break;
-                                    }
-                                }   break;
+                                keep = colorNames.contains(customProperty.getValue().toString());
+                                break;
                             case DRAWABLE:
-                                for (DrawableData drawable : atlasData.getDrawables()) {
-                                    if (customProperty.getValue().equals(drawable.name)) {
-                                        keep = true;
-                                        break;
-                                    }
-                                }   break;
+                                keep = drawableNames.contains(customProperty.getValue().toString());
+                                break;
                             case FONT:
-                                for (FontData font : fonts) {
-                                    if (customProperty.getValue().equals(font.getName())) {
-                                        keep = true;
-                                        break;
-                                    }
-                                }   break;
+                                keep = fontNames.contains(customProperty.getValue().toString());
+                                break;
                             default:
                                 keep = true;
                                 break;
@@ -669,7 +657,12 @@ public class JsonData implements Json.Serializable {
         json.writeObjectStart();
 
         //fonts
-        if (fonts.size > 0) {
+        var sharedFonts = new Array<FreeTypeFontData>();
+        for (FreeTypeFontData font : freeTypeFonts) {
+            if (SharedFontAtlas.isShared(font)) sharedFonts.add(font);
+        }
+        
+        if (fonts.size > 0 || sharedFonts.size > 0) {
             String className = projectData.isUsingSimpleNames() ? BitmapFont.class.getSimpleName() : BitmapFont.class.getName();
             json.writeObjectStart(className);
             for (FontData font : fonts) {
@@ -680,6 +673,14 @@ public class JsonData implements Json.Serializable {
                 json.writeValue("flip", font.isFlip());
                 json.writeObjectEnd();
             }
+            
+            //FreeType fonts baked into the shared font pages
+            for (FreeTypeFontData font : sharedFonts) {
+                json.writeObjectStart(font.name);
+                json.writeValue("file", SharedFontAtlas.getFontFileName(font));
+                json.writeValue("flip", font.flip);
+                json.writeObjectEnd();
+            }
             json.writeObjectEnd();
         }
 
@@ -706,7 +707,7 @@ public class JsonData implements Json.Serializable {
         //FreeType fonts
         boolean exportFreeType = false;
         for (FreeTypeFontData font : freeTypeFonts) {
-            if (font.useCustomSerializer) {
+            if (font.useCustomSerializer && !SharedFontAtlas.isShared(font)) {
                 exportFreeType = true;
                 break;
             }
@@ -715,7 +716,7 @@ public class JsonData implements Json.Serializable {
         if (exportFreeType) {
             json.writeObjectStart(FreeTypeFontGenerator.class.getName());
             for (FreeTypeFontData font : freeTypeFonts) {
-                if (font.useCustomSerializer) {
+                if (font.useCustomSerializer && !SharedFontAtlas.isShared(font)) {
                     json.writeObjectStart(font.name);
                     json.writeValue("font", font.file.name());
                     json.writeValue("size", font.size);
@@ -1111,6 +1112,483 @@ public class JsonData implements Json.Serializable {
         return warnings;
     }
     
+    /**
+     * Exports skin data to a binary file that can be loaded by {@link BinarySkinLoader} without parsing JSON. Names
+     * are interned in a string table, colors are resolved to RGBA8888 values, and drawables and fonts used by styles
+     * are written as indices.
+     * @param fileHandle
+     * @return 
+     */
+    public Array<String> writeBinaryFile(FileHandle fileHandle) {
+        Array<String> warnings = new Array<>();
+        var tables = new BinaryTables();
+        
+        try {
+            //colors, fonts, and drawable definitions
+            var resourceBytes = new ByteArrayOutputStream();
+            var output = new DataOutput(resourceBytes);
+            
+            output.writeInt(colors.size, true);
+            for (ColorData color : colors) {
+                output.writeInt(tables.string(color.getName()), true);
+                output.writeInt(Color.rgba8888(color.color));
+            }
+            
+            var sharedFonts = new Array<FreeTypeFontData>();
+            for (FreeTypeFontData font : freeTypeFonts) {
+                if (SharedFontAtlas.isShared(font)) sharedFonts.add(font);
+            }
+            
+            output.writeInt(fonts.size + sharedFonts.size, true);
+            for (FontData font : fonts) {
+                output.writeInt(tables.string(font.getName()), true);
+                output.writeInt(tables.string(font.file.name()), true);
+                output.writeFloat(font.getScaling());
+                output.writeBoolean(font.isMarkupEnabled());
+                output.writeBoolean(font.isFlip());
+            }
+            
+            for (FreeTypeFontData font : sharedFonts) {
+                output.writeInt(tables.string(font.name), true);
+                output.writeInt(tables.string(SharedFontAtlas.getFontFileName(font)), true);
+                output.writeFloat(-1f);
+                output.writeBoolean(false);
+                output.writeBoolean(font.flip);
+            }
+            
+            for (FreeTypeFontData font : freeTypeFonts) {
+                if (!SharedFontAtlas.isShared(font)) warnings.add("FreeType font [BLACK]" + font.name + "[] is not written to the binary skin. Add it to the Skin before loading.");
+            }
+            
+            var drawables = new Array<DrawableData>();
+            for (DrawableData drawable : atlasData.getDrawables()) {
+                switch (drawable.type) {
+                    case TINTED:
+                    case TINTED_FROM_COLOR_DATA:
+                    case PIXEL:
+                    case TILED:
+                        drawables.add(drawable);
+                        break;
+                    case TEXTURE:
+                    case NINE_PATCH:
+                        //only include if minSize has been modified
+                        if (!MathUtils.isEqual(drawable.minWidth, -1f) || !MathUtils.isEqual(drawable.minHeight, -1f)) {
+                            drawables.add(drawable);
+                        }
+                        break;
+                    case TENPATCH:
+                    case TVG:
+                        warnings.add("Drawable [BLACK]" + drawable.name + "[] is not written to the binary skin. Add it to the Skin before loading.");
+                        break;
+                }
+            }
+            
+            output.writeInt(drawables.size, true);
+            for (DrawableData drawable : drawables) {
+                switch (drawable.type) {
+                    case TINTED:
+                    case TINTED_FROM_COLOR_DATA:
+                    case PIXEL:
+                        output.writeByte(BinarySkinLoader.DRAWABLE_TINTED);
+                        output.writeInt(tables.string(drawable.name), true);
+                        output.writeInt(tables.string(drawable.type == PIXEL ? "white-pixel" : DrawableData.proper(drawable.file.name())), true);
+                        output.writeInt(Color.rgba8888(drawable.type == TINTED ? drawable.tint : resolveColor(drawable.tintName, warnings)));
+                        output.writeFloat(drawable.minWidth);
+                        output.writeFloat(drawable.minHeight);
+                        break;
+                    case TILED:
+                        output.writeByte(BinarySkinLoader.DRAWABLE_TILED);
+                        output.writeInt(tables.string(drawable.name), true);
+                        output.writeInt(tables.string(DrawableData.proper(drawable.file.name())), true);
+                        output.writeInt(Color.rgba8888(resolveColor(drawable.tintName, warnings)));
+                        output.writeFloat(drawable.minWidth);
+                        output.writeFloat(drawable.minHeight);
+                        break;
+                    case TEXTURE: {
+                        var dimensions = Utils.imageDimensions(drawable.file);
+                        output.writeByte(BinarySkinLoader.DRAWABLE_TEXTURE_REGION);
+                        output.writeInt(tables.string(drawable.file.nameWithoutExtension()), true);
+                        output.writeInt(tables.string(drawable.file.nameWithoutExtension()), true);
+                        output.writeFloat(!MathUtils.isEqual(drawable.minWidth, -1) ? drawable.minWidth : dimensions.x);
+                        output.writeFloat(!MathUtils.isEqual(drawable.minHeight, -1) ? drawable.minHeight : dimensions.y);
+                        break;
+                    }
+                    case NINE_PATCH: {
+                        var dimensions = Utils.imageDimensions(drawable.file);
+                        var atlasDrawable = atlasData.getDrawablePairs().get(drawable);
+                        output.writeByte(BinarySkinLoader.DRAWABLE_NINE_PATCH);
+                        output.writeInt(tables.string(drawable.name), true);
+                        output.writeInt(tables.string(drawable.file.name().replaceAll("\\.9.*$", "")), true);
+                        output.writeFloat(!MathUtils.isEqual(drawable.minWidth, -1) ? drawable.minWidth : dimensions.x);
+                        output.writeFloat(!MathUtils.isEqual(drawable.minHeight, -1) ? drawable.minHeight : dimensions.y);
+                        Color tint = drawable.tint != null ? drawable.tint : drawable.tintName != null ? resolveColor(drawable.tintName, warnings) : null;
+                        output.writeBoolean(tint != null);
+                        if (tint != null) output.writeInt(Color.rgba8888(tint));
+                        output.writeFloat(atlasDrawable.getLeftWidth());
+                        output.writeFloat(atlasDrawable.getRightWidth());
+                        output.writeFloat(atlasDrawable.getTopHeight());
+                        output.writeFloat(atlasDrawable.getBottomHeight());
+                        break;
+                    }
+                }
+            }
+            output.flush();
+            
+            //styles in the same order as the JSON export
+            var styleBytes = new ByteArrayOutputStream();
+            output = new DataOutput(styleBytes);
+            var blocks = new Array<byte[]>();
+            
+            for (CustomClass customClass : customClasses) {
+                if (!customClass.isDeclareAfterUIclasses() && customClassHasFields(customClass)) {
+                    blocks.add(writeBinaryCustomClass(customClass, tables, warnings));
+                }
+            }
+            
+            for (Class clazz : Main.STYLE_CLASSES) {
+                var styles = new Array<StyleData>();
+                for (StyleData style : classStyleMap.get(Main.styleToBasicClass(clazz))) {
+                    if (style.hasMandatoryFields() && !style.hasAllNullFields()) {
+                        styles.add(style);
+                    }
+                }
+                if (styles.size > 0) {
+                    blocks.add(writeBinaryStyles(clazz, styles, tables, warnings));
+                }
+            }
+            
+            for (CustomClass customClass : customClasses) {
+                if (customClass.isDeclareAfterUIclasses() && customClassHasFields(customClass)) {
+                    blocks.add(writeBinaryCustomClass(customClass, tables, warnings));
+                }
+            }
+            
+            output.writeInt(blocks.size, true);
+            for (byte[] block : blocks) {
+                output.write(block);
+            }
+            output.flush();
+            
+            //header and tables are written last because styles add to them
+            for (int i = 0; i < tables.classList.size; i++) {
+                tables.string(tables.classList.get(i));
+                for (String field : tables.fieldLists.get(i)) {
+                    tables.string(field);
+                }
+            }
+            for (String name : tables.drawableList) {
+                tables.string(name);
+            }
+            for (String name : tables.fontList) {
+                tables.string(name);
+            }
+            
+            var fileOutput = new DataOutput(fileHandle.write(false, 8192));
+            try {
+                fileOutput.writeInt(BinarySkinLoader.MAGIC);
+                fileOutput.writeByte(BinarySkinLoader.VERSION);
+                
+                fileOutput.writeInt(tables.stringList.size, true);
+                for (String string : tables.stringList) {
+                    fileOutput.writeString(string);
+                }
+                
+                fileOutput.writeInt(tables.classList.size, true);
+                for (int i = 0; i < tables.classList.size; i++) {
+                    fileOutput.writeInt(tables.string(tables.classList.get(i)), true);
+                    var fieldList = tables.fieldLists.get(i);
+                    fileOutput.writeInt(fieldList.size, true);
+                    for (String field : fieldList) {
+                        fileOutput.writeInt(tables.string(field), true);
+                    }
+                }
+                
+                resourceBytes.writeTo(fileOutput);
+                
+                fileOutput.writeInt(tables.drawableList.size, true);
+                for (String name : tables.drawableList) {
+                    fileOutput.writeInt(tables.string(name), true);
+                }
+                
+                fileOutput.writeInt(tables.fontList.size, true);
+                for (String name : tables.fontList) {
+                    fileOutput.writeInt(tables.string(name), true);
+                }
+                
+                styleBytes.writeTo(fileOutput);
+            } finally {
+                StreamUtils.closeQuietly(fileOutput);
+            }
+        } catch (IOException e) {
+            Gdx.app.error(getClass().getName(), "Error writing binary skin file", e);
+            warnings.add("[RED]ERROR:[] Unable to write binary skin file [BLACK]" + fileHandle.name() + "[].");
+        }
+        
+        return warnings;
+    }
+    
+    private byte[] writeBinaryStyles(Class clazz, Array<StyleData> styles, BinaryTables tables, Array<String> warnings) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        var output = new DataOutput(bytes);
+        int classIndex = tables.type(clazz.getName());
+        output.writeInt(classIndex, true);
+        output.writeInt(styles.size, true);
+        
+        for (StyleData style : styles) {
+            //parents are resolved here so the loader never has to copy fields between styles
+            var chain = new Array<StyleData>();
+            for (var current = style; current != null && !chain.contains(current, true); current = current.findParentStyle()) {
+                chain.add(current);
+            }
+            
+            var values = new OrderedMap<String, StyleProperty>();
+            for (int i = chain.size - 1; i >= 0; i--) {
+                for (StyleProperty property : chain.get(i).properties.values()) {
+                    //if not optional, null, or zero
+                    if (property.value != null && style.properties.containsKey(property.name)
+                            && (!property.optional || !(property.value instanceof Number && MathUtils.isZero((float) (double) property.value)))) {
+                        values.put(property.name, property);
+                    }
+                }
+            }
+            
+            output.writeInt(tables.string(style.name), true);
+            var valueBytes = new ByteArrayOutputStream();
+            var valueOutput = new DataOutput(valueBytes);
+            int count = 0;
+            for (StyleProperty property : values.values()) {
+                Class type = style.properties.get(property.name).type;
+                int fieldIndex = tables.field(classIndex, property.name);
+                if (property.value instanceof Number) {
+                    valueOutput.writeInt(fieldIndex, true);
+                    valueOutput.writeByte(BinarySkinLoader.VALUE_FLOAT);
+                    valueOutput.writeFloat(((Number) property.value).floatValue());
+                } else if (type == Color.class) {
+                    var colorData = getColorByName((String) property.value);
+                    if (colorData == null) {
+                        warnings.add("Property [BLACK]" + property.name + "[] skipped for [BLACK]" + clazz.getSimpleName() + ": " + style.name + "[] (Missing color)");
+                        continue;
+                    }
+                    valueOutput.writeInt(fieldIndex, true);
+                    valueOutput.writeByte(BinarySkinLoader.VALUE_COLOR);
+                    valueOutput.writeInt(Color.rgba8888(colorData.color));
+                } else if (type == BitmapFont.class) {
+                    valueOutput.writeInt(fieldIndex, true);
+                    valueOutput.writeByte(BinarySkinLoader.VALUE_FONT);
+                    valueOutput.writeInt(tables.font((String) property.value), true);
+                } else if (type == Drawable.class) {
+                    valueOutput.writeInt(fieldIndex, true);
+                    valueOutput.writeByte(BinarySkinLoader.VALUE_DRAWABLE);
+                    valueOutput.writeInt(tables.drawable((String) property.value), true);
+                } else {
+                    valueOutput.writeInt(fieldIndex, true);
+                    valueOutput.writeByte(BinarySkinLoader.VALUE_STYLE);
+                    valueOutput.writeInt(tables.string((String) property.value), true);
+                }
+                count++;
+            }
+            valueOutput.flush();
+            output.writeInt(count, true);
+            valueBytes.writeTo(output);
+        }
+        
+        output.flush();
+        return bytes.toByteArray();
+    }
+    
+    private byte[] writeBinaryCustomClass(CustomClass customClass, BinaryTables tables, Array<String> warnings) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        var output = new DataOutput(bytes);
+        int classIndex = tables.type(customClass.getFullyQualifiedName());
+        output.writeInt(classIndex, true);
+        
+        var styles = new Array<CustomStyle>();
+        for (CustomStyle customStyle : customClass.getStyles()) {
+            if (customStyleHasFields(customStyle)) {
+                styles.add(customStyle);
+            }
+        }
+        output.writeInt(styles.size, true);
+        
+        for (CustomStyle customStyle : styles) {
+            output.writeInt(tables.string(customStyle.getName()), true);
+            var valueBytes = new ByteArrayOutputStream();
+            var valueOutput = new DataOutput(valueBytes);
+            int count = 0;
+            for (CustomProperty customProperty : customStyle.getProperties()) {
+                //only write value if it is valid
+                if (!customPropertyIsNotNull(customProperty)) continue;
+                
+                int fieldIndex = tables.field(classIndex, customProperty.getName());
+                var value = customProperty.getValue();
+                switch (customProperty.getType()) {
+                    case NUMBER:
+                        valueOutput.writeInt(fieldIndex, true);
+                        valueOutput.writeByte(BinarySkinLoader.VALUE_FLOAT);
+                        valueOutput.writeFloat(((Number) value).floatValue());
+                        break;
+                    case BOOL:
+                        valueOutput.writeInt(fieldIndex, true);
+                        valueOutput.writeByte(BinarySkinLoader.VALUE_BOOLEAN);
+                        valueOutput.writeBoolean((Boolean) value);
+                        break;
+                    case TEXT:
+                        valueOutput.writeInt(fieldIndex, true);
+                        valueOutput.writeByte(BinarySkinLoader.VALUE_STRING);
+                        valueOutput.writeInt(tables.string((String) value), true);
+                        break;
+                    case COLOR:
+                        var colorData = getColorByName((String) value);
+                        if (colorData == null) {
+                            warnings.add("Property [BLACK]" + customProperty.getName() + "[] skipped for custom class [BLACK]" + customClass.getDisplayName() + ": " + customStyle.getName() + "[] (Color [BLACK]" + value + "[] does not exist)");
+                            continue;
+                        }
+                        valueOutput.writeInt(fieldIndex, true);
+                        valueOutput.writeByte(BinarySkinLoader.VALUE_COLOR);
+                        valueOutput.writeInt(Color.rgba8888(colorData.color));
+                        break;
+                    case DRAWABLE:
+                        valueOutput.writeInt(fieldIndex, true);
+                        valueOutput.writeByte(BinarySkinLoader.VALUE_DRAWABLE);
+                        valueOutput.writeInt(tables.drawable((String) value), true);
+                        break;
+                    case FONT:
+                        valueOutput.writeInt(fieldIndex, true);
+                        valueOutput.writeByte(BinarySkinLoader.VALUE_FONT);
+                        valueOutput.writeInt(tables.font((String) value), true);
+                        break;
+                    case STYLE:
+                        valueOutput.writeInt(fieldIndex, true);
+                        valueOutput.writeByte(BinarySkinLoader.VALUE_STYLE);
+                        valueOutput.writeInt(tables.string((String) value), true);
+                        break;
+                    default:
+                        warnings.add("Property [BLACK]" + customProperty.getName() + "[] skipped for custom class [BLACK]" + customClass.getDisplayName() + ": " + customStyle.getName() + "[] (Raw text is not supported in binary skins)");
+                        continue;
+                }
+                count++;
+            }
+            valueOutput.flush();
+            output.writeInt(count, true);
+            valueBytes.writeTo(output);
+        }
+        
+        output.flush();
+        return bytes.toByteArray();
+    }
+    
+    private Color resolveColor(String name, Array<String> warnings) {
+        var colorData = getColorByName(name);
+        if (colorData == null) {
+            warnings.add("Color [BLACK]" + name + "[] could not be resolved for the binary skin. White was used instead.");
+            return Color.WHITE;
+        }
+        return colorData.color;
+    }
+    
+    /**
+     * Entries read by {@link #readFile(FileHandle)}. Entries are collected by name so an import doesn't scan and copy
+     * the project's list for every entry. The last entry with a given name wins, matching the order of the JSON file.
+     * @param <T>
+     */
+    private static class ImportedEntries<T> {
+        private final Array<T> entries = new Array<>();
+        private final ObjectMap<String, T> byName = new ObjectMap<>();
+        private final ObjectSet<String> removedNames = new ObjectSet<>();
+        
+        void put(String name, T entry) {
+            entries.add(entry);
+            byName.put(name, entry);
+        }
+        
+        /**
+         * Removes the imported entry and any existing entry with this name.
+         * @param name
+         */
+        void remove(String name) {
+            byName.remove(name);
+            removedNames.add(name);
+        }
+        
+        /**
+         * Removes the entries in the target that were replaced or removed and appends the imported entries in the
+         * order they were read.
+         * @param target
+         * @param nameFunction
+         */
+        void merge(Array<T> target, Function<T, String> nameFunction) {
+            if (entries.size == 0 && removedNames.size == 0) return;
+            
+            int index = 0;
+            for (int i = 0; i < target.size; i++) {
+                var entry = target.get(i);
+                var name = nameFunction.apply(entry);
+                if (!byName.containsKey(name) && !removedNames.contains(name)) target.set(index++, entry);
+            }
+            target.truncate(index);
+            
+            for (var entry : entries) {
+                if (byName.get(nameFunction.apply(entry)) == entry) target.add(entry);
+            }
+        }
+    }
+    
+    /**
+     * Interned names and index tables collected while writing a binary skin.
+     */
+    private static class BinaryTables {
+        private final ObjectIntMap<String> strings = new ObjectIntMap<>();
+        private final Array<String> stringList = new Array<>();
+        private final ObjectIntMap<String> classes = new ObjectIntMap<>();
+        private final Array<String> classList = new Array<>();
+        private final Array<Array<String>> fieldLists = new Array<>();
+        private final ObjectIntMap<String> drawables = new ObjectIntMap<>();
+        private final Array<String> drawableList = new Array<>();
+        private final ObjectIntMap<String> fonts = new ObjectIntMap<>();
+        private final Array<String> fontList = new Array<>();
+        
+        private int string(String value) {
+            return intern(value, strings, stringList);
+        }
+        
+        private int type(String className) {
+            int index = classes.get(className, -1);
+            if (index == -1) {
+                index = intern(className, classes, classList);
+                fieldLists.add(new Array<>());
+            }
+            return index;
+        }
+        
+        private int field(int classIndex, String fieldName) {
+            var fieldList = fieldLists.get(classIndex);
+            int index = fieldList.indexOf(fieldName, false);
+            if (index == -1) {
+                index = fieldList.size;
+                fieldList.add(fieldName);
+            }
+            return index;
+        }
+        
+        private int drawable(String name) {
+            return intern(name, drawables, drawableList);
+        }
+        
+        private int font(String name) {
+            return intern(name, fonts, fontList);
+        }
+        
+        private static int intern(String value, ObjectIntMap<String> map, Array<String> list) {
+            int index = map.get(value, -1);
+            if (index == -1) {
+                index = list.size;
+                map.put(value, index);
+                list.add(value);
+            }
+            return index;
+        }
+    }
+    
     private boolean customPropertyIsNotNull(CustomProperty customProperty) {
         boolean returnValue = false;
         if (customProperty.getValue() instanceof Float && customProperty.getType() == PropertyType.NUMBER
@@ -36,6 +36,8 @@ import com.ray3k.skincomposer.data.DrawableData.DrawableType;
 import com.ray3k.skincomposer.data.JsonData.ExportFormat;
 import com.ray3k.skincomposer.dialog.scenecomposer.DialogSceneComposerModel;
 import com.ray3k.skincomposer.dialog.scenecomposer.DialogSceneComposerModel.SimRootGroup;
+import com.ray3k.skincomposer.runtime.SkinPushClient;
+import com.ray3k.skincomposer.utils.GlyphRasterCache;
 import com.ray3k.skincomposer.utils.Utils;
 
 import java.util.Iterator;
@@ -49,6 +51,7 @@ public class ProjectData implements Json.Serializable {
     private FileHandle saveFile;
     private boolean changesSaved;
     private boolean newProject;
+    private long lastChangeMillis;
     private static final int MAX_RECENT_FILES = 5;
     private final JsonData jsonData;
     private final AtlasData atlasData;
@@ -226,6 +229,24 @@ public class ProjectData implements Json.Serializable {
         return generalPref.getBoolean("checkForUpdates", true);
     }
     
+    public void setPushingExports(boolean push) {
+        generalPref.putBoolean("pushExports", push);
+        generalPref.flush();
+    }
+    
+    public boolean isPushingExports() {
+        return generalPref.getBoolean("pushExports", false);
+    }
+    
+    public void setPushPort(int port) {
+        generalPref.putInteger("pushPort", port);
+        generalPref.flush();
+    }
+    
+    public int getPushPort() {
+        return generalPref.getInteger("pushPort", SkinPushClient.DEFAULT_PORT);
+    }
+    
     public void setShowingExportWarnings(boolean allow) {
         generalPref.putBoolean("exportWarnings", allow);
         generalPref.flush();
@@ -248,6 +269,33 @@ public class ProjectData implements Json.Serializable {
         generalPref.flush();
     }
     
+    public int getAutoPatchTolerance() {
+        return generalPref.getInteger("autoPatchTolerance", 0);
+    }
+    
+    public void setAutoPatchTolerance(int tolerance) {
+        generalPref.putInteger("autoPatchTolerance", tolerance);
+        generalPref.flush();
+    }
+    
+    public boolean isAutoPatchingMultipleAreas() {
+        return generalPref.getBoolean("autoPatchMultiple", false);
+    }
+    
+    public void setAutoPatchingMultipleAreas(boolean multiple) {
+        generalPref.putBoolean("autoPatchMultiple", multiple);
+        generalPref.flush();
+    }
+    
+    public boolean isBatchAutoPatching() {
+        return generalPref.getBoolean("batchAutoPatch", false);
+    }
+    
+    public void setBatchAutoPatching(boolean autoPatching) {
+        generalPref.putBoolean("batchAutoPatch", autoPatching);
+        generalPref.flush();
+    }
+    
     public void setPreviewCustomHeight(int height) {
         generalPref.putInteger("previewCustomHeight", height);
         generalPref.flush();
@@ -335,6 +383,19 @@ public class ProjectData implements Json.Serializable {
             title += " - New Project*";
         }
         Gdx.graphics.setTitle(title);
+        
+        if (!changesSaved) lastChangeMillis = System.currentTimeMillis();
+        if (!changesSaved && Main.watchExporter != null) {
+            Main.watchExporter.changed();
+        }
+    }
+    
+    /**
+     * @return The time of the last change to the project in milliseconds since the epoch, or 0 if it hasn't changed
+     * since it was opened.
+     */
+    public long getLastChangeMillis() {
+        return lastChangeMillis;
     }
 
     public boolean isNewProject() {
@@ -474,12 +535,21 @@ public class ProjectData implements Json.Serializable {
     }
     
     public void load(FileHandle file) {
+        if (Main.watchExporter != null) Main.watchExporter.stop();
+        lastChangeMillis = 0;
         ProjectData instance = json.fromJson(ProjectData.class, file.reader("UTF8"));
         newProject = instance.newProject;
         jsonData.set(instance.jsonData);
+        GlyphRasterCache.resetStatistics();
+        long fontTime = System.nanoTime();
         for (FreeTypeFontData font : jsonData.getFreeTypeFonts()) {
             font.createBitmapFont();
         }
+        if (jsonData.getFreeTypeFonts().size > 0) {
+            Gdx.app.log(getClass().getName(), "Generated " + jsonData.getFreeTypeFonts().size + " FreeType fonts in "
+                    + (System.nanoTime() - fontTime) / 1000000 + " ms (" + GlyphRasterCache.getHits()
+                    + " cached glyphs, " + GlyphRasterCache.getMisses() + " rendered)");
+        }
         atlasData.set(instance.atlasData);
         preferences.clear();
         preferences.putAll(instance.preferences);
@@ -644,6 +714,7 @@ public class ProjectData implements Json.Serializable {
     }
     
     public void clear() {
+        if (Main.watchExporter != null) Main.watchExporter.stop();
         preferences.clear();
 
         randomizeId();
@@ -824,6 +895,30 @@ public class ProjectData implements Json.Serializable {
         preferences.put("export-tvg", exportTVG);
     }
     
+    public boolean isExportingBinary() {
+        return (boolean) preferences.get("export-binary", false);
+    }
+    
+    public void setExportingBinary(boolean exportBinary) {
+        preferences.put("export-binary", exportBinary);
+    }
+    
+    public boolean isExportingLoadReport() {
+        return (boolean) preferences.get("export-load-report", false);
+    }
+    
+    public void setExportingLoadReport(boolean exportLoadReport) {
+        preferences.put("export-load-report", exportLoadReport);
+    }
+    
+    public boolean isExportingSharedFontAtlas() {
+        return (boolean) preferences.get("export-shared-font-atlas", false);
+    }
+    
+    public void setExportingSharedFontAtlas(boolean exportSharedFontAtlas) {
+        preferences.put("export-shared-font-atlas", exportSharedFontAtlas);
+    }
+    
     public boolean isExportingHex() {
         return (boolean) preferences.get("export-hex", false);
     }
@@ -27,10 +27,7 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Graphics;
 import com.badlogic.gdx.backends.lwjgl3.*;
 import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Pixmap;
-import com.badlogic.gdx.graphics.PixmapIO;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.PixmapPacker;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
 import com.badlogic.gdx.tools.bmfont.BitmapFontWriter;
@@ -38,6 +35,8 @@ import com.badlogic.gdx.tools.texturepacker.TexturePacker;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Json;
 import com.ray3k.skincomposer.*;
+import com.ray3k.skincomposer.utils.PixmapPool;
+import com.ray3k.skincomposer.utils.ResourceTracker;
 import com.ray3k.skincomposer.utils.Utils;
 import org.lwjgl.PointerBuffer;
 import org.lwjgl.util.nfd.NFDPathSet;
@@ -100,31 +99,6 @@ public class DesktopLauncher implements DesktopWorker, Lwjgl3WindowListener {
         p.pack(targetFile.parent().file(), targetFile.nameWithoutExtension());
     }
 
-    @Override
-    public void packFontImages(Array<FileHandle> files, FileHandle saveFile) {
-        var settings = new TexturePacker.Settings();
-        settings.pot = false;
-        settings.duplicatePadding = true;
-        settings.filterMin = Texture.TextureFilter.Linear;
-        settings.filterMag = Texture.TextureFilter.Linear;
-        settings.ignoreBlankImages = false;
-        settings.useIndexes = false;
-        settings.limitMemory = false;
-        settings.maxWidth = 2048;
-        settings.maxHeight = 2048;
-        settings.flattenPaths = true;
-        settings.silent = true;
-        var texturePacker = new TexturePacker(settings);
-
-        for (FileHandle file : files) {
-            if (file.exists()) {
-                texturePacker.addImage(file.file());
-            }
-        }
-
-        texturePacker.pack(saveFile.parent().file(), saveFile.nameWithoutExtension());
-    }
-    
     @Override
     public void centerWindow(Graphics graphics) {
         var g = (Lwjgl3Graphics) graphics;
@@ -386,64 +360,93 @@ public class DesktopLauncher implements DesktopWorker, Lwjgl3WindowListener {
 
     @Override
     public void writeFont(FreeTypeFontGenerator.FreeTypeBitmapFontData data, Array<PixmapPacker.Page> pages, FileHandle target) {
-        var info = new BitmapFontWriter.FontInfo();
-        data.capHeight--;
-        info.face = target.nameWithoutExtension();
-        info.padding = new BitmapFontWriter.Padding(1, 1, 1, 1);
-
-        var pixmapNames = BitmapFontWriter.writePixmaps(pages, target.parent(), target.nameWithoutExtension());
+        String[] pixmapNames;
         int scaleW;
         int scaleH;
         
-        if (pixmapNames.length > 1) {
+        if (pages.size > 1) {
             //all the images must have the same width and height
-            var pngTarget = target.sibling(pixmapNames[0]);
-            var pixmap = new Pixmap(pngTarget);
-            scaleW = pixmap.getWidth();
-            scaleH = pixmap.getHeight();
+            scaleW = pages.first().getPixmap().getWidth();
+            scaleH = pages.first().getPixmap().getHeight();
+            pixmapNames = BitmapFontWriter.writePixmaps(pages, target.parent(), target.nameWithoutExtension());
         } else {
-            var pngTarget = target.sibling(pixmapNames[0]);
-
-            //trim whitespace on the image.
-            var pixmap = new Pixmap(pngTarget);
-            var color = new Color();
-            scaleH = pixmap.getHeight();
-            boolean foundOpaquePixel = false;
-            for (int y = pixmap.getHeight() - 1; y >= 0 && !foundOpaquePixel; y--) {
-                for (int x = 0; x < pixmap.getWidth(); x++) {
-                    color.set(pixmap.getPixel(x, y));
-                    if (color.a > 0) {
-                        //add padding to new height
-                        scaleH = y + 2;
-                        foundOpaquePixel = true;
-                        break;
-                    }
-                }
-            }
-
-            foundOpaquePixel = false;
+            //trim whitespace on the image before it is encoded
+            var pixmap = pages.first().getPixmap();
             scaleW = pixmap.getWidth();
-            for (int x = pixmap.getWidth() - 1; x >= 0 && !foundOpaquePixel; x--) {
-                for (int y = 0; y < pixmap.getHeight(); y++) {
-                    color.set(pixmap.getPixel(x, y));
-                    if (color.a > 0) {
-                        //add padding to new height
-                        scaleW = x + 2;
-                        foundOpaquePixel = true;
-                        break;
-                    }
-                }
+            scaleH = pixmap.getHeight();
+            
+            int bottom = findLastOpaqueRow(pixmap);
+            if (bottom != -1) {
+                //add padding to new size
+                scaleH = bottom + 2;
+                scaleW = findLastOpaqueColumn(pixmap, bottom) + 2;
             }
-    
-            var fixedPixmap = new Pixmap(scaleW, scaleH, Pixmap.Format.RGBA8888);
+            
+            var fixedPixmap = PixmapPool.obtain(scaleW, scaleH);
             fixedPixmap.setBlending(Pixmap.Blending.None);
             fixedPixmap.drawPixmap(pixmap, 0, 0);
-            PixmapIO.writePNG(pngTarget, fixedPixmap);
-            pixmap.dispose();
-            fixedPixmap.dispose();
+            try {
+                pixmapNames = BitmapFontWriter.writePixmaps(new Pixmap[] {fixedPixmap}, target.parent(), target.nameWithoutExtension());
+            } finally {
+                PixmapPool.free(fixedPixmap);
+            }
         }
         
-        BitmapFontWriter.writeFont(data, pixmapNames, target, info, scaleW, scaleH);
+        writeFont(data, pixmapNames, target, scaleW, scaleH);
+    }
+    
+    @Override
+    public void writeFont(FreeTypeFontGenerator.FreeTypeBitmapFontData data, String[] pageNames, FileHandle target, int scaleW, int scaleH) {
+        var info = new BitmapFontWriter.FontInfo();
+        data.capHeight--;
+        info.face = target.nameWithoutExtension();
+        info.padding = new BitmapFontWriter.Padding(1, 1, 1, 1);
+        
+        BitmapFontWriter.writeFont(data, pageNames, target, info, scaleW, scaleH);
+    }
+    
+    /**
+     * Finds the lowest row with a pixel that isn't fully transparent by reading the alpha channel of the pixmap buffer
+     * directly.
+     * @param pixmap
+     * @return -1 if the pixmap is fully transparent.
+     */
+    private static int findLastOpaqueRow(Pixmap pixmap) {
+        int width = pixmap.getWidth();
+        for (int y = pixmap.getHeight() - 1; y >= 0; y--) {
+            for (int x = 0; x < width; x++) {
+                if (alpha(pixmap, x, y) != 0) return y;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Finds the rightmost column with a pixel that isn't fully transparent, only looking at the rows up to bottom.
+     * @param pixmap
+     * @param bottom
+     * @return -1 if the rows are fully transparent.
+     */
+    private static int findLastOpaqueColumn(Pixmap pixmap, int bottom) {
+        int right = -1;
+        int width = pixmap.getWidth();
+        for (int y = 0; y <= bottom && right < width - 1; y++) {
+            for (int x = width - 1; x > right; x--) {
+                if (alpha(pixmap, x, y) != 0) {
+                    right = x;
+                    break;
+                }
+            }
+        }
+        return right;
+    }
+    
+    private static int alpha(Pixmap pixmap, int x, int y) {
+        if (pixmap.getFormat() == Pixmap.Format.RGBA8888) {
+            return pixmap.getPixels().get((y * pixmap.getWidth() + x) * 4 + 3) & 0xff;
+        } else {
+            return pixmap.getPixel(x, y) & 0xff;
+        }
     }
 
     @Override
@@ -464,6 +467,15 @@ public class DesktopLauncher implements DesktopWorker, Lwjgl3WindowListener {
                 break;
             }
         }
+        
+        //"-debugmemory" tracks native resources with an overlay and reports the ones that leak
+        for (var arg : args) {
+            if ("-debugmemory".equals(arg)) {
+                PixmapPool.setLeakDetection(true);
+                ResourceTracker.setEnabled(true);
+                break;
+            }
+        }
 
         var config = new Lwjgl3ApplicationConfiguration();
         config.setResizable(true);
@@ -29,7 +29,6 @@ import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Cursor.SystemCursor;
 import com.badlogic.gdx.graphics.Pixmap;
-import com.badlogic.gdx.graphics.PixmapIO;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.NinePatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
@@ -43,11 +42,17 @@ import com.badlogic.gdx.utils.ObjectMap;
 import com.badlogic.gdx.utils.Scaling;
 import com.ray3k.skincomposer.FilesDroppedListener;
 import com.ray3k.skincomposer.Main;
+import com.ray3k.skincomposer.NinePatchBatch;
+import com.ray3k.skincomposer.NinePatchBatch.NinePatchBatchListener;
 import com.ray3k.skincomposer.NinePatchWidget;
 import com.ray3k.skincomposer.ResizeFourArrowListener;
 import com.ray3k.skincomposer.data.DrawableData;
 import com.ray3k.skincomposer.data.StyleProperty;
+import com.ray3k.skincomposer.utils.PatchDetector;
+import com.ray3k.skincomposer.utils.PixmapPool;
+import com.ray3k.skincomposer.utils.ResourceTracker;
 import com.ray3k.skincomposer.utils.Utils;
+import com.ray3k.skincomposer.utils.Utils.PatchDefinition;
 import com.ray3k.stripe.PopColorPicker.PopColorPickerAdapter;
 import com.ray3k.stripe.ResizeWidget;
 import com.ray3k.stripe.Spinner;
@@ -196,6 +201,26 @@ public class Dialog9Patch extends Dialog {
             }
         });
 
+        var toleranceTable = new Table();
+        horizontalGroup.addActor(toleranceTable);
+        
+        toleranceTable.add(new Label("Tolerance:", getSkin())).padRight(3.0f);
+        
+        var toleranceSpinner = new Spinner(projectData.getAutoPatchTolerance(), 1, 0, Spinner.Orientation.HORIZONTAL, getSkin());
+        toleranceSpinner.setMinimum(0);
+        toleranceSpinner.setMaximum(255);
+        toleranceTable.add(toleranceSpinner).width(80.0f);
+        toleranceSpinner.getButtonMinus().addListener(handListener);
+        toleranceSpinner.getButtonPlus().addListener(handListener);
+        toleranceSpinner.getTextField().addListener(ibeamListener);
+        toleranceSpinner.addListener(Main.makeTooltip("How much neighboring pixels may differ and still be stretched by Auto Patches", tooltipManager, getSkin()));
+        toleranceSpinner.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                projectData.setAutoPatchTolerance(toleranceSpinner.getValueAsInt());
+            }
+        });
+
         textButton = new TextButton("Load Patches From File", getSkin());
         textButton.setName("load-patches-button");
         horizontalGroup.addActor(textButton);
@@ -217,6 +242,18 @@ public class Dialog9Patch extends Dialog {
                 showBatchApplyDialog();
             }
         });
+        
+        var checkBox = new CheckBox("Auto Patch Each File", getSkin());
+        checkBox.setChecked(projectData.isBatchAutoPatching());
+        horizontalGroup.addActor(checkBox);
+        checkBox.addListener(handListener);
+        checkBox.addListener(Main.makeTooltip("Batch Apply detects the patches of every file instead of using the current patches", tooltipManager, getSkin()));
+        checkBox.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                projectData.setBatchAutoPatching(checkBox.isChecked());
+            }
+        });
 
         root.row();
         var image = new Image(getSkin(), "welcome-separator");
@@ -1008,10 +1045,10 @@ public class Dialog9Patch extends Dialog {
         ninePatchContentTop = 0;
         ninePatchContentBottom = 0;
 
-        var pixmap = new Pixmap(fileHandle);
+        var pixmap = ResourceTracker.track(new Pixmap(fileHandle));
 
         if (fileHandle.nameWithoutExtension().endsWith(".9") && pixmap.getWidth() >= 3 && pixmap.getHeight() >= 3) {
-            var cropped = new Pixmap(pixmap.getWidth() - 2, pixmap.getHeight() - 2, Pixmap.Format.RGBA8888);
+            var cropped = ResourceTracker.track(new Pixmap(pixmap.getWidth() - 2, pixmap.getHeight() - 2, Pixmap.Format.RGBA8888));
 
             cropped.setBlending(Pixmap.Blending.None);
             cropped.drawPixmap(pixmap, 0, 0, 1, 1, pixmap.getWidth() - 2, pixmap.getHeight() - 2);
@@ -1124,7 +1161,7 @@ public class Dialog9Patch extends Dialog {
         ninePatchContentBottomOriginal = ninePatchContentBottom;
         ninePatchContentTopOriginal = ninePatchContentTop;
 
-        var texture = new Texture(pixmap);
+        var texture = ResourceTracker.track(new Texture(pixmap), this);
         preview = new NinePatch(texture, ninePatchLeft, ninePatchRight, ninePatchTop, ninePatchBottom);
         preview.setPadding(ninePatchContentLeft, ninePatchContentRight, ninePatchContentTop, ninePatchContentBottom);
         previewZoomed = new NinePatch(preview);
@@ -1206,31 +1243,23 @@ public class Dialog9Patch extends Dialog {
     }
     
     private void saveNinePatch(FileHandle originalFile, FileHandle targetFile, int ninePatchLeft, int ninePatchRight, int ninePatchBottom, int ninePatchTop, int ninePatchContentLeft, int ninePatchContentRight, int ninePatchContentBottom, int ninePatchContentTop) {
-        var originalImage = new Pixmap(originalFile);
-        
-        if (originalFile.path().toLowerCase(Locale.ROOT).endsWith(".9.png")) {
-            var cropped = new Pixmap(originalImage.getWidth() - 2, originalImage.getHeight() - 2, Pixmap.Format.RGBA8888);
-            cropped.setBlending(Pixmap.Blending.None);
-            
-            cropped.drawPixmap(originalImage, 0, 0, 1, 1, originalImage.getWidth() - 2, originalImage.getHeight() - 2);
-            originalImage.dispose();
-            originalImage = cropped;
+        var originalImage = NinePatchBatch.loadImage(originalFile);
+        try {
+            NinePatchBatch.writeNinePatch(originalImage, targetFile,
+                    createPatchDefinition(ninePatchLeft, ninePatchRight, ninePatchTop, ninePatchBottom),
+                    createPatchDefinition(ninePatchContentLeft, ninePatchContentRight, ninePatchContentTop, ninePatchContentBottom));
+        } finally {
+            PixmapPool.free(originalImage);
         }
-        
-        var savePixmap = new Pixmap(originalImage.getWidth() + 2, originalImage.getHeight() + 2, Pixmap.Format.RGBA8888);
-        savePixmap.setBlending(Pixmap.Blending.None);
-        savePixmap.drawPixmap(originalImage, 1, 1);
-        
-        savePixmap.setColor(Color.BLACK);
-        savePixmap.drawRectangle(ninePatchLeft + 1, 0, savePixmap.getWidth() - ninePatchLeft - ninePatchRight - 2, 1);
-        savePixmap.drawRectangle(0, ninePatchTop + 1, 1, savePixmap.getHeight() - ninePatchBottom - ninePatchTop - 2);
-        savePixmap.drawRectangle(ninePatchContentLeft + 1, savePixmap.getHeight() - 1, savePixmap.getWidth() - ninePatchContentLeft - ninePatchContentRight - 2, 1);
-        savePixmap.drawRectangle(savePixmap.getWidth() - 1, ninePatchContentTop + 1, 1, savePixmap.getHeight() - ninePatchContentBottom - ninePatchContentTop - 2);
-        
-        PixmapIO.writePNG(targetFile, savePixmap);
-        
-        originalImage.dispose();
-        savePixmap.dispose();
+    }
+    
+    private static PatchDefinition createPatchDefinition(int left, int right, int top, int bottom) {
+        var patches = new PatchDefinition();
+        patches.left = left;
+        patches.right = right;
+        patches.top = top;
+        patches.bottom = bottom;
+        return patches;
     }
 
     private void zoomAndRecenter() {
@@ -1264,18 +1293,9 @@ public class Dialog9Patch extends Dialog {
     }
     
     private void autoPatches() {
-        var originalImage = new Pixmap(loadedFile);
-        
-        if (loadedFile.path().toLowerCase(Locale.ROOT).endsWith(".9.png")) {
-            var cropped = new Pixmap(originalImage.getWidth() - 2, originalImage.getHeight() - 2, Pixmap.Format.RGBA8888);
-            cropped.setBlending(Pixmap.Blending.None);
-            
-            cropped.drawPixmap(originalImage, 0, 0, 1, 1, originalImage.getWidth() - 2, originalImage.getHeight() - 2);
-            originalImage.dispose();
-            originalImage = cropped;
-        }
-        
-        var patches = Utils.calculatePatches(originalImage);
+        var originalImage = NinePatchBatch.loadImage(loadedFile);
+        var patches = new PatchDetector(originalImage, projectData.getAutoPatchTolerance()).getPatches();
+        PixmapPool.free(originalImage);
         ninePatchLeft = patches.left;
         ninePatchRight = patches.right;
         ninePatchTop = patches.top;
@@ -1347,10 +1367,10 @@ public class Dialog9Patch extends Dialog {
         ninePatchContentTop = 0;
         ninePatchContentBottom = 0;
         
-        var pixmap = new Pixmap(fileHandle);
+        var pixmap = ResourceTracker.track(new Pixmap(fileHandle));
 
         if (fileHandle.nameWithoutExtension().endsWith(".9") && pixmap.getWidth() >= 3 && pixmap.getHeight() >= 3) {
-            var cropped = new Pixmap(pixmap.getWidth() - 2, pixmap.getHeight() - 2, Pixmap.Format.RGBA8888);
+            var cropped = ResourceTracker.track(new Pixmap(pixmap.getWidth() - 2, pixmap.getHeight() - 2, Pixmap.Format.RGBA8888));
 
             cropped.setBlending(Pixmap.Blending.None);
             cropped.drawPixmap(pixmap, 0, 0, 1, 1, pixmap.getWidth() - 2, pixmap.getHeight() - 2);
@@ -1513,13 +1533,32 @@ public class Dialog9Patch extends Dialog {
     }
     
     private void batchApply(Array<FileHandle> fileHandles) {
-        for (var fileHandle : fileHandles) {
-            var targetFile = fileHandle;
-            if (!fileHandle.name().toLowerCase(Locale.ROOT).endsWith(".9.png")) {
-                targetFile = fileHandle.sibling(fileHandle.nameWithoutExtension() + ".9.png");
+        var batch = new NinePatchBatch(fileHandles,
+                createPatchDefinition(ninePatchLeft, ninePatchRight, ninePatchTop, ninePatchBottom),
+                createPatchDefinition(ninePatchContentLeft, ninePatchContentRight, ninePatchContentTop, ninePatchContentBottom),
+                projectData.isBatchAutoPatching(), projectData.getAutoPatchTolerance());
+        var dialog = dialogFactory.showDialogProgress("Applying 9patches...", batch::cancel);
+        
+        batch.start(new NinePatchBatchListener() {
+            @Override
+            public void progress(int completed, int total) {
+                dialog.setProgress(completed, total);
             }
-            saveNinePatch(fileHandle, targetFile, ninePatchLeft, ninePatchRight, ninePatchBottom, ninePatchTop, ninePatchContentLeft, ninePatchContentRight, ninePatchContentBottom, ninePatchContentTop);
-        }
+    
+            @Override
+            public void finished(Array<FileHandle> failedFiles, boolean cancelled) {
+                dialog.hide();
+                
+                if (failedFiles.size > 0) {
+                    var message = new StringBuilder("Unable to apply 9patch to the following file(s):");
+                    for (int i = 0; i < failedFiles.size && i < 10; i++) {
+                        message.append("\n").append(failedFiles.get(i).name());
+                    }
+                    if (failedFiles.size > 10) message.append("\n...and ").append(failedFiles.size - 10).append(" more");
+                    dialogFactory.showDialogError("Batch Apply Error", message.toString());
+                }
+            }
+        });
     }
     
     private void updateDisabled() {
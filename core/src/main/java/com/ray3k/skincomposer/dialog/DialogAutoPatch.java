@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.dialog;
+
+import com.badlogic.gdx.Input.Keys;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.ui.*;
+import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
+import com.badlogic.gdx.utils.Array;
+import com.ray3k.skincomposer.NinePatchAnalysis.Candidate;
+
+import static com.ray3k.skincomposer.Main.*;
+
+/**
+ * Lists the drawables that can be converted to 9patches, ranked by the atlas area they save. Clicking an entry toggles
+ * it. Every entry is selected at first.
+ */
+public class DialogAutoPatch extends Dialog {
+    private final List<Candidate> list;
+    private final Label summaryLabel;
+    private final TextButton convertButton;
+    private final DialogAutoPatchListener listener;
+    
+    public interface DialogAutoPatchListener {
+        void convert(Array<Candidate> candidates);
+    }
+    
+    /**
+     * @param candidates The candidates sorted by the area they save.
+     * @param listener
+     */
+    public DialogAutoPatch(Array<Candidate> candidates, DialogAutoPatchListener listener) {
+        super("Auto Patch Drawables", skin, "bg");
+        this.listener = listener;
+        
+        getTitleTable().getCells().first().padLeft(5.0f);
+        var t = getContentTable();
+        t.pad(10.0f);
+        t.defaults().space(10.0f);
+        
+        summaryLabel = new Label("", skin);
+        t.add(summaryLabel).left();
+        
+        t.row();
+        list = new List<>(skin);
+        list.setItems(candidates);
+        list.getSelection().setMultiple(true);
+        list.getSelection().setToggle(true);
+        list.getSelection().setRequired(false);
+        list.getSelection().setAll(candidates);
+        list.addListener(handListener);
+        list.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeEvent event, Actor actor) {
+                updateSummary();
+            }
+        });
+        
+        var scrollPane = new ScrollPane(list, skin);
+        scrollPane.setName("scroll-pane");
+        scrollPane.setFadeScrollBars(false);
+        scrollPane.setFlickScroll(false);
+        scrollPane.setScrollingDisabled(true, false);
+        t.add(scrollPane).grow().minWidth(500.0f).height(400.0f);
+        
+        t.row();
+        var table = new Table();
+        table.defaults().space(10.0f);
+        t.add(table).left();
+        
+        var textButton = new TextButton("Select All", skin);
+        table.add(textButton);
+        textButton.addListener(handListener);
+        textButton.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeEvent event, Actor actor) {
+                list.getSelection().setAll(list.getItems());
+            }
+        });
+        
+        textButton = new TextButton("Select None", skin);
+        table.add(textButton);
+        textButton.addListener(handListener);
+        textButton.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeEvent event, Actor actor) {
+                list.getSelection().clear();
+            }
+        });
+        
+        getButtonTable().defaults().padBottom(10.0f).minWidth(100.0f);
+        convertButton = new TextButton("Convert", skin);
+        button(convertButton, true);
+        convertButton.addListener(handListener);
+        
+        textButton = new TextButton("Cancel", skin);
+        button(textButton, false);
+        textButton.addListener(handListener);
+        key(Keys.ESCAPE, false);
+        
+        updateSummary();
+    }
+    
+    private void updateSummary() {
+        var savedArea = 0L;
+        for (var candidate : list.getSelection()) {
+            savedArea += candidate.getSavedArea();
+        }
+        summaryLabel.setText(list.getSelection().size() + " of " + list.getItems().size
+                + " textures selected, saving " + savedArea + " pixels of atlas area.");
+        convertButton.setDisabled(list.getSelection().isEmpty());
+    }
+    
+    @Override
+    public Dialog show(Stage stage) {
+        super.show(stage);
+        stage.setScrollFocus(findActor("scroll-pane"));
+        return this;
+    }
+    
+    @Override
+    protected void result(Object object) {
+        if ((Boolean) object && !list.getSelection().isEmpty()) {
+            var candidates = new Array<Candidate>();
+            for (var candidate : list.getItems()) {
+                if (list.getSelection().contains(candidate)) candidates.add(candidate);
+            }
+            listener.convert(candidates);
+        }
+    }
+}
@@ -969,6 +969,55 @@ public class DialogBitmapFont extends Dialog {
             }
         });
 
+        bottom.row();
+        label = new Label("Distance Field:", skin);
+        bottom.add(label).right();
+
+        selectBox = new SelectBox<>(skin);
+        selectBox.setName("distanceField");
+        selectBox.setItems("STANDARD", "SDF", "MSDF");
+        selectBox.setSelected(data.distanceField);
+        bottom.add(selectBox).left();
+
+        toolTip = (Main.makeTooltip("Render the glyphs as distance fields for TextraTypist's DistanceFieldType, so one font can be drawn sharply at many sizes", tooltipManager, getSkin()));
+        selectBox.addListener(toolTip);
+
+        selectBox.addListener(handListener);
+        selectBox.getList().addListener(handListener);
+        selectBox.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                SelectBox<String> selectBox = (SelectBox) actor;
+
+                data.distanceField = selectBox.getSelected();
+                updatePreviewAndOK();
+            }
+        });
+
+        label = new Label("Spread:", skin);
+        bottom.add(label).right();
+
+        spinner = new Spinner(data.distanceFieldSpread, 1, 0, Spinner.Orientation.HORIZONTAL, skin);
+        spinner.setName("distanceFieldSpread");
+        spinner.setMinimum(1);
+        bottom.add(spinner).left().minWidth(100.0f);
+
+        toolTip = (Main.makeTooltip("Pixels the distance field extends beyond the glyph edges. Larger values allow wider outlines and glows.", tooltipManager, getSkin()));
+        spinner.addListener(toolTip);
+
+        spinner.getButtonMinus().addListener(handListener);
+        spinner.getButtonPlus().addListener(handListener);
+        spinner.getTextField().addListener(ibeamListener);
+        spinner.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                Spinner spinner = (Spinner) actor;
+
+                data.distanceFieldSpread = (int) spinner.getValue();
+                updatePreviewAndOK();
+            }
+        });
+
         buttons.pad(10.0f);
         buttons.defaults().minWidth(75.0f).space(25.0f);
         textButton = new TextButton("Generate Font", skin);
@@ -1195,6 +1244,8 @@ public class DialogBitmapFont extends Dialog {
         fontSettings.genMipMaps = ((Button) findActor("genMipMaps")).isChecked();
         fontSettings.minFilter = ((SelectBox<String>) findActor("minFilter")).getSelected();
         fontSettings.magFilter = ((SelectBox<String>) findActor("magFilter")).getSelected();
+        fontSettings.distanceField = ((SelectBox<String>) findActor("distanceField")).getSelected();
+        fontSettings.distanceFieldSpread = ((Spinner) findActor("distanceFieldSpread")).getValueAsInt();
 
         fileHandle.writeString(json.prettyPrint(fontSettings), false, "utf-8");
     }
@@ -1226,6 +1277,8 @@ public class DialogBitmapFont extends Dialog {
         boolean genMipMaps;
         String minFilter;
         String magFilter;
+        String distanceField = "STANDARD";
+        int distanceFieldSpread = 4;
     }
 
     private void loadSettings() {
@@ -1344,6 +1397,12 @@ public class DialogBitmapFont extends Dialog {
         
         ((SelectBox<String>) findActor("magFilter")).setSelected(fontSettings.magFilter);
         data.magFilter = fontSettings.magFilter;
+        
+        ((SelectBox<String>) findActor("distanceField")).setSelected(fontSettings.distanceField);
+        data.distanceField = fontSettings.distanceField;
+        
+        ((Spinner) findActor("distanceFieldSpread")).setValue(fontSettings.distanceFieldSpread);
+        data.distanceFieldSpread = fontSettings.distanceFieldSpread;
 
         updateColors();
         updatePreviewAndOK();
@@ -47,10 +47,14 @@ import com.badlogic.gdx.utils.Scaling;
 import com.badlogic.gdx.utils.Sort;
 import com.ray3k.skincomposer.FilesDroppedListener;
 import com.ray3k.skincomposer.Main;
+import com.ray3k.skincomposer.NinePatchAnalysis;
+import com.ray3k.skincomposer.NinePatchAnalysis.Candidate;
+import com.ray3k.skincomposer.NinePatchAnalysis.NinePatchAnalysisListener;
 import com.ray3k.skincomposer.Undoable;
 import com.ray3k.skincomposer.UndoableManager;
 import com.ray3k.skincomposer.UndoableManager.CustomDrawableUndoable;
 import com.ray3k.skincomposer.UndoableManager.DrawableUndoable;
+import com.ray3k.skincomposer.UndoableManager.NinePatchConversionUndoable;
 import com.ray3k.skincomposer.data.*;
 import com.ray3k.skincomposer.data.DrawableData.DrawableType;
 import com.ray3k.skincomposer.dialog.DialogTVG.TvgData;
@@ -425,6 +429,20 @@ public class DialogDrawables extends Dialog {
                                 });
                     }
                 });
+    
+                table.row();
+                textButton = new TextButton("Auto Patch Drawables", getSkin(), "new");
+                table.add(textButton);
+                textButton.addListener(handListener);
+                textButton.addListener(hideListener);
+                textButton.addListener(makeTooltip("Find texture drawables that would take less atlas space as 9patches", tooltipManager, getSkin()));
+                textButton.addListener(new ChangeListener() {
+                    @Override
+                    public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                        Gdx.graphics.setSystemCursor(Cursor.SystemCursor.Arrow);
+                        analyzeNinePatches();
+                    }
+                });
             }
         }
     }
@@ -2238,6 +2256,76 @@ public class DialogDrawables extends Dialog {
         });
     }
     
+    /**
+     * Measures every texture drawable in the background and lists the ones that would save atlas area as 9patches.
+     */
+    private void analyzeNinePatches() {
+        var candidates = NinePatchAnalysis.collectCandidates(atlasData);
+        if (candidates.size == 0) {
+            dialogFactory.showMessageDialog("Auto Patch Drawables", "There are no texture drawables to analyze.", null);
+            return;
+        }
+        
+        var analysis = new NinePatchAnalysis(projectData.getAutoPatchTolerance());
+        var dialog = dialogFactory.showDialogProgress("Analyzing drawables...", analysis::cancel);
+        analysis.analyze(candidates, new NinePatchAnalysisListener() {
+            @Override
+            public void progress(int completed, int total) {
+                dialog.setProgress(completed, total);
+            }
+            
+            @Override
+            public void finished(Array<Candidate> candidates, Array<Candidate> failedCandidates, boolean cancelled) {
+                dialog.hide();
+                if (cancelled) return;
+                
+                if (candidates.size == 0) {
+                    dialogFactory.showMessageDialog("Auto Patch Drawables", "None of the texture drawables would be smaller as 9patches.", null);
+                } else {
+                    dialogFactory.showDialogAutoPatch(candidates, DialogDrawables.this::convertNinePatches);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Writes the 9patches of the candidates in the background, then points their drawables to the new files in a
+     * single undoable step.
+     * @param candidates
+     */
+    private void convertNinePatches(Array<Candidate> candidates) {
+        var analysis = new NinePatchAnalysis(projectData.getAutoPatchTolerance());
+        var dialog = dialogFactory.showDialogProgress("Converting drawables...", analysis::cancel);
+        analysis.convert(candidates, new NinePatchAnalysisListener() {
+            @Override
+            public void progress(int completed, int total) {
+                dialog.setProgress(completed, total);
+            }
+            
+            @Override
+            public void finished(Array<Candidate> candidates, Array<Candidate> failedCandidates, boolean cancelled) {
+                dialog.hide();
+                
+                if (candidates.size > 0) {
+                    var undoable = new NinePatchConversionUndoable(candidates);
+                    dialogFactory.showDialogLoading(() -> Gdx.app.postRunnable(() -> {
+                        undoableManager.addUndoable(undoable, true);
+                        sortBySelectedMode();
+                    }));
+                }
+                
+                if (failedCandidates.size > 0) {
+                    var message = new StringBuilder("Unable to convert the following file(s):");
+                    for (int i = 0; i < failedCandidates.size && i < 10; i++) {
+                        message.append("\n").append(failedCandidates.get(i).file.name());
+                    }
+                    if (failedCandidates.size > 10) message.append("\n...and ").append(failedCandidates.size - 10).append(" more");
+                    dialogFactory.showDialogError("Auto Patch Error", message.toString());
+                }
+            }
+        });
+    }
+    
     /**
      * Creates a TintedDrawable based on the provided DrawableData. Prompts
      * user for a Color and name.
@@ -33,11 +33,14 @@ import com.badlogic.gdx.scenes.scene2d.ui.*;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.utils.Array;
 import com.ray3k.skincomposer.Main;
+import com.ray3k.skincomposer.SharedFontAtlas;
+import com.ray3k.skincomposer.SkinLoadBenchmark;
 import com.ray3k.skincomposer.data.DrawableData;
 import com.ray3k.skincomposer.data.DrawableData.DrawableType;
 import com.ray3k.skincomposer.data.FontData;
 import com.ray3k.skincomposer.data.FreeTypeFontData;
 import com.ray3k.skincomposer.data.JsonData.ExportFormat;
+import com.ray3k.skincomposer.runtime.BinarySkinLoader;
 
 import java.nio.file.Paths;
 
@@ -150,6 +153,49 @@ public class DialogExport extends Dialog {
             }
         });
         
+        getContentTable().row();
+        var binaryCheckBox = new CheckBox("Generate binary skin", skin);
+        binaryCheckBox.setChecked(projectData.isExportingBinary());
+        getContentTable().add(binaryCheckBox);
+        binaryCheckBox.addListener(handListener);
+        binaryCheckBox.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                projectData.setExportingBinary(binaryCheckBox.isChecked());
+            }
+        });
+        
+        getContentTable().row();
+        var sharedFontsCheckBox = new CheckBox("Bake FreeType fonts into shared pages", skin);
+        sharedFontsCheckBox.setChecked(projectData.isExportingSharedFontAtlas());
+        getContentTable().add(sharedFontsCheckBox);
+        sharedFontsCheckBox.addListener(handListener);
+        sharedFontsCheckBox.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                projectData.setExportingSharedFontAtlas(sharedFontsCheckBox.isChecked());
+            }
+        });
+        
+        getContentTable().row();
+        var reportCheckBox = new CheckBox("Benchmark skin load and write report", skin);
+        reportCheckBox.setChecked(projectData.isExportingLoadReport());
+        getContentTable().add(reportCheckBox);
+        reportCheckBox.addListener(handListener);
+        reportCheckBox.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                projectData.setExportingLoadReport(reportCheckBox.isChecked());
+            }
+        });
+        
+        getContentTable().row();
+        var watchCheckBox = new CheckBox("Watch for changes and export automatically", skin);
+        watchCheckBox.setName("watch");
+        watchCheckBox.setChecked(watchExporter.isWatching());
+        getContentTable().add(watchCheckBox);
+        watchCheckBox.addListener(handListener);
+        
         getContentTable().row();
         table = new Table();
         getContentTable().add(table);
@@ -215,6 +261,13 @@ public class DialogExport extends Dialog {
                 projectData.setLastImportExportPath(fileHandle.path());
                 
                 writeFile(fileHandle);
+                
+                CheckBox watchCheckBox = findActor("watch");
+                if (watchCheckBox.isChecked()) {
+                    watchExporter.start(fileHandle);
+                } else {
+                    watchExporter.stop();
+                }
             }
         }
         super.result(object);
@@ -227,10 +280,20 @@ public class DialogExport extends Dialog {
 
                 Array<String> newWarnings = projectData.getJsonData().writeFile(fileHandle);
                 warnings.addAll(newWarnings);
+                
+                if (projectData.isExportingBinary()) {
+                    newWarnings = projectData.getJsonData().writeBinaryFile(fileHandle.sibling(fileHandle.nameWithoutExtension() + "." + BinarySkinLoader.EXTENSION));
+                    warnings.addAll(newWarnings);
+                }
+
+                var sharedFontAtlas = new SharedFontAtlas();
+                if (projectData.isExportingSharedFontAtlas()) {
+                    warnings.addAll(sharedFontAtlas.bake(fileHandle));
+                }
 
                 if (projectData.isExportingAtlas()) {
                     try {
-                        newWarnings = projectData.getAtlasData().writeAtlas(fileHandle.parent().child(fileHandle.nameWithoutExtension() + ".atlas"), Main.appFolder.child("texturepacker/atlas-export-settings.json"));
+                        newWarnings = projectData.getAtlasData().writeAtlas(fileHandle.parent().child(fileHandle.nameWithoutExtension() + ".atlas"), Main.appFolder.child("texturepacker/atlas-export-settings.json"), sharedFontAtlas.collectAtlasFiles());
                         warnings.addAll(newWarnings);
                     } catch (Exception ex) {
                         Gdx.app.error(getClass().getName(), "Error while writing texture atlas", ex);
@@ -246,7 +309,7 @@ public class DialogExport extends Dialog {
                     }
 
                     for (FreeTypeFontData font : projectData.getJsonData().getFreeTypeFonts()) {
-                        if (font.useCustomSerializer && !font.file.parent().equals(fileHandle.parent())) {
+                        if (font.useCustomSerializer && !SharedFontAtlas.isShared(font) && !font.file.parent().equals(fileHandle.parent())) {
                             font.file.copyTo(fileHandle.parent());
                         }
                     }
@@ -260,6 +323,37 @@ public class DialogExport extends Dialog {
                     }
                 }
 
+                if (projectData.isExportingLoadReport()) {
+                    var benchmark = new SkinLoadBenchmark();
+                    var reportFile = benchmark.benchmark(fileHandle);
+                    if (benchmark.getError() != null) {
+                        warnings.add("Exported skin failed to load: [BLACK]" + benchmark.getError() + "[]");
+                    } else {
+                        Gdx.app.log(getClass().getName(), "Skin loaded in " + benchmark.getTotalNanos() / 1000000 + " ms using " + benchmark.getGpuBytes() / 1024 + " KB of texture memory. Report written to " + reportFile.path());
+                    }
+                }
+                
+                if (skinPushServer.isRunning()) {
+                    var pushFiles = new Array<FileHandle>();
+                    if (projectData.isExportingBinary()) {
+                        pushFiles.add(fileHandle.sibling(fileHandle.nameWithoutExtension() + "." + BinarySkinLoader.EXTENSION));
+                    }
+                    if (projectData.isExportingFonts()) {
+                        for (FontData font : projectData.getJsonData().getFonts()) {
+                            pushFiles.add(fileHandle.sibling(font.file.name()));
+                        }
+                        
+                        for (FreeTypeFontData font : projectData.getJsonData().getFreeTypeFonts()) {
+                            if (font.useCustomSerializer && !SharedFontAtlas.isShared(font)) pushFiles.add(fileHandle.sibling(font.file.name()));
+                        }
+                    }
+                    pushFiles.addAll(sharedFontAtlas.getFontFiles());
+                    pushFiles.addAll(sharedFontAtlas.getPageFiles());
+                    //the latency is measured from the last edit, or from the export if nothing changed since opening
+                    var editTime = projectData.getLastChangeMillis();
+                    skinPushServer.pushExport(fileHandle, pushFiles, editTime == 0 ? System.currentTimeMillis() : editTime);
+                }
+                
                 if (warnings.size > 0 && projectData.isShowingExportWarnings()) {
                     dialogFactory.showWarningDialog(warnings);
                 }
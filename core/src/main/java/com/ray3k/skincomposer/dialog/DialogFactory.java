@@ -40,6 +40,7 @@ import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.ObjectMap;
 import com.ray3k.skincomposer.Main;
+import com.ray3k.skincomposer.NinePatchAnalysis;
 import com.ray3k.skincomposer.UndoableManager;
 import com.ray3k.skincomposer.UndoableManager.DeleteStyleUndoable;
 import com.ray3k.skincomposer.UndoableManager.DuplicateStyleUndoable;
@@ -825,6 +826,17 @@ public class DialogFactory {
         dialog.show(stage);
     }
     
+    public DialogProgress showDialogProgress(String title, Runnable cancelRunnable) {
+        DialogProgress dialog = new DialogProgress(title, cancelRunnable);
+        dialog.show(stage);
+        return dialog;
+    }
+    
+    public void showDialogAutoPatch(Array<NinePatchAnalysis.Candidate> candidates, DialogAutoPatch.DialogAutoPatchListener listener) {
+        DialogAutoPatch dialog = new DialogAutoPatch(candidates, listener);
+        dialog.show(stage);
+    }
+    
     public void showSceneComposerDialog() {
         DialogSceneComposer dialog = new DialogSceneComposer();
         dialog.show(stage);
@@ -44,6 +44,8 @@ import com.ray3k.skincomposer.UndoableManager.CustomFontUndoable;
 import com.ray3k.skincomposer.UndoableManager.FontUndoable;
 import com.ray3k.skincomposer.data.*;
 import com.ray3k.skincomposer.data.DrawableData.DrawableType;
+import com.ray3k.skincomposer.utils.FontCache;
+import com.ray3k.skincomposer.utils.ResourceTracker;
 import com.ray3k.skincomposer.utils.Utils;
 import com.ray3k.stripe.PopTableClickListener;
 
@@ -640,6 +642,7 @@ public class DialogFonts extends Dialog {
         final var flipCheckBox = new CheckBox("flip", skin);
         flipCheckBox.setChecked(font.isFlip());
         TextButton okButton;
+        LabelStyle previewStyle = new LabelStyle();
         
         Dialog dialog = new Dialog("Font Settings...", getSkin(), "bg") {
             @Override
@@ -657,6 +660,15 @@ public class DialogFonts extends Dialog {
                 stage.setKeyboardFocus(nameField);
                 return dialog;
             }
+            
+            @Override
+            public boolean remove() {
+                if (previewStyle.font != null) {
+                    FontCache.release(previewStyle.font);
+                    previewStyle.font = null;
+                }
+                return super.remove();
+            }
         };
         dialog.getContentTable().padLeft(10.0f).padRight(10.0f);
         
@@ -690,10 +702,7 @@ public class DialogFonts extends Dialog {
         scalingField.addListener(ibeamListener);
     
         dialog.getContentTable().row();
-        LabelStyle previewStyle = new LabelStyle();
-        previewStyle.font = new BitmapFont(font.file, font.isFlip());
-        final var previewCapHeight = previewStyle.font.getCapHeight();
-        if (font.getScaling() != -1) previewStyle.font.getData().setScale(font.getScaling() / previewStyle.font.getCapHeight());
+        previewStyle.font = FontCache.acquire(font.file, font.isFlip(), font.getScaling(), font.isMarkupEnabled());
         
         dialog.getContentTable().row();
         Table table = new Table();
@@ -721,6 +730,16 @@ public class DialogFonts extends Dialog {
     
         final var previewLabel = new Label("Lorem Ipsum", previewStyle);
         previewLabel.setAlignment(Align.center);
+        
+        //the cached fonts are shared, so changed settings swap in the font with those settings
+        Runnable updatePreviewFont = () -> {
+            var scaling = Utils.isNumeric(scalingField.getText()) ? Integer.parseInt(scalingField.getText()) : -1;
+            if (scaling < 1) scaling = -1;
+            var oldFont = previewStyle.font;
+            previewStyle.font = FontCache.acquire(font.file, flipCheckBox.isChecked(), scaling, markupCheckBox.isChecked());
+            if (oldFont != null) FontCache.release(oldFont);
+            previewLabel.setStyle(previewStyle);
+        };
     
         var previewScrollPane = new ScrollPane(previewLabel, skin);
         previewScrollPane.setFadeScrollBars(false);
@@ -755,31 +774,13 @@ public class DialogFonts extends Dialog {
             public void changed(ChangeEvent event, Actor actor) {
                 var isNumeric = Utils.isNumeric(scalingField.getText());
                 okButton.setDisabled(!isNumeric);
-                if (isNumeric) {
-                    var scaling = Integer.parseInt(scalingField.getText());
-                    if (scaling > 0) {
-                        previewStyle.font.getData().setScale(scaling / previewCapHeight);
-                        previewLabel.setStyle(previewStyle);
-                    } else {
-                        previewStyle.font.getData().setScale(1);
-                        previewLabel.setStyle(previewStyle);
-                    }
-                } else {
-                    previewStyle.font.getData().setScale(1);
-                    previewLabel.setStyle(previewStyle);
-                }
+                updatePreviewFont.run();
             }
         });
         
-        Utils.onChange(markupCheckBox, () -> {
-            previewStyle.font.getData().markupEnabled = markupCheckBox.isChecked();
-            previewLabel.setStyle(previewStyle);
-        });
+        Utils.onChange(markupCheckBox, updatePreviewFont);
     
-        Utils.onChange(flipCheckBox, () -> {
-            previewStyle.font = new BitmapFont(font.file, flipCheckBox.isChecked());
-            previewLabel.setStyle(previewStyle);
-        });
+        Utils.onChange(flipCheckBox, updatePreviewFont);
         
         dialog.show(getStage());
     }
@@ -1007,7 +1008,7 @@ public class DialogFonts extends Dialog {
                 atlasData.writeAtlas(defaultsFile);
                 atlasData.atlasCurrent = true;
             }
-            atlas = atlasData.getAtlas();
+            atlas = ResourceTracker.track(atlasData.getAtlas(), this);
 
             for (FontData font : fonts) {
                 BitmapFontData fontData = new BitmapFontData(font.file, font.isFlip());
@@ -1167,6 +1168,7 @@ public class DialogFonts extends Dialog {
                 final var scalingField = new TextField("-1", skin);
                 final var markupCheckBox = new CheckBox("markupEnabled", skin);
                 final var flipCheckBox = new CheckBox("flip", skin);
+                final var previewStyle = new LabelStyle();
                 final Dialog nameDialog = new Dialog("Font settings...", getSkin(), "bg") {
                     @Override
                     protected void result(Object object) {
@@ -1181,6 +1183,10 @@ public class DialogFonts extends Dialog {
 
                     @Override
                     public boolean remove() {
+                        if (previewStyle.font != null) {
+                            FontCache.release(previewStyle.font);
+                            previewStyle.font = null;
+                        }
                         fontSettingsDialog(files, index + 1);
                         return super.remove();
                     }
@@ -1242,9 +1248,7 @@ public class DialogFonts extends Dialog {
                 nameDialog.text("Preview:");
                 nameDialog.getContentTable().row();
 
-                LabelStyle previewStyle = new LabelStyle();
-                previewStyle.font = new BitmapFont(fileHandle, false);
-                final var previewCapHeight = previewStyle.font.getCapHeight();
+                previewStyle.font = FontCache.acquire(fileHandle, false, -1, false);
                 table = new Table(getSkin());
                 table.setBackground("white");
                 if (Utils.brightness(Utils.averageEdgeColor(new FileHandle(previewStyle.font.getData().imagePaths[0]))) > .5f) {
@@ -1257,6 +1261,15 @@ public class DialogFonts extends Dialog {
                 final var previewLabel = new Label("Lorem Ipsum", previewStyle);
                 previewLabel.setAlignment(Align.center);
                 
+                Runnable updatePreviewFont = () -> {
+                    var scaling = Utils.isNumeric(scalingField.getText()) ? Integer.parseInt(scalingField.getText()) : -1;
+                    if (scaling < 1) scaling = -1;
+                    var oldFont = previewStyle.font;
+                    previewStyle.font = FontCache.acquire(fileHandle, flipCheckBox.isChecked(), scaling, markupCheckBox.isChecked());
+                    if (oldFont != null) FontCache.release(oldFont);
+                    previewLabel.setStyle(previewStyle);
+                };
+                
                 var previewScrollPane = new ScrollPane(previewLabel, skin);
                 previewScrollPane.setFadeScrollBars(false);
                 table.add(previewScrollPane).pad(5.0f).grow().minHeight(100);
@@ -1276,34 +1289,17 @@ public class DialogFonts extends Dialog {
                     public void changed(ChangeEvent event, Actor actor) {
                         var isNumeric = Utils.isNumeric(scalingField.getText());
                         button.setDisabled(!isNumeric);
-                        if (isNumeric) {
-                            var scaling = Integer.parseInt(scalingField.getText());
-                            if (scaling > 0) {
-                                previewStyle.font.getData().setScale(scaling / previewCapHeight);
-                                previewLabel.setStyle(previewStyle);
-                            } else {
-                                previewStyle.font.getData().setScale(1);
-                                previewLabel.setStyle(previewStyle);
-                            }
-                        } else {
-                            previewStyle.font.getData().setScale(1);
-                            previewLabel.setStyle(previewStyle);
-                        }
+                        updatePreviewFont.run();
                     }
                 });
     
-                Utils.onChange(markupCheckBox, () -> {
-                    previewStyle.font.getData().markupEnabled = markupCheckBox.isChecked();
-                    previewLabel.setStyle(previewStyle);
-                });
+                Utils.onChange(markupCheckBox, updatePreviewFont);
     
-                Utils.onChange(flipCheckBox, () -> {
-                    previewStyle.font = new BitmapFont(previewStyle.font.getData().fontFile, flipCheckBox.isChecked());
-                    
-                    previewLabel.setStyle(previewStyle);
-                });
+                Utils.onChange(flipCheckBox, updatePreviewFont);
                 
                 if (!Utils.doesImageFitBox(new FileHandle(previewStyle.font.getData().imagePaths[0]), maxTextureWidth, maxTextureHeight)) {
+                    FontCache.release(previewStyle.font);
+                    previewStyle.font = null;
                     showAddFontSizeError(fileHandle.nameWithoutExtension());
                 } else {
                     nameDialog.show(getStage());
@@ -28,7 +28,13 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input.Keys;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeBitmapFontData;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.*;
@@ -44,6 +50,8 @@ import com.ray3k.skincomposer.FilesDroppedListener;
 import com.ray3k.skincomposer.LeadingTruncateLabel;
 import com.ray3k.skincomposer.Main;
 import com.ray3k.skincomposer.data.*;
+import com.ray3k.skincomposer.utils.GlyphRasterCache;
+import com.ray3k.skincomposer.utils.ResourceTracker;
 import com.ray3k.skincomposer.utils.Utils;
 import com.ray3k.stripe.PopColorPicker.PopColorPickerAdapter;
 import com.ray3k.stripe.Spinner;
@@ -54,6 +62,9 @@ import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.ray3k.skincomposer.Main.*;
 
@@ -128,6 +139,12 @@ public class DialogFreeTypeFont extends Dialog {
     private Image arrowImageLeft, arrowImageRight;
     private static Vector2 temp = new Vector2();
     private Actor previousArrowTarget;
+    private static final float PREVIEW_DELAY = .2f;
+    private final ExecutorService previewExecutor;
+    private final Timer.Task previewTask;
+    private final AtomicInteger previewGeneration = new AtomicInteger();
+    private BitmapFont previewFont;
+    private boolean previewValid;
     
     public DialogFreeTypeFont(FreeTypeFontData freeTypeFontData) {
         super(freeTypeFontData == null ? "Create new FreeType Font" : "Edit FreeType Font", skin, "bg");
@@ -146,6 +163,18 @@ public class DialogFreeTypeFont extends Dialog {
         
         json = new Json(JsonWriter.OutputType.json);
         
+        previewExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "FreeType Preview");
+            thread.setDaemon(true);
+            return thread;
+        });
+        previewTask = new Timer.Task() {
+            @Override
+            public void run() {
+                generatePreview();
+            }
+        };
+        
         DecimalFormatSymbols decimalFormatSymbols = new DecimalFormatSymbols(Locale.US);
         df = new DecimalFormat("#.#", decimalFormatSymbols);
         
@@ -220,6 +249,13 @@ public class DialogFreeTypeFont extends Dialog {
     @Override
     public boolean remove() {
         desktopWorker.removeFilesDroppedListener(filesDroppedListener);
+        previewGeneration.incrementAndGet();
+        previewTask.cancel();
+        previewExecutor.shutdown();
+        if (previewFont != null) {
+            previewFont.dispose();
+            previewFont = null;
+        }
         
         return super.remove();
     }
@@ -391,7 +427,7 @@ public class DialogFreeTypeFont extends Dialog {
         textField.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                previewText = ((TextField) actor).getText();
+                previewTextChanged(((TextField) actor).getText());
             }
         });
         
@@ -1254,7 +1290,10 @@ public class DialogFreeTypeFont extends Dialog {
             }
         }
         
+        previewValid = !notValid;
         if (notValid) {
+            previewGeneration.incrementAndGet();
+            previewTask.cancel();
             TextField textField = findActor("previewField");
             Cell cell = ((Table) textField.getParent()).getCell(textField);
             previewStyle.font = skin.get("free-type-preview", TextFieldStyle.class).font;
@@ -1267,29 +1306,11 @@ public class DialogFreeTypeFont extends Dialog {
             textField.addListener(new ChangeListener() {
                 @Override
                 public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                    previewText = ((TextField) actor).getText();
+                    previewTextChanged(((TextField) actor).getText());
                 }
             });
         } else {
-            data.createBitmapFont();
-            if (data.bitmapFont != null) {
-                TextField textField = findActor("previewField");
-                Cell cell = ((Table) textField.getParent()).getCell(textField);
-                previewStyle.font = data.bitmapFont;
-                
-                textField = new TextField(previewText, previewStyle);
-                textField.setName("previewField");
-                textField.setAlignment(Align.center);
-                cell.setActor(textField);
-                
-                textField.addListener(ibeamListener);
-                textField.addListener(new ChangeListener() {
-                    @Override
-                    public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                        previewText = ((TextField) actor).getText();
-                    }
-                });
-            }
+            schedulePreview();
         }
         
         if (!StyleData.validate(((TextField)findActor("fontName")).getText())) {
@@ -1321,6 +1342,93 @@ public class DialogFreeTypeFont extends Dialog {
         textButton.setDisabled(notValid);
     }
     
+    private void previewTextChanged(String text) {
+        previewText = text;
+        if (previewValid) schedulePreview();
+    }
+    
+    /**
+     * Renders the preview font on a background thread once the settings stop changing. Only the newest settings are
+     * rendered and only the characters of the preview text are rasterized.
+     */
+    private void schedulePreview() {
+        previewGeneration.incrementAndGet();
+        previewTask.cancel();
+        Timer.schedule(previewTask, PREVIEW_DELAY);
+    }
+    
+    private void generatePreview() {
+        var sourceFile = data.getSourceFile();
+        if (sourceFile == null) return;
+        
+        var parameter = data.createParameter();
+        parameter.characters = "\u0000" + previewText;
+        parameter.color = new Color(parameter.color);
+        parameter.borderColor = new Color(parameter.borderColor);
+        parameter.shadowColor = new Color(parameter.shadowColor);
+        
+        int pageSize = MathUtils.nextPowerOfTwo(Math.max(512, (int) (parameter.size + parameter.borderWidth * 2) * 2 + Math.abs(parameter.shadowOffsetX) + Math.abs(parameter.shadowOffsetY)));
+        var packer = new PixmapPacker(pageSize, pageSize, Pixmap.Format.RGBA8888, 1, false, new PixmapPacker.SkylineStrategy());
+        packer.setTransparentColor(parameter.borderWidth > 0 ? parameter.borderColor : parameter.color);
+        packer.getTransparentColor().a = 0;
+        parameter.packer = packer;
+        
+        int generation = previewGeneration.get();
+        previewExecutor.execute(() -> {
+            //skip builds superseded while they were queued
+            if (generation != previewGeneration.get()) {
+                packer.dispose();
+                return;
+            }
+            
+            FreeTypeBitmapFontData fontData;
+            FreeTypeFontGenerator generator = null;
+            try {
+                generator = GlyphRasterCache.newGenerator(sourceFile);
+                fontData = generator.generateData(parameter);
+            } catch (GdxRuntimeException e) {
+                fontData = null;
+            } finally {
+                if (generator != null) generator.dispose();
+            }
+            
+            //skip builds superseded while they were running, their pages are freed here instead of on the render thread
+            if (fontData == null || generation != previewGeneration.get()) {
+                packer.dispose();
+                return;
+            }
+            
+            var result = fontData;
+            Gdx.app.postRunnable(() -> applyPreview(result, packer, parameter, generation));
+        });
+    }
+    
+    /**
+     * Uploads the glyph pages of a finished preview build and shows it. The build is dropped if the settings changed
+     * after it was posted. Must be called on the render thread.
+     */
+    private void applyPreview(FreeTypeBitmapFontData fontData, PixmapPacker packer, FreeTypeFontParameter parameter, int generation) {
+        if (generation != previewGeneration.get() || getStage() == null) {
+            packer.dispose();
+            return;
+        }
+        
+        var regions = new Array<TextureRegion>();
+        packer.updateTextureRegions(regions, parameter.minFilter, parameter.magFilter, parameter.genMipMaps);
+        packer.dispose();
+        if (regions.isEmpty()) return;
+        
+        var font = new BitmapFont(fontData, regions, true);
+        font.setOwnsTexture(true);
+        ResourceTracker.track(font, this);
+        if (previewFont != null) previewFont.dispose();
+        previewFont = font;
+        previewStyle.font = font;
+        
+        TextField textField = findActor("previewField");
+        textField.setStyle(previewStyle);
+    }
+    
     private void showMoreInfoDialog() {
         Dialog dialog = new Dialog("Custom serializer for FreeType Fonts", skin, "bg");
         
@@ -29,8 +29,9 @@ import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
-import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Interpolation;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
@@ -47,11 +48,15 @@ import com.ray3k.skincomposer.FilesDroppedListener;
 import com.ray3k.skincomposer.Main;
 import com.ray3k.stripe.Spinner;
 import com.ray3k.skincomposer.data.StyleProperty;
+import com.ray3k.skincomposer.utils.AlphaProfile;
+import com.ray3k.skincomposer.utils.ContourKerning;
+import com.ray3k.skincomposer.utils.PixmapPool;
+import com.ray3k.skincomposer.utils.ResourceTracker;
 import com.ray3k.skincomposer.utils.Utils;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.util.stream.Stream;
 
 import static com.ray3k.skincomposer.Main.*;
 /**
@@ -68,11 +73,16 @@ public class DialogImageFont extends Dialog {
     private static final String KERNING_DEFAULTS = "A' AC AG AO AQ AT AU AV AW AY BA BE BL BP BR BU BV BW BY CA CO CR DA DD DE DI DL DM DN DO DP DR DU DV DW DY EC EO FA FC FG FO F. F, GE GO GR GU HO IC IG IO JA JO KO L' LC LT LV LW LY LG LO LU M MG MO NC NG NO OA OB OD OE OF OH OI OK OL OM ON OP OR OT OU OV OW OX OY PA PE PL PO PP PU PY P. P, P; P: QU RC RG RY RT RU RV RW RY SI SM ST SU TA TC TO UA UC UG UO US VA VC VG VO VS WA WC WG WO YA YC YO YS ZO Ac Ad Ae Ag Ao Ap Aq At Au Av Aw Ay Bb Bi Bk Bl Br Bu By B. B, Ca Cr C. C, Da D. D, Eu Ev Fa Fe Fi Fo Fr Ft Fu Fy F. F, F; F: Gu He Ho Hu Hy Ic Id Iq Io It Ja Je Jo Ju J. J, Ke Ko Ku Lu Ly Ma Mc Md Me Mo Nu Na Ne Ni No Nu N. N, Oa Ob Oh Ok Ol O. O, Pa Pe Po Rd Re Ro Rt Ru Si Sp Su S. S, Ta Tc Te Ti To Tr Ts Tu Tw Ty T. T, T; T: Ua Ug Um Un Up Us U. U, Va Ve Vi Vo Vr Vu V. V, V; V: Wd Wi Wm Wr Wt Wu Wy W. W, W; W: Xa Xe Xo Xu Xy Yd Ye Yi Yp Yu Yv Y. Y, Y; Y: ac ad ae ag ap af at au av aw ay ap bl br bu by b. b, ca ch ck da dc de dg do dt du dv dw dy d. d, ea ei el em en ep er et eu ev ew ey e. e, fa fe ff fi fl fo f. f, ga ge gh gl go gg g. g, hc hd he hg ho hp ht hu hv hw hy ic id ie ig io ip it iu iv ja je jo ju j. j, ka kc kd ke kg ko la lc ld le lf lg lo lp lq lu lv lw ly ma mc md me mg mn mo mp mt mu mv my nc nd ne ng no np nt nu nv nw ny ob of oh oj ok ol om on op or ou ov ow ox oy o. o, pa ph pi pl pp pu p. p, qu t. ra rd re rg rk rl rm rn ro rq rr rt rv ry r. r, sh st su s. s, td ta te to t. t, ua uc ud ue ug uo up uq ut uv uw uy va vb vc vd ve vg vo vv vy v. v, wa wx wd we wg wh wo w. w, xa xe xo y. y, ya yc yd ye yo 00 01 02 03 04 05 06 07 08 09 10 11 12 13 14 15 16 17 18 19 20 21 22 23 24 25 26 27 28 29 30 31 32 33 34 35 36 37 38 39 40 41 42 43 44 45 46 47 48 49 50 51 52 53 54 55 56 57 58 59 60 61 62 63 64 65 66 67 68 69 70 71 72 73 74 75 76 77 78 79 80 81 82 83 84 85 86 87 88 89 90 91 92 93 94 95 96 97 98 99";
     private static final CharArray BASELINE_EXCLUSION = new CharArray(new char[] {'C', 'G', 'J', 'O', 'Q', 'U', '0', '3', '4', '5', '6', '7', '8', '9', 'c', 'o', 'g', 'j', 'p', 'q', 'y', '_', '-', '=', '|'});
     private Array<BitmapCharacter> bitmapCharacters;
+    private Pixmap fontPixmap;
+    private Pixmap packedPixmap;
+    private Texture previewTexture;
     private BitmapFont previewFont;
     private TextFieldStyle previewStyle;
     private FilesDroppedListener filesDroppedListener;
     private Array<Actor> fadables;
     private static final int AUTO_GAP_LIMIT = 5;
+    private static final int PACK_PADDING = 2;
+    private static final int PACK_MAX_SIZE = 2048;
     private Array<KerningPair> kerningPairValues;
     private ImageFontSettings settings;
     private Json json;
@@ -208,6 +218,16 @@ public class DialogImageFont extends Dialog {
         desktopWorker.removeFilesDroppedListener(filesDroppedListener);
         if (previewFont != null) {
             previewFont.dispose();
+            ResourceTracker.disposed(previewFont);
+        }
+        if (previewTexture != null) {
+            previewTexture.dispose();
+        }
+        if (packedPixmap != null) {
+            packedPixmap.dispose();
+        }
+        if (fontPixmap != null) {
+            fontPixmap.dispose();
         }
         
         return super.remove();
@@ -217,7 +237,13 @@ public class DialogImageFont extends Dialog {
     protected void result(Object object) {
         if ((Boolean) object) {
             var textField = (TextField) findActor("targetpath");
-            writeFNT(Gdx.files.absolute(textField.getText()), true);
+            try {
+                writeFNT(Gdx.files.absolute(textField.getText()), true);
+            } catch (GdxRuntimeException e) {
+                Gdx.app.error(getClass().getName(), "Error writing font file: " + textField.getText(), e);
+                dialogFactory.showDialogError("Error creating font from image...", "Error creating font from image.\nOpen log?");
+                return;
+            }
             if (imageFontListener != null) {
                 imageFontListener.fontGenerated(Gdx.files.absolute(textField.getText()));
             }
@@ -638,6 +664,7 @@ public class DialogImageFont extends Dialog {
             @Override
             public void changed(ChangeListener.ChangeEvent event, Actor actor) {
                 try {
+                    writeCharacterImages();
                     Utils.openFileExplorer(Main.appFolder.child("imagefont/characters/"));
                 } catch (IOException e) {
                     Gdx.app.error(getClass().getName(), "Error opening characters folder", e);
@@ -817,6 +844,7 @@ public class DialogImageFont extends Dialog {
         int tabSpace;
         String kerningPairs;
         boolean kerningPairsActivated;
+        boolean kerningAllPairs;
         int kerningPairsOffset;
         String preview;
         Color previewColor;
@@ -826,6 +854,7 @@ public class DialogImageFont extends Dialog {
             characters = ALL;
             gap = 3;
             kerningPairsActivated = false;
+            kerningAllPairs = false;
             kerningPairs = KERNING_DEFAULTS;
             kerningPairsOffset = 1;
             kerning = 1;
@@ -962,6 +991,21 @@ public class DialogImageFont extends Dialog {
             }
         });
         
+        table.row();
+        var checkBox = new CheckBox("Kern every pair of characters", skin);
+        checkBox.setChecked(settings.kerningAllPairs);
+        table.add(checkBox).colspan(3).left();
+        checkBox.addListener(handListener);
+        checkBox.addListener((Main.makeTooltip("Calculate kerning for every pair of characters in the font instead of the listed pairs", tooltipManager, skin)));
+        checkBox.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                settings.kerningAllPairs = checkBox.isChecked();
+                textField.setDisabled(checkBox.isChecked());
+            }
+        });
+        textField.setDisabled(settings.kerningAllPairs);
+        
         dialog.key(Keys.ESCAPE, false).key(Keys.ENTER, true).key(Keys.NUMPAD_ENTER, true);
         
         textButton = new TextButton("Turn ON Kern Pairs", skin);
@@ -983,11 +1027,16 @@ public class DialogImageFont extends Dialog {
     }
     
     private void loadPixmap(FileHandle fileHandle, boolean setDefaults) throws InvalidFontImageException {
-        var fontPixmap = new Pixmap(fileHandle);
-        var tempColor = new Color();
+        if (fontPixmap != null) fontPixmap.dispose();
+        fontPixmap = ResourceTracker.track(new Pixmap(fileHandle), this);
+        if (packedPixmap != null) {
+            packedPixmap.dispose();
+            packedPixmap = null;
+        }
+        var profile = new AlphaProfile(fontPixmap);
+        var pixmapWidth = profile.getWidth();
         
         bitmapCharacters = new Array<>();
-        var yBreaks = new IntArray();
         var characterList = settings.characters;
         
         var gapSize = settings.gap;
@@ -998,41 +1047,24 @@ public class DialogImageFont extends Dialog {
         }
         var averageWidth = 0;
         
+        //find vertical breaks for separate rows, these do not depend on the gap size
+        var rowBreaks = new IntArray();
+        profile.findRowBreaks(rowBreaks);
+        
+        if (rowBreaks.size < 2) {
+            fontPixmap.dispose();
+            fontPixmap = null;
+            throw new InvalidFontImageException();
+        }
+        
+        var yBreaks = new IntArray();
         boolean failure;
         do {
             failure = false;
             bitmapCharacters.clear();
+            averageWidth = 0;
             yBreaks.clear();
-            var lookingForBreak = false;
-            
-            //find vertical breaks for separate rows
-            for (int y = 0; y < fontPixmap.getHeight(); y++) {
-                var foundLine = false;
-                for (int x = 0; x < fontPixmap.getWidth(); x++) {
-                    tempColor.set(fontPixmap.getPixel(x, y));
-
-                    if (tempColor.a > 0) {
-                        foundLine = true;
-                        break;
-                    }
-                }
-
-                if (!lookingForBreak) {
-                    if (foundLine) {
-                        yBreaks.add(y);
-                        lookingForBreak = true;
-                    }
-                } else {
-                    if (!foundLine) {
-                        yBreaks.add(y);
-                        lookingForBreak = false;
-                    }
-                }
-            }
-            
-            if (yBreaks.size < 2) {
-                throw new InvalidFontImageException();
-            }
+            yBreaks.addAll(rowBreaks);
             
             for (int i = 1; i + 1 < yBreaks.size; i += 2) {
                 if (yBreaks.get(i + 1) - yBreaks.get(i) < gapSize) {
@@ -1047,20 +1079,14 @@ public class DialogImageFont extends Dialog {
             //find characters for each row
             for (int i = 0; i < yBreaks.size && !failure; i += 2) {
                 BitmapCharacter bitmapCharacter = null;
-                lookingForBreak = false;
+                var lookingForBreak = false;
 
                 var gapCounter = 0;
+                var rowY = yBreaks.get(i);
+                var rowHeight = yBreaks.get(i + 1) - rowY;
 
-                for (int x = 0; x < fontPixmap.getWidth(); x++) {
-                    var foundCharacter = false;
-                    for (int y = yBreaks.get(i); y < yBreaks.get(i + 1); y++) {
-                        tempColor.set(fontPixmap.getPixel(x, y));
-
-                        if (tempColor.a > 0) {
-                            foundCharacter = true;
-                            break;
-                        }
-                    }
+                for (int x = 0; x < pixmapWidth; x++) {
+                    var foundCharacter = !profile.isEmpty(x, rowY, 1, rowHeight);
 
                     if (!lookingForBreak) {
                         if (foundCharacter) {
@@ -1073,8 +1099,8 @@ public class DialogImageFont extends Dialog {
                             bitmapCharacter.name = Integer.toString(nameCounter) + " " + bitmapCharacter.character + " " + (int) bitmapCharacter.character;
                             bitmapCharacter.name = sanitizeFileName(bitmapCharacter.name);
                             bitmapCharacter.x = x;
-                            bitmapCharacter.y = yBreaks.get(i);
-                            bitmapCharacter.height = yBreaks.get(i + 1) - bitmapCharacter.y;
+                            bitmapCharacter.y = rowY;
+                            bitmapCharacter.height = rowHeight;
                             lookingForBreak = true;
                         }
                     } else {
@@ -1098,7 +1124,7 @@ public class DialogImageFont extends Dialog {
                 }
 
                 if (!failure && lookingForBreak) {
-                    bitmapCharacter.width = fontPixmap.getWidth() - 1 - bitmapCharacter.x;
+                    bitmapCharacter.width = pixmapWidth - 1 - bitmapCharacter.x;
                     averageWidth += bitmapCharacter.width;
                     bitmapCharacters.add(bitmapCharacter);
                     nameCounter++;
@@ -1118,38 +1144,14 @@ public class DialogImageFont extends Dialog {
         
         //find crop y and crop height
         for (var character : bitmapCharacters) {
-            for (int y = character.y; y < character.y + character.height; y++) {
-                var lineEmpty = true;
-                for (int x = character.x; x < character.x + character.width; x++) {
-                    tempColor.set(fontPixmap.getPixel(x, y));
-                    if (tempColor.a > 0) {
-                        lineEmpty = false;
-                        break;
-                    }
-                }
-                if (!lineEmpty) {
-                    character.cropY = y - 1;
-                    break;
-                }
-            }
-        }
-        
-        for (var character : bitmapCharacters) {
-            for (int y = character.cropY + character.height; y >= character.cropY; y--) {
-                var lineEmpty = true;
-                for (int x = character.x; x < character.x + character.width; x++) {
-                    tempColor.set(fontPixmap.getPixel(x, y));
-                    if (tempColor.a > 0) {
-                        lineEmpty = false;
-                        break;
-                    }
-                }
-                if (!lineEmpty) {
-                    character.cropHeight = y - character.cropY + 1;
-                    character.yoffset = character.cropY - character.y;
-                    character.baseline = y - character.cropY;
-                    break;
-                }
+            var firstRow = profile.findFirstRow(character.x, character.y, character.width, character.height);
+            if (firstRow != -1) character.cropY = firstRow - 1;
+            
+            var lastRow = profile.findLastRow(character.x, character.cropY, character.width, character.height + 1);
+            if (lastRow != -1) {
+                character.cropHeight = lastRow - character.cropY + 1;
+                character.yoffset = character.cropY - character.y;
+                character.baseline = lastRow - character.cropY;
             }
         }
         
@@ -1163,106 +1165,50 @@ public class DialogImageFont extends Dialog {
             }
         }
         
-        //write characters to temporary PNGs
-        Main.appFolder.child("imagefont/characters").emptyDirectory();
-        for (var character : bitmapCharacters) {
-            var pixmap = new Pixmap(character.width, character.cropHeight, Pixmap.Format.RGBA8888);
-            pixmap.setBlending(Pixmap.Blending.None);
-            pixmap.drawPixmap(fontPixmap, 0, 0, character.x, character.cropY, character.width, character.cropHeight);
-            PixmapIO.writePNG(Main.appFolder.child("imagefont/characters/" + character.name + ".png"), pixmap);
-            pixmap.dispose();
-        }
-        
         //calculate auto kerning pairs
+        kerningPairValues.clear();
         if (settings.kerningPairsActivated) {
-            var pairs = settings.kerningPairs.trim().split(" ");
-            pairs = Stream.of(pairs).filter((t) -> {
-                return t.length() == 2;
-            }).toArray(String[]::new);
-            
-            var charFolder = Main.appFolder.child("imagefont/characters");
-            var pixmaps = new Array<Pixmap>();
-            var testColor = new Color();
-            kerningPairValues.clear();
-            for (var pair : pairs) {
-                pixmaps.clear();
-                
-                //find images for each character
-                var fileHandles = charFolder.list((File dir, String name1) -> name1.matches(".* (" + (int) pair.charAt(0) + "|" + (int) pair.charAt(1) + ").png"));
-                
-                //create pixmaps
-                if (fileHandles.length == 1 && pair.charAt(0) == pair.charAt(1) || fileHandles.length == 2) for (var imageFileHandle : fileHandles) {
-                    var testPixmap = new Pixmap(imageFileHandle);
-                    pixmaps.add(testPixmap);
-                } else {
-                    continue;
-                }
-                
-                Pixmap compilationPixmap;
-                if (fileHandles.length == 1) {
-                    compilationPixmap = new Pixmap(pixmaps.get(0).getWidth() + pixmaps.get(0).getWidth(), pixmaps.get(0).getHeight(), Pixmap.Format.RGBA8888);
-                } else {
-                    compilationPixmap = new Pixmap(pixmaps.get(0).getWidth() + pixmaps.get(1).getWidth(), pixmaps.get(0).getHeight(), Pixmap.Format.RGBA8888);
+            var characterMap = new IntMap<BitmapCharacter>();
+            var uniqueCharacters = new Array<BitmapCharacter>();
+            for (var character : bitmapCharacters) {
+                if (!characterMap.containsKey(character.character)) {
+                    character.contour = ContourKerning.measure(profile, character.x, character.cropY, character.width, character.cropHeight, character.yoffset);
+                    characterMap.put(character.character, character);
+                    uniqueCharacters.add(character);
                 }
-                
-                //convert each pixmap to 50% transparency on every opaque character
-                for (int i = 0; i < pixmaps.size; i++) {
-                    var testPixmap = pixmaps.get(i);
-                    var temp = new Pixmap(testPixmap.getWidth(), testPixmap.getHeight(), Pixmap.Format.RGBA8888);
-                    
-                    for (int y = 0; y < testPixmap.getHeight(); y++) {
-                        for (int x = 0; x < testPixmap.getWidth(); x++) {
-                            testColor.set(testPixmap.getPixel(x, y));
-                            
-                            if (testColor.a > 0) {
-                                testColor.set(1, 1, 1, .5f);
-                                temp.setColor(testColor);
-                                temp.drawPixel(x, y);
-                            }
-                        }
+            }
+            
+            var firsts = new Array<BitmapCharacter>();
+            var seconds = new Array<BitmapCharacter>();
+            if (settings.kerningAllPairs) {
+                for (int i = 0; i < uniqueCharacters.size; i++) {
+                    for (int j = 0; j < uniqueCharacters.size; j++) {
+                        firsts.add(uniqueCharacters.get(i));
+                        seconds.add(uniqueCharacters.get(j));
                     }
-                    
-                    testPixmap.dispose();
-                    pixmaps.set(i, temp);
                 }
-                
-                var testX = pixmaps.get(0).getWidth();
-                float alpha = 0.0f;
-                while (testX >= 0.0f && alpha < .6f) {
-                    //overlap pixmaps and test transparency, 100% means fail
-                    compilationPixmap.setColor(Color.CLEAR);
-                    compilationPixmap.fill();
-                    
-                    if (fileHandles.length == 1) {
-                        compilationPixmap.drawPixmap(pixmaps.get(0), 0, 0);
-                        compilationPixmap.drawPixmap(pixmaps.get(0), testX, 0);
-                    } else {
-                        compilationPixmap.drawPixmap(pixmaps.get(0), 0, 0);
-                        compilationPixmap.drawPixmap(pixmaps.get(1), testX, 0);
-                    }
-                    
-                    for (int y = 0; y < compilationPixmap.getHeight(); y++) {
-                        for (int x = 0; x < compilationPixmap.getWidth(); x++) {
-                            testColor.set(compilationPixmap.getPixel(x, y));
-
-                            if (testColor.a > alpha) {
-                                alpha = testColor.a;
-                            }
-                        }
+            } else {
+                for (var pair : settings.kerningPairs.trim().split(" ")) {
+                    if (pair.length() != 2) continue;
+                    var first = characterMap.get(pair.charAt(0));
+                    var second = characterMap.get(pair.charAt(1));
+                    if (first != null && second != null) {
+                        firsts.add(first);
+                        seconds.add(second);
                     }
-                    
-                    testX--;
                 }
-                
-                testX -= pixmaps.get(0).getWidth() - settings.kerningPairsOffset;
-                
-                //reset
-                for (var testPixmap : pixmaps) {
-                    testPixmap.dispose();
-                }
-                compilationPixmap.dispose();
-                
-                kerningPairValues.add(new KerningPair(pair.charAt(0), pair.charAt(1), testX));
+            }
+            
+            var firstContours = new ContourKerning.Contour[firsts.size];
+            var secondContours = new ContourKerning.Contour[seconds.size];
+            for (int i = 0; i < firsts.size; i++) {
+                firstContours[i] = firsts.get(i).contour;
+                secondContours[i] = seconds.get(i).contour;
+            }
+            
+            var amounts = ContourKerning.kern(firstContours, secondContours, settings.kerningPairsOffset);
+            for (int i = 0; i < amounts.length; i++) {
+                if (amounts[i] != 0) kerningPairValues.add(new KerningPair(firsts.get(i).character, seconds.get(i).character, amounts[i]));
             }
         }
         
@@ -1290,8 +1236,6 @@ public class DialogImageFont extends Dialog {
             ((Spinner) findActor("space width")).setValue(MathUtils.round(averageWidth * .28f));
             settings.spaceWidth = MathUtils.round(averageWidth * .28f);
         }
-        
-        fontPixmap.dispose();
     }
     
     private static class BitmapCharacter {
@@ -1305,6 +1249,9 @@ public class DialogImageFont extends Dialog {
         String name;
         char character;
         int baseline;
+        ContourKerning.Contour contour;
+        int packX;
+        int packY;
 
         @Override
         public String toString() {
@@ -1324,45 +1271,109 @@ public class DialogImageFont extends Dialog {
         }
     }
 
-    private void writeFNT(FileHandle saveFile, boolean texturePack) {
-        if (texturePack) {
+    /**
+     * Writes each character to its own PNG in the characters folder so they can be inspected.
+     */
+    private void writeCharacterImages() {
+        Main.appFolder.child("imagefont/characters").emptyDirectory();
+        if (fontPixmap == null) return;
+        PixmapPool.beginBatch();
+        try {
+            for (var character : bitmapCharacters) {
+                var pixmap = PixmapPool.obtain(character.width, character.cropHeight);
+                pixmap.setBlending(Pixmap.Blending.None);
+                pixmap.drawPixmap(fontPixmap, 0, 0, character.x, character.cropY, character.width, character.cropHeight);
+                try {
+                    PixmapIO.writePNG(Main.appFolder.child("imagefont/characters/" + character.name + ".png"), pixmap);
+                } finally {
+                    PixmapPool.free(pixmap);
+                }
+            }
+        } finally {
+            PixmapPool.endBatch();
+        }
+    }
+    
+    /**
+     * Packs the characters directly from the source image into a single page. Characters are placed on shelves sorted
+     * by height and the edge pixels are duplicated into the padding to avoid bleeding when filtered.
+     * @throws GdxRuntimeException if the characters do not fit on a page of {@link #PACK_MAX_SIZE} pixels.
+     */
+    private void packCharacters() {
+        if (packedPixmap != null) {
+            packedPixmap.dispose();
+            packedPixmap = null;
+        }
+        
+        var sorted = new Array<BitmapCharacter>(bitmapCharacters);
+        sorted.sort((o1, o2) -> Integer.compare(o2.cropHeight, o1.cropHeight));
+        
+        var area = 0;
+        var widest = 1;
+        for (var character : sorted) {
+            area += (character.width + PACK_PADDING) * (character.cropHeight + PACK_PADDING);
+            widest = Math.max(widest, character.width + PACK_PADDING);
+        }
+        var pageWidth = Math.min(PACK_MAX_SIZE, Math.max(widest, MathUtils.ceil((float) Math.sqrt(area) * 1.1f)));
+        
+        var shelfX = 0;
+        var shelfY = 0;
+        var shelfHeight = 0;
+        var usedWidth = 1;
+        for (var character : sorted) {
+            var width = character.width + PACK_PADDING;
+            var height = character.cropHeight + PACK_PADDING;
+            if (shelfX + width > pageWidth && shelfX > 0) {
+                shelfX = 0;
+                shelfY += shelfHeight;
+                shelfHeight = 0;
+            }
+            character.packX = shelfX + PACK_PADDING / 2;
+            character.packY = shelfY + PACK_PADDING / 2;
+            shelfX += width;
+            shelfHeight = Math.max(shelfHeight, height);
+            usedWidth = Math.max(usedWidth, shelfX);
+        }
+        var pageHeight = Math.max(1, shelfY + shelfHeight);
+        if (usedWidth > PACK_MAX_SIZE || pageHeight > PACK_MAX_SIZE) {
+            throw new GdxRuntimeException("The characters need a " + usedWidth + "x" + pageHeight
+                    + " page, which is larger than the maximum of " + PACK_MAX_SIZE + "x" + PACK_MAX_SIZE + ".");
+        }
+        
+        packedPixmap = ResourceTracker.track(new Pixmap(usedWidth, pageHeight, Pixmap.Format.RGBA8888), this);
+        packedPixmap.setBlending(Pixmap.Blending.None);
+        for (var character : sorted) {
+            var x = character.packX;
+            var y = character.packY;
+            var width = character.width;
+            var height = character.cropHeight;
+            if (width <= 0 || height <= 0) continue;
+            
+            packedPixmap.drawPixmap(fontPixmap, character.x, character.cropY, width, height, x, y, width, height);
+            
+            //duplicate the edges into the padding
+            packedPixmap.drawPixmap(packedPixmap, x, y, width, 1, x, y - 1, width, 1);
+            packedPixmap.drawPixmap(packedPixmap, x, y + height - 1, width, 1, x, y + height, width, 1);
+            packedPixmap.drawPixmap(packedPixmap, x, y - 1, 1, height + 2, x - 1, y - 1, 1, height + 2);
+            packedPixmap.drawPixmap(packedPixmap, x + width - 1, y - 1, 1, height + 2, x + width, y - 1, 1, height + 2);
+        }
+    }
+
+    private void writeFNT(FileHandle saveFile, boolean writeImage) {
+        if (packedPixmap == null) packCharacters();
+        
+        String imageFileName = saveFile.nameWithoutExtension() + ".png";
+        if (writeImage) {
             //delete existing PNG's
             var deleteFiles = saveFile.parent().list((File dir, String name1) -> name1.matches(saveFile.nameWithoutExtension() + "\\d*?\\.png|" + saveFile.nameWithoutExtension() + "\\.atlas|" + saveFile.nameWithoutExtension() + "\\.fnt"));
             for (var file : deleteFiles) {
                 file.delete();
             }
             saveFile.delete();
-
-
-            //texturepack images
-            desktopWorker.packFontImages(new Array<>(Main.appFolder.child("imagefont/characters").list()), saveFile);
-            
-            var atlas = new TextureAtlas(saveFile.sibling(saveFile.nameWithoutExtension() + ".atlas"));
-
-            for (var bitmapCharacter : bitmapCharacters) {
-                var number = (int) bitmapCharacter.character;
-
-                for (  var testRegion : atlas.getRegions()) {
-                    if (testRegion.name.matches(".* " + number + "$")) {
-                        var region = testRegion;
-                        bitmapCharacter.x = region.getRegionX();
-                        bitmapCharacter.y = region.getRegionY();
-                        bitmapCharacter.width = region.getRegionWidth();
-                        bitmapCharacter.height = region.getRegionHeight();
-                        break;
-                    }
-                }
-            }
             
-            atlas.dispose();
+            PixmapIO.writePNG(saveFile.sibling(imageFileName), packedPixmap);
         }
         
-        String imageFileName = saveFile.nameWithoutExtension() + ".png";
-        var pixmap = new Pixmap(saveFile.sibling(imageFileName));
-        var width = pixmap.getWidth();
-        var height = pixmap.getHeight();
-        pixmap.dispose();
-        
         //add extra characters
         var characters = new Array<BitmapCharacter>(bitmapCharacters);
         var bitmapCharacter = new BitmapCharacter();
@@ -1376,31 +1387,28 @@ public class DialogImageFont extends Dialog {
         characters.add(bitmapCharacter);
         
         //write fnt file
-        var fntText = "";
-        fntText += "info face=\"" + saveFile.nameWithoutExtension() + "\" size=12 bold=0 italic=0 charset=\"\" unicode=0 stretchH=100 smooth=1 aa=1 padding=0,0,0,0 spacing=1,1\n";
-        fntText += "common lineHeight=" + settings.leading + " base=" + settings.baseline + " scaleW=" + width + " scaleH=" + height + " pages=1 packed=0 alphaChnl=1 redChnl=0 greenChnl=0 blueChnl=0\n";
-        fntText += "page id=0 file=\"" + imageFileName + "\"\n";
-
-        fntText += "chars count=" + bitmapCharacters.size + "\n";
-        for (var character : characters) {
-            fntText += "char id=" + (int) character.character + " x=" + character.x + " y=" + character.y + " width=" + character.width + " height=" + character.height + " xoffset=0 yoffset=" + character.yoffset + " xadvance=" + (character.width + settings.kerning) + " page=0 chnl=0" + " letter=\"" + character.character + "\"\n";
-        }
-        
-        if (!settings.kerningPairsActivated) {
-            fntText += "\nkernings count=0\n";
-        } else {
-            fntText += "\nkernings count=" + kerningPairValues.size + "\n";
+        try (var writer = new BufferedWriter(saveFile.writer(false))) {
+            writer.write("info face=\"" + saveFile.nameWithoutExtension() + "\" size=12 bold=0 italic=0 charset=\"\" unicode=0 stretchH=100 smooth=1 aa=1 padding=0,0,0,0 spacing=1,1\n");
+            writer.write("common lineHeight=" + settings.leading + " base=" + settings.baseline + " scaleW=" + packedPixmap.getWidth() + " scaleH=" + packedPixmap.getHeight() + " pages=1 packed=0 alphaChnl=1 redChnl=0 greenChnl=0 blueChnl=0\n");
+            writer.write("page id=0 file=\"" + imageFileName + "\"\n");
             
-            for (var pair : kerningPairValues) {
-                fntText += "kerning first=" + (int) pair.character1 + "  second=" + (int) pair.character2 + "  amount=" + pair.value + "\n";
+            writer.write("chars count=" + bitmapCharacters.size + "\n");
+            for (var character : characters) {
+                var packed = character.cropHeight > 0;
+                writer.write("char id=" + (int) character.character + " x=" + (packed ? character.packX : 0) + " y=" + (packed ? character.packY : 0) + " width=" + character.width + " height=" + character.cropHeight + " xoffset=0 yoffset=" + character.yoffset + " xadvance=" + (character.width + settings.kerning) + " page=0 chnl=0" + " letter=\"" + character.character + "\"\n");
             }
-        }
-        
-        saveFile.writeString(fntText, false);
-
-        if (texturePack) {
-            //delete texture atlas
-            saveFile.sibling(saveFile.nameWithoutExtension() + ".atlas").delete();
+            
+            if (!settings.kerningPairsActivated) {
+                writer.write("\nkernings count=0\n");
+            } else {
+                writer.write("\nkernings count=" + kerningPairValues.size + "\n");
+                
+                for (var pair : kerningPairValues) {
+                    writer.write("kerning first=" + (int) pair.character1 + "  second=" + (int) pair.character2 + "  amount=" + pair.value + "\n");
+                }
+            }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error writing font file: " + saveFile, e);
         }
     }
     
@@ -1408,14 +1416,20 @@ public class DialogImageFont extends Dialog {
         var file = Main.appFolder.child("imagefont/preview/preview.fnt");
         
         try {
-            if (texturePack) {
-                file.parent().emptyDirectory();
+            if (texturePack || packedPixmap == null || previewTexture == null) {
+                packCharacters();
+                if (previewTexture != null) {
+                    previewTexture.dispose();
+                }
+                previewTexture = ResourceTracker.track(new Texture(packedPixmap), this);
             }
-            writeFNT(file, texturePack);
+            writeFNT(file, false);
             if (previewFont != null) {
                 previewFont.dispose();
+                ResourceTracker.disposed(previewFont);
             }
-            previewFont = new BitmapFont(file);
+            //the font doesn't own the preview texture, so disposing it has to be reported to the tracker
+            previewFont = ResourceTracker.track(new BitmapFont(new BitmapFont.BitmapFontData(file, false), new TextureRegion(previewTexture), true), this);
             ((TextArea) findActor("preview")).getStyle().font = previewFont;
             if (((TextArea) findActor("preview")).getStyle().fontColor.equals(skin.get(TextFieldStyle.class).fontColor)) {
                 ((TextArea) findActor("preview")).getStyle().fontColor = new Color(Color.WHITE);
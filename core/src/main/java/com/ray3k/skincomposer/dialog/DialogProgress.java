@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.dialog;
+
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.ui.Dialog;
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.scenes.scene2d.ui.Table;
+import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
+import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
+import com.badlogic.gdx.utils.Align;
+
+import static com.ray3k.skincomposer.Main.*;
+
+/**
+ * A loading dialog for long running work that reports how many steps are complete and can be cancelled. Unlike
+ * {@link DialogLoading}, it does not run the work itself. The caller updates it with {@link #setProgress(int, int)}
+ * from the render thread and hides it when the work is done.
+ */
+public class DialogProgress extends Dialog {
+    private final Label progressLabel;
+    private final TextButton cancelButton;
+    
+    /**
+     * @param title
+     * @param cancelRunnable Called when the user presses Cancel. The dialog stays open until the caller hides it. May
+     * be null if the work can't be cancelled.
+     */
+    public DialogProgress(String title, Runnable cancelRunnable) {
+        super("", skin, "dialog");
+        setFillParent(true);
+        
+        var t = getContentTable();
+        var label = new Label(title, skin, "title");
+        label.setAlignment(Align.center);
+        t.add(label);
+        
+        t.row();
+        var table = new Table(skin);
+        table.setBackground(loadingAnimation);
+        t.add(table);
+        
+        t.row();
+        progressLabel = new Label("", skin);
+        progressLabel.setAlignment(Align.center);
+        t.add(progressLabel);
+        
+        cancelButton = new TextButton("Cancel", skin);
+        cancelButton.setVisible(cancelRunnable != null);
+        getButtonTable().add(cancelButton);
+        cancelButton.addListener(handListener);
+        cancelButton.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeEvent event, Actor actor) {
+                cancelButton.setDisabled(true);
+                progressLabel.setText("Cancelling...");
+                if (cancelRunnable != null) cancelRunnable.run();
+            }
+        });
+    }
+    
+    public void setProgress(int completed, int total) {
+        if (!cancelButton.isDisabled()) progressLabel.setText(completed + " of " + total);
+    }
+}
@@ -24,6 +24,8 @@ public class PopSettings extends PopTable {
     private boolean exportWarnings;
     private boolean recentFullPath;
     private boolean allowingUpdates;
+    private boolean pushingExports;
+    private int pushPort;
     private boolean changedUIscale;
     private boolean resetTips;
     
@@ -41,6 +43,8 @@ public class PopSettings extends PopTable {
         exportWarnings = projectData.isShowingExportWarnings();
         recentFullPath = projectData.isFullPathInRecentFiles();
         allowingUpdates = projectData.isCheckingForUpdates();
+        pushingExports = projectData.isPushingExports();
+        pushPort = projectData.getPushPort();
         
         populate();
     }
@@ -321,6 +325,36 @@ public class PopSettings extends PopTable {
         });
         table.add(updatesCheckBox);
         
+        table.row();
+        var pushTable = new Table();
+        pushTable.defaults().space(5);
+        table.add(pushTable);
+        
+        var pushCheckBox = new ImageTextButton("Push exports to running games on port", getSkin(), "checkbox");
+        pushCheckBox.setChecked(pushingExports);
+        pushCheckBox.addListener(handListener);
+        pushCheckBox.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                pushingExports = pushCheckBox.isChecked();
+            }
+        });
+        pushTable.add(pushCheckBox);
+        
+        var portSpinner = new Spinner(pushPort, 1, 0, Orientation.HORIZONTAL, getSkin());
+        portSpinner.setMinimum(1024f);
+        portSpinner.setMaximum(65535f);
+        portSpinner.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                pushPort = (int) portSpinner.getValue();
+            }
+        });
+        portSpinner.getTextField().addListener(ibeamListener);
+        portSpinner.getButtonMinus().addListener(handListener);
+        portSpinner.getButtonPlus().addListener(handListener);
+        pushTable.add(portSpinner).minWidth(100.0f);
+        
         row();
         var buttonTable = new Table();
         buttonTable.pad(5);
@@ -361,6 +395,13 @@ public class PopSettings extends PopTable {
         projectData.setShowingExportWarnings(exportWarnings);
         projectData.setFullPathInRecentFiles(recentFullPath);
         projectData.setCheckingForUpdates(allowingUpdates);
+        projectData.setPushingExports(pushingExports);
+        projectData.setPushPort(pushPort);
+        if (pushingExports) {
+            skinPushServer.start(pushPort);
+        } else {
+            skinPushServer.stop();
+        }
         undoableManager.clearUndoables();
     
         if (resetTips) {
@@ -54,6 +54,8 @@ import com.ray3k.skincomposer.data.StyleProperty;
 import com.ray3k.skincomposer.dialog.DialogDrawables;
 import com.ray3k.skincomposer.dialog.DialogDrawables.DialogDrawablesListener;
 import com.ray3k.skincomposer.dialog.DialogFactory.InputDialogListener;
+import com.ray3k.skincomposer.utils.PatchDetector;
+import com.ray3k.skincomposer.utils.ResourceTracker;
 import com.ray3k.skincomposer.utils.Utils;
 import com.ray3k.stripe.PopTable;
 import com.ray3k.stripe.ResizeWidget;
@@ -70,6 +72,7 @@ import static com.ray3k.skincomposer.Main.*;
  */
 public class DialogTenPatch extends Dialog {
     public static final int SCROLL_AMOUNT = 1;
+    private static final int MINIMUM_AUTO_STRETCH_AREA = 3;
     private TenPatchDrawable tenPatchDrawable;
     private TenPatchWidget tenPatchWidget;
     private boolean zoomToMouse;
@@ -498,10 +501,10 @@ public class DialogTenPatch extends Dialog {
         textButton.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
-                var pixmap = new Pixmap(fileHandle);
+                var pixmap = ResourceTracker.track(new Pixmap(fileHandle));
     
                 if (fileHandle.path().toLowerCase(Locale.ROOT).endsWith(".9.png")) {
-                    var cropped = new Pixmap(pixmap.getWidth() - 2, pixmap.getHeight() - 2, Pixmap.Format.RGBA8888);
+                    var cropped = ResourceTracker.track(new Pixmap(pixmap.getWidth() - 2, pixmap.getHeight() - 2, Pixmap.Format.RGBA8888));
                     cropped.setBlending(Pixmap.Blending.None);
         
                     cropped.drawPixmap(pixmap, 0, 0, 1, 1, pixmap.getWidth() - 2, pixmap.getHeight() - 2);
@@ -509,15 +512,21 @@ public class DialogTenPatch extends Dialog {
                     pixmap = cropped;
                 }
     
-                var patches = Utils.calculatePatches(pixmap);
-    
+                var detector = new PatchDetector(pixmap, projectData.getAutoPatchTolerance());
                 drawableData.tenPatchData.horizontalStretchAreas.clear();
-                drawableData.tenPatchData.horizontalStretchAreas.add(patches.left);
-                drawableData.tenPatchData.horizontalStretchAreas.add(pixmap.getWidth() - patches.right - 1);
-    
                 drawableData.tenPatchData.verticalStretchAreas.clear();
-                drawableData.tenPatchData.verticalStretchAreas.add(patches.bottom);
-                drawableData.tenPatchData.verticalStretchAreas.add(pixmap.getHeight() - patches.top - 1);
+                if (projectData.isAutoPatchingMultipleAreas()) {
+                    drawableData.tenPatchData.horizontalStretchAreas.addAll(detector.getHorizontalStretchAreas(MINIMUM_AUTO_STRETCH_AREA));
+                    drawableData.tenPatchData.verticalStretchAreas.addAll(detector.getVerticalStretchAreas(MINIMUM_AUTO_STRETCH_AREA));
+                } else {
+                    var patches = detector.getPatches();
+                    
+                    drawableData.tenPatchData.horizontalStretchAreas.add(patches.left);
+                    drawableData.tenPatchData.horizontalStretchAreas.add(pixmap.getWidth() - patches.right - 1);
+                    
+                    drawableData.tenPatchData.verticalStretchAreas.add(patches.bottom);
+                    drawableData.tenPatchData.verticalStretchAreas.add(pixmap.getHeight() - patches.top - 1);
+                }
                 
                 drawableData.tenPatchData.combineContiguousSretchAreas(true);
                 drawableData.tenPatchData.removeInvalidStretchAreas(true);
@@ -529,6 +538,18 @@ public class DialogTenPatch extends Dialog {
                 pixmap.dispose();
             }
         });
+
+        var checkBox = new CheckBox("Multiple", skin);
+        checkBox.setChecked(projectData.isAutoPatchingMultipleAreas());
+        table.add(checkBox);
+        checkBox.addListener(handListener);
+        checkBox.addListener(makeTooltip("Auto Patches creates a stretch area for every uniform run of pixels instead of only the longest", tooltipManager, skin));
+        checkBox.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeEvent event, Actor actor) {
+                projectData.setAutoPatchingMultipleAreas(checkBox.isChecked());
+            }
+        });
     
         imageTextButton = new ImageTextButton("More settings...", skin, "ten-patch-scrolling");
         table.add(imageTextButton);
@@ -800,10 +821,10 @@ public class DialogTenPatch extends Dialog {
     
     private Pixmap loadPixmapFile(FileHandle fileHandle) {
         if (!fileHandle.name().matches("(?i:.*\\.9\\.png)")) {
-            return new Pixmap(fileHandle);
+            return ResourceTracker.track(new Pixmap(fileHandle));
         } else {
-            var pixmap = new Pixmap(fileHandle);
-            var returnValue = new Pixmap(Math.max(pixmap.getWidth() - 2, 1), Math.max(pixmap.getHeight() - 2, 1), pixmap.getFormat());
+            var pixmap = ResourceTracker.track(new Pixmap(fileHandle));
+            var returnValue = ResourceTracker.track(new Pixmap(Math.max(pixmap.getWidth() - 2, 1), Math.max(pixmap.getHeight() - 2, 1), pixmap.getFormat()));
             returnValue.setBlending(Pixmap.Blending.None);
             returnValue.drawPixmap(pixmap, -1, -1);
             pixmap.dispose();
@@ -813,11 +834,11 @@ public class DialogTenPatch extends Dialog {
     
     private TextureRegion loadTextureFile(FileHandle fileHandle) {
         if (!fileHandle.name().matches("(?i:.*\\.9\\.png)")) {
-            var texture = new Texture(fileHandle);
+            var texture = ResourceTracker.track(new Texture(fileHandle), this);
             texture.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
             return new TextureRegion(texture);
         } else {
-            var texture = new Texture(fileHandle);
+            var texture = ResourceTracker.track(new Texture(fileHandle), this);
             texture.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
             return new TextureRegion(texture, 1, 1, texture.getWidth() - 2, texture.getHeight() - 2);
         }
@@ -825,7 +846,7 @@ public class DialogTenPatch extends Dialog {
     
     private void saveToImageFile(FileHandle fileHandle) {
         var source = loadPixmapFile(this.fileHandle);
-        var pixmap = new Pixmap(source.getWidth() + 2, source.getHeight() + 2, source.getFormat());
+        var pixmap = ResourceTracker.track(new Pixmap(source.getWidth() + 2, source.getHeight() + 2, source.getFormat()));
         pixmap.setBlending(Pixmap.Blending.None);
         
         pixmap.drawPixmap(source, 1, 1);
@@ -855,7 +876,7 @@ public class DialogTenPatch extends Dialog {
     private void loadPatchesFromFile(FileHandle fileHandle) {
         var tenPatchData = drawableData.tenPatchData;
         tenPatchData.clear();
-        var pixmap = new Pixmap(fileHandle);
+        var pixmap = ResourceTracker.track(new Pixmap(fileHandle));
         
         int x, y;
         y = pixmap.getHeight() - 1;
@@ -0,0 +1,236 @@
+package com.ray3k.skincomposer.dialog.textratypist;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.github.tommyettinger.textra.Font;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+/**
+ * A compact index of the emoji listed in emoji-info.json. The file is parsed once per session into parallel arrays of
+ * names and groups. Each catalogue resolves those names against the regions of a single font and keeps a sorted word
+ * index, so a search by prefix only visits the emoji that can match.
+ */
+public class EmojiCatalogue {
+    public static final String[] GROUPS = {
+            "Smileys & Emotion",
+            "People & Body",
+            "Component",
+            "Animals & Nature",
+            "Food & Drink",
+            "Activities",
+            "Travel & Places",
+            "Objects",
+            "Symbols",
+            "Flags"
+    };
+    private static String[] infoNames;
+    private static byte[] infoGroups;
+    private static EmojiCatalogue catalogue;
+    private final Font font;
+    private final String[] names;
+    private final byte[] groups;
+    private final int[] regions;
+    private final String[][] nameWords;
+    private final String[] words;
+    private final int[] wordEntries;
+
+    private EmojiCatalogue(Font font) {
+        this(font, infoNames, infoGroups, name -> font.nameLookup.get(name, -1));
+    }
+    
+    /**
+     * @param font
+     * @param infoNames The names of every emoji in emoji-info.json.
+     * @param infoGroups The index of each emoji's group in {@link #GROUPS} or -1.
+     * @param regionLookup Returns the index of the emoji's region in the font or -1 if the font does not have it.
+     */
+    EmojiCatalogue(Font font, String[] infoNames, byte[] infoGroups, ToIntFunction<String> regionLookup) {
+        this.font = font;
+
+        //keep the emoji that exist in the font, ignoring repeated names
+        var entries = new IntArray(infoNames.length);
+        var found = new ObjectSet<String>(infoNames.length);
+        for (int i = 0; i < infoNames.length; i++) {
+            if (found.add(infoNames[i]) && regionLookup.applyAsInt(infoNames[i]) != -1) entries.add(i);
+        }
+
+        names = new String[entries.size];
+        groups = new byte[entries.size];
+        regions = new int[entries.size];
+        nameWords = new String[entries.size][];
+        var wordList = new Array<String>();
+        var wordEntryList = new IntArray();
+        for (int i = 0; i < entries.size; i++) {
+            var info = entries.get(i);
+            names[i] = infoNames[info];
+            groups[i] = infoGroups[info];
+            regions[i] = regionLookup.applyAsInt(names[i]);
+            nameWords[i] = splitWords(names[i]);
+            for (var word : nameWords[i]) {
+                wordList.add(word);
+                wordEntryList.add(i);
+            }
+        }
+
+        //sort the words so the index can be binary searched
+        var order = new Integer[wordList.size];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (o1, o2) -> wordList.get(o1).compareTo(wordList.get(o2)));
+        words = new String[order.length];
+        wordEntries = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            words[i] = wordList.get(order[i]);
+            wordEntries[i] = wordEntryList.get(order[i]);
+        }
+    }
+
+    /**
+     * Returns the catalogue of the given font. The last catalogue is kept, so reopening the emoji list for the same
+     * font does not rebuild it. Waits for {@link #preload(Font)} if it is still building the catalogue.
+     * @param font
+     * @return
+     */
+    public static synchronized EmojiCatalogue get(Font font) {
+        if (infoNames == null) readInfo();
+        if (catalogue == null || catalogue.font != font) catalogue = new EmojiCatalogue(font);
+        return catalogue;
+    }
+
+    /**
+     * Builds the catalogue of the given font on a background thread, so the emoji list does not have to read
+     * emoji-info.json and index the font when it opens.
+     * @param font
+     */
+    public static void preload(Font font) {
+        var thread = new Thread(() -> get(font), "Emoji Catalogue");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private static void readInfo() {
+        var jsonValue = new JsonReader().parse(Gdx.files.internal("emoji-info.json"));
+        var nameList = new Array<String>();
+        var groupList = new IntArray();
+        for (var child = jsonValue.child; child != null; child = child.next) {
+            var group = child.getString("group", "");
+            int groupIndex = -1;
+            for (int i = 0; i < GROUPS.length; i++) {
+                if (GROUPS[i].equals(group)) {
+                    groupIndex = i;
+                    break;
+                }
+            }
+            nameList.add(child.getString("name"));
+            groupList.add(groupIndex);
+        }
+
+        infoNames = nameList.toArray(String[]::new);
+        infoGroups = new byte[groupList.size];
+        for (int i = 0; i < groupList.size; i++) {
+            infoGroups[i] = (byte) groupList.get(i);
+        }
+    }
+
+    private static String[] splitWords(String text) {
+        var list = new Array<String>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            var separator = i == text.length() || isSeparator(text.charAt(i));
+            if (separator && start != -1) {
+                list.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            } else if (!separator && start == -1) start = i;
+        }
+        return list.toArray(String[]::new);
+    }
+    
+    private static boolean isSeparator(char c) {
+        return Character.isWhitespace(c) || c == ':' || c == ',' || c == '.' || c == '(' || c == ')' || c == '"'
+                || c == '\u201C' || c == '\u201D';
+    }
+
+    /**
+     * Collects the emoji of a group in catalogue order.
+     * @param group The index of the group in {@link #GROUPS} or -1 for every emoji.
+     * @param out
+     */
+    public void listGroup(int group, IntArray out) {
+        out.clear();
+        for (int i = 0; i < names.length; i++) {
+            if (group == -1 || groups[i] == group) out.add(i);
+        }
+    }
+
+    /**
+     * Collects the emoji in catalogue order where every word of the query is the start of a word in the emoji's name.
+     * An empty query lists every emoji.
+     * @param query
+     * @param out
+     */
+    public void search(String query, IntArray out) {
+        var queryWords = splitWords(query);
+        if (queryWords.length == 0) {
+            listGroup(-1, out);
+            return;
+        }
+
+        //the first word narrows the candidates through the index
+        var matches = new boolean[names.length];
+        var prefix = queryWords[0];
+        var index = lowerBound(prefix);
+        while (index < words.length && words[index].startsWith(prefix)) {
+            matches[wordEntries[index]] = true;
+            index++;
+        }
+
+        //the remaining words are checked against the candidates only
+        out.clear();
+        for (int i = 0; i < names.length; i++) {
+            if (matches[i] && matchesWords(nameWords[i], queryWords)) out.add(i);
+        }
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0, high = words.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (words[mid].compareTo(prefix) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static boolean matchesWords(String[] nameWords, String[] queryWords) {
+        for (int i = 1; i < queryWords.length; i++) {
+            var found = false;
+            for (var word : nameWords) {
+                if (word.startsWith(queryWords[i])) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String getName(int entry) {
+        return names[entry];
+    }
+
+    public TextureRegion getRegion(int entry) {
+        return font.mapping.get(regions[entry]);
+    }
+}
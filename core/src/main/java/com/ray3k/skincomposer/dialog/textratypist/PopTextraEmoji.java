@@ -1,14 +1,16 @@
 package com.ray3k.skincomposer.dialog.textratypist;
 
-import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.scenes.scene2d.*;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
 import com.badlogic.gdx.scenes.scene2d.ui.ImageButton.ImageButtonStyle;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
+import com.badlogic.gdx.scenes.scene2d.utils.Cullable;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Align;
-import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
 import com.github.tommyettinger.textra.Font;
 import com.ray3k.stripe.PopTable;
 import com.ray3k.stripe.PopTableHoverListener;
@@ -17,8 +19,9 @@ import static com.ray3k.skincomposer.Main.*;
 import static com.ray3k.skincomposer.utils.Utils.onChange;
 
 public class PopTextraEmoji extends PopTable {
-    private Font masterFont;
-    private HorizontalGroup horizontalGroup;
+    private EmojiCatalogue catalogue;
+    private EmojiGrid grid;
+    private final IntArray entries = new IntArray();
     private enum Lister {
         SMILEYS, PEOPLE, COMPONENT, NATURE, FOOD, ACTIVITIES, TRAVEL, OBJECTS, SYMBOLS, FLAGS, ALL
     }
@@ -27,7 +30,7 @@ public class PopTextraEmoji extends PopTable {
     private TextField searchField;
     
     public PopTextraEmoji(Font masterFont) {
-        this.masterFont = masterFont;
+        catalogue = EmojiCatalogue.get(masterFont);
         var style = new PopTableStyle();
         style.background = skin.getDrawable("tt-bg");
         style.stageBackground = skin.getDrawable("tt-stage-background");
@@ -157,15 +160,21 @@ public class PopTextraEmoji extends PopTable {
         searchField.addListener(ibeamListener);
         
         row();
-        horizontalGroup = new HorizontalGroup();
-        horizontalGroup.wrap();
-        horizontalGroup.space(5);
-        horizontalGroup.wrapSpace(5);
-        horizontalGroup.rowAlign(Align.left);
-        var scrollPane = new ScrollPane(horizontalGroup, skin, "tt");
+        grid = new EmojiGrid(catalogue);
+        var scrollPane = new ScrollPane(grid, skin, "tt");
         scrollPane.setFadeScrollBars(false);
+        scrollPane.setScrollingDisabled(true, false);
         add(scrollPane).grow();
         scrollPane.addListener(scrollFocusListener);
+        grid.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeEvent event, Actor actor) {
+                if (actor instanceof ImageButton) {
+                    hide();
+                    fire(new PopEmojiEvent((String) actor.getUserObject()));
+                }
+            }
+        });
         
         refreshGroup();
         
@@ -184,202 +193,23 @@ public class PopTextraEmoji extends PopTable {
     }
     
     private void refreshGroup() {
-        horizontalGroup.clear();
-        var buttonListener = new ChangeListener() {
-            @Override
-            public void changed(ChangeEvent event, Actor actor) {
-                hide();
-                fire(new PopEmojiEvent((String) actor.getUserObject()));
-            }
-        };
-    
-        var imageButtons = new Array<ImageButton>();
-        
-        var jsonReader = new JsonReader();
-        var jsonValue = jsonReader.parse(Gdx.files.internal("emoji-info.json"));
-    
-        switch (lister) {
-            case SMILEYS:
-                for (var child : jsonValue.iterator()) {
-                    if (child.getString("group").equals("Smileys & Emotion")) {
-                        var text = child.getString("name");
-                        var value = masterFont.nameLookup.get(text, -1);
-                        if (value != -1) {
-                            var imageButton = createImageButton(value, text);
-                            imageButtons.add(imageButton);
-                            imageButton.addListener(handListener);
-                            imageButton.addListener(buttonListener);
-                        }
-                    }
-                }
-                break;
-            case PEOPLE:
-                for (var child : jsonValue.iterator()) {
-                    if (child.getString("group").equals("People & Body")) {
-                        var text = child.getString("name");
-                        var value = masterFont.nameLookup.get(text, -1);
-                        if (value != -1) {
-                            var imageButton = createImageButton(value, text);
-                            imageButtons.add(imageButton);
-                            imageButton.addListener(handListener);
-                            imageButton.addListener(buttonListener);
-                        }
-                    }
-                }
-                break;
-            case NATURE:
-                for (var child : jsonValue.iterator()) {
-                    if (child.getString("group").equals("Animals & Nature")) {
-                        var text = child.getString("name");
-                        var value = masterFont.nameLookup.get(text, -1);
-                        if (value != -1) {
-                            var imageButton = createImageButton(value, text);
-                            imageButtons.add(imageButton);
-                            imageButton.addListener(handListener);
-                            imageButton.addListener(buttonListener);
-                        }
-                    }
-                }
-                break;
-            case FOOD:
-                for (var child : jsonValue.iterator()) {
-                    if (child.getString("group").equals("Food & Drink")) {
-                        var text = child.getString("name");
-                        var value = masterFont.nameLookup.get(text, -1);
-                        if (value != -1) {
-                            var imageButton = createImageButton(value, text);
-                            imageButtons.add(imageButton);
-                            imageButton.addListener(handListener);
-                            imageButton.addListener(buttonListener);
-                        }
-                    }
-                }
-                break;
-            case TRAVEL:
-                for (var child : jsonValue.iterator()) {
-                    if (child.getString("group").equals("Travel & Places")) {
-                        var text = child.getString("name");
-                        var value = masterFont.nameLookup.get(text, -1);
-                        if (value != -1) {
-                            var imageButton = createImageButton(value, text);
-                            imageButtons.add(imageButton);
-                            imageButton.addListener(handListener);
-                            imageButton.addListener(buttonListener);
-                        }
-                    }
-                }
-                break;
-            case ACTIVITIES:
-                for (var child : jsonValue.iterator()) {
-                    if (child.getString("group").equals("Activities")) {
-                        var text = child.getString("name");
-                        var value = masterFont.nameLookup.get(text, -1);
-                        if (value != -1) {
-                            var imageButton = createImageButton(value, text);
-                            imageButtons.add(imageButton);
-                            imageButton.addListener(handListener);
-                            imageButton.addListener(buttonListener);
-                        }
-                    }
-                }
-                break;
-            case OBJECTS:
-                for (var child : jsonValue.iterator()) {
-                    if (child.getString("group").equals("Objects")) {
-                        var text = child.getString("name");
-                        var value = masterFont.nameLookup.get(text, -1);
-                        if (value != -1) {
-                            var imageButton = createImageButton(value, text);
-                            imageButtons.add(imageButton);
-                            imageButton.addListener(handListener);
-                            imageButton.addListener(buttonListener);
-                        }
-                    }
-                }
-                break;
-            case COMPONENT:
-                for (var child : jsonValue.iterator()) {
-                    if (child.getString("group").equals("Component")) {
-                        var text = child.getString("name");
-                        var value = masterFont.nameLookup.get(text, -1);
-                        if (value != -1) {
-                            var imageButton = createImageButton(value, text);
-                            imageButtons.add(imageButton);
-                            imageButton.addListener(handListener);
-                            imageButton.addListener(buttonListener);
-                        }
-                    }
-                }
-                break;
-            case SYMBOLS:
-                for (var child : jsonValue.iterator()) {
-                    if (child.getString("group").equals("Symbols")) {
-                        var text = child.getString("name");
-                        var value = masterFont.nameLookup.get(text, -1);
-                        if (value != -1) {
-                            var imageButton = createImageButton(value, text);
-                            imageButtons.add(imageButton);
-                            imageButton.addListener(handListener);
-                            imageButton.addListener(buttonListener);
-                        }
-                    }
-                }
-                break;
-            case FLAGS:
-                for (var child : jsonValue.iterator()) {
-                    if (child.getString("group").equals("Flags")) {
-                        var text = child.getString("name");
-                        var value = masterFont.nameLookup.get(text, -1);
-                        if (value != -1) {
-                            var imageButton = createImageButton(value, text);
-                            imageButtons.add(imageButton);
-                            imageButton.addListener(handListener);
-                            imageButton.addListener(buttonListener);
-                        }
-                    }
-                }
-                break;
-            case ALL:
-                for (var child : jsonValue.iterator()) {
-                    var text = child.getString("name");
-                    var value = masterFont.nameLookup.get(text, -1);
-                    if (value != -1) {
-                        var imageButton = createImageButton(value, text);
-                        imageButtons.add(imageButton);
-                        imageButton.addListener(handListener);
-                        imageButton.addListener(buttonListener);
-                    }
-                }
-    
-                var newList = new Array<ImageButton>();
-                for (var imageButton : imageButtons) {
-                    if (search.equals("") || ((String) imageButton.getUserObject()).contains(search)) {
-                        newList.add(imageButton);
-                    }
-                }
-                imageButtons = newList;
-                
-//                imageButtons.sort(Comparator.comparing(o -> ((String) o.getUserObject())));
-                break;
-        }
+        if (lister == Lister.ALL) catalogue.search(search, entries);
+        else catalogue.listGroup(lister.ordinal(), entries);
+        grid.setEntries(entries);
         
-        var names = new Array<String>();
-        for (var imageButton : imageButtons) {
-            var name = (String) imageButton.getUserObject();
-            if (!names.contains(name, false)) {
-                horizontalGroup.addActor(imageButton);
-                names.add(name);
-            }
-        }
+        var scrollPane = (ScrollPane) grid.getParent();
+        scrollPane.layout();
+        scrollPane.setScrollY(0);
+        scrollPane.updateVisualScroll();
     }
     
-    private ImageButton createImageButton(int value, String text) {
-        var glyphRegion = masterFont.mapping.get(value);
+    private static ImageButton createImageButton(TextureRegion glyphRegion, String text) {
         var imageButtonStyle = new ImageButtonStyle();
         imageButtonStyle.imageUp = new TextureRegionDrawable(glyphRegion);
         imageButtonStyle.pressedOffsetY = -1;
         var imageButton = new ImageButton(imageButtonStyle);
         imageButton.setUserObject(text);
+        imageButton.addListener(handListener);
         
         var style = new PopTableStyle();
         style.background = skin.getDrawable("tt-button-10");
@@ -392,6 +222,124 @@ public class PopTextraEmoji extends PopTable {
         return imageButton;
     }
     
+    /**
+     * A grid of emoji buttons that only creates the buttons of the rows visible in its scroll pane. Buttons are kept
+     * while their row stays visible and are released once it scrolls out of view.
+     */
+    private static class EmojiGrid extends WidgetGroup implements Cullable {
+        private static final float SPACE = 5;
+        private final EmojiCatalogue catalogue;
+        private final IntArray entries = new IntArray();
+        private final IntMap<ImageButton> buttons = new IntMap<>();
+        private final float cellSize;
+        private Rectangle cullingArea;
+        private int columns = 1;
+        private int firstRow = -1;
+        private int lastRow = -1;
+        private float lastPrefHeight;
+        
+        public EmojiGrid(EmojiCatalogue catalogue) {
+            this.catalogue = catalogue;
+            var size = 0f;
+            if (catalogue.size() > 0) {
+                var region = catalogue.getRegion(0);
+                size = Math.max(region.getRegionWidth(), region.getRegionHeight());
+            }
+            cellSize = size;
+        }
+        
+        public void setEntries(IntArray entries) {
+            this.entries.clear();
+            this.entries.addAll(entries);
+            clearChildren();
+            buttons.clear();
+            firstRow = -1;
+            lastRow = -1;
+            invalidateHierarchy();
+        }
+        
+        private float getPitch() {
+            return cellSize + SPACE;
+        }
+        
+        private int getRows() {
+            return (entries.size + columns - 1) / columns;
+        }
+        
+        @Override
+        public float getPrefWidth() {
+            return cellSize;
+        }
+        
+        @Override
+        public float getPrefHeight() {
+            var columns = Math.max(1, (int) ((getWidth() + SPACE) / getPitch()));
+            var rows = (entries.size + columns - 1) / columns;
+            return Math.max(0, rows * getPitch() - SPACE);
+        }
+        
+        @Override
+        public void setCullingArea(Rectangle cullingArea) {
+            this.cullingArea = cullingArea;
+            if (findFirstRow() != firstRow || findLastRow() != lastRow) invalidate();
+        }
+        
+        private int findFirstRow() {
+            if (cullingArea == null) return 0;
+            return Math.max(0, (int) ((getHeight() - cullingArea.y - cullingArea.height) / getPitch()));
+        }
+        
+        private int findLastRow() {
+            if (cullingArea == null) return getRows() - 1;
+            return Math.min(getRows() - 1, (int) ((getHeight() - cullingArea.y) / getPitch()));
+        }
+        
+        @Override
+        public void layout() {
+            var prefHeight = getPrefHeight();
+            if (prefHeight != lastPrefHeight) {
+                lastPrefHeight = prefHeight;
+                invalidateHierarchy();
+            }
+            
+            var pitch = getPitch();
+            var newColumns = Math.max(1, (int) ((getWidth() + SPACE) / pitch));
+            if (newColumns != columns) {
+                columns = newColumns;
+                clearChildren();
+                buttons.clear();
+            }
+            
+            firstRow = findFirstRow();
+            lastRow = findLastRow();
+            
+            //release the buttons that scrolled out of view
+            var firstEntry = firstRow * columns;
+            var lastEntry = Math.min(entries.size - 1, (lastRow + 1) * columns - 1);
+            var iterator = buttons.entries().iterator();
+            while (iterator.hasNext()) {
+                var entry = iterator.next();
+                if (entry.key < firstEntry || entry.key > lastEntry) {
+                    entry.value.remove();
+                    iterator.remove();
+                }
+            }
+            
+            for (int i = firstEntry; i <= lastEntry; i++) {
+                var button = buttons.get(i);
+                if (button == null) {
+                    var index = entries.get(i);
+                    button = createImageButton(catalogue.getRegion(index), catalogue.getName(index));
+                    buttons.put(i, button);
+                    addActor(button);
+                }
+                var row = i / columns;
+                var column = i % columns;
+                button.setBounds(column * pitch, getHeight() - row * pitch - cellSize, cellSize, cellSize);
+            }
+        }
+    }
+    
     public static class PopEmojiEvent extends Event {
         String regionName;
     
@@ -4,7 +4,6 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Colors;
 import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.math.Interpolation;
 import com.badlogic.gdx.scenes.scene2d.*;
 import com.badlogic.gdx.scenes.scene2d.actions.Actions;
@@ -18,8 +17,6 @@ import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.Array;
 import com.github.tommyettinger.textra.Font;
-import com.github.tommyettinger.textra.Font.DistanceFieldType;
-import com.github.tommyettinger.textra.Font.FontFamily;
 import com.github.tommyettinger.textra.KnownFonts;
 import com.github.tommyettinger.textra.TypingAdapter;
 import com.github.tommyettinger.textra.TypingLabel;
@@ -57,7 +54,8 @@ public class PopTextraTypist extends PopTable {
         KnownFonts.setAssetPrefix("textra/");
 
         ttColorPickerStyle = createColorPickerStyle();
-        masterFont = KnownFonts.getFamily(DistanceFieldType.SDF);
+        masterFont = TextraFontCache.getStandardFamily();
+        EmojiCatalogue.preload(masterFont);
 
         stageResizeListener = new StageResizeListener() {
             @Override
@@ -567,36 +565,13 @@ public class PopTextraTypist extends PopTable {
     
     private void activateStandardFontFamily() {
         fontMode = FontMode.STANDARD;
-        masterFont.dispose();
         var items = new Array<String>();
         items.add("Select a font...");
         items.add("Default");
+        items.addAll(TextraFontCache.STANDARD_ALIASES);
         
-        masterFont = KnownFonts.getFamily(DistanceFieldType.SDF);
-        
-        var aliases = new String[]{
-                "Serif",
-                "Sans",
-                "Mono",
-                "Condensed",
-                "Humanist",
-                "Fantasy",
-                "Slab",
-                "Handwriting",
-                "Dark",
-                "Script",
-                "Iosevka",
-                "Medieval",
-                "Future",
-                "Console",
-                "Code",
-                "Geometric",
-        };
-        int index = 0;
-        for (var alias : aliases) {
-                items.add(alias);
-                KnownFonts.addEmoji(masterFont.family.connected[index++]);
-        }
+        masterFont = TextraFontCache.getStandardFamily();
+        EmojiCatalogue.preload(masterFont);
         masterFont.family.resizeDistanceFields(stage.getWidth(), stage.getHeight(), stage.getViewport());
 
         fontSelectBox.setItems(items);
@@ -610,53 +585,22 @@ public class PopTextraTypist extends PopTable {
     
     private void activateSkinFontFamily() {
         fontMode = FontMode.SKIN;
-        masterFont.dispose();
         var items = new Array<String>();
         items.add("Select a font...");
         items.add("Default");
         
-        var names = new Array<String>();
-        var fonts = new Array<Font>();
-        
         for (var fontData : jsonData.getFonts()) {
-            var bitmapFont = new BitmapFont(fontData.file);
-            var font = new Font(bitmapFont, DistanceFieldType.STANDARD, 0, 0, 0, 0, true);
-            names.add(fontData.getName());
-            fonts.add(font);
             items.add(fontData.getName());
         }
         
         for (var freetypeFontData : jsonData.getFreeTypeFonts()) {
-            var bitmapFont = freetypeFontData.bitmapFont;
-            var font = new Font(bitmapFont, DistanceFieldType.STANDARD, 0, 0, 0, 0, true);
-            names.add(freetypeFontData.name);
-            fonts.add(font);
             items.add(freetypeFontData.name);
         }
         
         fontSelectBox.setItems(items);
-        if (names.size > 15) {
-            names.removeRange(15, names.size - 1);
-            fonts.removeRange(15, fonts.size - 1);
-        }
         
-        var namesArray = new String[names.size];
-        for (int i = 0; i < names.size; i++) {
-            namesArray[i] = names.get(i);
-        }
-    
-        var fontsArray = new Font[fonts.size];
-        for (int i = 0; i < fonts.size; i++) {
-            fontsArray[i] = fonts.get(i);
-        }
-        
-        var fontFamily = new FontFamily(namesArray, fontsArray);
-        masterFont = fontFamily.connected[0].setFamily(fontFamily);
-        for(Font font : fontFamily.connected)
-        {
-            if(font != null)
-                KnownFonts.addEmoji(font);
-        }
+        masterFont = TextraFontCache.getSkinFamily();
+        EmojiCatalogue.preload(masterFont);
         masterFont.family.resizeDistanceFields(stage.getWidth(), stage.getHeight(), stage.getViewport());
 
         previewTypingLabel = new TypingLabel(previewTypingLabel.getOriginalText().toString(), masterFont);
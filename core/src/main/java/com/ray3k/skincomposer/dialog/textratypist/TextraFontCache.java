@@ -0,0 +1,125 @@
+package com.ray3k.skincomposer.dialog.textratypist;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.OrderedMap;
+import com.github.tommyettinger.textra.Font;
+import com.github.tommyettinger.textra.Font.DistanceFieldType;
+import com.github.tommyettinger.textra.Font.FontFamily;
+import com.github.tommyettinger.textra.KnownFonts;
+
+import static com.ray3k.skincomposer.Main.*;
+
+/**
+ * Keeps the font families of the TextraTypist playground between activations. The standard family is loaded once per
+ * session. Skin families are keyed by the fonts in the project, so a family is only rebuilt after a font is added,
+ * removed, or changed. Only the {@link #MAX_SKIN_FAMILIES} most recently used skin families are kept.
+ */
+public class TextraFontCache {
+    public static final int MAX_SKIN_FAMILIES = 2;
+    public static final String[] STANDARD_ALIASES = {
+            "Serif",
+            "Sans",
+            "Mono",
+            "Condensed",
+            "Humanist",
+            "Fantasy",
+            "Slab",
+            "Handwriting",
+            "Dark",
+            "Script",
+            "Iosevka",
+            "Medieval",
+            "Future",
+            "Console",
+            "Code",
+            "Geometric",
+    };
+    private static Font standardFamily;
+    private static final OrderedMap<String, SkinFamily> skinFamilies = new OrderedMap<>();
+    
+    private static class SkinFamily {
+        Font font;
+        final Array<BitmapFont> bitmapFonts = new Array<>();
+        
+        void dispose() {
+            font.dispose();
+            for (var bitmapFont : bitmapFonts) {
+                bitmapFont.dispose();
+            }
+        }
+    }
+    
+    /**
+     * @return The SDF family of the fonts included with TextraTypist, with emoji added to every font.
+     */
+    public static Font getStandardFamily() {
+        if (standardFamily == null) {
+            standardFamily = KnownFonts.getFamily(DistanceFieldType.SDF);
+            for (int i = 0; i < STANDARD_ALIASES.length; i++) {
+                KnownFonts.addEmoji(standardFamily.family.connected[i]);
+            }
+        }
+        return standardFamily;
+    }
+    
+    /**
+     * @return A family of the fonts defined in the project. Only the first 15 fonts are included.
+     */
+    public static Font getSkinFamily() {
+        var key = skinSignature();
+        var family = skinFamilies.remove(key);
+        if (family == null) {
+            family = createSkinFamily();
+            while (skinFamilies.size >= MAX_SKIN_FAMILIES) {
+                skinFamilies.remove(skinFamilies.orderedKeys().first()).dispose();
+            }
+        }
+        //most recently used families are last
+        skinFamilies.put(key, family);
+        return family.font;
+    }
+    
+    private static SkinFamily createSkinFamily() {
+        var family = new SkinFamily();
+        var names = new Array<String>();
+        var fonts = new Array<Font>();
+        
+        for (var fontData : jsonData.getFonts()) {
+            var bitmapFont = new BitmapFont(fontData.file);
+            family.bitmapFonts.add(bitmapFont);
+            names.add(fontData.getName());
+            fonts.add(new Font(bitmapFont, DistanceFieldType.STANDARD, 0, 0, 0, 0, true));
+        }
+        
+        for (var freetypeFontData : jsonData.getFreeTypeFonts()) {
+            names.add(freetypeFontData.name);
+            fonts.add(new Font(freetypeFontData.bitmapFont, DistanceFieldType.STANDARD, 0, 0, 0, 0, true));
+        }
+        
+        if (names.size > 15) {
+            names.removeRange(15, names.size - 1);
+            fonts.removeRange(15, fonts.size - 1);
+        }
+        
+        var fontFamily = new FontFamily(names.toArray(String.class), fonts.toArray(Font.class));
+        family.font = fontFamily.connected[0].setFamily(fontFamily);
+        for (Font font : fontFamily.connected) {
+            if (font != null) KnownFonts.addEmoji(font);
+        }
+        return family;
+    }
+    
+    private static String skinSignature() {
+        var builder = new StringBuilder();
+        for (var fontData : jsonData.getFonts()) {
+            builder.append(fontData.getName()).append(':').append(fontData.file.path()).append(':').append(fontData.file.lastModified()).append('\n');
+        }
+        
+        //FreeType fonts get a new BitmapFont whenever their settings change
+        for (var freetypeFontData : jsonData.getFreeTypeFonts()) {
+            builder.append(freetypeFontData.name).append(':').append(System.identityHashCode(freetypeFontData.bitmapFont)).append('\n');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,341 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.runtime;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.BitmapFontData;
+import com.badlogic.gdx.graphics.g2d.NinePatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.scenes.scene2d.utils.BaseDrawable;
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
+import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
+import com.badlogic.gdx.scenes.scene2d.utils.TiledDrawable;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.DataInput;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.Field;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
+
+import java.io.IOException;
+
+/**
+ * Loads the binary skin written by Skin Composer next to the exported JSON. The binary file stores a string table, a
+ * class table with the field names used by each class, colors resolved to RGBA8888 values, and drawables and fonts
+ * referenced by index. Fields are looked up once per class instead of once per style, and no JSON tree is built.
+ * <p>
+ * This class only depends on libGDX and can be copied into a game project as is. FreeType fonts, TenPatch drawables,
+ * and TinyVG drawables are not written to the binary skin. Add them to the Skin before calling
+ * {@link #load(Skin, FileHandle)} if the styles refer to them.
+ */
+public class BinarySkinLoader {
+    public static final String EXTENSION = "skinb";
+    public static final int MAGIC = 0x53435342;
+    public static final int VERSION = 1;
+    
+    public static final byte DRAWABLE_TINTED = 0;
+    public static final byte DRAWABLE_TILED = 1;
+    public static final byte DRAWABLE_TEXTURE_REGION = 2;
+    public static final byte DRAWABLE_NINE_PATCH = 3;
+    
+    public static final byte VALUE_FLOAT = 0;
+    public static final byte VALUE_BOOLEAN = 1;
+    public static final byte VALUE_STRING = 2;
+    public static final byte VALUE_COLOR = 3;
+    public static final byte VALUE_DRAWABLE = 4;
+    public static final byte VALUE_FONT = 5;
+    public static final byte VALUE_STYLE = 6;
+    
+    /**
+     * Creates a new Skin from the binary skin file. The atlas with the same name as the skin file is loaded if it
+     * exists.
+     * @param skinFile
+     * @return 
+     */
+    public static Skin load(FileHandle skinFile) {
+        FileHandle atlasFile = skinFile.sibling(skinFile.nameWithoutExtension() + ".atlas");
+        Skin skin;
+        if (atlasFile.exists()) {
+            TextureAtlas atlas = new TextureAtlas(atlasFile);
+            skin = new Skin(atlas);
+        } else {
+            skin = new Skin();
+        }
+        load(skin, skinFile);
+        return skin;
+    }
+    
+    /**
+     * Adds all of the resources in the binary skin file to the provided Skin. Texture regions are expected to be
+     * available through the skin already.
+     * @param skin
+     * @param skinFile
+     */
+    public static void load(Skin skin, FileHandle skinFile) {
+        DataInput input = new DataInput(skinFile.read(8192));
+        try {
+            if (input.readInt() != MAGIC) throw new GdxRuntimeException("Not a binary skin file: " + skinFile);
+            int version = input.readByte();
+            if (version != VERSION) throw new GdxRuntimeException("Unsupported binary skin version " + version + ": " + skinFile);
+            
+            //string table
+            String[] strings = new String[input.readInt(true)];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = input.readString();
+            }
+            
+            //class table, fields are resolved once per class
+            int classCount = input.readInt(true);
+            Class[] classes = new Class[classCount];
+            Field[][] fields = new Field[classCount][];
+            for (int i = 0; i < classCount; i++) {
+                String className = strings[input.readInt(true)];
+                Field[] classFields = new Field[input.readInt(true)];
+                try {
+                    classes[i] = ClassReflection.forName(className);
+                } catch (ReflectionException e) {
+                    Gdx.app.error(BinarySkinLoader.class.getName(), "Skipping unknown class: " + className);
+                }
+                for (int j = 0; j < classFields.length; j++) {
+                    String fieldName = strings[input.readInt(true)];
+                    if (classes[i] != null) {
+                        try {
+                            classFields[j] = ClassReflection.getField(classes[i], fieldName);
+                        } catch (ReflectionException e) {
+                            Gdx.app.error(BinarySkinLoader.class.getName(), "Skipping unknown field: " + className + "." + fieldName);
+                        }
+                    }
+                }
+                fields[i] = classFields;
+            }
+            
+            //colors
+            int colorCount = input.readInt(true);
+            for (int i = 0; i < colorCount; i++) {
+                String name = strings[input.readInt(true)];
+                skin.add(name, new Color(input.readInt()), Color.class);
+            }
+            
+            //bitmap fonts
+            int fontCount = input.readInt(true);
+            for (int i = 0; i < fontCount; i++) {
+                String name = strings[input.readInt(true)];
+                String path = strings[input.readInt(true)];
+                float scaledSize = input.readFloat();
+                boolean markupEnabled = input.readBoolean();
+                boolean flip = input.readBoolean();
+                skin.add(name, readFont(skin, skinFile, path, scaledSize, markupEnabled, flip), BitmapFont.class);
+            }
+            
+            //drawable definitions
+            int drawableCount = input.readInt(true);
+            for (int i = 0; i < drawableCount; i++) {
+                readDrawable(skin, input, strings);
+            }
+            
+            //drawables and fonts referenced by styles are resolved once each
+            Drawable[] drawables = new Drawable[input.readInt(true)];
+            for (int i = 0; i < drawables.length; i++) {
+                String name = strings[input.readInt(true)];
+                try {
+                    drawables[i] = skin.getDrawable(name);
+                } catch (GdxRuntimeException e) {
+                    Gdx.app.error(BinarySkinLoader.class.getName(), "Missing drawable: " + name);
+                }
+            }
+            
+            BitmapFont[] fonts = new BitmapFont[input.readInt(true)];
+            for (int i = 0; i < fonts.length; i++) {
+                String name = strings[input.readInt(true)];
+                fonts[i] = skin.optional(name, BitmapFont.class);
+                if (fonts[i] == null) Gdx.app.error(BinarySkinLoader.class.getName(), "Missing font: " + name);
+            }
+            
+            //styles, grouped by class
+            int blockCount = input.readInt(true);
+            for (int i = 0; i < blockCount; i++) {
+                int classIndex = input.readInt(true);
+                Class type = classes[classIndex];
+                Field[] classFields = fields[classIndex];
+                int styleCount = input.readInt(true);
+                for (int j = 0; j < styleCount; j++) {
+                    String name = strings[input.readInt(true)];
+                    Object style = null;
+                    if (type != null) {
+                        try {
+                            style = ClassReflection.newInstance(type);
+                        } catch (ReflectionException e) {
+                            Gdx.app.error(BinarySkinLoader.class.getName(), "Unable to create style: " + type.getName(), e);
+                        }
+                    }
+                    
+                    int propertyCount = input.readInt(true);
+                    for (int k = 0; k < propertyCount; k++) {
+                        Field field = classFields[input.readInt(true)];
+                        Object value = readValue(skin, input, strings, drawables, fonts, field);
+                        if (style != null && field != null && value != null) {
+                            try {
+                                field.set(style, value);
+                            } catch (ReflectionException e) {
+                                Gdx.app.error(BinarySkinLoader.class.getName(), "Unable to set field: " + type.getName() + "." + field.getName(), e);
+                            }
+                        }
+                    }
+                    
+                    if (style != null) skin.add(name, style, type);
+                }
+            }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error reading binary skin file: " + skinFile, e);
+        } finally {
+            StreamUtils.closeQuietly(input);
+        }
+    }
+    
+    private static void readDrawable(Skin skin, DataInput input, String[] strings) throws IOException {
+        byte kind = input.readByte();
+        String name = strings[input.readInt(true)];
+        String region = strings[input.readInt(true)];
+        
+        switch (kind) {
+            case DRAWABLE_TINTED: {
+                Color color = new Color(input.readInt());
+                float minWidth = input.readFloat();
+                float minHeight = input.readFloat();
+                Drawable drawable = skin.newDrawable(region, color);
+                if (drawable instanceof BaseDrawable) {
+                    ((BaseDrawable) drawable).setName(name + " (" + region + ", " + color + ")");
+                }
+                if (minWidth >= 0) drawable.setMinWidth(minWidth);
+                if (minHeight >= 0) drawable.setMinHeight(minHeight);
+                skin.add(name, drawable, Drawable.class);
+                break;
+            }
+            case DRAWABLE_TILED: {
+                TiledDrawable drawable = new TiledDrawable(skin.getRegion(region));
+                drawable.getColor().set(input.readInt());
+                drawable.setMinWidth(input.readFloat());
+                drawable.setMinHeight(input.readFloat());
+                drawable.setName(name);
+                skin.add(name, drawable, TiledDrawable.class);
+                skin.add(name, drawable, Drawable.class);
+                break;
+            }
+            case DRAWABLE_TEXTURE_REGION: {
+                TextureRegionDrawable drawable = new TextureRegionDrawable(skin.getRegion(region));
+                drawable.setMinWidth(input.readFloat());
+                drawable.setMinHeight(input.readFloat());
+                drawable.setName(name);
+                skin.add(name, drawable, TextureRegionDrawable.class);
+                skin.add(name, drawable, Drawable.class);
+                break;
+            }
+            case DRAWABLE_NINE_PATCH: {
+                NinePatch patch = skin.getPatch(region);
+                float minWidth = input.readFloat();
+                float minHeight = input.readFloat();
+                boolean tinted = input.readBoolean();
+                int color = tinted ? input.readInt() : 0;
+                NinePatchDrawable drawable = new NinePatchDrawable(patch);
+                if (tinted) drawable = drawable.tint(new Color(color));
+                drawable.setMinWidth(minWidth);
+                drawable.setMinHeight(minHeight);
+                drawable.setLeftWidth(input.readFloat());
+                drawable.setRightWidth(input.readFloat());
+                drawable.setTopHeight(input.readFloat());
+                drawable.setBottomHeight(input.readFloat());
+                drawable.setName(name);
+                skin.add(name, drawable, NinePatchDrawable.class);
+                skin.add(name, drawable, Drawable.class);
+                break;
+            }
+            default:
+                throw new GdxRuntimeException("Unknown drawable kind " + kind + " for drawable: " + name);
+        }
+    }
+    
+    private static Object readValue(Skin skin, DataInput input, String[] strings, Drawable[] drawables, BitmapFont[] fonts, Field field) throws IOException {
+        byte tag = input.readByte();
+        switch (tag) {
+            case VALUE_FLOAT:
+                float value = input.readFloat();
+                if (field == null) return null;
+                Class type = field.getType();
+                if (type == int.class || type == Integer.class) return (int) value;
+                if (type == double.class || type == Double.class) return (double) value;
+                return value;
+            case VALUE_BOOLEAN:
+                return input.readBoolean();
+            case VALUE_STRING:
+                return strings[input.readInt(true)];
+            case VALUE_COLOR:
+                return new Color(input.readInt());
+            case VALUE_DRAWABLE:
+                return drawables[input.readInt(true)];
+            case VALUE_FONT:
+                return fonts[input.readInt(true)];
+            case VALUE_STYLE:
+                String name = strings[input.readInt(true)];
+                return field == null ? null : skin.optional(name, field.getType());
+            default:
+                throw new GdxRuntimeException("Unknown value tag: " + tag);
+        }
+    }
+    
+    private static BitmapFont readFont(Skin skin, FileHandle skinFile, String path, float scaledSize, boolean markupEnabled, boolean flip) {
+        FileHandle fontFile = skinFile.parent().child(path);
+        if (!fontFile.exists()) fontFile = Gdx.files.internal(path);
+        if (!fontFile.exists()) throw new GdxRuntimeException("Font file not found: " + fontFile);
+        
+        //same lookup order as Skin: atlas regions named after the font, then a PNG next to the FNT file
+        String regionName = fontFile.nameWithoutExtension();
+        BitmapFont font;
+        Array<TextureRegion> regions = skin.getRegions(regionName);
+        if (regions != null) {
+            font = new BitmapFont(new BitmapFontData(fontFile, flip), regions, true);
+        } else {
+            TextureRegion region = skin.optional(regionName, TextureRegion.class);
+            if (region != null) {
+                font = new BitmapFont(fontFile, region, flip);
+            } else {
+                FileHandle imageFile = fontFile.parent().child(regionName + ".png");
+                if (imageFile.exists()) {
+                    font = new BitmapFont(fontFile, imageFile, flip);
+                } else {
+                    font = new BitmapFont(fontFile, flip);
+                }
+            }
+        }
+        font.getData().markupEnabled = markupEnabled;
+        if (scaledSize != -1) font.getData().setScale(scaledSize / font.getCapHeight());
+        return font;
+    }
+}
@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.runtime;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.StreamUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.zip.CRC32;
+
+/**
+ * Receives exported skins pushed by Skin Composer over a local socket. Enable "Push exports to running games" in the
+ * Skin Composer settings, start a client in the game with the same port, and reload the skin in the listener. The
+ * listener is called on the render thread with every file of one export once the whole export has been received, so
+ * the atlas, its pages, and the skin always match.
+ * <p>
+ * Each frame is written as the magic number, the payload length, the payload, and the CRC32 of the payload. The payload
+ * starts with the frame type and the time of the edit that caused the export in milliseconds since the epoch. File
+ * frames follow that with the file name and the file contents. An end frame marks the end of an export. Frames with a
+ * bad checksum discard the export they belong to. File names that could point outside the target folder are rejected.
+ * After a complete export the client answers with a received frame carrying the edit time, so Skin Composer can log
+ * the latency from the edit to the receipt.
+ * <p>
+ * This class only depends on libGDX and can be copied into a game project as is.
+ */
+public class SkinPushClient {
+    public static final int DEFAULT_PORT = 9876;
+    public static final int MAGIC = 0x53435350;
+    public static final byte FRAME_FILE = 0;
+    public static final byte FRAME_END = 1;
+    public static final byte FRAME_RECEIVED = 2;
+    public static final int MAX_FRAME_LENGTH = 256 * 1024 * 1024;
+    private static final int RECONNECT_MILLIS = 1000;
+    
+    private final String host;
+    private final int port;
+    private final SkinPushListener listener;
+    private volatile boolean running;
+    private volatile Socket socket;
+    private Thread thread;
+    
+    public interface SkinPushListener {
+        /**
+         * Called on the render thread after an export has been received completely.
+         * @param files The file contents keyed by file name.
+         * @param latencyMillis The time between the edit in Skin Composer and the receipt of the export.
+         */
+        void received(ObjectMap<String, byte[]> files, long latencyMillis);
+    }
+    
+    public SkinPushClient(SkinPushListener listener) {
+        this("127.0.0.1", DEFAULT_PORT, listener);
+    }
+    
+    public SkinPushClient(String host, int port, SkinPushListener listener) {
+        this.host = host;
+        this.port = port;
+        this.listener = listener;
+    }
+    
+    /**
+     * Connects to Skin Composer on a daemon thread. The client reconnects automatically until {@link #stop()} is
+     * called, so it may be started before Skin Composer.
+     */
+    public void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this::run, "Skin Push Client");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    public void stop() {
+        running = false;
+        StreamUtils.closeQuietly(socket);
+        if (thread != null) thread.interrupt();
+    }
+    
+    public boolean isConnected() {
+        var socket = this.socket;
+        return socket != null && socket.isConnected() && !socket.isClosed();
+    }
+    
+    /**
+     * Writes the received files into the given folder, overwriting existing files.
+     * @param files
+     * @param folder
+     */
+    public static void writeFiles(ObjectMap<String, byte[]> files, FileHandle folder) {
+        folder.mkdirs();
+        for (var entry : files) {
+            if (!isSafeName(entry.key)) {
+                Gdx.app.error(SkinPushClient.class.getName(), "Skipping pushed file with an unsafe name: " + entry.key);
+                continue;
+            }
+            folder.child(entry.key).writeBytes(entry.value, false);
+        }
+    }
+    
+    /**
+     * Pushed files are always written next to each other, so a name may not contain separators, parent references, or
+     * a drive.
+     * @param name
+     * @return
+     */
+    public static boolean isSafeName(String name) {
+        return !name.isEmpty() && !name.equals(".") && !name.contains("..") && name.indexOf('/') == -1
+                && name.indexOf('\\') == -1 && name.indexOf(':') == -1 && name.indexOf('\0') == -1;
+    }
+    
+    /**
+     * Writes a payload as one frame.
+     * @param output
+     * @param payload
+     * @param crc Reused between frames.
+     * @throws IOException
+     */
+    public static void writeFrame(DataOutputStream output, byte[] payload, CRC32 crc) throws IOException {
+        crc.reset();
+        crc.update(payload, 0, payload.length);
+        output.writeInt(MAGIC);
+        output.writeInt(payload.length);
+        output.write(payload);
+        output.writeInt((int) crc.getValue());
+    }
+    
+    /**
+     * Reads the payload of the next frame.
+     * @param input
+     * @param crc Reused between frames.
+     * @return The payload, an empty array if the frame failed its checksum, or null at the end of the stream.
+     * @throws IOException
+     */
+    public static byte[] readFrame(DataInputStream input, CRC32 crc) throws IOException {
+        int magic;
+        try {
+            magic = input.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (magic != MAGIC) throw new IOException("Not a skin push stream.");
+        
+        int length = input.readInt();
+        if (length < 0 || length > MAX_FRAME_LENGTH) throw new IOException("Invalid frame length: " + length);
+        var payload = new byte[length];
+        input.readFully(payload);
+        int checksum = input.readInt();
+        
+        crc.reset();
+        crc.update(payload, 0, length);
+        return (int) crc.getValue() == checksum && length > 0 ? payload : new byte[0];
+    }
+    
+    private void run() {
+        while (running) {
+            try (var socket = new Socket()) {
+                socket.setTcpNoDelay(true);
+                socket.connect(new InetSocketAddress(host, port), RECONNECT_MILLIS);
+                this.socket = socket;
+                read(new DataInputStream(new BufferedInputStream(socket.getInputStream())),
+                        new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())));
+            } catch (IOException e) {
+                //Skin Composer is not running or closed the connection
+            } finally {
+                socket = null;
+            }
+            
+            if (running) {
+                try {
+                    Thread.sleep(RECONNECT_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+    
+    private void read(DataInputStream input, DataOutputStream output) throws IOException {
+        var crc = new CRC32();
+        var files = new ObjectMap<String, byte[]>();
+        boolean corrupt = false;
+        
+        while (running) {
+            var payload = readFrame(input, crc);
+            if (payload == null) return;
+            if (payload.length == 0) {
+                Gdx.app.error(getClass().getName(), "Skin push frame failed its checksum, skipping export.");
+                corrupt = true;
+                continue;
+            }
+            
+            var frame = new DataInputStream(new ByteArrayInputStream(payload));
+            byte type = frame.readByte();
+            long editTime = frame.readLong();
+            if (type == FRAME_FILE) {
+                var name = frame.readUTF();
+                if (!isSafeName(name)) {
+                    Gdx.app.error(getClass().getName(), "Skipping pushed file with an unsafe name: " + name);
+                    continue;
+                }
+                var bytes = new byte[frame.available()];
+                frame.readFully(bytes);
+                files.put(name, bytes);
+            } else if (type == FRAME_END) {
+                if (!corrupt) {
+                    var received = files;
+                    long latency = System.currentTimeMillis() - editTime;
+                    Gdx.app.postRunnable(() -> listener.received(received, latency));
+                    
+                    var bytes = new ByteArrayOutputStream(9);
+                    var receipt = new DataOutputStream(bytes);
+                    receipt.writeByte(FRAME_RECEIVED);
+                    receipt.writeLong(editTime);
+                    writeFrame(output, bytes.toByteArray(), crc);
+                    output.flush();
+                }
+                files = new ObjectMap<>();
+                corrupt = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * A summed area table of the opaque pixels in a Pixmap. The alpha channel is read once, after which the number of
+ * opaque pixels in any rectangle is found in constant time. Used to segment image fonts into glyphs and to measure
+ * them without reading the pixels again. Coordinates outside of the Pixmap count as transparent.
+ */
+public class AlphaProfile {
+    private final int width;
+    private final int height;
+    private final int[] sums;
+    
+    public AlphaProfile(Pixmap pixmap) {
+        width = pixmap.getWidth();
+        height = pixmap.getHeight();
+        sums = new int[(width + 1) * (height + 1)];
+        
+        var pixels = pixmap.getPixels();
+        var rgba = pixmap.getFormat() == Pixmap.Format.RGBA8888;
+        var stride = width + 1;
+        for (int y = 0; y < height; y++) {
+            var rowCount = 0;
+            var rowIndex = y * width * 4;
+            for (int x = 0; x < width; x++) {
+                var opaque = rgba ? pixels.get(rowIndex + x * 4 + 3) != 0 : (pixmap.getPixel(x, y) & 0xff) != 0;
+                if (opaque) rowCount++;
+                sums[(y + 1) * stride + x + 1] = sums[y * stride + x + 1] + rowCount;
+            }
+        }
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    /**
+     * @param x
+     * @param y
+     * @param width
+     * @param height
+     * @return The number of pixels with an alpha above zero inside the rectangle.
+     */
+    public int count(int x, int y, int width, int height) {
+        var x1 = Math.max(0, Math.min(this.width, x));
+        var y1 = Math.max(0, Math.min(this.height, y));
+        var x2 = Math.max(0, Math.min(this.width, x + width));
+        var y2 = Math.max(0, Math.min(this.height, y + height));
+        if (x2 <= x1 || y2 <= y1) return 0;
+        var stride = this.width + 1;
+        return sums[y2 * stride + x2] - sums[y1 * stride + x2] - sums[y2 * stride + x1] + sums[y1 * stride + x1];
+    }
+    
+    public boolean isEmpty(int x, int y, int width, int height) {
+        return count(x, y, width, height) == 0;
+    }
+    
+    /**
+     * Collects the rows where the image switches between empty and opaque rows, starting with the first opaque row. The
+     * breaks come in pairs of the first opaque row and the first empty row after it. A run of opaque rows that reaches
+     * the bottom of the image is closed with the height of the image, so every run has both of its breaks.
+     * @param out
+     */
+    public void findRowBreaks(IntArray out) {
+        out.clear();
+        var opaque = false;
+        for (int y = 0; y < height; y++) {
+            if (isEmpty(0, y, width, 1) == opaque) {
+                out.add(y);
+                opaque = !opaque;
+            }
+        }
+        if (opaque) out.add(height);
+    }
+    
+    /**
+     * @return The first row of the rectangle containing an opaque pixel or -1 if the rectangle is empty.
+     */
+    public int findFirstRow(int x, int y, int width, int height) {
+        if (isEmpty(x, y, width, height)) return -1;
+        int low = 1, high = height;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (isEmpty(x, y, width, mid)) low = mid + 1;
+            else high = mid;
+        }
+        return y + low - 1;
+    }
+    
+    /**
+     * @return The last row of the rectangle containing an opaque pixel or -1 if the rectangle is empty.
+     */
+    public int findLastRow(int x, int y, int width, int height) {
+        if (isEmpty(x, y, width, height)) return -1;
+        int low = 1, high = height;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (isEmpty(x, y + height - mid, width, mid)) low = mid + 1;
+            else high = mid;
+        }
+        return y + height - low;
+    }
+    
+    /**
+     * @return The first column of the rectangle containing an opaque pixel or -1 if the rectangle is empty.
+     */
+    public int findFirstColumn(int x, int y, int width, int height) {
+        if (isEmpty(x, y, width, height)) return -1;
+        int low = 1, high = width;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (isEmpty(x, y, mid, height)) low = mid + 1;
+            else high = mid;
+        }
+        return x + low - 1;
+    }
+    
+    /**
+     * @return The last column of the rectangle containing an opaque pixel or -1 if the rectangle is empty.
+     */
+    public int findLastColumn(int x, int y, int width, int height) {
+        if (isEmpty(x, y, width, height)) return -1;
+        int low = 1, high = width;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (isEmpty(x + width - mid, y, mid, height)) low = mid + 1;
+            else high = mid;
+        }
+        return x + width - low;
+    }
+}
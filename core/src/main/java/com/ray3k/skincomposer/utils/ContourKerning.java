@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import java.util.stream.IntStream;
+
+/**
+ * Calculates kerning for image fonts from the outlines of the glyphs. Each glyph is reduced once to the first and last
+ * opaque column of every row, so the kerning of a pair is found by comparing two rows at a time instead of compositing
+ * the images.
+ */
+public class ContourKerning {
+    /**
+     * Returned by {@link #findTouchPosition(Contour, Contour)} when the glyphs have no opaque rows in common.
+     */
+    public static final int NO_CONTACT = Integer.MIN_VALUE;
+    
+    /**
+     * The first and last opaque column of each row of a glyph, relative to the left edge of the glyph. Empty rows are
+     * marked with -1.
+     */
+    public static class Contour {
+        /**
+         * The row of the line that the first row of the contour sits on.
+         */
+        public int top;
+        public int width;
+        public int[] left;
+        public int[] right;
+    }
+    
+    /**
+     * Measures the contour of a glyph.
+     * @param profile
+     * @param x
+     * @param y
+     * @param width
+     * @param height
+     * @param top The row of the line that y corresponds to, so glyphs cropped at different heights line up.
+     * @return
+     */
+    public static Contour measure(AlphaProfile profile, int x, int y, int width, int height, int top) {
+        var contour = new Contour();
+        contour.top = top;
+        contour.width = width;
+        contour.left = new int[Math.max(0, height)];
+        contour.right = new int[Math.max(0, height)];
+        for (int i = 0; i < contour.left.length; i++) {
+            var first = profile.findFirstColumn(x, y + i, width, 1);
+            contour.left[i] = first == -1 ? -1 : first - x;
+            contour.right[i] = first == -1 ? -1 : profile.findLastColumn(x, y + i, width, 1) - x;
+        }
+        return contour;
+    }
+    
+    /**
+     * Finds the furthest position of the second glyph, relative to the left edge of the first, where the glyphs still
+     * overlap on any row.
+     * @param first
+     * @param second
+     * @return The position, 0 if the glyphs only overlap to the left of the first glyph's edge, or {@link #NO_CONTACT}
+     * if they do not share an opaque row and can never touch.
+     */
+    public static int findTouchPosition(Contour first, Contour second) {
+        var touch = NO_CONTACT;
+        var start = Math.max(first.top, second.top);
+        var end = Math.min(first.top + first.right.length, second.top + second.left.length);
+        for (int row = start; row < end; row++) {
+            var right = first.right[row - first.top];
+            var left = second.left[row - second.top];
+            if (right != -1 && left != -1) touch = Math.max(touch, Math.max(0, right - left));
+        }
+        return touch;
+    }
+    
+    /**
+     * Calculates the kerning of a list of pairs on multiple threads. The second glyph of each pair is moved back to the
+     * position where it would touch the first glyph and then forward by the offset. Pairs that can never touch are not
+     * kerned.
+     * @param firsts
+     * @param seconds
+     * @param offset
+     * @return The kerning amount of each pair, relative to the width of the first glyph, or 0 if it is not kerned.
+     */
+    public static int[] kern(Contour[] firsts, Contour[] seconds, int offset) {
+        var amounts = new int[firsts.length];
+        IntStream.range(0, firsts.length).parallel().forEach(i -> {
+            var touch = findTouchPosition(firsts[i], seconds[i]);
+            amounts[i] = touch == NO_CONTACT ? 0 : touch - 1 - firsts[i].width + offset;
+        });
+        return amounts;
+    }
+}
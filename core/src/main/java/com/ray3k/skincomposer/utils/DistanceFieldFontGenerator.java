@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.Glyph;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Stroker;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Generates fonts whose glyph pages contain distance fields instead of coverage, for use with TextraTypist's
+ * DistanceFieldType.SDF and DistanceFieldType.MSDF. Font metrics and kerning are generated at the requested size, while
+ * each glyph is rendered at {@link #UPSCALE} times that size and converted to a signed distance field with an exact
+ * Euclidean distance transform. The distance field extends {@link #getSpread()} pixels around every glyph.
+ * <p>
+ * Multi-channel fields need the glyph outlines, which the FreeType bindings don't expose. In MSDF mode the distance is
+ * written to the red, green, and blue channels, so the median computed by the MSDF shader is the same distance.
+ */
+public class DistanceFieldFontGenerator extends FreeTypeFontGenerator {
+    public static final int UPSCALE = 4;
+    private static final float INF = 1e20f;
+    private final FileHandle fontFile;
+    private final boolean multiChannel;
+    private final int spread;
+    private final FreeTypeFontGenerator detailGenerator;
+    
+    /**
+     * @param fontFile
+     * @param multiChannel Writes the distance to the color channels for the MSDF shader.
+     * @param spread The distance in pixels at the generated size that the field extends from the glyph edges.
+     */
+    public DistanceFieldFontGenerator(FileHandle fontFile, boolean multiChannel, int spread) {
+        super(fontFile);
+        this.fontFile = fontFile;
+        this.multiChannel = multiChannel;
+        this.spread = Math.max(1, spread);
+        detailGenerator = new FreeTypeFontGenerator(fontFile);
+        ResourceTracker.track(this, null, fontFile.length());
+        ResourceTracker.track(detailGenerator, null, fontFile.length());
+    }
+    
+    /**
+     * Adjusts the parameter to render plain glyphs. Borders, shadows, and colors are applied by the distance field
+     * shader instead.
+     * @param parameter
+     */
+    public static void prepareParameter(FreeTypeFontParameter parameter) {
+        parameter.mono = false;
+        parameter.color = Color.WHITE;
+        parameter.borderWidth = 0;
+        parameter.shadowOffsetX = 0;
+        parameter.shadowOffsetY = 0;
+        parameter.renderCount = 1;
+        parameter.gamma = 1f;
+        parameter.incremental = false;
+    }
+    
+    public boolean isMultiChannel() {
+        return multiChannel;
+    }
+    
+    public int getSpread() {
+        return spread;
+    }
+    
+    @Override
+    protected Pixmap rasterizeGlyph(char c, Glyph glyph, FreeTypeFontParameter parameter, Stroker stroker, float baseLine) {
+        var pixmap = super.rasterizeGlyph(c, glyph, parameter, stroker, baseLine);
+        if (pixmap == null || glyph.width == 0 || glyph.height == 0) return pixmap;
+        
+        int scale;
+        int left;
+        int top;
+        int width;
+        int height;
+        float[] coverage;
+        var detail = c == 0 ? null : detailGenerator.generateGlyphAndBitmap(c, parameter.size * UPSCALE, true);
+        if (detail != null && detail.bitmap != null && detail.bitmap.getWidth() > 0 && detail.bitmap.getRows() > 0) {
+            var slot = detailGenerator.getFace().getGlyph();
+            var bitmap = detail.bitmap;
+            scale = UPSCALE;
+            left = slot.getBitmapLeft();
+            top = slot.getBitmapTop();
+            width = bitmap.getWidth();
+            height = bitmap.getRows();
+            coverage = new float[width * height];
+            ByteBuffer buffer = bitmap.getBuffer();
+            int pitch = Math.abs(bitmap.getPitch());
+            boolean mono = bitmap.getPixelMode() == FreeType.FT_PIXEL_MODE_MONO;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int value = mono ? ((buffer.get(y * pitch + x / 8) >>> (7 - x % 8)) & 1) * 255 : buffer.get(y * pitch + x) & 0xff;
+                    coverage[y * width + x] = value / 255f;
+                }
+            }
+        } else {
+            //glyphs the detailed face can't render, such as the missing glyph, are converted at the generated size
+            scale = 1;
+            left = glyph.xoffset;
+            width = pixmap.getWidth();
+            height = pixmap.getHeight();
+            top = parameter.flip ? (int) baseLine - glyph.yoffset : glyph.yoffset + height + (int) baseLine;
+            coverage = new float[width * height];
+            var pixels = pixmap.getPixels();
+            for (int i = 0; i < coverage.length; i++) {
+                coverage[i] = (pixels.get(i * 4 + 3) & 0xff) / 255f;
+            }
+        }
+        pixmap.dispose();
+        
+        //the output box in pixels at the generated size, aligned to whole pixels and extended by the spread
+        int boxLeft = Math.floorDiv(left, scale) - spread;
+        int boxTop = -Math.floorDiv(-top, scale) + spread;
+        int boxRight = -Math.floorDiv(-(left + width), scale) + spread;
+        int boxBottom = Math.floorDiv(top - height, scale) - spread;
+        int outWidth = boxRight - boxLeft;
+        int outHeight = boxTop - boxBottom;
+        
+        //coverage is copied into a detailed grid that covers the whole output box
+        int gridWidth = outWidth * scale;
+        int gridHeight = outHeight * scale;
+        int offsetX = left - boxLeft * scale;
+        int offsetY = boxTop * scale - top;
+        var inside = new boolean[gridWidth * gridHeight];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                inside[(y + offsetY) * gridWidth + x + offsetX] = coverage[y * width + x] >= .5f;
+            }
+        }
+        
+        var toInside = squaredDistances(inside, true, gridWidth, gridHeight);
+        var toOutside = squaredDistances(inside, false, gridWidth, gridHeight);
+        
+        var result = ResourceTracker.track(new Pixmap(outWidth, outHeight, Pixmap.Format.RGBA8888));
+        var pixels = result.getPixels();
+        float range = 2f * spread * scale;
+        for (int y = 0; y < outHeight; y++) {
+            int gridY = y * scale + scale / 2;
+            for (int x = 0; x < outWidth; x++) {
+                int index = gridY * gridWidth + x * scale + scale / 2;
+                float distance = inside[index] ? (float) Math.sqrt(toOutside[index]) - .5f : .5f - (float) Math.sqrt(toInside[index]);
+                int value = Math.round(Math.max(0f, Math.min(1f, .5f + distance / range)) * 255f);
+                int pixel = (y * outWidth + x) * 4;
+                byte color = multiChannel ? (byte) value : (byte) 255;
+                pixels.put(pixel, color);
+                pixels.put(pixel + 1, color);
+                pixels.put(pixel + 2, color);
+                pixels.put(pixel + 3, (byte) value);
+            }
+        }
+        
+        glyph.width = outWidth;
+        glyph.height = outHeight;
+        glyph.xoffset = boxLeft;
+        if (parameter.flip) {
+            glyph.yoffset = -boxTop + (int) baseLine;
+        } else {
+            glyph.yoffset = -(outHeight - boxTop) - (int) baseLine;
+        }
+        return result;
+    }
+    
+    @Override
+    protected FreeTypeFontGenerator newWorker() {
+        return new DistanceFieldFontGenerator(fontFile, multiChannel, spread);
+    }
+    
+    @Override
+    public void dispose() {
+        detailGenerator.dispose();
+        super.dispose();
+        ResourceTracker.disposed(detailGenerator);
+        ResourceTracker.disposed(this);
+    }
+    
+    /**
+     * Computes the squared distance from every cell to the nearest cell whose inside value equals target, using the
+     * separable transform by Felzenszwalb and Huttenlocher.
+     * @param inside
+     * @param target
+     * @param width
+     * @param height
+     * @return
+     */
+    private static float[] squaredDistances(boolean[] inside, boolean target, int width, int height) {
+        var grid = new float[width * height];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = inside[i] == target ? 0 : INF;
+        }
+        
+        int length = Math.max(width, height);
+        var f = new float[length];
+        var d = new float[length];
+        var v = new int[length];
+        var z = new float[length + 1];
+        
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) f[y] = grid[y * width + x];
+            transform(f, height, d, v, z);
+            for (int y = 0; y < height; y++) grid[y * width + x] = d[y];
+        }
+        
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(grid, y * width, f, 0, width);
+            transform(f, width, d, v, z);
+            System.arraycopy(d, 0, grid, y * width, width);
+        }
+        return grid;
+    }
+    
+    private static void transform(float[] f, int n, float[] d, int[] v, float[] z) {
+        int k = 0;
+        v[0] = 0;
+        z[0] = -INF;
+        z[1] = INF;
+        for (int q = 1; q < n; q++) {
+            float s = ((f[q] + q * q) - (f[v[k]] + v[k] * v[k])) / (2 * q - 2 * v[k]);
+            while (s <= z[k]) {
+                k--;
+                s = ((f[q] + q * q) - (f[v[k]] + v[k] * v[k])) / (2 * q - 2 * v[k]);
+            }
+            k++;
+            v[k] = q;
+            z[k] = s;
+            z[k + 1] = INF;
+        }
+        
+        k = 0;
+        for (int q = 0; q < n; q++) {
+            while (z[k + 1] < q) k++;
+            d[q] = (q - v[k]) * (q - v[k]) + f[v[k]];
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Shares BitmapFonts loaded from .fnt files between the style preview and the dialogs. Fonts are reference counted and
+ * keyed by file path, flip, scaled size, markup, and modification time, so repeated preview refreshes reuse the loaded
+ * textures. A font is disposed when the last user releases it. Editing the font file changes the key, so the next
+ * acquire loads the new file and the old font is disposed once it is released. Must only be used on the render thread.
+ */
+public class FontCache {
+    private static final ObjectMap<String, Entry> entries = new ObjectMap<>();
+    private static final IdentityMap<BitmapFont, Entry> entriesByFont = new IdentityMap<>();
+    
+    private static class Entry {
+        String key;
+        BitmapFont font;
+        int references;
+    }
+    
+    /**
+     * Returns a shared font for the file. Call {@link #release(BitmapFont)} when it is no longer displayed. The returned
+     * font must not be modified.
+     * @param file
+     * @param flip
+     * @param scaledSize The cap height to scale the font to, or -1 to use the size of the file.
+     * @param markupEnabled
+     * @return
+     */
+    public static BitmapFont acquire(FileHandle file, boolean flip, float scaledSize, boolean markupEnabled) {
+        var key = file.path() + "|" + flip + "|" + scaledSize + "|" + markupEnabled + "|" + file.lastModified();
+        var entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry();
+            entry.key = key;
+            entry.font = ResourceTracker.track(new BitmapFont(file, flip));
+            if (scaledSize != -1) entry.font.getData().setScale(scaledSize / entry.font.getCapHeight());
+            entry.font.getData().markupEnabled = markupEnabled;
+            entry.font.getData().flipped = flip;
+            entries.put(key, entry);
+            entriesByFont.put(entry.font, entry);
+        }
+        entry.references++;
+        return entry.font;
+    }
+    
+    /**
+     * Releases a font returned by {@link #acquire(FileHandle, boolean, float, boolean)}. The font is disposed if no one
+     * else uses it.
+     * @param font
+     */
+    public static void release(BitmapFont font) {
+        var entry = entriesByFont.get(font);
+        if (entry == null) return;
+        
+        entry.references--;
+        if (entry.references <= 0) {
+            entries.remove(entry.key);
+            entriesByFont.remove(font);
+            font.dispose();
+        }
+    }
+    
+    public static int size() {
+        return entries.size;
+    }
+}
@@ -0,0 +1,361 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.Glyph;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Stroker;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.ray3k.skincomposer.Main;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps rendered FreeType glyphs on disk so fonts only rasterize the characters that weren't rendered before with the
+ * same font file and parameters. Glyphs are stored in one bundle per font file and parameter combination, keyed by the
+ * content hash of the font file, a hash of the parameters that affect rendering, and the character. Bundles that
+ * haven't been used recently are deleted when the cache exceeds {@link #MAX_CACHE_BYTES}.
+ */
+public class GlyphRasterCache {
+    public static final long MAX_CACHE_BYTES = 64L * 1024L * 1024L;
+    private static final int VERSION = 1;
+    private static final ObjectMap<String, String> fileHashes = new ObjectMap<>();
+    private static final AtomicInteger hits = new AtomicInteger();
+    private static final AtomicInteger misses = new AtomicInteger();
+    
+    /**
+     * Creates a generator that reads glyphs from the cache and writes newly rendered glyphs back when it is disposed.
+     * @param fontFile
+     * @return
+     */
+    public static FreeTypeFontGenerator newGenerator(FileHandle fontFile) {
+        return new CachingGenerator(fontFile);
+    }
+    
+    public static FileHandle getCacheFolder() {
+        return Main.appFolder.child("glyph cache/");
+    }
+    
+    public static int getHits() {
+        return hits.get();
+    }
+    
+    public static int getMisses() {
+        return misses.get();
+    }
+    
+    public static void resetStatistics() {
+        hits.set(0);
+        misses.set(0);
+    }
+    
+    private static class CachingGenerator extends FreeTypeFontGenerator {
+        private final FileHandle fontFile;
+        private final CachingGenerator parent;
+        private final ObjectMap<String, Bundle> bundles = new ObjectMap<>();
+        private FreeTypeFontParameter lastParameter;
+        private Bundle lastBundle;
+        
+        CachingGenerator(FileHandle fontFile) {
+            this(fontFile, null);
+        }
+        
+        /**
+         * @param parent The generator that owns the bundles when this generator renders on a worker thread.
+         */
+        CachingGenerator(FileHandle fontFile, CachingGenerator parent) {
+            super(fontFile);
+            this.fontFile = fontFile;
+            this.parent = parent;
+            ResourceTracker.track(this, null, fontFile.length());
+        }
+        
+        @Override
+        protected FreeTypeFontGenerator newWorker() {
+            return new CachingGenerator(fontFile, this);
+        }
+        
+        @Override
+        protected Pixmap rasterizeGlyph(char c, Glyph glyph, FreeTypeFontParameter parameter, Stroker stroker, float baseLine) {
+            var bundle = getBundle(parameter);
+            if (bundle == null) return super.rasterizeGlyph(c, glyph, parameter, stroker, baseLine);
+            
+            var cached = bundle.get(c);
+            if (cached != null) {
+                hits.incrementAndGet();
+                if (cached.pixels == null) return null;
+                glyph.id = c;
+                glyph.width = cached.width;
+                glyph.height = cached.height;
+                glyph.xoffset = cached.xoffset;
+                glyph.yoffset = cached.yoffset;
+                glyph.xadvance = cached.xadvance;
+                var pixmap = ResourceTracker.track(new Pixmap(cached.pixmapWidth, cached.pixmapHeight, Pixmap.Format.RGBA8888));
+                var pixels = pixmap.getPixels();
+                pixels.position(0);
+                pixels.put(cached.pixels);
+                pixels.position(0);
+                return pixmap;
+            }
+            
+            misses.incrementAndGet();
+            var pixmap = super.rasterizeGlyph(c, glyph, parameter, stroker, baseLine);
+            cached = new CachedGlyph();
+            if (pixmap != null) {
+                cached.width = glyph.width;
+                cached.height = glyph.height;
+                cached.xoffset = glyph.xoffset;
+                cached.yoffset = glyph.yoffset;
+                cached.xadvance = glyph.xadvance;
+                cached.pixmapWidth = pixmap.getWidth();
+                cached.pixmapHeight = pixmap.getHeight();
+                var pixels = pixmap.getPixels();
+                cached.pixels = new byte[cached.pixmapWidth * cached.pixmapHeight * 4];
+                pixels.position(0);
+                pixels.get(cached.pixels);
+                pixels.position(0);
+            }
+            bundle.put(c, cached);
+            return pixmap;
+        }
+        
+        private synchronized Bundle getBundle(FreeTypeFontParameter parameter) {
+            if (parameter == lastParameter) return lastBundle;
+            if (parent != null) {
+                lastBundle = parent.getBundle(parameter);
+                lastParameter = parameter;
+                return lastBundle;
+            }
+            
+            var fileHash = hashFile(fontFile);
+            if (fileHash == null) return null;
+            var key = fileHash + "-" + hashParameter(parameter);
+            var bundle = bundles.get(key);
+            if (bundle == null) {
+                bundle = new Bundle(getCacheFolder().child(key + ".glyphs"));
+                bundle.load();
+                bundles.put(key, bundle);
+            }
+            lastParameter = parameter;
+            lastBundle = bundle;
+            return bundle;
+        }
+        
+        @Override
+        public void dispose() {
+            super.dispose();
+            ResourceTracker.disposed(this);
+            boolean saved = false;
+            for (var bundle : bundles.values()) {
+                saved |= bundle.save();
+            }
+            bundles.clear();
+            lastParameter = null;
+            lastBundle = null;
+            if (saved) evict();
+        }
+    }
+    
+    private static class CachedGlyph {
+        int width, height, xoffset, yoffset, xadvance;
+        int pixmapWidth, pixmapHeight;
+        byte[] pixels;
+    }
+    
+    private static class Bundle {
+        private final FileHandle file;
+        private final IntMap<CachedGlyph> glyphs = new IntMap<>();
+        private boolean dirty;
+        
+        Bundle(FileHandle file) {
+            this.file = file;
+        }
+        
+        synchronized CachedGlyph get(char c) {
+            return glyphs.get(c);
+        }
+        
+        synchronized void put(char c, CachedGlyph glyph) {
+            glyphs.put(c, glyph);
+            dirty = true;
+        }
+        
+        void load() {
+            if (!file.exists()) return;
+            DataInputStream input = null;
+            try {
+                input = new DataInputStream(new BufferedInputStream(file.read()));
+                if (input.readInt() != VERSION) return;
+                int count = input.readInt();
+                for (int i = 0; i < count; i++) {
+                    char c = input.readChar();
+                    var glyph = new CachedGlyph();
+                    if (input.readBoolean()) {
+                        glyph.width = input.readInt();
+                        glyph.height = input.readInt();
+                        glyph.xoffset = input.readInt();
+                        glyph.yoffset = input.readInt();
+                        glyph.xadvance = input.readInt();
+                        glyph.pixmapWidth = input.readInt();
+                        glyph.pixmapHeight = input.readInt();
+                        glyph.pixels = new byte[glyph.pixmapWidth * glyph.pixmapHeight * 4];
+                        input.readFully(glyph.pixels);
+                    }
+                    glyphs.put(c, glyph);
+                }
+                //mark the bundle as recently used
+                file.file().setLastModified(System.currentTimeMillis());
+            } catch (Exception e) {
+                Gdx.app.error(GlyphRasterCache.class.getName(), "Error reading glyph cache " + file.name(), e);
+                glyphs.clear();
+            } finally {
+                StreamUtils.closeQuietly(input);
+            }
+        }
+        
+        synchronized boolean save() {
+            if (!dirty) return false;
+            dirty = false;
+            var temp = file.sibling(file.name() + ".tmp");
+            DataOutputStream output = null;
+            try {
+                output = new DataOutputStream(new BufferedOutputStream(temp.write(false)));
+                output.writeInt(VERSION);
+                output.writeInt(glyphs.size);
+                for (var entry : glyphs) {
+                    var glyph = entry.value;
+                    output.writeChar(entry.key);
+                    output.writeBoolean(glyph.pixels != null);
+                    if (glyph.pixels != null) {
+                        output.writeInt(glyph.width);
+                        output.writeInt(glyph.height);
+                        output.writeInt(glyph.xoffset);
+                        output.writeInt(glyph.yoffset);
+                        output.writeInt(glyph.xadvance);
+                        output.writeInt(glyph.pixmapWidth);
+                        output.writeInt(glyph.pixmapHeight);
+                        output.write(glyph.pixels);
+                    }
+                }
+                output.close();
+                output = null;
+                temp.moveTo(file);
+                return true;
+            } catch (Exception e) {
+                Gdx.app.error(GlyphRasterCache.class.getName(), "Error writing glyph cache " + file.name(), e);
+                temp.delete();
+                return false;
+            } finally {
+                StreamUtils.closeQuietly(output);
+            }
+        }
+    }
+    
+    /**
+     * Deletes the least recently used bundles until the cache fits in {@link #MAX_CACHE_BYTES}.
+     */
+    private static void evict() {
+        var files = new Array<>(getCacheFolder().list(".glyphs"));
+        long total = 0;
+        for (var file : files) {
+            total += file.length();
+        }
+        if (total <= MAX_CACHE_BYTES) return;
+        
+        files.sort((o1, o2) -> Long.compare(o1.lastModified(), o2.lastModified()));
+        for (var file : files) {
+            if (total <= MAX_CACHE_BYTES) break;
+            total -= file.length();
+            file.delete();
+        }
+    }
+    
+    private static String hashFile(FileHandle file) {
+        var key = file.path() + ":" + file.length() + ":" + file.lastModified();
+        synchronized (fileHashes) {
+            var hash = fileHashes.get(key);
+            if (hash == null) {
+                try {
+                    hash = hash(file.readBytes());
+                } catch (Exception e) {
+                    Gdx.app.error(GlyphRasterCache.class.getName(), "Error hashing font file " + file.path(), e);
+                    return null;
+                }
+                fileHashes.put(key, hash);
+            }
+            return hash;
+        }
+    }
+    
+    /**
+     * Hashes every parameter that changes the rendered glyph or its metrics.
+     * @param parameter
+     * @return
+     */
+    private static String hashParameter(FreeTypeFontParameter parameter) {
+        var builder = new StringBuilder();
+        builder.append(parameter.size).append(',').append(parameter.mono).append(',').append(parameter.hinting)
+                .append(',').append(color(parameter.color)).append(',').append(parameter.gamma)
+                .append(',').append(parameter.renderCount).append(',').append(parameter.borderWidth)
+                .append(',').append(color(parameter.borderColor)).append(',').append(parameter.borderStraight)
+                .append(',').append(parameter.borderGamma).append(',').append(parameter.shadowOffsetX)
+                .append(',').append(parameter.shadowOffsetY).append(',').append(color(parameter.shadowColor))
+                .append(',').append(parameter.spaceX).append(',').append(parameter.padTop)
+                .append(',').append(parameter.padLeft).append(',').append(parameter.padBottom)
+                .append(',').append(parameter.padRight).append(',').append(parameter.flip);
+        return hash(builder.toString().getBytes()).substring(0, 16);
+    }
+    
+    private static String color(Color color) {
+        return color == null ? "null" : color.toString();
+    }
+    
+    private static String hash(byte[] bytes) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-1").digest(bytes);
+            var builder = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
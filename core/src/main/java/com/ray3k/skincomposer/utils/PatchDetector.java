@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.IntArray;
+import com.ray3k.skincomposer.utils.Utils.PatchDefinition;
+
+import java.util.Arrays;
+
+/**
+ * Finds the areas of an image that can be stretched. Every column and row is compared to its neighbor once, straight
+ * from the pixel buffer. Without a tolerance the columns and rows are hashed, so neighbors are compared by a single
+ * value. A tolerance allows neighboring pixels to differ by up to that many levels in each channel, so gradients and
+ * noise are still treated as uniform. The stretch area is the longest run of uniform columns or rows, preferring the
+ * run closest to the center.
+ */
+public class PatchDetector {
+    private final int width;
+    private final int height;
+    private final boolean[] uniformColumns;
+    private final boolean[] uniformRows;
+    
+    /**
+     * Does not dispose pixmap.
+     * @param pixmap
+     * @param tolerance The largest difference allowed between neighboring pixels in any channel, from 0 to 255.
+     */
+    public PatchDetector(Pixmap pixmap, int tolerance) {
+        var rgba = PixelOps.toRGBA8888(pixmap);
+        var pixels = rgba.getPixels().duplicate().asIntBuffer();
+        width = rgba.getWidth();
+        height = rgba.getHeight();
+        uniformColumns = new boolean[Math.max(0, width - 1)];
+        uniformRows = new boolean[Math.max(0, height - 1)];
+        
+        if (tolerance <= 0) {
+            //hash every column and row in a single pass
+            var columnHashes = new long[width];
+            var rowHashes = new long[height];
+            for (int y = 0; y < height; y++) {
+                var rowHash = 0L;
+                for (int x = 0; x < width; x++) {
+                    var pixel = pixels.get(y * width + x) & 0xffffffffL;
+                    rowHash = rowHash * 0x9E3779B97F4A7C15L + pixel;
+                    columnHashes[x] = columnHashes[x] * 0x9E3779B97F4A7C15L + pixel;
+                }
+                rowHashes[y] = rowHash;
+            }
+            
+            for (int x = 0; x < uniformColumns.length; x++) {
+                uniformColumns[x] = columnHashes[x] == columnHashes[x + 1];
+            }
+            for (int y = 0; y < uniformRows.length; y++) {
+                uniformRows[y] = rowHashes[y] == rowHashes[y + 1];
+            }
+        } else {
+            //compare every pixel with its right and lower neighbors in a single pass
+            Arrays.fill(uniformColumns, true);
+            Arrays.fill(uniformRows, true);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    var pixel = pixels.get(y * width + x);
+                    if (x + 1 < width && uniformColumns[x] && difference(pixel, pixels.get(y * width + x + 1)) > tolerance) {
+                        uniformColumns[x] = false;
+                    }
+                    if (y + 1 < height && uniformRows[y] && difference(pixel, pixels.get((y + 1) * width + x)) > tolerance) {
+                        uniformRows[y] = false;
+                    }
+                }
+            }
+        }
+        
+        if (rgba != pixmap) PixmapPool.free(rgba);
+    }
+    
+    private static int difference(int color1, int color2) {
+        var difference = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            difference = Math.max(difference, Math.abs((color1 >>> shift & 0xff) - (color2 >>> shift & 0xff)));
+        }
+        return difference;
+    }
+    
+    /**
+     * Returns the first and last index of the longest run of uniform neighbors. Ties are broken by the distance to the
+     * center. If no neighbors are uniform, the center alone is returned.
+     */
+    private static int[] findLongestRun(boolean[] uniform, int size) {
+        var center = size / 2;
+        int bestStart = center, bestEnd = center, bestLength = 0, bestDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < uniform.length; i++) {
+            if (!uniform[i]) continue;
+            var start = i;
+            while (i < uniform.length && uniform[i]) i++;
+            var end = i;
+            var length = end - start;
+            var distance = center < start ? start - center : center > end ? center - end : 0;
+            if (length > bestLength || length == bestLength && distance < bestDistance) {
+                bestStart = start;
+                bestEnd = end;
+                bestLength = length;
+                bestDistance = distance;
+            }
+        }
+        return new int[] {bestStart, bestEnd};
+    }
+    
+    /**
+     * Returns every run of uniform neighbors spanning at least the minimum number of pixels as pairs of first and last
+     * index. Falls back to the longest run if there are none.
+     */
+    private static IntArray findRuns(boolean[] uniform, int size, int minimumSize) {
+        var runs = new IntArray();
+        for (int i = 0; i < uniform.length; i++) {
+            if (!uniform[i]) continue;
+            var start = i;
+            while (i < uniform.length && uniform[i]) i++;
+            if (i - start + 1 >= minimumSize) {
+                runs.add(start);
+                runs.add(i);
+            }
+        }
+        if (runs.size == 0) runs.addAll(findLongestRun(uniform, size));
+        return runs;
+    }
+    
+    /**
+     * @return The splits of a 9patch that stretches the longest uniform column and row.
+     */
+    public PatchDefinition getPatches() {
+        var patchDefinition = new PatchDefinition();
+        var columns = findLongestRun(uniformColumns, width);
+        patchDefinition.left = columns[0];
+        patchDefinition.right = Math.max(0, width - 1 - columns[1]);
+        var rows = findLongestRun(uniformRows, height);
+        patchDefinition.top = rows[0];
+        patchDefinition.bottom = Math.max(0, height - 1 - rows[1]);
+        return patchDefinition;
+    }
+    
+    /**
+     * @param minimumSize The smallest number of columns an area must span.
+     * @return Pairs of the first and last column of every uniform area, counted from the left.
+     */
+    public IntArray getHorizontalStretchAreas(int minimumSize) {
+        return findRuns(uniformColumns, width, minimumSize);
+    }
+    
+    /**
+     * @param minimumSize The smallest number of rows an area must span.
+     * @return Pairs of the first and last row of every uniform area, counted from the bottom as TenPatch expects.
+     */
+    public IntArray getVerticalStretchAreas(int minimumSize) {
+        var runs = findRuns(uniformRows, height, minimumSize);
+        var areas = new IntArray(runs.size);
+        for (int i = runs.size - 2; i >= 0; i -= 2) {
+            areas.add(height - 1 - runs.get(i + 1));
+            areas.add(height - 1 - runs.get(i));
+        }
+        return areas;
+    }
+}
@@ -0,0 +1,253 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+
+import java.nio.IntBuffer;
+import java.util.stream.IntStream;
+
+/**
+ * Pixel operations that work directly on the RGBA8888 buffer of a Pixmap with integer math. Pixels are read through an
+ * IntBuffer view of the buffer, where every int is a color in RGBA8888 order. Images with at least
+ * {@link #PARALLEL_THRESHOLD} pixels are processed in bands of rows on multiple threads. Pixmaps in other formats are
+ * converted before they are read.
+ */
+public class PixelOps {
+    public static final int PARALLEL_THRESHOLD = 256 * 256;
+    private static final int BAND_HEIGHT = 64;
+    
+    /**
+     * Returns an RGBA8888 copy of the pixmap if it is in another format. The copy is checked out of {@link PixmapPool}
+     * and must be returned with {@link PixmapPool#free(Pixmap)} by the caller.
+     * @param pixmap
+     * @return The pixmap itself if it is already RGBA8888.
+     */
+    public static Pixmap toRGBA8888(Pixmap pixmap) {
+        if (pixmap.getFormat() == Pixmap.Format.RGBA8888) return pixmap;
+        var converted = PixmapPool.obtain(pixmap.getWidth(), pixmap.getHeight());
+        converted.setBlending(Pixmap.Blending.None);
+        converted.drawPixmap(pixmap, 0, 0);
+        return converted;
+    }
+    
+    private static IntBuffer ints(Pixmap pixmap) {
+        return pixmap.getPixels().duplicate().asIntBuffer();
+    }
+    
+    private static boolean isParallel(Pixmap pixmap) {
+        return pixmap.getWidth() * pixmap.getHeight() >= PARALLEL_THRESHOLD;
+    }
+    
+    private static int bandCount(int height) {
+        return (height + BAND_HEIGHT - 1) / BAND_HEIGHT;
+    }
+    
+    /**
+     * The average color of every pixel with an alpha above zero. Does not dispose pixmap.
+     * @param pixmap
+     * @return An opaque color or black if there are no visible pixels.
+     */
+    public static Color averageColor(Pixmap pixmap) {
+        var rgba = toRGBA8888(pixmap);
+        var pixels = ints(rgba);
+        var width = rgba.getWidth();
+        var height = rgba.getHeight();
+        
+        //each band sums red, green, blue, and count
+        var sums = new long[bandCount(height)][4];
+        var bands = IntStream.range(0, sums.length);
+        if (isParallel(rgba)) bands = bands.parallel();
+        bands.forEach(band -> {
+            var sum = sums[band];
+            var end = Math.min(height, (band + 1) * BAND_HEIGHT);
+            for (int i = band * BAND_HEIGHT * width, last = end * width; i < last; i++) {
+                var color = pixels.get(i);
+                if ((color & 0xff) != 0) {
+                    sum[0] += color >>> 24;
+                    sum[1] += color >>> 16 & 0xff;
+                    sum[2] += color >>> 8 & 0xff;
+                    sum[3]++;
+                }
+            }
+        });
+        if (rgba != pixmap) PixmapPool.free(rgba);
+        
+        return sumToColor(sums);
+    }
+    
+    /**
+     * The average color of the first visible pixel of every row and column, as seen from each of the four sides. Does
+     * not dispose pixmap.
+     * @param pixmap
+     * @param border The number of pixels to skip on each side, such as the guide pixels of a 9patch.
+     * @return An opaque color or black if there are no visible pixels.
+     */
+    public static Color averageEdgeColor(Pixmap pixmap, int border) {
+        var rgba = toRGBA8888(pixmap);
+        var pixels = ints(rgba);
+        var width = rgba.getWidth();
+        var height = rgba.getHeight();
+        
+        var sums = new long[4][4];
+        var sides = IntStream.range(0, 4);
+        if (isParallel(rgba)) sides = sides.parallel();
+        sides.forEach(side -> {
+            var sum = sums[side];
+            switch (side) {
+                //left edge
+                case 0:
+                    for (int y = border; y < height - border; y++) {
+                        for (int x = border; x < width - border; x++) {
+                            if (addVisible(pixels.get(y * width + x), sum)) break;
+                        }
+                    }
+                    break;
+                //right edge
+                case 1:
+                    for (int y = border; y < height - border; y++) {
+                        for (int x = width - 1 - border; x > border; x--) {
+                            if (addVisible(pixels.get(y * width + x), sum)) break;
+                        }
+                    }
+                    break;
+                //top edge
+                case 2:
+                    for (int x = border; x < width - border; x++) {
+                        for (int y = border; y < height - border; y++) {
+                            if (addVisible(pixels.get(y * width + x), sum)) break;
+                        }
+                    }
+                    break;
+                //bottom edge
+                default:
+                    for (int x = border; x < width - border; x++) {
+                        for (int y = height - 1 - border; y > border; y--) {
+                            if (addVisible(pixels.get(y * width + x), sum)) break;
+                        }
+                    }
+                    break;
+            }
+        });
+        if (rgba != pixmap) PixmapPool.free(rgba);
+        
+        return sumToColor(sums);
+    }
+    
+    private static boolean addVisible(int color, long[] sum) {
+        if ((color & 0xff) == 0) return false;
+        sum[0] += color >>> 24;
+        sum[1] += color >>> 16 & 0xff;
+        sum[2] += color >>> 8 & 0xff;
+        sum[3]++;
+        return true;
+    }
+    
+    private static Color sumToColor(long[][] sums) {
+        long r = 0, g = 0, b = 0, count = 0;
+        for (var sum : sums) {
+            r += sum[0];
+            g += sum[1];
+            b += sum[2];
+            count += sum[3];
+        }
+        if (count == 0) return new Color(Color.BLACK);
+        return new Color(r / 255f / count, g / 255f / count, b / 255f / count, 1.0f);
+    }
+    
+    /**
+     * Multiplies the red, green, and blue of every pixel by the color. Alpha is left unchanged.
+     * @param pixmap
+     * @param color
+     * @return The tinted pixmap. This is the same pixmap if it is RGBA8888, otherwise a new tinted RGBA8888 copy. The
+     * original is left untouched and still belongs to the caller. The copy is a plain pixmap, not one from
+     * {@link PixmapPool}, so the caller disposes it as well.
+     */
+    public static Pixmap tint(Pixmap pixmap, Color color) {
+        var rgba = pixmap;
+        if (pixmap.getFormat() != Pixmap.Format.RGBA8888) {
+            //the copy outlives this call, so it is not checked out of the pool
+            rgba = ResourceTracker.track(new Pixmap(pixmap.getWidth(), pixmap.getHeight(), Pixmap.Format.RGBA8888));
+            rgba.setBlending(Pixmap.Blending.None);
+            rgba.drawPixmap(pixmap, 0, 0);
+        }
+        var pixels = ints(rgba);
+        var width = rgba.getWidth();
+        var height = rgba.getHeight();
+        var r = (int) (color.r * 255);
+        var g = (int) (color.g * 255);
+        var b = (int) (color.b * 255);
+        
+        var bands = IntStream.range(0, bandCount(height));
+        if (isParallel(rgba)) bands = bands.parallel();
+        bands.forEach(band -> {
+            var end = Math.min(height, (band + 1) * BAND_HEIGHT);
+            for (int i = band * BAND_HEIGHT * width, last = end * width; i < last; i++) {
+                var pixel = pixels.get(i);
+                pixels.put(i, multiply(pixel >>> 24, r) << 24 | multiply(pixel >>> 16 & 0xff, g) << 16
+                        | multiply(pixel >>> 8 & 0xff, b) << 8 | pixel & 0xff);
+            }
+        });
+        return rgba;
+    }
+    
+    private static int multiply(int channel, int factor) {
+        return (channel * factor + 127) / 255;
+    }
+    
+    /**
+     * Copies a rectangle of a pixmap into a new RGBA8888 pixmap, one row at a time. The caller must dispose the result.
+     * @param pixmap
+     * @param x
+     * @param y
+     * @param width
+     * @param height
+     * @return
+     */
+    public static Pixmap copy(Pixmap pixmap, int x, int y, int width, int height) {
+        var result = ResourceTracker.track(new Pixmap(width, height, Pixmap.Format.RGBA8888));
+        if (x < 0 || y < 0 || x + width > pixmap.getWidth() || y + height > pixmap.getHeight()) {
+            //let the native blit clip rectangles that extend past the source
+            result.setBlending(Pixmap.Blending.None);
+            result.setColor(0);
+            result.fill();
+            result.drawPixmap(pixmap, 0, 0, x, y, width, height);
+            return result;
+        }
+        
+        var rgba = toRGBA8888(pixmap);
+        var source = ints(rgba);
+        var target = ints(result);
+        var row = new int[width];
+        for (int i = 0; i < height; i++) {
+            source.position((y + i) * rgba.getWidth() + x);
+            source.get(row);
+            target.position(i * width);
+            target.put(row);
+        }
+        if (rgba != pixmap) PixmapPool.free(rgba);
+        return result;
+    }
+}
@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+
+/**
+ * Reuses the native buffers of short-lived RGBA8888 pixmaps. Pixmaps are kept in buckets by their exact size, since a
+ * pixmap can't be resized, so batches of same sized images such as 9patches, atlas regions and image font glyphs only
+ * allocate once per size. A checked out pixmap must be returned with {@link #free(Pixmap)} instead of being disposed.
+ * <p>
+ * Pixmaps are only kept for reuse while a batch started with {@link #beginBatch()} is running, and the pool is cleared
+ * when the last batch ends, so sizes that never repeat don't stay allocated after the operation that used them. Outside
+ * of a batch, returned pixmaps are disposed. At most {@link #MAX_POOLED_BYTES} are kept for reuse; anything returned
+ * past that is disposed.
+ * <p>
+ * With leak detection enabled, every checkout remembers where it was made, and {@link #reportLeaks()} logs the pixmaps
+ * that were never returned.
+ */
+public class PixmapPool {
+    public static final long MAX_POOLED_BYTES = 64L * 1024L * 1024L;
+    private static final LongMap<Array<Pixmap>> buckets = new LongMap<>();
+    private static final ObjectSet<Pixmap> checkouts = new ObjectSet<>();
+    private static final ObjectMap<Pixmap, Throwable> checkoutTraces = new ObjectMap<>();
+    private static boolean leakDetection;
+    private static long pooledBytes;
+    private static long checkedOutBytes;
+    private static long peakBytes;
+    private static long peakBaselineBytes;
+    private static int batches;
+    
+    /**
+     * Checks out a transparent RGBA8888 pixmap with the default blending and filter, the same as a new pixmap.
+     * @param width
+     * @param height
+     * @return
+     */
+    public static Pixmap obtain(int width, int height) {
+        Pixmap pixmap = null;
+        synchronized (buckets) {
+            var bucket = buckets.get(key(width, height));
+            if (bucket != null && bucket.size > 0) {
+                pixmap = bucket.pop();
+                pooledBytes -= bytes(pixmap);
+            }
+        }
+        
+        if (pixmap == null) {
+            pixmap = ResourceTracker.track(new Pixmap(width, height, Pixmap.Format.RGBA8888));
+        } else {
+            pixmap.setBlending(Pixmap.Blending.None);
+            pixmap.setColor(0);
+            pixmap.fill();
+            pixmap.setBlending(Pixmap.Blending.SourceOver);
+            pixmap.setFilter(Pixmap.Filter.BiLinear);
+        }
+        
+        synchronized (buckets) {
+            checkouts.add(pixmap);
+            checkedOutBytes += bytes(pixmap);
+            peakBytes = Math.max(peakBytes, checkedOutBytes + Math.max(0, pooledBytes - peakBaselineBytes));
+            if (leakDetection) checkoutTraces.put(pixmap, new Throwable("Pixmap " + width + "x" + height + " checked out"));
+        }
+        return pixmap;
+    }
+    
+    /**
+     * Returns a checked out pixmap to the pool. Any other pixmap, such as a decoded image, is disposed instead, so
+     * code that mixes both can free every pixmap the same way.
+     * @param pixmap May be null.
+     */
+    public static void free(Pixmap pixmap) {
+        if (pixmap == null || pixmap.isDisposed()) return;
+        var bytes = bytes(pixmap);
+        synchronized (buckets) {
+            var checkedOut = checkouts.remove(pixmap);
+            checkoutTraces.remove(pixmap);
+            
+            if (checkedOut) {
+                checkedOutBytes -= bytes;
+                if (batches > 0 && pooledBytes + bytes <= MAX_POOLED_BYTES) {
+                    var key = key(pixmap.getWidth(), pixmap.getHeight());
+                    var bucket = buckets.get(key);
+                    if (bucket == null) {
+                        bucket = new Array<>(false, 4);
+                        buckets.put(key, bucket);
+                    }
+                    bucket.add(pixmap);
+                    pooledBytes += bytes;
+                    return;
+                }
+            }
+        }
+        pixmap.dispose();
+    }
+    
+    /**
+     * Starts keeping returned pixmaps for reuse until the matching {@link #endBatch()}. Batches can be nested and run on
+     * several threads at once.
+     */
+    public static void beginBatch() {
+        synchronized (buckets) {
+            batches++;
+        }
+    }
+    
+    /**
+     * Ends a batch started with {@link #beginBatch()}. The pool is cleared when no batch is running anymore.
+     */
+    public static void endBatch() {
+        synchronized (buckets) {
+            if (batches > 0) batches--;
+            if (batches == 0) clear();
+        }
+    }
+    
+    /**
+     * @return The native memory of the pixmaps kept for reuse.
+     */
+    public static long getPooledBytes() {
+        synchronized (buckets) {
+            return pooledBytes;
+        }
+    }
+    
+    /**
+     * Disposes every pixmap kept for reuse. Checked out pixmaps are not affected.
+     */
+    public static void clear() {
+        synchronized (buckets) {
+            for (var bucket : buckets.values()) {
+                for (var pixmap : bucket) {
+                    pixmap.dispose();
+                }
+            }
+            buckets.clear();
+            pooledBytes = 0;
+        }
+    }
+    
+    public static void setLeakDetection(boolean leakDetection) {
+        synchronized (buckets) {
+            PixmapPool.leakDetection = leakDetection;
+            if (!leakDetection) checkoutTraces.clear();
+        }
+    }
+    
+    public static boolean isLeakDetection() {
+        return leakDetection;
+    }
+    
+    /**
+     * Logs every pixmap that is still checked out along with where it was checked out. Only pixmaps checked out while
+     * leak detection is enabled are tracked.
+     * @return The number of tracked pixmaps still checked out.
+     */
+    public static int reportLeaks() {
+        synchronized (buckets) {
+            for (var entry : checkoutTraces) {
+                Gdx.app.error(PixmapPool.class.getName(), "Pixmap was never returned to the pool", entry.value);
+            }
+            return checkoutTraces.size;
+        }
+    }
+    
+    /**
+     * @return The most native memory held by the pool at once since the last call to {@link #resetPeakBytes()},
+     * counting checked out pixmaps and pixmaps pooled since then. Pixmaps that were already pooled are reported by
+     * {@link #getPooledBytes()} instead.
+     */
+    public static long getPeakBytes() {
+        synchronized (buckets) {
+            return peakBytes;
+        }
+    }
+    
+    public static void resetPeakBytes() {
+        synchronized (buckets) {
+            peakBytes = checkedOutBytes;
+            peakBaselineBytes = pooledBytes;
+        }
+    }
+    
+    private static long key(int width, int height) {
+        return (long) width << 32 | height & 0xffffffffL;
+    }
+    
+    private static long bytes(Pixmap pixmap) {
+        return (long) pixmap.getWidth() * pixmap.getHeight() * 4;
+    }
+}
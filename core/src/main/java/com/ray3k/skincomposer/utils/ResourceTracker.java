@@ -0,0 +1,415 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectSet;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * Debug instrumentation for the native resources Skin Composer creates: pixmaps, textures, fonts, FreeType generators,
+ * and texture atlases. Resources are registered with {@link #track(Object, Actor)} where they are created, which
+ * remembers the stack trace of the creation. Disposal is noticed by checking the resources periodically, except for
+ * FreeType generators, which report it with {@link #disposed(Object)}. Live counts and bytes per type are shown by the
+ * memory overlay and logged every {@link #LOG_INTERVAL} seconds.
+ * <p>
+ * A resource is reported when it is garbage collected without being disposed, since its native memory is lost, and
+ * when it outlives every actor that owns it, such as a preview font that is kept after its dialog is closed.
+ * Resources are only held weakly, so tracking never keeps one alive. Tracking does nothing unless it is enabled with
+ * the -debugmemory argument.
+ */
+public class ResourceTracker {
+    public static final float POLL_INTERVAL = .5f;
+    public static final float LOG_INTERVAL = 30f;
+    /**
+     * How long a resource may stay undisposed after its last owner left the stage. Dialogs often dispose their resources
+     * after their hide animation.
+     */
+    public static final float ORPHAN_DELAY = 5f;
+    //the tracked types don't override equals or hashCode, so the map compares them by identity
+    private static final WeakHashMap<Object, Record> records = new WeakHashMap<>();
+    private static final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+    private static final int[] counts = new int[Type.values().length];
+    private static final long[] bytes = new long[Type.values().length];
+    private static final long[] peakBytes = new long[Type.values().length];
+    private static int orphans;
+    private static boolean enabled;
+    private static float time;
+    private static float pollTime;
+    private static float logTime;
+    
+    public enum Type {
+        PIXMAP("Pixmap"), TEXTURE("Texture"), BITMAP_FONT("BitmapFont"),
+        FREE_TYPE_FONT_GENERATOR("FreeTypeFontGenerator"), TEXTURE_ATLAS("TextureAtlas");
+        
+        public final String name;
+        
+        Type(String name) {
+            this.name = name;
+        }
+    }
+    
+    private static class Record extends WeakReference<Object> {
+        final Type type;
+        final long bytes;
+        final Throwable trace;
+        final Array<Owner> owners = new Array<>(false, 2);
+        String lastOwner;
+        boolean owned;
+        float orphanTime = -1;
+        boolean reported;
+        boolean forgotten;
+        
+        Record(Object resource, Type type, long bytes) {
+            super(resource, collected);
+            this.type = type;
+            this.bytes = bytes;
+            trace = new Throwable(type.name + " created");
+        }
+        
+        /**
+         * Fonts that don't own their textures can be dropped without disposing anything, unless an actor owns the font
+         * and is expected to dispose it.
+         */
+        boolean isNative() {
+            return type == Type.FREE_TYPE_FONT_GENERATOR || bytes > 0 || type == Type.BITMAP_FONT && owned;
+        }
+    }
+    
+    private static class Owner {
+        final WeakReference<Actor> actor;
+        final String name;
+        boolean shown;
+        
+        Owner(Actor actor) {
+            this.actor = new WeakReference<>(actor);
+            var name = actor.getClass().getSimpleName();
+            this.name = name.isEmpty() ? actor.getClass().getName() : name;
+        }
+    }
+    
+    public static void setEnabled(boolean enabled) {
+        ResourceTracker.enabled = enabled;
+    }
+    
+    public static boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Registers a resource that isn't owned by any actor.
+     * @param resource A Pixmap, Texture, BitmapFont, FreeTypeFontGenerator, or TextureAtlas. May be null.
+     * @return The resource.
+     */
+    public static <T> T track(T resource) {
+        return track(resource, null, -1);
+    }
+    
+    /**
+     * Registers a resource owned by an actor, typically the dialog that creates it. The resource is reported if it is
+     * not disposed after the owner has been shown and removed from the stage. Tracking a resource again adds the owner,
+     * so shared resources are only reported once every owner is gone.
+     * @param resource A Pixmap, Texture, BitmapFont, FreeTypeFontGenerator, or TextureAtlas. May be null.
+     * @param owner May be null.
+     * @return The resource.
+     */
+    public static <T> T track(T resource, Actor owner) {
+        return track(resource, owner, -1);
+    }
+    
+    /**
+     * @param resource
+     * @param owner May be null.
+     * @param bytes The native memory held by the resource, or -1 to measure it.
+     * @return The resource.
+     */
+    public static <T> T track(T resource, Actor owner, long bytes) {
+        if (!enabled || resource == null) return resource;
+        var type = typeOf(resource);
+        if (type == null) return resource;
+        
+        synchronized (records) {
+            var record = records.get(resource);
+            if (record == null) {
+                record = new Record(resource, type, bytes == -1 ? measure(type, resource) : bytes);
+                records.put(resource, record);
+                counts[type.ordinal()]++;
+                ResourceTracker.bytes[type.ordinal()] += record.bytes;
+                peakBytes[type.ordinal()] = Math.max(peakBytes[type.ordinal()], ResourceTracker.bytes[type.ordinal()]);
+            }
+            
+            if (owner != null) {
+                for (var existing : record.owners) {
+                    if (existing.actor.get() == owner) return resource;
+                }
+                record.owners.add(new Owner(owner));
+                record.owned = true;
+                record.orphanTime = -1;
+                if (record.reported) {
+                    record.reported = false;
+                    orphans--;
+                }
+            }
+        }
+        return resource;
+    }
+    
+    /**
+     * Reports that a resource was disposed. Only needed for resources whose disposal can't be checked, which are
+     * FreeType generators and owned fonts that don't own their textures.
+     * @param resource
+     */
+    public static void disposed(Object resource) {
+        if (!enabled || resource == null) return;
+        synchronized (records) {
+            var record = records.remove(resource);
+            if (record != null) forget(record);
+        }
+    }
+    
+    /**
+     * Checks the tracked resources and writes the periodic log. Must be called on the render thread.
+     * @param delta
+     */
+    public static void update(float delta) {
+        if (!enabled) return;
+        time += delta;
+        if (time - pollTime >= POLL_INTERVAL) {
+            pollTime = time;
+            poll();
+        }
+        
+        if (time - logTime >= LOG_INTERVAL) {
+            logTime = time;
+            Gdx.app.log(ResourceTracker.class.getName(), "Live native resources: " + getSummary(", "));
+        }
+    }
+    
+    /**
+     * Logs every resource that is still alive along with where it was created. Call when the app closes, after
+     * everything that should be disposed has been.
+     * @return The number of resources still alive.
+     */
+    public static int reportLeaks() {
+        if (!enabled) return 0;
+        poll();
+        var leaks = 0;
+        synchronized (records) {
+            for (var record : records.values()) {
+                if (!record.isNative()) continue;
+                Gdx.app.error(ResourceTracker.class.getName(), record.type.name + " was not disposed before exit", record.trace);
+                leaks++;
+            }
+        }
+        return leaks;
+    }
+    
+    public static int getCount(Type type) {
+        synchronized (records) {
+            return counts[type.ordinal()];
+        }
+    }
+    
+    public static long getBytes(Type type) {
+        synchronized (records) {
+            return bytes[type.ordinal()];
+        }
+    }
+    
+    public static long getPeakBytes(Type type) {
+        synchronized (records) {
+            return peakBytes[type.ordinal()];
+        }
+    }
+    
+    /**
+     * @return The number of live resources that have outlived their owners.
+     */
+    public static int getOrphanCount() {
+        synchronized (records) {
+            return orphans;
+        }
+    }
+    
+    /**
+     * Describes the live count and bytes of each type, as of the last check.
+     * @param separator The text between the types.
+     * @return
+     */
+    public static String getSummary(String separator) {
+        var builder = new StringBuilder();
+        synchronized (records) {
+            for (var type : Type.values()) {
+                builder.append(type.name).append(": ").append(counts[type.ordinal()]);
+                if (bytes[type.ordinal()] > 0) builder.append(" (").append(bytes[type.ordinal()] / 1024).append(" KB)");
+                builder.append(separator);
+            }
+            builder.append("Outlived owners: ").append(orphans);
+        }
+        return builder.toString();
+    }
+    
+    private static void poll() {
+        synchronized (records) {
+            for (var iter = records.entrySet().iterator(); iter.hasNext(); ) {
+                var entry = iter.next();
+                var record = entry.getValue();
+                if (isDisposed(record.type, entry.getKey())) {
+                    iter.remove();
+                    forget(record);
+                } else {
+                    checkOwners(record);
+                }
+            }
+            
+            //the resource was collected while it still held native memory
+            Object reference;
+            while ((reference = collected.poll()) != null) {
+                var record = (Record) reference;
+                if (record.forgotten) continue;
+                forget(record);
+                if (record.isNative()) {
+                    Gdx.app.error(ResourceTracker.class.getName(), record.type.name
+                            + " was garbage collected without being disposed", record.trace);
+                }
+            }
+        }
+    }
+    
+    private static void checkOwners(Record record) {
+        if (record.reported || !record.isNative() || record.lastOwner == null && record.owners.size == 0) return;
+        
+        for (int i = record.owners.size - 1; i >= 0; i--) {
+            var owner = record.owners.get(i);
+            var actor = owner.actor.get();
+            if (actor != null && actor.getStage() != null) {
+                owner.shown = true;
+            } else if (actor == null || owner.shown) {
+                record.lastOwner = owner.name;
+                record.owners.removeIndex(i);
+            }
+        }
+        
+        if (record.owners.size > 0 || record.lastOwner == null) {
+            record.orphanTime = -1;
+        } else if (record.orphanTime < 0) {
+            record.orphanTime = time;
+        } else if (time - record.orphanTime >= ORPHAN_DELAY) {
+            record.reported = true;
+            orphans++;
+            Gdx.app.error(ResourceTracker.class.getName(), record.type.name + " outlived the " + record.lastOwner
+                    + " that owns it", record.trace);
+        }
+    }
+    
+    private static void forget(Record record) {
+        record.forgotten = true;
+        record.clear();
+        counts[record.type.ordinal()]--;
+        bytes[record.type.ordinal()] -= record.bytes;
+        if (record.reported) orphans--;
+    }
+    
+    private static Type typeOf(Object resource) {
+        if (resource instanceof Pixmap) return Type.PIXMAP;
+        if (resource instanceof Texture) return Type.TEXTURE;
+        if (resource instanceof BitmapFont) return Type.BITMAP_FONT;
+        if (resource instanceof FreeTypeFontGenerator) return Type.FREE_TYPE_FONT_GENERATOR;
+        if (resource instanceof TextureAtlas) return Type.TEXTURE_ATLAS;
+        return null;
+    }
+    
+    private static long measure(Type type, Object resource) {
+        switch (type) {
+            case PIXMAP:
+                return ((Pixmap) resource).getPixels().capacity();
+            case TEXTURE:
+                return measure((Texture) resource);
+            case BITMAP_FONT:
+                var font = (BitmapFont) resource;
+                return font.ownsTexture() ? measure(textures(font.getRegions())) : 0;
+            case TEXTURE_ATLAS:
+                return measure(((TextureAtlas) resource).getTextures());
+            default:
+                return 0;
+        }
+    }
+    
+    private static long measure(Texture texture) {
+        return (long) texture.getWidth() * texture.getHeight() * 4;
+    }
+    
+    private static long measure(ObjectSet<Texture> textures) {
+        long total = 0;
+        for (var texture : textures) {
+            total += measure(texture);
+        }
+        return total;
+    }
+    
+    private static ObjectSet<Texture> textures(Array<TextureRegion> regions) {
+        var textures = new ObjectSet<Texture>();
+        for (var region : regions) {
+            if (region != null && region.getTexture() != null) textures.add(region.getTexture());
+        }
+        return textures;
+    }
+    
+    private static boolean isDisposed(Type type, Object resource) {
+        switch (type) {
+            case PIXMAP:
+                return ((Pixmap) resource).isDisposed();
+            case TEXTURE:
+                return ((Texture) resource).getTextureObjectHandle() == 0;
+            case BITMAP_FONT:
+                return isDisposed(textures(((BitmapFont) resource).getRegions()));
+            case TEXTURE_ATLAS:
+                return isDisposed(((TextureAtlas) resource).getTextures());
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * Fonts and atlases don't keep a disposed flag, but disposing them deletes their textures.
+     */
+    private static boolean isDisposed(ObjectSet<Texture> textures) {
+        if (textures.size == 0) return false;
+        for (var texture : textures) {
+            if (texture.getTextureObjectHandle() != 0) return false;
+        }
+        return true;
+    }
+}
@@ -42,6 +42,7 @@ import com.badlogic.gdx.scenes.scene2d.InputListener;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.OrderedMap;
 import com.ray3k.skincomposer.ResizeFourArrowListener;
 import com.ray3k.stripe.ResizeWidget;
 import regexodus.Pattern;
@@ -55,6 +56,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Locale;
@@ -64,8 +67,15 @@ import java.util.zip.ZipInputStream;
 
 public class Utils {
     public static String os;
+    /**
+     * The maximum number of file hashes and edge colors that are remembered. The least recently used ones are dropped.
+     */
+    public static final int MAX_CACHED_FILES = 1024;
+    //most recently used entries are last
+    private static final OrderedMap<String, FileHash> fileHashes = new OrderedMap<>();
+    private static final OrderedMap<String, Color> edgeColors = new OrderedMap<>();
     public static Color averageColor(FileHandle file) {
-        Pixmap pixmap = new Pixmap(file);
+        Pixmap pixmap = ResourceTracker.track(new Pixmap(file));
         Color returnValue = averageColor(pixmap);
         pixmap.dispose();
         return returnValue;
@@ -77,48 +87,134 @@ public class Utils {
      * @return 
      */
     public static Color averageColor(Pixmap pixmap) {
-        Color temp = new Color();
-        float sumR = 0.0f;
-        float sumG = 0.0f;
-        float sumB = 0.0f;
-        int count = 0;
-        for (int y = 0; y < pixmap.getHeight(); y++) {
-            for (int x = 0; x < pixmap.getWidth(); x++) {
-                temp.set(pixmap.getPixel(x, y));
-                if (temp.a > 0) {
-                    sumR += temp.r;
-                    sumG += temp.g;
-                    sumB += temp.b;
-                    count++;
-                }
-            }
-        }
-        
-        if (count == 0) {
-            return new Color(Color.BLACK);
-        } else {
-            return new Color(sumR / count, sumG / count, sumB / count, 1.0f);
-        }
+        return PixelOps.averageColor(pixmap);
     }
     
+    /**
+     * Averages the edge color of the image. The result is cached by the content hash of the file, so the image is only
+     * decoded again if it changes.
+     * @param file
+     * @return
+     */
     public static Color averageEdgeColor(FileHandle file) {
-        Pixmap pixmap = new Pixmap(file);
-        Color returnValue = averageEdgeColor(pixmap, file.name().matches("(?i).*\\.9\\.png$"));
+        var ninePatch = file.name().matches("(?i).*\\.9\\.png$");
+        var key = hashFile(file) + (ninePatch ? ":9" : "");
+        synchronized (edgeColors) {
+            var color = edgeColors.remove(key);
+            if (color != null) {
+                putRecent(edgeColors, key, color);
+                return new Color(color);
+            }
+        }
+        
+        Pixmap pixmap = ResourceTracker.track(new Pixmap(file));
+        Color returnValue = averageEdgeColor(pixmap, ninePatch);
         pixmap.dispose();
+        
+        synchronized (edgeColors) {
+            putRecent(edgeColors, key, new Color(returnValue));
+        }
         return returnValue;
     }
     
+    /**
+     * Averages the edge color of the image as if it was tinted. Tinting multiplies every channel of every pixel and
+     * leaves the alpha unchanged, so the same edge pixels are averaged and the result is the untinted average
+     * multiplied by the tint.
+     * @param file
+     * @param color
+     * @return
+     * @see #averageEdgeColor(FileHandle)
+     */
     public static Color averageEdgeColor(FileHandle file, Color color) {
-        Pixmap pixmap = new Pixmap(file);
-        pixmap = tintPixmap(pixmap, color);
-        Color returnValue = averageEdgeColor(pixmap, file.name().matches("(?i).*\\.9\\.png$"));
-        pixmap.dispose();
+        Color returnValue = averageEdgeColor(file);
+        returnValue.r *= color.r;
+        returnValue.g *= color.g;
+        returnValue.b *= color.b;
         return returnValue;
     }
     
+    /**
+     * Hashes the contents of a file. The hash is remembered until the file is modified, and only the latest hash of
+     * each path is kept.
+     * @param file
+     * @return
+     */
+    private static String hashFile(FileHandle file) {
+        var path = file.path();
+        var length = file.length();
+        var lastModified = file.lastModified();
+        synchronized (fileHashes) {
+            var fileHash = fileHashes.remove(path);
+            if (fileHash == null || fileHash.length != length || fileHash.lastModified != lastModified) {
+                String hash;
+                try {
+                    var digest = MessageDigest.getInstance("SHA-1").digest(file.readBytes());
+                    var builder = new StringBuilder(digest.length * 2);
+                    for (byte b : digest) {
+                        builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+                    }
+                    hash = builder.toString();
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException(e);
+                }
+                fileHash = new FileHash(length, lastModified, hash);
+            }
+            putRecent(fileHashes, path, fileHash);
+            return fileHash.hash;
+        }
+    }
+    
+    /**
+     * Adds the entry as the most recently used one and drops the least recently used entries over
+     * {@link #MAX_CACHED_FILES}. Entries that are read are removed and put again to mark them as used.
+     */
+    static <T> void putRecent(OrderedMap<String, T> map, String key, T value) {
+        map.put(key, value);
+        while (map.size > MAX_CACHED_FILES) {
+            map.remove(map.orderedKeys().first());
+        }
+    }
+    
+    static int getCachedHashCount() {
+        synchronized (fileHashes) {
+            return fileHashes.size;
+        }
+    }
+    
+    static int getCachedEdgeColorCount() {
+        synchronized (edgeColors) {
+            return edgeColors.size;
+        }
+    }
+    
+    /**
+     * Forgets every file hash and edge color.
+     */
+    static void clearCaches() {
+        synchronized (fileHashes) {
+            fileHashes.clear();
+        }
+        synchronized (edgeColors) {
+            edgeColors.clear();
+        }
+    }
+    
+    private static class FileHash {
+        final long length;
+        final long lastModified;
+        final String hash;
+        
+        FileHash(long length, long lastModified, String hash) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+    
     public static Vector2 imageDimensions(FileHandle file) {
         Vector2 vector = new Vector2();
-        Pixmap pixmap = new Pixmap(file);
+        Pixmap pixmap = ResourceTracker.track(new Pixmap(file));
         vector.x = pixmap.getWidth();
         vector.y = pixmap.getHeight();
         if (file.name().matches("(?i).*\\.9\\.png$")) {
@@ -129,27 +225,6 @@ public class Utils {
         return vector;
     }
     
-    /**
-     * Does not dispose pixmap
-     * @param pixmap
-     * @return 
-     */
-    public static Pixmap tintPixmap(Pixmap pixmap, Color color) {
-        Color tempColor = new Color();
-        for (int y = 0; y < pixmap.getHeight(); y++) {
-            for (int x = 0; x < pixmap.getWidth(); x++) {
-                tempColor.set(pixmap.getPixel(x, y));
-                float a = tempColor.a;
-                tempColor.mul(color);
-                tempColor.a = a;
-                pixmap.setColor(tempColor);
-                pixmap.drawPixel(x, y);
-                tempColor.set(pixmap.getPixel(x, y));
-            }
-        }
-        return pixmap;
-    }
-    
     /**
      * Does not dispose pixmap.
      * @param pixmap
@@ -157,78 +232,7 @@ public class Utils {
      * @return 
      */
     public static Color averageEdgeColor(Pixmap pixmap, boolean ninePatch) {
-        int border = 0;
-        if (ninePatch) {
-            border = 1;
-        }
-        
-        Color temp = new Color();
-        float sumR = 0.0f;
-        float sumG = 0.0f;
-        float sumB = 0.0f;
-        int count = 0;
-
-        //left edge
-        for (int y = border; y < pixmap.getHeight() - border; y++) {
-            for (int x = border; x < pixmap.getWidth() - border; x++) {
-                temp.set(pixmap.getPixel(x, y));
-                if (temp.a > 0) {
-                    sumR += temp.r;
-                    sumG += temp.g;
-                    sumB += temp.b;
-                    count++;
-                    break;
-                }
-            }
-        }
-        
-        //right edge
-        for (int y = border; y < pixmap.getHeight() - border; y++) {
-            for (int x = pixmap.getWidth() - 1 - border; x > border; x--) {
-                temp.set(pixmap.getPixel(x, y));
-                if (temp.a > 0) {
-                    sumR += temp.r;
-                    sumG += temp.g;
-                    sumB += temp.b;
-                    count++;
-                    break;
-                }
-            }
-        }
-        
-        //top edge
-        for (int x = border; x < pixmap.getWidth() - border; x++) {
-            for (int y = border; y < pixmap.getHeight() - border; y++) {
-                temp.set(pixmap.getPixel(x, y));
-                if (temp.a > 0) {
-                    sumR += temp.r;
-                    sumG += temp.g;
-                    sumB += temp.b;
-                    count++;
-                    break;
-                }
-            }
-        }
-        
-        //bottom edge
-        for (int x = border; x < pixmap.getWidth() - border; x++) {
-            for (int y = pixmap.getHeight() - 1 - border; y > border; y--) {
-                temp.set(pixmap.getPixel(x, y));
-                if (temp.a > 0) {
-                    sumR += temp.r;
-                    sumG += temp.g;
-                    sumB += temp.b;
-                    count++;
-                    break;
-                }
-            }
-        }
-        
-        if (count == 0) {
-            return new Color(Color.BLACK);
-        } else {
-            return new Color(sumR / count, sumG / count, sumB / count, 1.0f);
-        }
+        return PixelOps.averageEdgeColor(pixmap, ninePatch ? 1 : 0);
     }
     
     public static Color inverseColor(Color color) {
@@ -370,16 +374,7 @@ public class Utils {
         }
         
         var pixmap = texture.getTextureData().consumePixmap();
-        var returnValue = new Pixmap(textureRegion.getRegionWidth(), textureRegion.getRegionHeight(), Pixmap.Format.RGBA8888);
-        returnValue.setBlending(Pixmap.Blending.None);
-        
-        for (int x = 0; x < textureRegion.getRegionWidth(); x++) {
-            for (int y = 0; y < textureRegion.getRegionHeight(); y++) {
-                int colorInt = pixmap.getPixel(textureRegion.getRegionX() + x, textureRegion.getRegionY() + y);
-                returnValue.drawPixel(x, y, colorInt);
-            }
-        }
-        
+        var returnValue = PixelOps.copy(pixmap, textureRegion.getRegionX(), textureRegion.getRegionY(), textureRegion.getRegionWidth(), textureRegion.getRegionHeight());
         pixmap.dispose();
         
         return returnValue;
@@ -476,82 +471,14 @@ public class Utils {
         public int bottom;
     }
     
+    /**
+     * Finds the 9patch splits that stretch the longest run of identical columns and rows. Does not dispose pixmap.
+     * @param pixmap
+     * @return
+     * @see PatchDetector
+     */
     public static PatchDefinition calculatePatches(Pixmap pixmap) {
-        var patchDefinition = new PatchDefinition();
-    
-        var startX = pixmap.getWidth() / 2;
-        var color = new Color();
-        var colorPrevious = new Color();
-        var foundBreak = false;
-    
-        for (var x = startX - 1; x >= 0 && !foundBreak; x--) {
-            for (var y = 0; y < pixmap.getHeight(); y++) {
-                color.set(pixmap.getPixel(x, y));
-                colorPrevious.set(pixmap.getPixel(x + 1, y));
-            
-                if (!color.equals(colorPrevious)) {
-                    patchDefinition.left = x + 1;
-                    foundBreak = true;
-                    break;
-                }
-            }
-        }
-        if (!foundBreak) {
-            patchDefinition.left = 0;
-        }
-        
-        foundBreak = false;
-        for (var x = startX + 1; x < pixmap.getWidth() && !foundBreak; x++) {
-            for (var y = 0; y < pixmap.getHeight(); y++) {
-                color.set(pixmap.getPixel(x, y));
-                colorPrevious.set(pixmap.getPixel(x - 1, y));
-            
-                if (!color.equals(colorPrevious)) {
-                    patchDefinition.right = pixmap.getWidth() - x;
-                    foundBreak = true;
-                    break;
-                }
-            }
-        }
-        if (!foundBreak) {
-            patchDefinition.right = 0;
-        }
-    
-        var startY = pixmap.getHeight() / 2;
-        foundBreak = false;
-        for (var y = startY - 1; y >= 0 && !foundBreak; y--) {
-            for (var x = 0; x < pixmap.getWidth(); x++) {
-                color.set(pixmap.getPixel(x, y));
-                colorPrevious.set(pixmap.getPixel(x, y + 1));
-            
-                if (!color.equals(colorPrevious)) {
-                    patchDefinition.top = y + 1;
-                    foundBreak = true;
-                    break;
-                }
-            }
-        }
-        if (!foundBreak) {
-            patchDefinition.top = 0;
-        }
-    
-        foundBreak = false;
-        for (var y = startY + 1; y < pixmap.getHeight() && !foundBreak; y++) {
-            for (var x = 0; x < pixmap.getWidth(); x++) {
-                color.set(pixmap.getPixel(x, y));
-                colorPrevious.set(pixmap.getPixel(x, y - 1));
-            
-                if (!color.equals(colorPrevious)) {
-                    patchDefinition.bottom = pixmap.getHeight() - y;
-                    foundBreak = true;
-                    break;
-                }
-            }
-        }
-        if (!foundBreak) {
-            patchDefinition.bottom = 0;
-        }
-        return patchDefinition;
+        return new PatchDetector(pixmap, 0).getPatches();
     }
     
     public static boolean fontHasAllChars(BitmapFontData data, String text) {
@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.ray3k.skincomposer.runtime.SkinPushClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pushes files from a {@link SkinPushServer} to a {@link SkinPushClient} over the loopback address.
+ */
+public class SkinPushServerTest {
+    private static final long TIMEOUT_MILLIS = 10000;
+    //generous on purpose, loopback pushes normally arrive within a few milliseconds
+    private static final long MAX_LATENCY_MILLIS = 2000;
+    private SkinPushServer server;
+    private SkinPushClient client;
+    private final LinkedBlockingQueue<ObjectMap<String, byte[]>> receivedFiles = new LinkedBlockingQueue<>();
+    private final LinkedBlockingQueue<Long> receivedLatencies = new LinkedBlockingQueue<>();
+    private final List<String> logMessages = new CopyOnWriteArrayList<>();
+    private final List<String> errorMessages = new CopyOnWriteArrayList<>();
+    @TempDir
+    File folder;
+    
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        Gdx.app = createApplication();
+        
+        server = new SkinPushServer();
+        server.start(0);
+        assertTrue(server.isRunning());
+        
+        client = new SkinPushClient("127.0.0.1", server.getPort(), (files, latencyMillis) -> {
+            receivedFiles.add(files);
+            receivedLatencies.add(latencyMillis);
+        });
+        client.start();
+        
+        long start = System.currentTimeMillis();
+        while (server.getClientCount() == 0) {
+            assertTrue(System.currentTimeMillis() - start < TIMEOUT_MILLIS, "The client did not connect");
+            Thread.sleep(10);
+        }
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        client.stop();
+        server.stop();
+    }
+    
+    @Test
+    public void pushedFilesArriveIntact() throws InterruptedException {
+        var random = new Random(1);
+        var files = new Array<FileHandle>();
+        files.add(writeFile("skin.png", random, 256 * 1024));
+        files.add(writeFile("skin2.png", random, 64 * 1024));
+        files.add(writeFile("skin.atlas", random, 2048));
+        files.add(writeFile("skin.json", random, 16 * 1024));
+        files.add(writeFile("empty.fnt", random, 0));
+        
+        long editTime = System.currentTimeMillis();
+        server.push(files, editTime);
+        
+        var received = receivedFiles.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        assertNotNull(received, "The export was not received");
+        assertEquals(files.size, received.size);
+        for (var file : files) {
+            var bytes = received.get(file.name());
+            assertNotNull(bytes, file.name() + " was not received");
+            assertArrayEquals(file.readBytes(), bytes, file.name());
+            assertEquals(crc(file.readBytes()), crc(bytes), file.name());
+        }
+        
+        long latency = receivedLatencies.take();
+        assertTrue(latency >= 0 && latency < MAX_LATENCY_MILLIS, "Edit to client receipt took " + latency + " ms");
+        
+        //the client acknowledges the export so the server can record the latency
+        long start = System.currentTimeMillis();
+        while (server.getLastLatencyMillis() == -1) {
+            assertTrue(System.currentTimeMillis() - start < TIMEOUT_MILLIS, "The receipt was not acknowledged");
+            Thread.sleep(10);
+        }
+        assertTrue(server.getLastLatencyMillis() >= latency);
+        assertTrue(server.getLastLatencyMillis() < MAX_LATENCY_MILLIS,
+                "Edit to acknowledged receipt took " + server.getLastLatencyMillis() + " ms");
+        assertTrue(logMessages.stream().anyMatch(message -> message.contains("Export received by a game")));
+        assertTrue(errorMessages.isEmpty(), errorMessages.toString());
+    }
+    
+    @Test
+    public void consecutiveExportsArriveSeparately() throws InterruptedException {
+        var random = new Random(2);
+        for (int i = 0; i < 3; i++) {
+            var files = new Array<FileHandle>();
+            files.add(writeFile("skin" + i + ".json", random, 1024 * (i + 1)));
+            server.push(files, System.currentTimeMillis());
+            
+            var received = receivedFiles.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            assertNotNull(received, "Export " + i + " was not received");
+            assertEquals(1, received.size);
+            assertArrayEquals(files.first().readBytes(), received.get(files.first().name()));
+        }
+    }
+    
+    @Test
+    public void unsafeNamesAreNotWritten() {
+        var files = new ObjectMap<String, byte[]>();
+        files.put("../escaped.json", new byte[] {1});
+        files.put("nested/escaped.json", new byte[] {1});
+        files.put("C:escaped.json", new byte[] {1});
+        files.put("skin.json", new byte[] {1});
+        
+        var target = new FileHandle(folder).child("target");
+        SkinPushClient.writeFiles(files, target);
+        
+        assertTrue(target.child("skin.json").exists());
+        assertFalse(new FileHandle(folder).child("escaped.json").exists());
+        assertEquals(1, target.list().length);
+        assertEquals(3, errorMessages.size());
+        assertTrue(errorMessages.stream().allMatch(message -> message.contains("unsafe name")));
+    }
+    
+    private FileHandle writeFile(String name, Random random, int length) {
+        var bytes = new byte[length];
+        random.nextBytes(bytes);
+        var file = new FileHandle(folder).child(name);
+        file.writeBytes(bytes, false);
+        return file;
+    }
+    
+    private static long crc(byte[] bytes) {
+        var crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return crc.getValue();
+    }
+    
+    /**
+     * Runs posted runnables immediately and records the log, which is all the push classes need from the application.
+     */
+    private Application createApplication() {
+        return (Application) Proxy.newProxyInstance(Application.class.getClassLoader(), new Class[] {Application.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "postRunnable":
+                    ((Runnable) args[0]).run();
+                    return null;
+                case "log":
+                case "debug":
+                    logMessages.add(args[0] + ": " + args[1]);
+                    return null;
+                case "error":
+                    errorMessages.add(args[0] + ": " + args[1] + (args.length > 2 ? " (" + args[2] + ")" : ""));
+                    return null;
+                default:
+                    var type = method.getReturnType();
+                    if (type == boolean.class) return false;
+                    if (type == int.class) return 0;
+                    if (type == long.class) return 0L;
+                    return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.dialog.textratypist;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmojiCatalogueTest {
+    private static final String[] NAMES = {
+            "grinning face",
+            "grinning face with big eyes",
+            "face with tears of joy",
+            "waving hand",
+            "dog face",
+            "missing from font",
+            "grinning face",
+            "flag: United States",
+            "woman\u2019s hat"
+    };
+    private static final byte[] GROUPS = {0, 0, 0, 1, 3, 3, 0, 9, -1};
+    private EmojiCatalogue catalogue;
+    private final IntArray out = new IntArray();
+    
+    @BeforeEach
+    public void setUp() {
+        var regions = new ObjectIntMap<String>();
+        for (int i = 0; i < NAMES.length; i++) {
+            if (!NAMES[i].equals("missing from font")) regions.put(NAMES[i], 100 + i);
+        }
+        catalogue = new EmojiCatalogue(null, NAMES, GROUPS, name -> regions.get(name, -1));
+    }
+    
+    @Test
+    public void missingAndRepeatedEmojiAreSkipped() {
+        assertEquals(7, catalogue.size());
+        assertEquals("grinning face", catalogue.getName(0));
+        assertEquals("dog face", catalogue.getName(4));
+        assertEquals("flag: United States", catalogue.getName(5));
+    }
+    
+    @Test
+    public void groupsListEmojiInCatalogueOrder() {
+        catalogue.listGroup(0, out);
+        assertEquals(IntArray.with(0, 1, 2), out);
+        
+        catalogue.listGroup(3, out);
+        assertEquals(IntArray.with(4), out);
+        
+        catalogue.listGroup(2, out);
+        assertEquals(0, out.size);
+        
+        catalogue.listGroup(-1, out);
+        assertEquals(IntArray.with(0, 1, 2, 3, 4, 5, 6), out);
+    }
+    
+    @Test
+    public void searchMatchesTheStartOfWords() {
+        catalogue.search("face", out);
+        assertEquals(IntArray.with(0, 1, 2, 4), out);
+        
+        catalogue.search("gri", out);
+        assertEquals(IntArray.with(0, 1), out);
+        
+        //words in the middle of a name do not match
+        catalogue.search("ace", out);
+        assertEquals(0, out.size);
+        
+        catalogue.search("zebra", out);
+        assertEquals(0, out.size);
+    }
+    
+    @Test
+    public void searchRequiresEveryWordInAnyOrder() {
+        catalogue.search("eyes grin", out);
+        assertEquals(IntArray.with(1), out);
+        
+        catalogue.search("face dog", out);
+        assertEquals(IntArray.with(4), out);
+        
+        catalogue.search("face hand", out);
+        assertEquals(0, out.size);
+    }
+    
+    @Test
+    public void searchIgnoresCaseAndSeparators() {
+        catalogue.search("  FLAG:  united ", out);
+        assertEquals(IntArray.with(5), out);
+        
+        catalogue.search("Woman\u2019s", out);
+        assertEquals(IntArray.with(6), out);
+    }
+    
+    @Test
+    public void emptySearchListsEveryEmoji() {
+        catalogue.search("", out);
+        assertEquals(catalogue.size(), out.size);
+        
+        catalogue.search(" : ", out);
+        assertEquals(catalogue.size(), out.size);
+    }
+}
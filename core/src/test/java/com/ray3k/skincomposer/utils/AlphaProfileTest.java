@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares {@link AlphaProfile} with the per-pixel scans that image fonts were segmented with before.
+ */
+public class AlphaProfileTest {
+    @BeforeAll
+    public static void loadNatives() {
+        GdxNativesLoader.load();
+    }
+    
+    @Test
+    public void glyphBoxesMatchThePixelScan() {
+        var pixmap = drawFont(false);
+        var profile = new AlphaProfile(pixmap);
+        
+        var breaks = new IntArray();
+        profile.findRowBreaks(breaks);
+        assertEquals(scanRowBreaks(pixmap), breaks);
+        assertEquals(6, breaks.size);
+        
+        var boxes = scanBoxes(pixmap, breaks);
+        assertEquals(boxes(profile, breaks), boxes);
+        assertEquals(9, boxes.size);
+        pixmap.dispose();
+    }
+    
+    @Test
+    public void glyphsTouchingTheBottomEdgeAreClosed() {
+        var pixmap = drawFont(true);
+        var profile = new AlphaProfile(pixmap);
+        
+        //the pixel scan left the last row open, which made the row loop read past the end of the breaks
+        var scanned = scanRowBreaks(pixmap);
+        assertEquals(5, scanned.size);
+        
+        var breaks = new IntArray();
+        profile.findRowBreaks(breaks);
+        scanned.add(pixmap.getHeight());
+        assertEquals(scanned, breaks);
+        
+        var boxes = scanBoxes(pixmap, breaks);
+        assertEquals(boxes(profile, breaks), boxes);
+        assertEquals(9, boxes.size);
+        pixmap.dispose();
+    }
+    
+    @Test
+    public void searchesMatchThePixelScan() {
+        var random = new Random(1);
+        var pixmap = new Pixmap(37, 23, Pixmap.Format.RGBA8888);
+        pixmap.setColor(1, 1, 1, 1);
+        for (int i = 0; i < 40; i++) {
+            pixmap.drawPixel(random.nextInt(37), random.nextInt(23));
+        }
+        var profile = new AlphaProfile(pixmap);
+        
+        for (int i = 0; i < 2000; i++) {
+            int x = random.nextInt(45) - 4, y = random.nextInt(31) - 4;
+            int width = random.nextInt(12) + 1, height = random.nextInt(12) + 1;
+            var rows = new IntArray();
+            var columns = new IntArray();
+            for (int j = y; j < y + height; j++) {
+                for (int k = x; k < x + width; k++) {
+                    if ((pixmap.getPixel(k, j) & 0xff) != 0) {
+                        rows.add(j);
+                        columns.add(k);
+                    }
+                }
+            }
+            columns.sort();
+            var message = x + ", " + y + ", " + width + ", " + height;
+            assertEquals(rows.size, profile.count(x, y, width, height), message);
+            assertEquals(rows.size == 0 ? -1 : rows.first(), profile.findFirstRow(x, y, width, height), message);
+            assertEquals(rows.size == 0 ? -1 : rows.peek(), profile.findLastRow(x, y, width, height), message);
+            assertEquals(columns.size == 0 ? -1 : columns.first(), profile.findFirstColumn(x, y, width, height), message);
+            assertEquals(columns.size == 0 ? -1 : columns.peek(), profile.findLastColumn(x, y, width, height), message);
+        }
+        pixmap.dispose();
+    }
+    
+    /**
+     * Draws three rows of three glyphs with varying heights. The last glyph can be drawn down to the bottom edge.
+     */
+    private static Pixmap drawFont(boolean touchBottom) {
+        var pixmap = new Pixmap(40, 36, Pixmap.Format.RGBA8888);
+        pixmap.setColor(1, 1, 1, 1);
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                var top = row * 12 + 2 + column;
+                var height = 6 - column;
+                if (touchBottom && row == 2 && column == 2) height = pixmap.getHeight() - top;
+                pixmap.fillRectangle(column * 12 + 2, top, 5 + column, height);
+            }
+        }
+        pixmap.setColor(1, 1, 1, 0.5f);
+        pixmap.drawPixel(3, 1);
+        return pixmap;
+    }
+    
+    /**
+     * The row loop of the previous implementation.
+     */
+    private static IntArray scanRowBreaks(Pixmap pixmap) {
+        var yBreaks = new IntArray();
+        var lookingForBreak = false;
+        for (int y = 0; y < pixmap.getHeight(); y++) {
+            var foundLine = false;
+            for (int x = 0; x < pixmap.getWidth(); x++) {
+                if ((pixmap.getPixel(x, y) & 0xff) > 0) {
+                    foundLine = true;
+                    break;
+                }
+            }
+            if (foundLine != lookingForBreak) {
+                yBreaks.add(y);
+                lookingForBreak = foundLine;
+            }
+        }
+        return yBreaks;
+    }
+    
+    /**
+     * The column and crop loops of the previous implementation with a gap of zero. Each box is x, y, width, height,
+     * crop y, and crop height.
+     */
+    private static Array<IntArray> scanBoxes(Pixmap pixmap, IntArray yBreaks) {
+        var boxes = new Array<IntArray>();
+        for (int i = 0; i < yBreaks.size; i += 2) {
+            var start = -1;
+            for (int x = 0; x <= pixmap.getWidth(); x++) {
+                var foundCharacter = false;
+                for (int y = yBreaks.get(i); y < yBreaks.get(i + 1) && x < pixmap.getWidth(); y++) {
+                    if ((pixmap.getPixel(x, y) & 0xff) > 0) {
+                        foundCharacter = true;
+                        break;
+                    }
+                }
+                if (foundCharacter && start == -1) start = x;
+                else if (!foundCharacter && start != -1) {
+                    boxes.add(IntArray.with(start, yBreaks.get(i), x - start, yBreaks.get(i + 1) - yBreaks.get(i), 0, 0));
+                    start = -1;
+                }
+            }
+        }
+        
+        for (var box : boxes) {
+            for (int y = box.get(1); y < box.get(1) + box.get(3); y++) {
+                if (!isLineEmpty(pixmap, box, y)) {
+                    box.set(4, y - 1);
+                    break;
+                }
+            }
+            for (int y = box.get(4) + box.get(3); y >= box.get(4); y--) {
+                if (!isLineEmpty(pixmap, box, y)) {
+                    box.set(5, y - box.get(4) + 1);
+                    break;
+                }
+            }
+        }
+        return boxes;
+    }
+    
+    private static boolean isLineEmpty(Pixmap pixmap, IntArray box, int y) {
+        for (int x = box.get(0); x < box.get(0) + box.get(2); x++) {
+            if ((pixmap.getPixel(x, y) & 0xff) > 0) return false;
+        }
+        return true;
+    }
+    
+    /**
+     * The same boxes as {@link #scanBoxes(Pixmap, IntArray)}, found the way DialogImageFont does with the profile.
+     */
+    private static Array<IntArray> boxes(AlphaProfile profile, IntArray yBreaks) {
+        var boxes = new Array<IntArray>();
+        for (int i = 0; i < yBreaks.size; i += 2) {
+            var rowY = yBreaks.get(i);
+            var rowHeight = yBreaks.get(i + 1) - rowY;
+            var start = -1;
+            for (int x = 0; x <= profile.getWidth(); x++) {
+                var foundCharacter = !profile.isEmpty(x, rowY, 1, rowHeight);
+                if (foundCharacter && start == -1) start = x;
+                else if (!foundCharacter && start != -1) {
+                    boxes.add(IntArray.with(start, rowY, x - start, rowHeight, 0, 0));
+                    start = -1;
+                }
+            }
+        }
+        
+        for (var box : boxes) {
+            var firstRow = profile.findFirstRow(box.get(0), box.get(1), box.get(2), box.get(3));
+            if (firstRow != -1) box.set(4, firstRow - 1);
+            var lastRow = profile.findLastRow(box.get(0), box.get(4), box.get(2), box.get(3) + 1);
+            if (lastRow != -1) box.set(5, lastRow - box.get(4) + 1);
+        }
+        return boxes;
+    }
+}
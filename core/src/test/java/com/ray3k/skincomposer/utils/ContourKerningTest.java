@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.ray3k.skincomposer.utils.ContourKerning.Contour;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContourKerningTest {
+    /**
+     * Creates a contour from rows of text, where '#' is an opaque pixel.
+     */
+    private static Contour contour(int top, String... rows) {
+        var contour = new Contour();
+        contour.top = top;
+        contour.width = rows[0].length();
+        contour.left = new int[rows.length];
+        contour.right = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            contour.left[i] = rows[i].indexOf('#');
+            contour.right[i] = rows[i].lastIndexOf('#');
+        }
+        return contour;
+    }
+    
+    @Test
+    public void avIsKerned() {
+        var a = contour(0,
+                "..#..",
+                ".#.#.",
+                "#...#");
+        var v = contour(0,
+                "#...#",
+                ".#.#.",
+                "..#..");
+        
+        assertEquals(2, ContourKerning.findTouchPosition(a, v));
+        var amounts = ContourKerning.kern(new Contour[] {a, a}, new Contour[] {v, v}, 0);
+        assertEquals(-4, amounts[0]);
+        assertEquals(-4, amounts[1]);
+        assertEquals(-2, ContourKerning.kern(new Contour[] {a}, new Contour[] {v}, 2)[0]);
+    }
+    
+    @Test
+    public void glyphsWithoutCommonRowsAreNotKerned() {
+        var period = contour(4, "##", "##");
+        var apostrophe = contour(0, "##", "#.");
+        var hyphen = contour(2, "####");
+        
+        assertEquals(ContourKerning.NO_CONTACT, ContourKerning.findTouchPosition(period, apostrophe));
+        assertEquals(ContourKerning.NO_CONTACT, ContourKerning.findTouchPosition(apostrophe, period));
+        assertEquals(ContourKerning.NO_CONTACT, ContourKerning.findTouchPosition(hyphen, period));
+        
+        var amounts = ContourKerning.kern(new Contour[] {period, apostrophe, hyphen}, new Contour[] {apostrophe, period, period}, 0);
+        assertArrayEquals(new int[] {0, 0, 0}, amounts);
+    }
+    
+    @Test
+    public void emptyRowsAreIgnored() {
+        var first = contour(0, "###", "...", "...");
+        var second = contour(0, "...", "...", "###");
+        
+        assertEquals(ContourKerning.NO_CONTACT, ContourKerning.findTouchPosition(first, second));
+        assertEquals(0, ContourKerning.kern(new Contour[] {first}, new Contour[] {second}, 0)[0]);
+    }
+}
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.badlogic.gdx.utils.IntArray;
+import com.ray3k.skincomposer.utils.Utils.PatchDefinition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PatchDetectorTest {
+    @BeforeAll
+    public static void loadNatives() {
+        GdxNativesLoader.load();
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        PixmapPool.clear();
+    }
+    
+    @Test
+    public void buttonsStretchInsideTheirBorder() {
+        for (var format : new Pixmap.Format[] {Pixmap.Format.RGBA8888, Pixmap.Format.RGB888}) {
+            var pixmap = new Pixmap(10, 8, format);
+            pixmap.setColor(gray(200));
+            pixmap.fill();
+            pixmap.setColor(gray(0));
+            pixmap.drawRectangle(0, 0, 10, 8);
+            pixmap.setColor(gray(100));
+            pixmap.drawRectangle(1, 1, 8, 6);
+            
+            assertPatches(2, 2, 2, 2, new PatchDetector(pixmap, 0).getPatches());
+            assertPatches(2, 2, 2, 2, new PatchDetector(pixmap, 10).getPatches());
+            assertFalse(pixmap.isDisposed());
+            pixmap.dispose();
+        }
+    }
+    
+    @Test
+    public void theLongestRunIsStretched() {
+        var pixmap = columns(1, 10, 10, 10, 20, 30, 30, 40, 50, 50, 60, 70, 70);
+        assertPatches(0, 9, 0, 0, new PatchDetector(pixmap, 0).getPatches());
+        pixmap.dispose();
+    }
+    
+    @Test
+    public void tiesPreferTheRunClosestToTheCenter() {
+        var pixmap = columns(1, 10, 10, 20, 30, 40, 40, 50, 60, 70, 70, 80);
+        assertPatches(4, 5, 0, 0, new PatchDetector(pixmap, 0).getPatches());
+        pixmap.dispose();
+    }
+    
+    @Test
+    public void gradientsNeedATolerance() {
+        var pixmap = columns(4, 100, 101, 102, 103, 104, 105, 106, 107);
+        
+        //without uniform columns the center column is stretched
+        assertPatches(4, 3, 0, 0, new PatchDetector(pixmap, 0).getPatches());
+        assertPatches(0, 0, 0, 0, new PatchDetector(pixmap, 1).getPatches());
+        pixmap.dispose();
+    }
+    
+    @Test
+    public void horizontalStretchAreasAreFilteredBySize() {
+        var pixmap = columns(3, 10, 20, 20, 20, 30, 40, 50, 50, 50, 50, 60, 70);
+        var detector = new PatchDetector(pixmap, 0);
+        
+        assertEquals(IntArray.with(1, 3, 6, 9), detector.getHorizontalStretchAreas(3));
+        assertEquals(IntArray.with(6, 9), detector.getHorizontalStretchAreas(4));
+        //the longest area is kept when none is large enough
+        assertEquals(IntArray.with(6, 9), detector.getHorizontalStretchAreas(5));
+        pixmap.dispose();
+    }
+    
+    @Test
+    public void verticalStretchAreasAreCountedFromTheBottom() {
+        var pixmap = rows(3, 10, 20, 20, 30, 30, 30, 40, 50, 60, 70);
+        var detector = new PatchDetector(pixmap, 0);
+        
+        assertEquals(IntArray.with(4, 6, 7, 8), detector.getVerticalStretchAreas(2));
+        assertEquals(IntArray.with(4, 6), detector.getVerticalStretchAreas(3));
+        pixmap.dispose();
+    }
+    
+    private static void assertPatches(int left, int right, int top, int bottom, PatchDefinition patches) {
+        assertArrayEquals(new int[] {left, right, top, bottom},
+                new int[] {patches.left, patches.right, patches.top, patches.bottom});
+    }
+    
+    private static int gray(int level) {
+        return level << 24 | level << 16 | level << 8 | 0xff;
+    }
+    
+    /**
+     * Creates an image where every column is filled with one gray level.
+     */
+    private static Pixmap columns(int height, int... levels) {
+        var pixmap = new Pixmap(levels.length, height, Pixmap.Format.RGBA8888);
+        for (int x = 0; x < levels.length; x++) {
+            pixmap.setColor(gray(levels[x]));
+            pixmap.drawLine(x, 0, x, height - 1);
+        }
+        return pixmap;
+    }
+    
+    /**
+     * Creates an image where every row is filled with one gray level.
+     */
+    private static Pixmap rows(int width, int... levels) {
+        var pixmap = new Pixmap(width, levels.length, Pixmap.Format.RGBA8888);
+        for (int y = 0; y < levels.length; y++) {
+            pixmap.setColor(gray(levels[y]));
+            pixmap.drawLine(0, y, width - 1, y);
+        }
+        return pixmap;
+    }
+}
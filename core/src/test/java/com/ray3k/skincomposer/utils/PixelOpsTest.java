@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PixelOpsTest {
+    @BeforeAll
+    public static void loadNatives() {
+        GdxNativesLoader.load();
+    }
+    
+    @Test
+    public void rgbaPixmapsAreTintedInPlace() {
+        var pixmap = new Pixmap(2, 2, Pixmap.Format.RGBA8888);
+        pixmap.setColor(Color.WHITE);
+        pixmap.fill();
+        
+        var tinted = PixelOps.tint(pixmap, new Color(1, 0.5f, 0, 1));
+        assertSame(pixmap, tinted);
+        assertEquals(0xff7f00ff, tinted.getPixel(1, 1));
+        pixmap.dispose();
+    }
+    
+    @Test
+    public void otherFormatsAreTintedIntoACopy() {
+        var pixmap = new Pixmap(2, 2, Pixmap.Format.RGB888);
+        pixmap.setColor(Color.WHITE);
+        pixmap.fill();
+        
+        var tinted = PixelOps.tint(pixmap, new Color(0, 1, 0, 1));
+        assertNotSame(pixmap, tinted);
+        assertEquals(Pixmap.Format.RGBA8888, tinted.getFormat());
+        assertEquals(0x00ff00ff, tinted.getPixel(0, 0));
+        
+        //the original still belongs to the caller and is unchanged
+        assertFalse(pixmap.isDisposed());
+        assertEquals(0xffffffff, pixmap.getPixel(0, 0));
+        tinted.dispose();
+        pixmap.dispose();
+    }
+}
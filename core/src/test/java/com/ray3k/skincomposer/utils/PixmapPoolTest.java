@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PixmapPoolTest {
+    @BeforeAll
+    public static void loadNatives() {
+        GdxNativesLoader.load();
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        PixmapPool.clear();
+    }
+    
+    @Test
+    public void pixmapsAreDisposedOutsideOfBatches() {
+        var pixmap = PixmapPool.obtain(8, 8);
+        PixmapPool.free(pixmap);
+        
+        assertTrue(pixmap.isDisposed());
+        assertEquals(0, PixmapPool.getPooledBytes());
+    }
+    
+    @Test
+    public void pixmapsAreReusedUntilTheLastBatchEnds() {
+        PixmapPool.beginBatch();
+        PixmapPool.beginBatch();
+        var pixmap = PixmapPool.obtain(8, 8);
+        PixmapPool.free(pixmap);
+        assertFalse(pixmap.isDisposed());
+        assertEquals(8 * 8 * 4, PixmapPool.getPooledBytes());
+        assertSame(pixmap, PixmapPool.obtain(8, 8));
+        PixmapPool.free(pixmap);
+        
+        PixmapPool.endBatch();
+        assertFalse(pixmap.isDisposed());
+        
+        PixmapPool.endBatch();
+        assertTrue(pixmap.isDisposed());
+        assertEquals(0, PixmapPool.getPooledBytes());
+    }
+    
+    @Test
+    public void reusedPixmapsAreCleared() {
+        PixmapPool.beginBatch();
+        try {
+            var pixmap = PixmapPool.obtain(4, 4);
+            pixmap.setColor(1, 0, 0, 1);
+            pixmap.fill();
+            PixmapPool.free(pixmap);
+            
+            pixmap = PixmapPool.obtain(4, 4);
+            assertEquals(0, pixmap.getPixel(2, 2));
+            assertEquals(Pixmap.Blending.SourceOver, pixmap.getBlending());
+            PixmapPool.free(pixmap);
+        } finally {
+            PixmapPool.endBatch();
+        }
+    }
+    
+    @Test
+    public void peakExcludesPixmapsPooledBeforeTheReset() {
+        PixmapPool.beginBatch();
+        try {
+            PixmapPool.free(PixmapPool.obtain(64, 64));
+            PixmapPool.resetPeakBytes();
+            assertEquals(0, PixmapPool.getPeakBytes());
+            
+            var pixmap = PixmapPool.obtain(8, 8);
+            assertEquals(8 * 8 * 4, PixmapPool.getPeakBytes());
+            PixmapPool.free(pixmap);
+            assertEquals(64 * 64 * 4 + 8 * 8 * 4, PixmapPool.getPooledBytes());
+        } finally {
+            PixmapPool.endBatch();
+        }
+    }
+}
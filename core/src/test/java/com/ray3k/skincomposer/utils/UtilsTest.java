@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2024 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.badlogic.gdx.utils.OrderedMap;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the file hash and edge color caches behind {@link Utils#averageEdgeColor(FileHandle)}.
+ */
+public class UtilsTest {
+    @TempDir
+    File folder;
+    
+    @BeforeAll
+    public static void loadNatives() {
+        GdxNativesLoader.load();
+    }
+    
+    @BeforeEach
+    public void setUp() {
+        Utils.clearCaches();
+    }
+    
+    @Test
+    public void filesWithTheSameContentShareAnEdgeColor() {
+        var first = writeImage("first.png", Color.RED, Color.BLUE);
+        var second = new FileHandle(folder).child("second.png");
+        first.copyTo(second);
+        
+        assertEquals(Color.RED, Utils.averageEdgeColor(first));
+        assertEquals(Color.RED, Utils.averageEdgeColor(second));
+        assertEquals(2, Utils.getCachedHashCount());
+        assertEquals(1, Utils.getCachedEdgeColorCount());
+    }
+    
+    @Test
+    public void ninePatchesAreCachedSeparately() {
+        var image = writeImage("button.png", Color.RED, Color.BLUE);
+        var ninePatch = new FileHandle(folder).child("button.9.png");
+        image.copyTo(ninePatch);
+        
+        //the outer border of a 9patch holds the splits, so the edge is the next ring of pixels
+        assertEquals(Color.RED, Utils.averageEdgeColor(image));
+        assertEquals(Color.BLUE, Utils.averageEdgeColor(ninePatch));
+        assertEquals(2, Utils.getCachedEdgeColorCount());
+    }
+    
+    @Test
+    public void modifiedFilesAreHashedAgain() {
+        var file = writeImage("swatch.png", Color.RED, Color.RED);
+        assertEquals(Color.RED, Utils.averageEdgeColor(file));
+        
+        var lastModified = file.lastModified();
+        writeImage("swatch.png", Color.GREEN, Color.GREEN);
+        assertTrue(file.file().setLastModified(lastModified + 2000));
+        
+        assertEquals(Color.GREEN, Utils.averageEdgeColor(file));
+        assertEquals(1, Utils.getCachedHashCount());
+        assertEquals(2, Utils.getCachedEdgeColorCount());
+    }
+    
+    @Test
+    public void tintsMultiplyTheCachedEdgeColor() {
+        var file = writeImage("white.png", Color.WHITE, Color.WHITE);
+        var tint = new Color(0.5f, 0.25f, 1, 1);
+        
+        assertEquals(tint, Utils.averageEdgeColor(file, tint));
+        assertEquals(Color.WHITE, Utils.averageEdgeColor(file));
+        assertEquals(1, Utils.getCachedEdgeColorCount());
+    }
+    
+    @Test
+    public void leastRecentlyUsedEntriesAreEvicted() {
+        var map = new OrderedMap<String, Integer>();
+        for (int i = 0; i < Utils.MAX_CACHED_FILES; i++) {
+            Utils.putRecent(map, "key" + i, i);
+        }
+        
+        //reading an entry moves it to the end
+        Utils.putRecent(map, "key0", map.remove("key0"));
+        Utils.putRecent(map, "new", -1);
+        
+        assertEquals(Utils.MAX_CACHED_FILES, map.size);
+        assertTrue(map.containsKey("key0"));
+        assertFalse(map.containsKey("key1"));
+        assertEquals("key2", map.orderedKeys().first());
+        assertEquals("new", map.orderedKeys().peek());
+    }
+    
+    @Test
+    public void cachesStopAtTheLimit() {
+        var colors = new Color[] {Color.RED, Color.GREEN, Color.BLUE, Color.WHITE, Color.BLACK};
+        for (int i = 0; i < Utils.MAX_CACHED_FILES + 3; i++) {
+            var color = colors[i % colors.length];
+            var file = writeImage("image" + i + ".png", color, color);
+            assertEquals(color, Utils.averageEdgeColor(file));
+        }
+        
+        assertEquals(Utils.MAX_CACHED_FILES, Utils.getCachedHashCount());
+        assertEquals(colors.length, Utils.getCachedEdgeColorCount());
+    }
+    
+    /**
+     * Writes a 4x4 image with a one pixel outer ring and an inner 2x2 square.
+     */
+    private FileHandle writeImage(String name, Color outer, Color inner) {
+        var pixmap = new Pixmap(4, 4, Pixmap.Format.RGBA8888);
+        pixmap.setColor(outer);
+        pixmap.fill();
+        pixmap.setColor(inner);
+        pixmap.fillRectangle(1, 1, 2, 2);
+        var file = new FileHandle(folder).child(name);
+        PixmapIO.writePNG(file, pixmap);
+        pixmap.dispose();
+        return file;
+    }
+}